@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The parameters and the keys shared by all the cache benchmarks. Each benchmark thread replays its own
+ * pre-computed sequence of operations, see {@link Workload}, so that generating the keys is not measured.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractCacheBenchmark
+{
+
+   /**
+    * The distribution of the accessed keys, one of the {@link KeyDistribution} names
+    */
+   @Param({"ZIPFIAN", "UNIFORM", "SCAN"})
+   public String distribution;
+
+   /**
+    * The percentage of reads, the other operations are writes
+    */
+   @Param({"100", "90", "50"})
+   public int readRatio;
+
+   /**
+    * The amount of distinct keys
+    */
+   @Param({"100000"})
+   public int keySpace;
+
+   /**
+    * The maximum amount of entries of the caches that are bounded
+    */
+   @Param({"10000"})
+   public int maxSize;
+
+   /**
+    * The keys, created once so that the benchmarks do not measure their creation
+    */
+   protected String[] keys;
+
+   protected void createKeys()
+   {
+      keys = new String[keySpace];
+      for (int i = 0; i < keySpace; i++)
+      {
+         keys[i] = "key-" + i;
+      }
+   }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the cache benchmarks once per configured amount of threads. The benchmarks to run are
+ * selected by the regular expressions given as arguments, all of them are run by default. The
+ * amounts of threads are given as a comma separated list by the system property
+ * <code>benchmarks.threads</code>, they are <code>1,4,16</code> by default.
+ * <p>
+ * Usage: <code>java -jar target/benchmarks.jar [regexp...]</code>
+ *
+ * @version $Id$
+ */
+public class CacheBenchmarks
+{
+
+   private static final String THREADS = "benchmarks.threads";
+
+   private static final String DEFAULT_THREADS = "1,4,16";
+
+   public static void main(String[] args) throws RunnerException
+   {
+      String[] threads = System.getProperty(THREADS, DEFAULT_THREADS).split(",");
+      for (String thread : threads)
+      {
+         OptionsBuilder builder = new OptionsBuilder();
+         if (args.length == 0)
+         {
+            builder.include(CacheBenchmarks.class.getPackage().getName() + ".*");
+         }
+         for (String include : args)
+         {
+            builder.include(include);
+         }
+         Options options = builder.threads(Integer.parseInt(thread.trim())).forks(1).warmupIterations(5)
+            .measurementIterations(5).build();
+         new Runner(options).run();
+      }
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import org.exoplatform.container.xml.InitParams;
+import org.exoplatform.container.xml.ObjectParameter;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.ExoCacheConfig;
+import org.exoplatform.services.cache.impl.CacheServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.Serializable;
+
+/**
+ * Measures the lookup path of the {@link CacheServiceImpl}: each operation resolves the cache of a
+ * region through {@link CacheServiceImpl#getCacheInstance(String)} before accessing it, as the
+ * services that do not keep a reference to their cache do. The regions are created before the
+ * measurement so that only the lookup of existing caches is measured.
+ *
+ * @version $Id$
+ */
+public class CacheServiceBenchmark extends AbstractCacheBenchmark
+{
+
+   /**
+    * The amount of regions, the region of an operation is derived from its key
+    */
+   @Param({"1", "100"})
+   public int regions;
+
+   private CacheServiceImpl service;
+
+   private String[] regionNames;
+
+   @Setup(Level.Trial)
+   public void setUp() throws Exception
+   {
+      createKeys();
+      InitParams params = new InitParams();
+      ObjectParameter param = new ObjectParameter();
+      param.setName("default");
+      ExoCacheConfig config = new ExoCacheConfig();
+      config.setName(param.getName());
+      config.setMaxSize(maxSize);
+      config.setLiveTime(0);
+      param.setObject(config);
+      params.addParameter(param);
+      service = new CacheServiceImpl(params);
+      regionNames = new String[regions];
+      for (int i = 0; i < regions; i++)
+      {
+         regionNames[i] = "region-" + i;
+         ExoCache<Serializable, Object> cache = service.getCacheInstance(regionNames[i]);
+         for (int j = 0; j < maxSize && j < keys.length; j++)
+         {
+            cache.put(keys[j], keys[j]);
+         }
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws Exception
+   {
+      for (String region : regionNames)
+      {
+         service.getCacheInstance(region).clearCache();
+      }
+   }
+
+   @Benchmark
+   public Object lookup(ThreadWorkload workload)
+   {
+      int index = workload.next();
+      String key = keys[index];
+      ExoCache<Serializable, Object> cache = service.getCacheInstance(regionNames[index % regionNames.length]);
+      if (workload.isRead())
+      {
+         return cache.get(key);
+      }
+      cache.put(key, key);
+      return key;
+   }
+
+   /**
+    * The operations executed by a benchmark thread.
+    */
+   @State(Scope.Thread)
+   public static class ThreadWorkload extends Workload
+   {
+
+      @Setup(Level.Trial)
+      public void setUp(CacheServiceBenchmark benchmark)
+      {
+         init(benchmark);
+      }
+   }
+}
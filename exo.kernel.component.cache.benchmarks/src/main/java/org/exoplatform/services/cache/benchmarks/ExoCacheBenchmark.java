@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import net.spy.memcached.AddrUtil;
+import net.spy.memcached.BinaryConnectionFactory;
+import net.spy.memcached.MemcachedClient;
+
+import org.exoplatform.container.ExoContainerContext;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.ExoCacheConfig;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.impl.infinispan.generic.GenericExoCacheCreator;
+import org.exoplatform.services.cache.impl.memcached.MCExoCache;
+import org.exoplatform.services.cache.invalidation.InvalidationExoCache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.DefaultCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.Serializable;
+
+/**
+ * Measures the throughput of the {@link ExoCache} implementations with a cache-aside access pattern:
+ * a read gets the value and puts it on a miss, a write replaces the value.
+ * <p>
+ * The memcached implementation runs against an {@link InProcessMemcachedServer} and the infinispan
+ * implementation against a local embedded cache manager, so that no external server is needed.
+ *
+ * @version $Id$
+ */
+public class ExoCacheBenchmark extends AbstractCacheBenchmark
+{
+
+   /**
+    * The implementation to benchmark, <code>fifo</code> for {@link ConcurrentFIFOExoCache},
+    * <code>invalidation</code> for an {@link InvalidationExoCache} on top of it, <code>memcached</code>
+    * for {@link MCExoCache} and <code>infinispan</code> for the generic infinispan cache.
+    */
+   @Param({"fifo", "invalidation", "memcached", "infinispan"})
+   public String implementation;
+
+   private ExoCache<Serializable, Object> cache;
+
+   private InProcessMemcachedServer server;
+
+   private MemcachedClient client;
+
+   private DefaultCacheManager manager;
+
+   @Setup(Level.Trial)
+   public void setUp() throws Exception
+   {
+      createKeys();
+      ExoCacheConfig config = new ExoCacheConfig();
+      config.setName("benchmark");
+      config.setMaxSize(maxSize);
+      if ("fifo".equals(implementation))
+      {
+         cache = new ConcurrentFIFOExoCache<Serializable, Object>("benchmark", maxSize);
+      }
+      else if ("invalidation".equals(implementation))
+      {
+         cache =
+            new InvalidationExoCache<Serializable, Object>(new ConcurrentFIFOExoCache<Serializable, Object>(
+               "benchmark", maxSize));
+      }
+      else if ("memcached".equals(implementation))
+      {
+         server = new InProcessMemcachedServer();
+         int port = server.start();
+         client = new MemcachedClient(new BinaryConnectionFactory(), AddrUtil.getAddresses("127.0.0.1:" + port));
+         cache =
+            new MCExoCache<Serializable, Object>(new ExoContainerContext(null, "benchmark"), config, client, 0);
+      }
+      else if ("infinispan".equals(implementation))
+      {
+         GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+         global.globalJmxStatistics().allowDuplicateDomains(true);
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.eviction().strategy(EvictionStrategy.LRU).maxEntries(maxSize);
+         manager = new DefaultCacheManager(global.build(), builder.build());
+         cache = new GenericExoCacheCreator.GenericExoCache(config, manager.<Serializable, Object> getCache());
+      }
+      else
+      {
+         throw new IllegalArgumentException("Unknown implementation " + implementation);
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws Exception
+   {
+      cache.clearCache();
+      if (client != null)
+      {
+         client.shutdown();
+         client = null;
+      }
+      if (server != null)
+      {
+         server.stop();
+         server = null;
+      }
+      if (manager != null)
+      {
+         manager.stop();
+         manager = null;
+      }
+   }
+
+   @Benchmark
+   public Object cacheAside(ThreadWorkload workload)
+   {
+      String key = keys[workload.next()];
+      if (workload.isRead())
+      {
+         Object value = cache.get(key);
+         if (value == null)
+         {
+            value = key;
+            cache.put(key, value);
+         }
+         return value;
+      }
+      cache.put(key, key);
+      return key;
+   }
+
+   /**
+    * The operations executed by a benchmark thread.
+    */
+   @State(Scope.Thread)
+   public static class ThreadWorkload extends Workload
+   {
+
+      @Setup(Level.Trial)
+      public void setUp(ExoCacheBenchmark benchmark)
+      {
+         init(benchmark);
+      }
+   }
+}
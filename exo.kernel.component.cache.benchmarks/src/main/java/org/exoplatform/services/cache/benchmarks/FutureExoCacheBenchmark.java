@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.future.FutureExoCache;
+import org.exoplatform.services.cache.future.Loader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of a {@link FutureExoCache} on top of a {@link ConcurrentFIFOExoCache}.
+ * A read gets the value through the future cache, which loads it on a miss, a write removes the
+ * value so that the next read of the key has to load it again. The cost of a load is simulated
+ * with {@link Blackhole#consumeCPU(long)}.
+ *
+ * @version $Id$
+ */
+public class FutureExoCacheBenchmark extends AbstractCacheBenchmark
+{
+
+   /**
+    * The amount of CPU tokens consumed by a load
+    */
+   @Param({"100", "10000"})
+   public long loadCost;
+
+   private ConcurrentFIFOExoCache<String, String> cache;
+
+   private FutureExoCache<String, String, Object> futureCache;
+
+   @Setup(Level.Trial)
+   public void setUp()
+   {
+      createKeys();
+      cache = new ConcurrentFIFOExoCache<String, String>("benchmark", maxSize);
+      futureCache = new FutureExoCache<String, String, Object>(new Loader<String, String, Object>()
+      {
+         public String retrieve(Object context, String key) throws Exception
+         {
+            Blackhole.consumeCPU(loadCost);
+            return key;
+         }
+      }, cache);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      cache.clearCache();
+   }
+
+   @Benchmark
+   public String getOrLoad(ThreadWorkload workload)
+   {
+      String key = keys[workload.next()];
+      if (workload.isRead())
+      {
+         return futureCache.get(null, key);
+      }
+      cache.remove(key);
+      return key;
+   }
+
+   /**
+    * The operations executed by a benchmark thread.
+    */
+   @State(Scope.Thread)
+   public static class ThreadWorkload extends Workload
+   {
+
+      @Setup(Level.Trial)
+      public void setUp(FutureExoCacheBenchmark benchmark)
+      {
+         init(benchmark);
+      }
+   }
+}
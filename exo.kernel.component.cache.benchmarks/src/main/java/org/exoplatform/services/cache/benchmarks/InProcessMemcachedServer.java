@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A minimal in-process memcached server that speaks the binary protocol, so that the memcached based
+ * caches can be benchmarked without an external server. It only supports the commands used by the
+ * memcached client of the cache extension: get (and its quiet and key variants), get and touch,
+ * set, add, replace, delete, touch, noop, version and quit. The entries are never evicted.
+ * <p>
+ * Each connection is served by its own thread, the responses are flushed once all the requests
+ * pipelined by the client have been processed.
+ *
+ * @version $Id$
+ */
+public class InProcessMemcachedServer
+{
+
+   /**
+    * The logger
+    */
+   private static final Log LOG = ExoLogger
+      .getLogger("exo.kernel.component.cache.benchmarks.InProcessMemcachedServer");
+
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   private static final int REQUEST_MAGIC = 0x80;
+
+   private static final int RESPONSE_MAGIC = 0x81;
+
+   private static final int GET = 0x00;
+
+   private static final int SET = 0x01;
+
+   private static final int ADD = 0x02;
+
+   private static final int REPLACE = 0x03;
+
+   private static final int DELETE = 0x04;
+
+   private static final int QUIT = 0x07;
+
+   private static final int GETQ = 0x09;
+
+   private static final int NOOP = 0x0a;
+
+   private static final int VERSION = 0x0b;
+
+   private static final int GETK = 0x0c;
+
+   private static final int GETKQ = 0x0d;
+
+   private static final int TOUCH = 0x1c;
+
+   private static final int GAT = 0x1d;
+
+   private static final int STATUS_OK = 0x00;
+
+   private static final int STATUS_NOT_FOUND = 0x01;
+
+   private static final int STATUS_EXISTS = 0x02;
+
+   private static final int STATUS_NOT_STORED = 0x05;
+
+   private static final int STATUS_UNKNOWN_COMMAND = 0x81;
+
+   /**
+    * The expiration times above this amount of seconds are absolute unix times
+    */
+   private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
+   private final ConcurrentMap<String, Item> items = new ConcurrentHashMap<String, Item>();
+
+   private final AtomicLong casCounter = new AtomicLong();
+
+   private ServerSocket serverSocket;
+
+   private volatile boolean stopped;
+
+   /**
+    * Starts the server on an ephemeral port of the loopback interface.
+    *
+    * @return the port on which the server listens
+    */
+   public synchronized int start() throws IOException
+   {
+      serverSocket = new ServerSocket();
+      serverSocket.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+      Thread acceptor = new Thread("memcached-acceptor")
+      {
+         @Override
+         public void run()
+         {
+            accept();
+         }
+      };
+      acceptor.setDaemon(true);
+      acceptor.start();
+      return serverSocket.getLocalPort();
+   }
+
+   /**
+    * Stops accepting connections, the connections are closed by the clients.
+    */
+   public synchronized void stop() throws IOException
+   {
+      stopped = true;
+      if (serverSocket != null)
+      {
+         serverSocket.close();
+      }
+   }
+
+   /**
+    * @return the amount of entries stored
+    */
+   public int size()
+   {
+      return items.size();
+   }
+
+   private void accept()
+   {
+      while (!stopped)
+      {
+         final Socket socket;
+         try
+         {
+            socket = serverSocket.accept();
+            socket.setTcpNoDelay(true);
+         }
+         catch (IOException e)
+         {
+            // The server socket has been closed
+            return;
+         }
+         Thread worker = new Thread("memcached-connection-" + socket.getPort())
+         {
+            @Override
+            public void run()
+            {
+               serve(socket);
+            }
+         };
+         worker.setDaemon(true);
+         worker.start();
+      }
+   }
+
+   private void serve(Socket socket)
+   {
+      try
+      {
+         DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+         while (process(in, out))
+         {
+            if (in.available() == 0)
+            {
+               out.flush();
+            }
+         }
+         out.flush();
+      }
+      catch (EOFException e)
+      {
+         // The client closed the connection
+      }
+      catch (SocketException e)
+      {
+         // The client closed the connection
+      }
+      catch (IOException e)
+      {
+         LOG.error("Could not serve the connection of the port " + socket.getPort(), e);
+      }
+      finally
+      {
+         try
+         {
+            socket.close();
+         }
+         catch (IOException e)
+         {
+            // Ignore it
+         }
+      }
+   }
+
+   /**
+    * Processes a request.
+    *
+    * @return <code>false</code> if the connection must be closed
+    */
+   private boolean process(DataInputStream in, DataOutputStream out) throws IOException
+   {
+      int magic = in.readUnsignedByte();
+      if (magic != REQUEST_MAGIC)
+      {
+         throw new IOException("Unexpected magic byte " + magic);
+      }
+      int opcode = in.readUnsignedByte();
+      int keyLength = in.readUnsignedShort();
+      int extrasLength = in.readUnsignedByte();
+      in.readUnsignedByte(); // data type
+      in.readUnsignedShort(); // vbucket
+      int bodyLength = in.readInt();
+      int opaque = in.readInt();
+      long cas = in.readLong();
+      byte[] extras = new byte[extrasLength];
+      in.readFully(extras);
+      byte[] keyBytes = new byte[keyLength];
+      in.readFully(keyBytes);
+      byte[] value = new byte[bodyLength - extrasLength - keyLength];
+      in.readFully(value);
+      String key = new String(keyBytes, UTF_8);
+      long now = System.currentTimeMillis();
+
+      switch (opcode)
+      {
+         case GET :
+         case GETQ :
+         case GETK :
+         case GETKQ :
+         {
+            boolean quiet = opcode == GETQ || opcode == GETKQ;
+            boolean withKey = opcode == GETK || opcode == GETKQ;
+            Item item = get(key, now);
+            if (item != null)
+            {
+               writeItem(out, opcode, opaque, withKey ? keyBytes : null, item);
+            }
+            else if (!quiet)
+            {
+               writeStatus(out, opcode, opaque, STATUS_NOT_FOUND, withKey ? keyBytes : null);
+            }
+            return true;
+         }
+         case GAT :
+         case TOUCH :
+         {
+            Item item = get(key, now);
+            if (item == null)
+            {
+               writeStatus(out, opcode, opaque, STATUS_NOT_FOUND, null);
+               return true;
+            }
+            Item touched = new Item(item.value, item.flags, item.cas, expirationTime(readInt(extras, 0), now));
+            items.replace(key, item, touched);
+            if (opcode == GAT)
+            {
+               writeItem(out, opcode, opaque, null, touched);
+            }
+            else
+            {
+               writeStatus(out, opcode, opaque, STATUS_OK, null);
+            }
+            return true;
+         }
+         case SET :
+         case ADD :
+         case REPLACE :
+         {
+            Item item =
+               new Item(value, readInt(extras, 0), casCounter.incrementAndGet(), expirationTime(readInt(extras, 4),
+                  now));
+            int status = store(opcode, key, cas, item, now);
+            if (status == STATUS_OK)
+            {
+               writeHeader(out, opcode, opaque, STATUS_OK, 0, 0, 0, item.cas);
+            }
+            else
+            {
+               writeStatus(out, opcode, opaque, status, null);
+            }
+            return true;
+         }
+         case DELETE :
+         {
+            Item item = get(key, now);
+            boolean removed = item != null && (cas == 0 || cas == item.cas) && items.remove(key, item);
+            writeStatus(out, opcode, opaque, removed ? STATUS_OK : STATUS_NOT_FOUND, null);
+            return true;
+         }
+         case NOOP :
+            writeStatus(out, opcode, opaque, STATUS_OK, null);
+            return true;
+         case VERSION :
+         {
+            byte[] version = "1.4.15".getBytes(UTF_8);
+            writeHeader(out, opcode, opaque, STATUS_OK, 0, 0, version.length, 0);
+            out.write(version);
+            return true;
+         }
+         case QUIT :
+            writeStatus(out, opcode, opaque, STATUS_OK, null);
+            return false;
+         default :
+            writeStatus(out, opcode, opaque, STATUS_UNKNOWN_COMMAND, null);
+            return true;
+      }
+   }
+
+   private int store(int opcode, String key, long cas, Item item, long now)
+   {
+      while (true)
+      {
+         Item current = get(key, now);
+         if (current == null)
+         {
+            if (opcode == REPLACE || cas != 0)
+            {
+               return STATUS_NOT_FOUND;
+            }
+            if (items.putIfAbsent(key, item) == null)
+            {
+               return STATUS_OK;
+            }
+         }
+         else
+         {
+            if (opcode == ADD)
+            {
+               return STATUS_NOT_STORED;
+            }
+            if (cas != 0 && cas != current.cas)
+            {
+               return STATUS_EXISTS;
+            }
+            if (items.replace(key, current, item))
+            {
+               return STATUS_OK;
+            }
+         }
+      }
+   }
+
+   /**
+    * Gives the item of the given key if it has not expired.
+    */
+   private Item get(String key, long now)
+   {
+      Item item = items.get(key);
+      if (item != null && item.expirationTime <= now)
+      {
+         items.remove(key, item);
+         return null;
+      }
+      return item;
+   }
+
+   private static long expirationTime(int expiration, long now)
+   {
+      if (expiration == 0)
+      {
+         return Long.MAX_VALUE;
+      }
+      else if (expiration <= MAX_RELATIVE_EXPIRATION)
+      {
+         return now + expiration * 1000L;
+      }
+      return expiration * 1000L;
+   }
+
+   private static int readInt(byte[] bytes, int offset)
+   {
+      return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] & 0xff) << 8)
+         | (bytes[offset + 3] & 0xff);
+   }
+
+   private static void writeItem(DataOutputStream out, int opcode, int opaque, byte[] key, Item item)
+      throws IOException
+   {
+      int keyLength = key == null ? 0 : key.length;
+      writeHeader(out, opcode, opaque, STATUS_OK, keyLength, 4, 4 + keyLength + item.value.length, item.cas);
+      out.writeInt(item.flags);
+      if (key != null)
+      {
+         out.write(key);
+      }
+      out.write(item.value);
+   }
+
+   private static void writeStatus(DataOutputStream out, int opcode, int opaque, int status, byte[] key)
+      throws IOException
+   {
+      int keyLength = key == null ? 0 : key.length;
+      writeHeader(out, opcode, opaque, status, keyLength, 0, keyLength, 0);
+      if (key != null)
+      {
+         out.write(key);
+      }
+   }
+
+   private static void writeHeader(DataOutputStream out, int opcode, int opaque, int status, int keyLength,
+      int extrasLength, int bodyLength, long cas) throws IOException
+   {
+      out.writeByte(RESPONSE_MAGIC);
+      out.writeByte(opcode);
+      out.writeShort(keyLength);
+      out.writeByte(extrasLength);
+      out.writeByte(0);
+      out.writeShort(status);
+      out.writeInt(bodyLength);
+      out.writeInt(opaque);
+      out.writeLong(cas);
+   }
+
+   /**
+    * A stored entry, it is immutable so that the entries can be replaced atomically.
+    */
+   private static class Item
+   {
+
+      private final byte[] value;
+
+      private final int flags;
+
+      private final long cas;
+
+      private final long expirationTime;
+
+      private Item(byte[] value, int flags, long cas, long expirationTime)
+      {
+         this.value = value;
+         this.flags = flags;
+         this.cas = cas;
+         this.expirationTime = expirationTime;
+      }
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import java.util.Random;
+
+/**
+ * The distributions of the keys accessed by the benchmarks.
+ *
+ * @version $Id$
+ */
+public enum KeyDistribution
+{
+
+   /**
+    * All the keys have the same probability to be accessed.
+    */
+   UNIFORM
+   {
+      @Override
+      int[] sequence(int keySpace, int length, Random random)
+      {
+         int[] sequence = new int[length];
+         for (int i = 0; i < length; i++)
+         {
+            sequence[i] = random.nextInt(keySpace);
+         }
+         return sequence;
+      }
+   },
+
+   /**
+    * A few keys are accessed much more often than the others, which is the typical access
+    * pattern of a cache.
+    */
+   ZIPFIAN
+   {
+      @Override
+      int[] sequence(int keySpace, int length, Random random)
+      {
+         ZipfianGenerator generator = new ZipfianGenerator(keySpace, ZipfianGenerator.DEFAULT_THETA, random);
+         int[] sequence = new int[length];
+         for (int i = 0; i < length; i++)
+         {
+            sequence[i] = generator.next();
+         }
+         return sequence;
+      }
+   },
+
+   /**
+    * The keys are accessed sequentially from a random offset, which defeats the recency based
+    * eviction policies when the key space is greater than the cache.
+    */
+   SCAN
+   {
+      @Override
+      int[] sequence(int keySpace, int length, Random random)
+      {
+         int offset = random.nextInt(keySpace);
+         int[] sequence = new int[length];
+         for (int i = 0; i < length; i++)
+         {
+            sequence[i] = (offset + i) % keySpace;
+         }
+         return sequence;
+      }
+   };
+
+   /**
+    * Gives a sequence of key indexes.
+    *
+    * @param keySpace the amount of distinct keys
+    * @param length the length of the sequence
+    * @param random the source of randomness
+    * @return the indexes of the keys to access, between 0 and <code>keySpace - 1</code>
+    */
+   abstract int[] sequence(int keySpace, int length, Random random);
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import java.util.Random;
+
+/**
+ * The sequence of operations replayed by a benchmark thread. The sequence is long enough to not fit
+ * into the CPU caches but short enough to be created quickly, the benchmarks extend it with a state
+ * class that initializes it from their parameters.
+ *
+ * @version $Id$
+ */
+public class Workload
+{
+
+   /**
+    * The length of the sequences, a power of 2
+    */
+   private static final int LENGTH = 1 << 20;
+
+   /**
+    * The seed of the first thread, each thread gets its own sequence
+    */
+   private static int SEED = 42;
+
+   private int[] keys;
+
+   private boolean[] reads;
+
+   private int index;
+
+   protected void init(AbstractCacheBenchmark benchmark)
+   {
+      Random random = new Random(nextSeed());
+      keys = KeyDistribution.valueOf(benchmark.distribution).sequence(benchmark.keySpace, LENGTH, random);
+      reads = new boolean[LENGTH];
+      for (int i = 0; i < LENGTH; i++)
+      {
+         reads[i] = random.nextInt(100) < benchmark.readRatio;
+      }
+   }
+
+   private static synchronized int nextSeed()
+   {
+      return SEED++;
+   }
+
+   /**
+    * Moves to the next operation.
+    *
+    * @return the index of the key of the operation
+    */
+   public int next()
+   {
+      index = (index + 1) & (LENGTH - 1);
+      return keys[index];
+   }
+
+   /**
+    * @return <code>true</code> if the current operation is a read, <code>false</code> if it is a write
+    */
+   public boolean isRead()
+   {
+      return reads[index];
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates integers following a Zipfian distribution where the item 0 is the most popular, with the
+ * algorithm of Gray et al. "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+ *
+ * @version $Id$
+ */
+class ZipfianGenerator
+{
+
+   /**
+    * The skew of the distribution used by default, the one of YCSB
+    */
+   static final double DEFAULT_THETA = 0.99;
+
+   private final int items;
+
+   private final double theta;
+
+   private final double alpha;
+
+   private final double zetan;
+
+   private final double eta;
+
+   private final Random random;
+
+   ZipfianGenerator(int items, double theta, Random random)
+   {
+      this.items = items;
+      this.theta = theta;
+      this.random = random;
+      this.alpha = 1.0 / (1.0 - theta);
+      this.zetan = zeta(items, theta);
+      this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+   }
+
+   /**
+    * @return the next item between 0 and <code>items - 1</code>
+    */
+   int next()
+   {
+      double u = random.nextDouble();
+      double uz = u * zetan;
+      if (uz < 1.0)
+      {
+         return 0;
+      }
+      if (uz < 1.0 + Math.pow(0.5, theta))
+      {
+         return 1;
+      }
+      int item = (int)(items * Math.pow(eta * u - eta + 1, alpha));
+      return Math.min(item, items - 1);
+   }
+
+   private static double zeta(int n, double theta)
+   {
+      double sum = 0;
+      for (int i = 1; i <= n; i++)
+      {
+         sum += 1 / Math.pow(i, theta);
+      }
+      return sum;
+   }
+}
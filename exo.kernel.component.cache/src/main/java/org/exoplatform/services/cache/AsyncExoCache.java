@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * An extension of {@link ExoCache} that allows to launch cache operations without waiting
+ * for their completion. It is mainly interesting for remote caches, as it allows to launch several
+ * cache round-trips in parallel and to wait for the results only when they are needed.
+ * Local implementations execute the operations synchronously and return completed futures.
+ * <p>
+ * The listeners and the statistics of the cache are updated once the result of the
+ * operation is retrieved from the returned future.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+public interface AsyncExoCache<K extends Serializable, V> extends ExoCache<K, V>
+{
+
+   /**
+    * Performs a lookup operation asynchronously.
+    *
+    * @param key the cache key
+    * @return the future cached value which may be evaluated to null
+    */
+   public Future<V> getAsync(Serializable key);
+
+   /**
+    * Performs a put in the cache asynchronously.
+    *
+    * @param key the cache key
+    * @param value the cached value
+    * @return a future that is done once the value is stored
+    * @throws IllegalArgumentException if the key is null
+    */
+   public Future<Void> putAsync(K key, V value) throws IllegalArgumentException;
+
+   /**
+    * Removes an entry from the cache asynchronously.
+    *
+    * @param key the cache key
+    * @return the future previously cached value or null if no entry existed or that entry value
+    * was evaluated to null
+    * @throws IllegalArgumentException if the key is null
+    */
+   public Future<V> removeAsync(Serializable key) throws IllegalArgumentException;
+
+   /**
+    * Performs a lookup of all the given keys asynchronously.
+    *
+    * @param keys the cache keys
+    * @return the future map of the cached values, the keys that have no valid entry are not part of the map
+    * @throws IllegalArgumentException if the collection is null or contains a null key
+    */
+   public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) throws IllegalArgumentException;
+}
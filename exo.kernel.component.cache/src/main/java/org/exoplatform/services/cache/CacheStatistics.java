@@ -0,0 +1,448 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The statistics of an {@link ExoCache}: the counts of hits, misses, puts, removals, evictions,
+ * expirations and loads, the hit ratio over the last minute and the latency histograms of the gets,
+ * the puts and the loads. The counters are striped so that recording an operation remains cheap when
+ * the cache is accessed concurrently, the latencies are given in nanoseconds.
+ * <p>
+ * The durations are measured by the caller which gives the value of {@link System#nanoTime()}
+ * at the beginning of the operation.
+ *
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+@Managed
+@NameTemplate({@Property(key = "service", value = "cache"), @Property(key = "name", value = "{CacheName}"),
+   @Property(key = "type", value = "statistics")})
+@ManagedDescription("Exo Cache Statistics")
+public class CacheStatistics
+{
+
+   /**
+    * The amount of seconds covered by the recent hit ratio
+    */
+   static final int WINDOW = 60;
+
+   private volatile String cacheName;
+
+   private final StripedCounter hits = new StripedCounter();
+
+   private final StripedCounter misses = new StripedCounter();
+
+   private final StripedCounter puts = new StripedCounter();
+
+   private final StripedCounter removals = new StripedCounter();
+
+   private final StripedCounter evictions = new StripedCounter();
+
+   private final StripedCounter expirations = new StripedCounter();
+
+   private final StripedCounter loads = new StripedCounter();
+
+   private final StripedCounter loadFailures = new StripedCounter();
+
+   private final LatencyHistogram getLatency = new LatencyHistogram();
+
+   private final LatencyHistogram putLatency = new LatencyHistogram();
+
+   private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+   /**
+    * The time from which the seconds of the window are counted
+    */
+   private final long origin = System.nanoTime();
+
+   /**
+    * The second to which each slot of the window currently belongs
+    */
+   private final AtomicLongArray windowSeconds = new AtomicLongArray(WINDOW);
+
+   private final AtomicLongArray windowHits = new AtomicLongArray(WINDOW);
+
+   private final AtomicLongArray windowMisses = new AtomicLongArray(WINDOW);
+
+   public CacheStatistics(String cacheName)
+   {
+      this.cacheName = cacheName;
+   }
+
+   @Managed
+   @ManagedName("CacheName")
+   @ManagedDescription("The name of the cache")
+   public String getCacheName()
+   {
+      return cacheName;
+   }
+
+   public void setCacheName(String cacheName)
+   {
+      this.cacheName = cacheName;
+   }
+
+   /**
+    * Records a lookup.
+    *
+    * @param startNanos the value of {@link System#nanoTime()} when the lookup started
+    * @param hit indicates whether a value has been found
+    */
+   public void recordGet(long startNanos, boolean hit)
+   {
+      long now = System.nanoTime();
+      if (hit)
+      {
+         hits.increment();
+      }
+      else
+      {
+         misses.increment();
+      }
+      getLatency.record(now - startNanos);
+      recordWindow(now, hit);
+   }
+
+   /**
+    * Records a put.
+    *
+    * @param startNanos the value of {@link System#nanoTime()} when the put started
+    */
+   public void recordPut(long startNanos)
+   {
+      puts.increment();
+      putLatency.record(System.nanoTime() - startNanos);
+   }
+
+   /**
+    * Records an explicit removal.
+    */
+   public void recordRemoval()
+   {
+      removals.increment();
+   }
+
+   /**
+    * Records several explicit removals at once.
+    *
+    * @param count the amount of removed entries
+    */
+   public void recordRemovals(long count)
+   {
+      removals.add(count);
+   }
+
+   /**
+    * Records the eviction of an entry to make room for new ones.
+    */
+   public void recordEviction()
+   {
+      evictions.increment();
+   }
+
+   /**
+    * Records the removal of an entry whose live time has elapsed.
+    */
+   public void recordExpiration()
+   {
+      expirations.increment();
+   }
+
+   /**
+    * Records a call to a loader.
+    *
+    * @param startNanos the value of {@link System#nanoTime()} when the loader was called
+    * @param success indicates whether the loader succeeded
+    */
+   public void recordLoad(long startNanos, boolean success)
+   {
+      loads.increment();
+      if (!success)
+      {
+         loadFailures.increment();
+      }
+      loadLatency.record(System.nanoTime() - startNanos);
+   }
+
+   private void recordWindow(long now, boolean hit)
+   {
+      long second = (now - origin) / 1000000000L;
+      int slot = (int)(second % WINDOW);
+      long slotSecond = windowSeconds.get(slot);
+      if (slotSecond != second && windowSeconds.compareAndSet(slot, slotSecond, second))
+      {
+         // The slot is recycled, the concurrent updates may be lost which is acceptable for a ratio
+         windowHits.set(slot, 0);
+         windowMisses.set(slot, 0);
+      }
+      if (hit)
+      {
+         windowHits.incrementAndGet(slot);
+      }
+      else
+      {
+         windowMisses.incrementAndGet(slot);
+      }
+   }
+
+   @Managed
+   @ManagedName("Hits")
+   @ManagedDescription("The count of cache hits")
+   public long getHits()
+   {
+      return hits.sum();
+   }
+
+   @Managed
+   @ManagedName("Misses")
+   @ManagedDescription("The count of cache misses")
+   public long getMisses()
+   {
+      return misses.sum();
+   }
+
+   @Managed
+   @ManagedName("HitRatio")
+   @ManagedDescription("The ratio of the lookups that found a value since the statistics have been reset")
+   public double getHitRatio()
+   {
+      return ratio(getHits(), getMisses());
+   }
+
+   @Managed
+   @ManagedName("RecentHitRatio")
+   @ManagedDescription("The ratio of the lookups that found a value during the last minute")
+   public double getRecentHitRatio()
+   {
+      return getHitRatio(WINDOW);
+   }
+
+   /**
+    * Gives the hit ratio over the last seconds, the current second being included.
+    *
+    * @param seconds the amount of seconds between 1 and {@value #WINDOW}
+    * @return the hit ratio, 0 if there was no lookup during this period
+    */
+   public double getHitRatio(int seconds)
+   {
+      seconds = Math.min(Math.max(seconds, 1), WINDOW);
+      long current = (System.nanoTime() - origin) / 1000000000L;
+      long windowHitCount = 0;
+      long windowMissCount = 0;
+      for (int i = 0; i < WINDOW; i++)
+      {
+         long second = windowSeconds.get(i);
+         if (second <= current && second > current - seconds)
+         {
+            windowHitCount += windowHits.get(i);
+            windowMissCount += windowMisses.get(i);
+         }
+      }
+      return ratio(windowHitCount, windowMissCount);
+   }
+
+   @Managed
+   @ManagedName("Puts")
+   @ManagedDescription("The count of cache puts")
+   public long getPuts()
+   {
+      return puts.sum();
+   }
+
+   @Managed
+   @ManagedName("Removals")
+   @ManagedDescription("The count of explicit removals")
+   public long getRemovals()
+   {
+      return removals.sum();
+   }
+
+   @Managed
+   @ManagedName("Evictions")
+   @ManagedDescription("The count of entries evicted to make room for new ones")
+   public long getEvictions()
+   {
+      return evictions.sum();
+   }
+
+   @Managed
+   @ManagedName("Expirations")
+   @ManagedDescription("The count of entries removed because their live time has elapsed")
+   public long getExpirations()
+   {
+      return expirations.sum();
+   }
+
+   @Managed
+   @ManagedName("Loads")
+   @ManagedDescription("The count of calls to the loader")
+   public long getLoads()
+   {
+      return loads.sum();
+   }
+
+   @Managed
+   @ManagedName("LoadFailures")
+   @ManagedDescription("The count of calls to the loader that failed")
+   public long getLoadFailures()
+   {
+      return loadFailures.sum();
+   }
+
+   @Managed
+   @ManagedName("GetTimeMean")
+   @ManagedDescription("The mean duration of the lookups in nanoseconds")
+   public long getGetTimeMean()
+   {
+      return getLatency.getMean();
+   }
+
+   @Managed
+   @ManagedName("GetTimeP99")
+   @ManagedDescription("The 99th percentile of the duration of the lookups in nanoseconds")
+   public long getGetTimeP99()
+   {
+      return getLatency.getPercentile(99);
+   }
+
+   @Managed
+   @ManagedName("GetTimeMax")
+   @ManagedDescription("The longest duration of a lookup in nanoseconds")
+   public long getGetTimeMax()
+   {
+      return getLatency.getMax();
+   }
+
+   @Managed
+   @ManagedName("PutTimeMean")
+   @ManagedDescription("The mean duration of the puts in nanoseconds")
+   public long getPutTimeMean()
+   {
+      return putLatency.getMean();
+   }
+
+   @Managed
+   @ManagedName("PutTimeP99")
+   @ManagedDescription("The 99th percentile of the duration of the puts in nanoseconds")
+   public long getPutTimeP99()
+   {
+      return putLatency.getPercentile(99);
+   }
+
+   @Managed
+   @ManagedName("PutTimeMax")
+   @ManagedDescription("The longest duration of a put in nanoseconds")
+   public long getPutTimeMax()
+   {
+      return putLatency.getMax();
+   }
+
+   @Managed
+   @ManagedName("LoadTimeMean")
+   @ManagedDescription("The mean duration of the loads in nanoseconds")
+   public long getLoadTimeMean()
+   {
+      return loadLatency.getMean();
+   }
+
+   @Managed
+   @ManagedName("LoadTimeP99")
+   @ManagedDescription("The 99th percentile of the duration of the loads in nanoseconds")
+   public long getLoadTimeP99()
+   {
+      return loadLatency.getPercentile(99);
+   }
+
+   @Managed
+   @ManagedName("LoadTimeMax")
+   @ManagedDescription("The longest duration of a load in nanoseconds")
+   public long getLoadTimeMax()
+   {
+      return loadLatency.getMax();
+   }
+
+   /**
+    * @return the histogram of the duration of the lookups
+    */
+   public LatencyHistogram getGetLatency()
+   {
+      return getLatency;
+   }
+
+   /**
+    * @return the histogram of the duration of the puts
+    */
+   public LatencyHistogram getPutLatency()
+   {
+      return putLatency;
+   }
+
+   /**
+    * @return the histogram of the duration of the loads
+    */
+   public LatencyHistogram getLoadLatency()
+   {
+      return loadLatency;
+   }
+
+   @Managed
+   @ManagedDescription("Reset the statistics")
+   public void reset()
+   {
+      hits.reset();
+      misses.reset();
+      puts.reset();
+      removals.reset();
+      evictions.reset();
+      expirations.reset();
+      loads.reset();
+      loadFailures.reset();
+      getLatency.reset();
+      putLatency.reset();
+      loadLatency.reset();
+      for (int i = 0; i < WINDOW; i++)
+      {
+         windowHits.set(i, 0);
+         windowMisses.set(i, 0);
+      }
+   }
+
+   /**
+    * Gives the value of a counter as an int, as expected by {@link ExoCache#getCacheHit()}
+    * and {@link ExoCache#getCacheMiss()}, without overflowing.
+    */
+   public static int toInt(long count)
+   {
+      return (int)Math.min(count, Integer.MAX_VALUE);
+   }
+
+   private static double ratio(long hits, long misses)
+   {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double)hits / total;
+   }
+}
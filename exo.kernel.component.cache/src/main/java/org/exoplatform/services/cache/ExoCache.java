@@ -25,6 +25,7 @@ import org.exoplatform.management.jmx.annotations.NameTemplate;
 import org.exoplatform.management.jmx.annotations.Property;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -110,6 +111,24 @@ public interface ExoCache<K extends Serializable, V>
     */
    public void putMap(Map<? extends K, ? extends V> objs) throws NullPointerException, IllegalArgumentException;
 
+   /**
+    * Performs a lookup operation of all the provided keys at once, which allows the implementations
+    * relying on a remote store to retrieve all of them within a single round-trip.
+    *
+    * @param keys the cache keys
+    * @return a map of the values found by key, the keys that could not be found are not part of it
+    * @throws IllegalArgumentException if the provided collection is null or contains a null key
+    */
+   public Map<K, V> getAll(Collection<? extends K> keys) throws IllegalArgumentException;
+
+   /**
+    * Removes all the entries corresponding to the provided keys.
+    *
+    * @param keys the cache keys
+    * @throws IllegalArgumentException if the provided collection is null or contains a null key
+    */
+   public void removeAll(Collection<? extends K> keys) throws IllegalArgumentException;
+
    /**
     * Clears the cache.
     */
@@ -73,6 +73,94 @@ public class ExoCacheConfig implements Cloneable
     * Indicates whether or not the replication of the values should be avoided
     */
    public boolean avoidValueReplication;
+
+   /**
+    * Indicates whether the invalidation should rely on version stamps rather than
+    * only on hash codes, only used when the replication of the values is avoided
+    */
+   private boolean nearCache;
+
+   /**
+    * The interval in milliseconds during which the invalidations are accumulated
+    * before being replicated, only used by the near cache
+    */
+   private long invalidationFlushInterval;
+
+   /**
+    * The window in milliseconds during which the changes are buffered before being
+    * replicated, only used by the implementations that support it
+    */
+   private long replicationBatchWindow;
+
+   /**
+    * The maximum amount of changes replicated in one message, only used by the
+    * implementations that support it
+    */
+   private int replicationMaxBatchSize;
+
+   /**
+    * The amount of independent eviction queues, only used by the
+    * implementations that support it
+    */
+   private int stripes;
+
+   /**
+    * The maximum amount of bytes that the cache can use, only used by the
+    * implementations that store the values outside the java heap
+    */
+   private long maxBytes;
+
+   /**
+    * The full qualified name of the {@link ValueSerializer} to use, only used by the
+    * implementations that store the values outside the java heap
+    */
+   private String serializer;
+
+   /**
+    * The eviction policy to use, only used by the implementations that support it
+    */
+   private String evictionPolicy;
+
+   /**
+    * The full qualified name of the {@link Weigher} to use, only used by the
+    * implementations that support a weighted eviction
+    */
+   private String weigher;
+
+   /**
+    * The maximum total weight of the entries, only used by the implementations
+    * that support a weighted eviction
+    */
+   private long maxWeight;
+
+   /**
+    * The interval in seconds between two background expirations, only used by the
+    * implementations that support a background expiration
+    */
+   private long expirationInterval;
+
+   /**
+    * The maximum size of the local cache kept in front of the cache, the local
+    * cache is disabled if the value is lower or equal to 0
+    */
+   private int localMaxSize;
+
+   /**
+    * The time in milliseconds during which a value can be served by the local cache
+    */
+   private long localLiveTime;
+
+   /**
+    * Indicates whether the local cache is invalidated thanks to the events of the cache
+    */
+   private boolean localInvalidation;
+
+   /**
+    * The interval in seconds between two reconciliations of the size of the cache, only
+    * used by the implementations that maintain their size incrementally
+    */
+   private long sizeReconciliationInterval;
+
    /**
     * Returns the cache name
     *
@@ -228,6 +316,329 @@ public class ExoCacheConfig implements Cloneable
       this.avoidValueReplication = avoidValueReplication;
    }
 
+   /**
+    * @return <code>true</code> if the invalidation relies on version stamps, <code>false</code> otherwise
+    */
+   public boolean isNearCache()
+   {
+      return nearCache;
+   }
+
+   /**
+    * Indicates whether the invalidation should rely on version stamps, in which case only a version stamp
+    * is replicated per key. This is only used when the replication of the values is avoided, see
+    * {@link org.exoplatform.services.cache.invalidation.VersionedInvalidationExoCache}.
+    *
+    * @param nearCache <code>true</code> to rely on version stamps
+    */
+   public void setNearCache(boolean nearCache)
+   {
+      this.nearCache = nearCache;
+   }
+
+   /**
+    * Returns the interval in milliseconds during which the invalidations are accumulated
+    *
+    * @return the flush interval
+    */
+   public long getInvalidationFlushInterval()
+   {
+      return invalidationFlushInterval;
+   }
+
+   /**
+    * Sets the interval in milliseconds during which the invalidations are accumulated and coalesced
+    * before being replicated, a value lower or equal to 0 means that they are replicated immediately.
+    * This is only used by the near cache.
+    *
+    * @param invalidationFlushInterval the flush interval
+    */
+   public void setInvalidationFlushInterval(long invalidationFlushInterval)
+   {
+      this.invalidationFlushInterval = invalidationFlushInterval;
+   }
+
+   /**
+    * Returns the window in milliseconds during which the changes are buffered before being replicated
+    *
+    * @return the replication batch window
+    */
+   public long getReplicationBatchWindow()
+   {
+      return replicationBatchWindow;
+   }
+
+   /**
+    * Sets the window in milliseconds during which the changes are buffered and coalesced before being
+    * replicated in one message, a value lower or equal to 0 means that each change is replicated immediately.
+    * This is only supported by {@link org.exoplatform.services.cache.concurrent.SimpleReplicatedExoCache}.
+    *
+    * @param replicationBatchWindow the replication batch window
+    */
+   public void setReplicationBatchWindow(long replicationBatchWindow)
+   {
+      this.replicationBatchWindow = replicationBatchWindow;
+   }
+
+   /**
+    * Returns the maximum amount of changes replicated in one message
+    *
+    * @return the replication max batch size
+    */
+   public int getReplicationMaxBatchSize()
+   {
+      return replicationMaxBatchSize;
+   }
+
+   /**
+    * Sets the maximum amount of changes replicated in one message, a value lower or equal to 0 means
+    * that the default value is used. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.SimpleReplicatedExoCache}.
+    *
+    * @param replicationMaxBatchSize the replication max batch size
+    */
+   public void setReplicationMaxBatchSize(int replicationMaxBatchSize)
+   {
+      this.replicationMaxBatchSize = replicationMaxBatchSize;
+   }
+
+   /**
+    * Returns the amount of independent eviction queues, a value lower or equal to 1
+    * means that a single queue is used.
+    *
+    * @return the amount of eviction queues
+    */
+   public int getStripes()
+   {
+      return stripes;
+   }
+
+   /**
+    * Sets the amount of independent eviction queues, the entries are partitioned by key hash
+    * into those queues to reduce the contention on writes. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache} and its sub classes.
+    *
+    * @param stripes the amount of eviction queues
+    */
+   public void setStripes(int stripes)
+   {
+      this.stripes = stripes;
+   }
+
+   /**
+    * Returns the maximum amount of bytes that the cache can use
+    *
+    * @return the maximum amount of bytes
+    */
+   public long getMaxBytes()
+   {
+      return maxBytes;
+   }
+
+   /**
+    * Sets the maximum amount of bytes that the cache can use. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.OffHeapExoCache}.
+    *
+    * @param maxBytes the maximum amount of bytes
+    */
+   public void setMaxBytes(long maxBytes)
+   {
+      this.maxBytes = maxBytes;
+   }
+
+   /**
+    * Returns the full qualified name of the {@link ValueSerializer} to use
+    *
+    * @return the class name of the serializer
+    */
+   public String getSerializer()
+   {
+      return serializer;
+   }
+
+   /**
+    * Sets the full qualified name of the {@link ValueSerializer} to use. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.OffHeapExoCache}.
+    *
+    * @param serializer the class name of the serializer
+    */
+   public void setSerializer(String serializer)
+   {
+      this.serializer = serializer;
+   }
+
+   /**
+    * Returns the eviction policy to use
+    *
+    * @return the eviction policy
+    */
+   public String getEvictionPolicy()
+   {
+      return evictionPolicy;
+   }
+
+   /**
+    * Sets the eviction policy to use, either <code>FIFO</code> or <code>LRU</code>. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.OffHeapExoCache}.
+    *
+    * @param evictionPolicy the eviction policy
+    */
+   public void setEvictionPolicy(String evictionPolicy)
+   {
+      this.evictionPolicy = evictionPolicy;
+   }
+
+   /**
+    * Returns the full qualified name of the {@link Weigher} to use
+    *
+    * @return the class name of the weigher
+    */
+   public String getWeigher()
+   {
+      return weigher;
+   }
+
+   /**
+    * Sets the full qualified name of the {@link Weigher} to use. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache}.
+    *
+    * @param weigher the class name of the weigher
+    */
+   public void setWeigher(String weigher)
+   {
+      this.weigher = weigher;
+   }
+
+   /**
+    * Returns the maximum total weight of the entries
+    *
+    * @return the maximum weight
+    */
+   public long getMaxWeight()
+   {
+      return maxWeight;
+   }
+
+   /**
+    * Sets the maximum total weight of the entries, a value lower or equal to 0 means that
+    * the weight is not bounded. This is only supported by
+    * {@link org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache}.
+    *
+    * @param maxWeight the maximum weight
+    */
+   public void setMaxWeight(long maxWeight)
+   {
+      this.maxWeight = maxWeight;
+   }
+
+   /**
+    * Returns the interval in seconds between two background expirations
+    *
+    * @return the expiration interval
+    */
+   public long getExpirationInterval()
+   {
+      return expirationInterval;
+   }
+
+   /**
+    * Sets the interval in seconds between two background expirations, a value lower or equal to 0
+    * means that the expired entries are only removed when accessed or incrementally on the writes.
+    * This is only supported by {@link org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache}.
+    *
+    * @param expirationInterval the expiration interval
+    */
+   public void setExpirationInterval(long expirationInterval)
+   {
+      this.expirationInterval = expirationInterval;
+   }
+
+   /**
+    * Returns the maximum size of the local cache kept in front of the cache
+    *
+    * @return the maximum size of the local cache
+    */
+   public int getLocalMaxSize()
+   {
+      return localMaxSize;
+   }
+
+   /**
+    * Sets the maximum size of the local cache kept in front of the cache, a value lower or equal to 0
+    * means that there is no local cache. See {@link TwoLevelExoCache} for more details.
+    *
+    * @param localMaxSize the maximum size of the local cache
+    */
+   public void setLocalMaxSize(int localMaxSize)
+   {
+      this.localMaxSize = localMaxSize;
+   }
+
+   /**
+    * Returns the time in milliseconds during which a value can be served by the local cache
+    *
+    * @return the live time of the local values
+    */
+   public long getLocalLiveTime()
+   {
+      return localLiveTime;
+   }
+
+   /**
+    * Sets the time in milliseconds during which a value can be served by the local cache, which is
+    * the maximum staleness of the local values, a value lower or equal to 0 means that the local
+    * values never expire which is only relevant if the local invalidation is enabled.
+    *
+    * @param localLiveTime the live time of the local values
+    */
+   public void setLocalLiveTime(long localLiveTime)
+   {
+      this.localLiveTime = localLiveTime;
+   }
+
+   /**
+    * Indicates whether the local cache is invalidated thanks to the events of the cache
+    *
+    * @return <code>true</code> if the local cache is invalidated on the events of the cache
+    */
+   public boolean isLocalInvalidation()
+   {
+      return localInvalidation;
+   }
+
+   /**
+    * Sets whether the local cache must be invalidated thanks to the events of the cache, this is only
+    * relevant if the cache implementation notifies the changes made by the other cluster nodes.
+    *
+    * @param localInvalidation <code>true</code> to invalidate the local cache on the events of the cache
+    */
+   public void setLocalInvalidation(boolean localInvalidation)
+   {
+      this.localInvalidation = localInvalidation;
+   }
+
+   /**
+    * Returns the interval in seconds between two reconciliations of the size of the cache
+    *
+    * @return the size reconciliation interval
+    */
+   public long getSizeReconciliationInterval()
+   {
+      return sizeReconciliationInterval;
+   }
+
+   /**
+    * Sets the interval in seconds between two reconciliations of the size of the cache with its actual
+    * content, a value lower or equal to 0 means that the size is only maintained from the events of the cache.
+    * This is only supported by the distributed cache of Infinispan.
+    *
+    * @param sizeReconciliationInterval the size reconciliation interval
+    */
+   public void setSizeReconciliationInterval(long sizeReconciliationInterval)
+   {
+      this.sizeReconciliationInterval = sizeReconciliationInterval;
+   }
+
    /**
     * @see java.lang.Object#clone()
     */
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import java.io.Serializable;
+
+/**
+ * An {@link ExoCache} that maintains {@link CacheStatistics}. The decorators of a cache implement it
+ * too and give the statistics of the cache they decorate.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+public interface InstrumentedExoCache<K extends Serializable, V> extends ExoCache<K, V>
+{
+
+   /**
+    * @return the statistics of the cache or <code>null</code> if the underlying cache does not
+    * maintain statistics
+    */
+   public CacheStatistics getStatistics();
+}
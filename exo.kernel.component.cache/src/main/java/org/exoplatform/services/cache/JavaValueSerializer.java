@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * The default {@link ValueSerializer} that relies on the java serialization, so it can
+ * only be used for {@link java.io.Serializable} values.
+ *
+ * @version $Id$
+ * @param <V> the type of the values
+ */
+public class JavaValueSerializer<V> implements ValueSerializer<V>
+{
+
+   /**
+    * {@inheritDoc}
+    */
+   public byte[] serialize(V value) throws IOException
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutputStream oos = new ObjectOutputStream(baos);
+      try
+      {
+         oos.writeObject(value);
+      }
+      finally
+      {
+         oos.close();
+      }
+      return baos.toByteArray();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public V deserialize(byte[] bytes) throws IOException
+   {
+      ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+      try
+      {
+         return (V)ois.readObject();
+      }
+      catch (ClassNotFoundException e)
+      {
+         throw new IOException("Could not find the class of the value", e);
+      }
+      finally
+      {
+         ois.close();
+      }
+   }
+}
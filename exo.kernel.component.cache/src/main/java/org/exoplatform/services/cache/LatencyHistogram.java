@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds with a bounded relative error, in the spirit of
+ * the HDR histograms. The values are recorded into buckets whose width doubles with each power of 2,
+ * each power of 2 being split into {@value #SUB_BUCKETS} linear sub-buckets, which gives a relative
+ * error lower than 7% with a constant memory footprint. The values above 2^{@value #MAX_MAGNITUDE}
+ * nanoseconds (about one minute) are recorded into the last bucket.
+ * <p>
+ * The recording never blocks, the read operations give a consistent enough view of the histogram
+ * while the values are being recorded.
+ *
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+public class LatencyHistogram
+{
+
+   /**
+    * The amount of bits used to split a power of 2 into sub-buckets
+    */
+   private static final int SUB_BUCKET_BITS = 4;
+
+   /**
+    * The amount of sub-buckets of a power of 2
+    */
+   static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+   /**
+    * The highest power of 2 that can be recorded accurately
+    */
+   static final int MAX_MAGNITUDE = 36;
+
+   /**
+    * The total amount of buckets
+    */
+   private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+   /**
+    * The amount of values recorded per bucket
+    */
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+   /**
+    * The sum of the recorded values
+    */
+   private final StripedCounter sum = new StripedCounter();
+
+   /**
+    * The highest recorded value
+    */
+   private final AtomicLong max = new AtomicLong();
+
+   /**
+    * Records a duration.
+    *
+    * @param nanos the duration in nanoseconds, the negative values are ignored
+    */
+   public void record(long nanos)
+   {
+      if (nanos < 0)
+      {
+         return;
+      }
+      counts.incrementAndGet(indexOf(nanos));
+      sum.add(nanos);
+      long current;
+      while (nanos > (current = max.get()))
+      {
+         if (max.compareAndSet(current, nanos))
+         {
+            break;
+         }
+      }
+   }
+
+   /**
+    * @return the amount of recorded values
+    */
+   public long getCount()
+   {
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         count += counts.get(i);
+      }
+      return count;
+   }
+
+   /**
+    * @return the mean of the recorded values in nanoseconds, 0 if no value has been recorded
+    */
+   public long getMean()
+   {
+      long count = getCount();
+      return count == 0 ? 0 : sum.sum() / count;
+   }
+
+   /**
+    * @return the highest recorded value in nanoseconds
+    */
+   public long getMax()
+   {
+      return max.get();
+   }
+
+   /**
+    * Gives the value below which the given percentage of the recorded values fall. The result is the
+    * highest value of the bucket of the percentile, it is never greater than the highest recorded value.
+    *
+    * @param percentile the percentage between 0 and 100
+    * @return the percentile in nanoseconds, 0 if no value has been recorded
+    */
+   public long getPercentile(double percentile)
+   {
+      long[] snapshot = new long[BUCKETS];
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         count += snapshot[i] = counts.get(i);
+      }
+      if (count == 0)
+      {
+         return 0;
+      }
+      long rank = Math.max((long)Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count), 1);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         seen += snapshot[i];
+         if (seen >= rank)
+         {
+            // The last bucket also holds the values beyond the tracked range
+            return i == BUCKETS - 1 ? max.get() : Math.min(highestValueOf(i), max.get());
+         }
+      }
+      return max.get();
+   }
+
+   /**
+    * Clears the recorded values.
+    */
+   public void reset()
+   {
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         counts.set(i, 0);
+      }
+      sum.reset();
+      max.set(0);
+   }
+
+   /**
+    * Gives the index of the bucket of the given value.
+    */
+   static int indexOf(long value)
+   {
+      if (value < SUB_BUCKETS)
+      {
+         return (int)value;
+      }
+      int magnitude = 63 - Long.numberOfLeadingZeros(value);
+      if (magnitude > MAX_MAGNITUDE)
+      {
+         return BUCKETS - 1;
+      }
+      int subBucket = (int)(value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   }
+
+   /**
+    * Gives the highest value that falls into the given bucket.
+    */
+   static long highestValueOf(int index)
+   {
+      if (index < SUB_BUCKETS)
+      {
+         return index;
+      }
+      int shift = index / SUB_BUCKETS - 1;
+      long subBucket = index % SUB_BUCKETS;
+      return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+   }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that remains cheap to update under contention, it behaves like a single {@link AtomicLong}
+ * until two threads collide, then the updates are spread over several padded cells chosen according
+ * to the updating thread, the value being the sum of all the cells.
+ *
+ * @version $Id$
+ */
+class StripedCounter
+{
+
+   /**
+    * The amount of longs between two cells, so that two cells never share a cache line
+    */
+   private static final int PADDING = 8;
+
+   /**
+    * The amount of cells, a power of 2 greater or equal to the amount of processors
+    */
+   private static final int CELLS;
+
+   static
+   {
+      int cells = 1;
+      int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+      while (cells < processors)
+      {
+         cells <<= 1;
+      }
+      CELLS = cells;
+   }
+
+   /**
+    * The counter used as long as there is no contention
+    */
+   private final AtomicLong base = new AtomicLong();
+
+   /**
+    * The cells, created on the first contention
+    */
+   private volatile AtomicLongArray cells;
+
+   void add(long x)
+   {
+      AtomicLongArray cs = cells;
+      if (cs == null)
+      {
+         long b = base.get();
+         if (base.compareAndSet(b, b + x))
+         {
+            return;
+         }
+         cs = createCells();
+      }
+      cs.getAndAdd(cellOf(Thread.currentThread()), x);
+   }
+
+   void increment()
+   {
+      add(1);
+   }
+
+   long sum()
+   {
+      long sum = base.get();
+      AtomicLongArray cs = cells;
+      if (cs != null)
+      {
+         for (int i = 0; i < CELLS; i++)
+         {
+            sum += cs.get(i * PADDING);
+         }
+      }
+      return sum;
+   }
+
+   void reset()
+   {
+      base.set(0);
+      AtomicLongArray cs = cells;
+      if (cs != null)
+      {
+         for (int i = 0; i < CELLS; i++)
+         {
+            cs.set(i * PADDING, 0);
+         }
+      }
+   }
+
+   private synchronized AtomicLongArray createCells()
+   {
+      if (cells == null)
+      {
+         cells = new AtomicLongArray(CELLS * PADDING);
+      }
+      return cells;
+   }
+
+   private static int cellOf(Thread thread)
+   {
+      long h = thread.getId() * 0x9E3779B97F4A7C15L;
+      return ((int)(h >>> 32) & (CELLS - 1)) * PADDING;
+   }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A two-level eXo cache that keeps a small bounded local cache (L1) in front of another
+ * eXo cache (L2), typically a remote or distributed cache, in order to avoid a round-trip
+ * for the keys that are frequently read. The values read from the L2 are kept in the L1 for
+ * a limited time which bounds their staleness, and when the L2 notifies the changes made by
+ * the other cluster nodes, the L1 can also be invalidated thanks to the events of the L2.
+ * <p>
+ * The local writes are applied to the L2 and then invalidate the key in the L1. A value loaded
+ * from the L2 is only added to the L1 if its key has not been invalidated meanwhile, so a
+ * concurrent invalidation cannot be lost. The listeners are registered on the L2, thus the
+ * reads served by the L1 are not notified.
+ *
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+public class TwoLevelExoCache<K extends Serializable, V> implements InstrumentedExoCache<K, V>, CacheListener<K, V>
+{
+   /**
+    * The amount of invalidation counters, the keys are partitioned by hash code
+    */
+   private static final int STRIPES = 64;
+
+   /**
+    * The L2 eXo cache instance
+    */
+   private final ExoCache<K, V> delegate;
+
+   /**
+    * The L1 eXo cache instance
+    */
+   private final ConcurrentFIFOExoCache<K, V> local;
+
+   /**
+    * The invalidation counters, incremented each time a key of the stripe is invalidated
+    */
+   private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+   /**
+    * The amount of reads not served by the L1 that have been served by the L2
+    */
+   private final StripedCounter remoteHits = new StripedCounter();
+
+   /**
+    * The amount of reads that could neither be served by the L1 nor by the L2
+    */
+   private final StripedCounter remoteMisses = new StripedCounter();
+
+   /**
+    * @param delegate the L2 eXo cache instance
+    * @param localMaxSize the maximum size of the L1
+    * @param localLiveTime the time in milliseconds during which a value can be served by the L1,
+    * a value lower or equal to 0 means that the values never expire
+    * @param invalidation indicates whether the L1 must be invalidated thanks to the events of the L2
+    */
+   public TwoLevelExoCache(ExoCache<K, V> delegate, int localMaxSize, long localLiveTime, boolean invalidation)
+   {
+      if (localMaxSize <= 0)
+      {
+         throw new IllegalArgumentException("The maximum size of the local cache must be positive");
+      }
+      this.delegate = delegate;
+      this.local = new ConcurrentFIFOExoCache<K, V>(delegate.getName(), localMaxSize);
+      local.setLiveTimeMillis(localLiveTime > 0 ? localLiveTime : -1);
+      if (invalidation)
+      {
+         delegate.addCacheListener(this);
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public String getName()
+   {
+      return delegate.getName();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void setName(String name)
+   {
+      delegate.setName(name);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public String getLabel()
+   {
+      return delegate.getLabel();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void setLabel(String s)
+   {
+      delegate.setLabel(s);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public V get(Serializable name)
+   {
+      if (name == null)
+      {
+         return null;
+      }
+      V value = local.get(name);
+      if (value != null)
+      {
+         return value;
+      }
+      int stripe = stripe(name);
+      long invalidation = invalidations.get(stripe);
+      value = delegate.get(name);
+      if (value == null)
+      {
+         remoteMisses.increment();
+      }
+      else
+      {
+         remoteHits.increment();
+         putLocal(stripe, invalidation, (K)name, value);
+      }
+      return value;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public V remove(Serializable name) throws NullPointerException
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      try
+      {
+         return delegate.remove(name);
+      }
+      finally
+      {
+         invalidate(name);
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void put(K key, V value) throws NullPointerException
+   {
+      if (key == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      try
+      {
+         delegate.put(key, value);
+      }
+      finally
+      {
+         invalidate(key);
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void putMap(Map<? extends K, ? extends V> objs) throws NullPointerException, IllegalArgumentException
+   {
+      if (objs == null)
+      {
+         throw new IllegalArgumentException("No null map accepted");
+      }
+      try
+      {
+         delegate.putMap(objs);
+      }
+      finally
+      {
+         for (K key : objs.keySet())
+         {
+            invalidate(key);
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Map<K, V> getAll(Collection<? extends K> keys) throws IllegalArgumentException
+   {
+      if (keys == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
+      }
+      Map<K, V> result = new LinkedHashMap<K, V>(keys.size());
+      List<K> missing = new ArrayList<K>(keys.size());
+      for (K key : keys)
+      {
+         if (key == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+         V value = local.get(key);
+         if (value == null)
+         {
+            missing.add(key);
+         }
+         else
+         {
+            result.put(key, value);
+         }
+      }
+      if (missing.isEmpty())
+      {
+         return result;
+      }
+      long[] snapshot = new long[missing.size()];
+      for (int i = 0; i < snapshot.length; i++)
+      {
+         snapshot[i] = invalidations.get(stripe(missing.get(i)));
+      }
+      Map<K, V> values = delegate.getAll(missing);
+      for (int i = 0; i < snapshot.length; i++)
+      {
+         K key = missing.get(i);
+         V value = values.get(key);
+         if (value == null)
+         {
+            remoteMisses.increment();
+         }
+         else
+         {
+            remoteHits.increment();
+            putLocal(stripe(key), snapshot[i], key, value);
+            result.put(key, value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void removeAll(Collection<? extends K> keys) throws IllegalArgumentException
+   {
+      try
+      {
+         delegate.removeAll(keys);
+      }
+      finally
+      {
+         if (keys != null)
+         {
+            for (K key : keys)
+            {
+               if (key != null)
+               {
+                  invalidate(key);
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void clearCache()
+   {
+      try
+      {
+         delegate.clearCache();
+      }
+      finally
+      {
+         invalidateAll();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void select(CachedObjectSelector<? super K, ? super V> selector) throws Exception
+   {
+      delegate.select(selector);
+      // The selector may have removed some entries
+      invalidateAll();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getCacheSize()
+   {
+      return delegate.getCacheSize();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getMaxSize()
+   {
+      return delegate.getMaxSize();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void setMaxSize(int max)
+   {
+      delegate.setMaxSize(max);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public long getLiveTime()
+   {
+      return delegate.getLiveTime();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void setLiveTime(long period)
+   {
+      delegate.setLiveTime(period);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getCacheHit()
+   {
+      return CacheStatistics.toInt(local.getStatistics().getHits() + remoteHits.sum());
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getCacheMiss()
+   {
+      return CacheStatistics.toInt(remoteMisses.sum());
+   }
+
+   /**
+    * @return the statistics of the L2 or <code>null</code> if it does not maintain statistics, the
+    * statistics of the L1 are given by {@link #getLocalStatistics()}
+    */
+   public CacheStatistics getStatistics()
+   {
+      return delegate instanceof InstrumentedExoCache ? ((InstrumentedExoCache<?, ?>)delegate).getStatistics() : null;
+   }
+
+   /**
+    * @return the statistics of the L1
+    */
+   public CacheStatistics getLocalStatistics()
+   {
+      return local.getStatistics();
+   }
+
+   /**
+    * @return the amount of reads served by the L1
+    */
+   @Managed
+   @ManagedName("LocalHit")
+   @ManagedDescription("The amount of reads served by the local cache")
+   public long getLocalCacheHit()
+   {
+      return local.getStatistics().getHits();
+   }
+
+   /**
+    * @return the amount of reads that could not be served by the L1
+    */
+   @Managed
+   @ManagedName("LocalMiss")
+   @ManagedDescription("The amount of reads that could not be served by the local cache")
+   public long getLocalCacheMiss()
+   {
+      return local.getStatistics().getMisses();
+   }
+
+   /**
+    * @return the ratio of the reads served by the L1
+    */
+   @Managed
+   @ManagedName("LocalHitRatio")
+   @ManagedDescription("The ratio of the reads served by the local cache")
+   public double getLocalHitRatio()
+   {
+      return ratio(local.getStatistics().getHits(), local.getStatistics().getMisses());
+   }
+
+   /**
+    * @return the amount of reads served by the L2
+    */
+   @Managed
+   @ManagedName("RemoteHit")
+   @ManagedDescription("The amount of reads served by the remote cache")
+   public long getRemoteCacheHit()
+   {
+      return remoteHits.sum();
+   }
+
+   /**
+    * @return the amount of reads that could neither be served by the L1 nor by the L2
+    */
+   @Managed
+   @ManagedName("RemoteMiss")
+   @ManagedDescription("The amount of reads that could not be served by the remote cache")
+   public long getRemoteCacheMiss()
+   {
+      return remoteMisses.sum();
+   }
+
+   /**
+    * @return the ratio of the reads not served by the L1 that have been served by the L2
+    */
+   @Managed
+   @ManagedName("RemoteHitRatio")
+   @ManagedDescription("The ratio of the reads not served by the local cache that have been served by the remote cache")
+   public double getRemoteHitRatio()
+   {
+      return ratio(remoteHits.sum(), remoteMisses.sum());
+   }
+
+   /**
+    * @return the current amount of entries in the L1
+    */
+   @Managed
+   @ManagedName("LocalSize")
+   @ManagedDescription("The amount of entries in the local cache")
+   public int getLocalCacheSize()
+   {
+      return local.getCacheSize();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public List<? extends V> getCachedObjects() throws Exception
+   {
+      return delegate.getCachedObjects();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public List<? extends V> removeCachedObjects()
+   {
+      try
+      {
+         return delegate.removeCachedObjects();
+      }
+      finally
+      {
+         invalidateAll();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void addCacheListener(CacheListener<? super K, ? super V> listener) throws NullPointerException
+   {
+      delegate.addCacheListener(listener);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean isLogEnabled()
+   {
+      return delegate.isLogEnabled();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void setLogEnabled(boolean b)
+   {
+      delegate.setLogEnabled(b);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onExpire(CacheListenerContext context, K key, V obj) throws Exception
+   {
+      invalidate(key);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onRemove(CacheListenerContext context, K key, V obj) throws Exception
+   {
+      invalidate(key);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onPut(CacheListenerContext context, K key, V obj) throws Exception
+   {
+      invalidate(key);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onGet(CacheListenerContext context, K key, V obj) throws Exception
+   {
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onClearCache(CacheListenerContext context) throws Exception
+   {
+      invalidateAll();
+   }
+
+   /**
+    * Adds the given value to the L1 if the key has not been invalidated since the given
+    * value of the invalidation counter
+    */
+   private void putLocal(int stripe, long invalidation, K key, V value)
+   {
+      if (invalidations.get(stripe) != invalidation)
+      {
+         return;
+      }
+      local.put(key, value);
+      if (invalidations.get(stripe) != invalidation)
+      {
+         // An invalidation occurred concurrently
+         local.remove(key);
+      }
+   }
+
+   /**
+    * Removes the given key from the L1
+    */
+   private void invalidate(Serializable key)
+   {
+      if (key == null)
+      {
+         return;
+      }
+      invalidations.incrementAndGet(stripe(key));
+      local.remove(key);
+   }
+
+   /**
+    * Removes all the entries from the L1
+    */
+   private void invalidateAll()
+   {
+      for (int i = 0; i < STRIPES; i++)
+      {
+         invalidations.incrementAndGet(i);
+      }
+      local.clearCache();
+   }
+
+   private static int stripe(Serializable key)
+   {
+      int h = key.hashCode();
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return h & (STRIPES - 1);
+   }
+
+   private static double ratio(long hits, long misses)
+   {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double)hits / total;
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+import java.io.IOException;
+
+/**
+ * Converts the cached values to bytes and back, it is used by the cache implementations that
+ * store the values outside the java heap. The implementations must be thread safe and provide
+ * a public no-arg constructor to be usable from the {@link ExoCacheConfig}.
+ *
+ * @version $Id$
+ * @param <V> the type of the values
+ * @LevelAPI Experimental
+ */
+public interface ValueSerializer<V>
+{
+
+   /**
+    * Serializes the given value.
+    *
+    * @param value the value to serialize, never null
+    * @return the bytes representing the value
+    * @throws IOException if the value could not be serialized
+    */
+   byte[] serialize(V value) throws IOException;
+
+   /**
+    * Deserializes a value previously serialized with {@link #serialize(Object)}.
+    *
+    * @param bytes the bytes representing the value
+    * @return the value
+    * @throws IOException if the value could not be deserialized
+    */
+   V deserialize(byte[] bytes) throws IOException;
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache;
+
+/**
+ * Computes the weight of a cache entry, it is used by the cache implementations that can bound
+ * the total weight of their entries rather than their amount, typically to cap the heap spent per
+ * cache when the size of the values varies a lot. The implementations must be thread safe, fast since
+ * they are called on each put, and provide a public no-arg constructor to be usable from the
+ * {@link ExoCacheConfig}.
+ *
+ * @version $Id$
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @LevelAPI Experimental
+ */
+public interface Weigher<K, V>
+{
+
+   /**
+    * Gives the weight of the given entry, the weight of an entry is computed once when it is put
+    * into the cache.
+    *
+    * @param key the key of the entry
+    * @param value the value of the entry
+    * @return the weight of the entry, it must be positive or zero
+    */
+   int weigh(K key, V value);
+}
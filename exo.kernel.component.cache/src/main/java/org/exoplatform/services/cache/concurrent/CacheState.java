@@ -22,6 +22,7 @@ import org.exoplatform.services.log.Log;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -38,24 +39,48 @@ class CacheState<K extends Serializable, V>
 
    final ConcurrentHashMap<K, ObjectRef<K, V>> map;
 
-   final Queue<ObjectRef<K, V>> queue;
+   /**
+    * The fifo queues, the entries are partitioned by key hash when there are several queues
+    */
+   final Queue<ObjectRef<K, V>>[] queues;
+
+   /**
+    * The expiration indexes, one per queue
+    */
+   final TimerWheel<K, V>[] wheels;
 
+   @SuppressWarnings("unchecked")
    CacheState(ConcurrentFIFOExoCache<K, V> config, Log log)
    {
       this.log = log;
       this.config = config;
-      this.map = new ConcurrentHashMap<K, ObjectRef<K, V>>();
-      this.queue = new SynchronizedQueue<ObjectRef<K, V>>(log);
+      int stripes = Math.max(config.stripes, 1);
+      this.map = new ConcurrentHashMap<K, ObjectRef<K, V>>(16, 0.75f, Math.max(stripes, 16));
+      this.queues = new Queue[stripes];
+      this.wheels = new TimerWheel[stripes];
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < stripes; i++)
+      {
+         queues[i] = new SynchronizedQueue<ObjectRef<K, V>>(log);
+         wheels[i] = new TimerWheel<K, V>(now);
+      }
    }
 
    public void assertConsistency()
    {
-      if (queue instanceof SynchronizedQueue)
+      for (Queue<ObjectRef<K, V>> queue : queues)
+      {
+         if (queue instanceof SynchronizedQueue)
+         {
+            ((SynchronizedQueue)queue).assertConsistency();
+         }
+      }
+      for (TimerWheel<K, V> wheel : wheels)
       {
-         ((SynchronizedQueue)queue).assertConsistency();
+         wheel.assertConsistency();
       }
       int mapSize = map.size();
-      int effectiveQueueSize = queue.size();
+      int effectiveQueueSize = size();
       if (effectiveQueueSize != mapSize)
       {
          throw new AssertionError("The map size is " + mapSize + " is different from the queue size "
@@ -63,6 +88,83 @@ class CacheState<K extends Serializable, V>
       }
    }
 
+   /**
+    * @return the total amount of entries in the queues
+    */
+   int size()
+   {
+      if (queues.length == 1)
+      {
+         return queues[0].size();
+      }
+      int size = 0;
+      for (int i = 0; i < queues.length; i++)
+      {
+         size += queues[i].size();
+      }
+      return size;
+   }
+
+   /**
+    * @return the total weight of the entries in the queues
+    */
+   long weight()
+   {
+      long weight = 0;
+      for (int i = 0; i < queues.length; i++)
+      {
+         weight += queues[i].weight();
+      }
+      return weight;
+   }
+
+   /**
+    * @return the index of the queue that holds the entries of the given key
+    */
+   private int indexOf(Serializable name)
+   {
+      if (queues.length == 1)
+      {
+         return 0;
+      }
+      int h = name.hashCode();
+      h ^= (h >>> 20) ^ (h >>> 12);
+      h ^= (h >>> 7) ^ (h >>> 4);
+      return (h & 0x7fffffff) % queues.length;
+   }
+
+   /**
+    * Gives the maximum size of the given queue, the max size of the cache is
+    * spread over all the queues.
+    */
+   private int maxSizeOf(int index)
+   {
+      int maxSize = config.maxSize;
+      if (queues.length == 1)
+      {
+         return maxSize;
+      }
+      int remainder = maxSize % queues.length;
+      int size = maxSize / queues.length + (index < remainder ? 1 : 0);
+      // The max size may have been reduced below the amount of queues, each queue keeps at least one entry
+      return maxSize > 0 ? Math.max(size, 1) : size;
+   }
+
+   /**
+    * Gives the maximum weight of the given queue, the max weight of the cache is
+    * spread over all the queues.
+    */
+   private long maxWeightOf(int index)
+   {
+      long maxWeight = config.maxWeight;
+      if (maxWeight <= 0 || queues.length == 1)
+      {
+         return maxWeight;
+      }
+      long remainder = maxWeight % queues.length;
+      return Math.max(maxWeight / queues.length + (index < remainder ? 1 : 0), 1);
+   }
+
    public V get(Serializable name)
    {
       ObjectRef<K, V> entry = map.get(name);
@@ -71,24 +173,21 @@ class CacheState<K extends Serializable, V>
          V o = entry.getObject();
          if (entry.isValid())
          {
-            config.hits.incrementAndGet();
             config.onGet(entry.name, o);
             return o;
          }
          else
          {
-            config.misses.incrementAndGet();
             if (map.remove(name, entry))
             {
-               queue.remove(entry);
+               int index = indexOf(name);
+               queues[index].remove(entry);
+               wheels[index].deschedule(entry);
+               config.statistics.recordExpiration();
             }
             config.onExpire(entry.name, o);
          }
       }
-      else
-      {
-         config.misses.incrementAndGet();
-      }
       return null;
    }
 
@@ -112,13 +211,18 @@ class CacheState<K extends Serializable, V>
    void put(long expirationTime, K name, V obj)
    {
       boolean trace = isTraceEnabled();
+      int index = indexOf(name);
+      Queue<ObjectRef<K, V>> queue = queues[index];
+      TimerWheel<K, V> wheel = wheels[index];
       ObjectRef<K, V> nextRef = new SimpleObjectRef<K, V>(expirationTime, name, obj);
+      nextRef.weight = config.weigh(name, obj);
       ObjectRef<K, V> previousRef = map.put(name, nextRef);
 
       // Remove previous (promoted as first element)
       if (previousRef != null)
       {
          queue.remove(previousRef);
+         wheel.deschedule(previousRef);
          if (trace)
          {
             trace("Replaced item=" + previousRef.serial + " with item=" + nextRef.serial + " in the map");
@@ -131,9 +235,10 @@ class CacheState<K extends Serializable, V>
 
       // Add to the queue
       queue.add(nextRef);
+      wheel.schedule(nextRef);
 
       // Perform eviction from queue
-      ArrayList<ObjectRef<K, V>> evictedRefs = queue.trim(config.maxSize);
+      ArrayList<ObjectRef<K, V>> evictedRefs = queue.trim(maxSizeOf(index), maxWeightOf(index));
       if (evictedRefs != null)
       {
          for (ObjectRef<K, V> evictedRef : evictedRefs)
@@ -142,14 +247,75 @@ class CacheState<K extends Serializable, V>
             // it could have been removed concurrently by an explicit remove
             // or by a promotion
             map.remove(evictedRef.name, evictedRef);
+            wheel.deschedule(evictedRef);
 
             // Expiration callback
+            config.statistics.recordEviction();
             config.onExpire(evictedRef.name, evictedRef.getObject());
          }
       }
 
       // Put callback
       config.onPut(name, obj);
+
+      // Incremental expiration of the entries of the queue
+      if (wheel.size() > 0)
+      {
+         long now = System.currentTimeMillis();
+         if (wheel.needsAdvance(now))
+         {
+            expire(index, now, false);
+         }
+      }
+   }
+
+   /**
+    * Removes the expired entries of all the queues.
+    */
+   void expire()
+   {
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < wheels.length; i++)
+      {
+         expire(i, now, true);
+      }
+   }
+
+   /**
+    * Removes the expired entries of the given queue, the expiration callbacks are
+    * called once all the entries have been removed.
+    *
+    * @param index the index of the queue
+    * @param now the current time
+    * @param wait indicates whether the method should wait if the entries are being expired by
+    * another thread, if not it returns immediately
+    */
+   private void expire(int index, long now, boolean wait)
+   {
+      List<ObjectRef<K, V>> expiredRefs = wheels[index].advance(now, wait);
+      if (expiredRefs == null)
+      {
+         return;
+      }
+      List<ObjectRef<K, V>> removedRefs = new ArrayList<ObjectRef<K, V>>(expiredRefs.size());
+      for (ObjectRef<K, V> expiredRef : expiredRefs)
+      {
+         // The entry could have been removed or replaced concurrently
+         if (map.remove(expiredRef.name, expiredRef))
+         {
+            queues[index].remove(expiredRef);
+            removedRefs.add(expiredRef);
+         }
+      }
+      if (isTraceEnabled())
+      {
+         trace("Expired " + removedRefs.size() + " items");
+      }
+      for (ObjectRef<K, V> removedRef : removedRefs)
+      {
+         config.statistics.recordExpiration();
+         config.onExpire(removedRef.name, removedRef.getObject());
+      }
    }
 
    public V remove(Serializable name)
@@ -162,16 +328,20 @@ class CacheState<K extends Serializable, V>
          {
             trace("Removed item=" + item.serial + " from the map going to remove it");
          }
-         boolean removed = queue.remove(item);
+         int index = indexOf(name);
+         boolean removed = queues[index].remove(item);
+         wheels[index].deschedule(item);
          boolean valid = removed && item.isValid();
          V object = item.getObject();
          if (valid)
          {
+            config.statistics.recordRemoval();
             config.onRemove(item.name, object);
             return object;
          }
          else
          {
+            config.statistics.recordExpiration();
             config.onExpire(item.name, object);
             return null;
          }
@@ -18,43 +18,83 @@
  */
 package org.exoplatform.services.cache.concurrent;
 
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.services.cache.AsyncExoCache;
 import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.CachedObjectSelector;
-import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.cache.Weigher;
+import org.exoplatform.services.cache.future.CompletedFuture;
+import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An {@link org.exoplatform.services.cache.ExoCache} implementation based on {@link java.util.concurrent.ConcurrentHashMap}
  * that minimize locking. Cache entries are maintained in a fifo list that is used for the fifo eviction policy.
+ * The asynchronous operations are executed synchronously since the cache is local.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
-public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCache<K, V>
+public class ConcurrentFIFOExoCache<K extends Serializable, V> implements AsyncExoCache<K, V>,
+   InstrumentedExoCache<K, V>
 {
 
    private static int DEFAULT_MAX_SIZE = 50;
 
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.component.cache.ConcurrentFIFOExoCache");
+
    private final Log log;
 
    private volatile long liveTimeMillis;
 
    volatile int maxSize;
 
+   /**
+    * The amount of fifo queues, more than one queue means that the entries are partitioned
+    * by key hash into independent queues each of them being trimmed to its share of the max size
+    */
+   volatile int stripes = 1;
+
+   /**
+    * The maximum total weight of the entries, a value lower or equal to 0 means that
+    * only the max size bounds the cache
+    */
+   volatile long maxWeight;
+
+   private volatile Weigher<? super K, ? super V> weigher;
+
+   /**
+    * The scheduler shared by all the caches for their background tasks, lazily created
+    */
+   private static volatile ScheduledThreadPoolExecutor SCHEDULER;
+
+   private long expirationInterval;
+
+   private ScheduledFuture<?> expirationTask;
+
    private CopyOnWriteArrayList<ListenerContext<K, V>> listeners;
 
    private CacheState<K, V> state;
 
-   AtomicInteger hits = new AtomicInteger();
-
-   AtomicInteger misses = new AtomicInteger();
+   final CacheStatistics statistics;
 
    private String label;
 
@@ -88,9 +128,24 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
    }
 
    public ConcurrentFIFOExoCache(String name, int maxSize, Log log)
+   {
+      this(name, maxSize, 1, log);
+   }
+
+   /**
+    * @param name the name of the cache
+    * @param maxSize the maximum amount of entries
+    * @param stripes the amount of independent fifo queues, the entries are partitioned by key hash
+    * and each queue is trimmed to <code>maxSize / stripes</code> which reduces the contention
+    * on write-heavy caches at the cost of a per partition fifo order
+    * @param log the logger to use for the traces, can be null
+    */
+   public ConcurrentFIFOExoCache(String name, int maxSize, int stripes, Log log)
    {
       this.maxSize = maxSize;
       this.name = name;
+      this.stripes = clampStripes(stripes, maxSize);
+      this.statistics = new CacheStatistics(name);
       this.state = new CacheState<K, V>(this, log);
       this.liveTimeMillis = -1;
       this.log = log;
@@ -110,6 +165,7 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
    public void setName(String s)
    {
       name = s;
+      statistics.setCacheName(s);
    }
 
    public String getLabel()
@@ -167,13 +223,219 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
       this.maxSize = max;
    }
 
+   /**
+    * @return the amount of independent fifo queues used to evict the entries
+    */
+   public int getStripes()
+   {
+      return stripes;
+   }
+
+   /**
+    * Sets the amount of independent fifo queues used to evict the entries, since the entries
+    * need to be partitioned again the content of the cache is cleared and the listeners are notified.
+    * The amount of queues cannot exceed the max size, otherwise some queues could not hold any entry.
+    *
+    * @param stripes the amount of fifo queues
+    */
+   public void setStripes(int stripes)
+   {
+      stripes = clampStripes(stripes, maxSize);
+      if (stripes != this.stripes)
+      {
+         this.stripes = stripes;
+         statistics.recordRemovals(state.size());
+         state = new CacheState<K, V>(this, log);
+         onClearCache();
+      }
+   }
+
+   private static int clampStripes(int stripes, int maxSize)
+   {
+      return Math.max(Math.min(stripes, maxSize), 1);
+   }
+
+   /**
+    * @return the maximum total weight of the entries
+    */
+   @Managed
+   @ManagedName("MaxWeight")
+   @ManagedDescription("The maximum total weight of the entries")
+   public long getMaxWeight()
+   {
+      return maxWeight;
+   }
+
+   /**
+    * Sets the maximum total weight of the entries, when the total weight of the entries goes beyond
+    * it, the oldest entries are evicted. The weight of an entry is given by the {@link Weigher} or is 1
+    * when there is none, a value lower or equal to 0 means that only the max size bounds the cache.
+    *
+    * @param maxWeight the maximum total weight
+    */
+   @Managed
+   public void setMaxWeight(long maxWeight)
+   {
+      this.maxWeight = maxWeight;
+   }
+
+   public Weigher<? super K, ? super V> getWeigher()
+   {
+      return weigher;
+   }
+
+   /**
+    * Sets the weigher of the entries, if it changes the existing entries need to be weighed again
+    * so the content of the cache is cleared and the listeners are notified.
+    *
+    * @param weigher the weigher, null means that all the entries weigh 1
+    */
+   public void setWeigher(Weigher<? super K, ? super V> weigher)
+   {
+      if (weigher != this.weigher)
+      {
+         this.weigher = weigher;
+         statistics.recordRemovals(state.size());
+         state = new CacheState<K, V>(this, log);
+         onClearCache();
+      }
+   }
+
+   /**
+    * @return the total weight of the entries
+    */
+   @Managed
+   @ManagedName("Weight")
+   @ManagedDescription("The total weight of the entries")
+   public long getCacheWeight()
+   {
+      return state.weight();
+   }
+
+   /**
+    * Removes all the expired entries and calls the expiration callbacks. The expired entries are
+    * also removed incrementally on the writes and in the background if an expiration interval has
+    * been set.
+    */
+   public void expire()
+   {
+      state.expire();
+   }
+
+   /**
+    * @return the interval in seconds between two background expirations, 0 if there is no
+    * background expiration
+    */
+   public synchronized long getExpirationInterval()
+   {
+      return expirationInterval;
+   }
+
+   /**
+    * Sets the interval between two background expirations, the expirations are executed by a single
+    * thread shared by all the caches. Without background expiration, the expired entries are removed
+    * when they are accessed or incrementally on the writes.
+    *
+    * @param expirationInterval the interval in seconds, a value lower or equal to 0 disables the
+    * background expiration
+    */
+   public synchronized void setExpirationInterval(long expirationInterval)
+   {
+      if (expirationTask != null)
+      {
+         expirationTask.cancel(false);
+         expirationTask = null;
+      }
+      this.expirationInterval = Math.max(expirationInterval, 0);
+      if (expirationInterval > 0)
+      {
+         ExpirationTask task = new ExpirationTask(this);
+         expirationTask =
+            getScheduler().scheduleWithFixedDelay(task, expirationInterval, expirationInterval,
+               TimeUnit.SECONDS);
+         task.future = expirationTask;
+      }
+   }
+
+   /**
+    * @return the scheduler shared by all the caches for their background tasks, it relies
+    * on a single daemon thread so the tasks must be short
+    */
+   public static ScheduledThreadPoolExecutor getScheduler()
+   {
+      if (SCHEDULER == null)
+      {
+         synchronized (ConcurrentFIFOExoCache.class)
+         {
+            if (SCHEDULER == null)
+            {
+               ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+               {
+                  public Thread newThread(Runnable r)
+                  {
+                     Thread thread = new Thread(r, "exo-cache-scheduler");
+                     thread.setDaemon(true);
+                     return thread;
+                  }
+               });
+               scheduler.setRemoveOnCancelPolicy(true);
+               SCHEDULER = scheduler;
+            }
+         }
+      }
+      return SCHEDULER;
+   }
+
+   /**
+    * The background expiration, it only weakly references the cache so that it does not prevent
+    * it from being garbage collected and cancels itself once the cache has been collected.
+    */
+   private static class ExpirationTask implements Runnable
+   {
+
+      private final WeakReference<ConcurrentFIFOExoCache<?, ?>> cache;
+
+      volatile ScheduledFuture<?> future;
+
+      ExpirationTask(ConcurrentFIFOExoCache<?, ?> cache)
+      {
+         this.cache = new WeakReference<ConcurrentFIFOExoCache<?, ?>>(cache);
+      }
+
+      public void run()
+      {
+         ConcurrentFIFOExoCache<?, ?> cache = this.cache.get();
+         if (cache == null)
+         {
+            ScheduledFuture<?> future = this.future;
+            if (future != null)
+            {
+               future.cancel(false);
+            }
+            return;
+         }
+         try
+         {
+            cache.expire();
+         }
+         catch (RuntimeException e)
+         {
+            // An exception would prevent the next executions
+            LOG.error("Could not expire the entries of the cache " + cache.getName(), e);
+         }
+      }
+   }
+
    public V get(Serializable name)
    {
       if (name == null)
       {
          return null;
       }
-      return state.get(name);
+      long start = System.nanoTime();
+      V value = state.get(name);
+      statistics.recordGet(start, value != null);
+      return value;
    }
 
    public void put(K name, V obj)
@@ -184,8 +446,10 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
       }
       if (liveTimeMillis != 0)
       {
+         long start = System.nanoTime();
          long expirationTime = liveTimeMillis > 0 ? System.currentTimeMillis() + liveTimeMillis : Long.MAX_VALUE;
          state.put(expirationTime, name, obj);
+         statistics.recordPut(start);
       }
    }
 
@@ -205,7 +469,9 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
       }
       for (Map.Entry<? extends K, ? extends V> entry : objs.entrySet())
       {
+         long start = System.nanoTime();
          state.put(expirationTime, entry.getKey(), entry.getValue());
+         statistics.recordPut(start);
       }
    }
 
@@ -218,6 +484,69 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
       return state.remove(name);
    }
 
+   public Future<V> getAsync(Serializable name)
+   {
+      return CompletedFuture.success(get(name));
+   }
+
+   public Future<Void> putAsync(K name, V obj)
+   {
+      put(name, obj);
+      return CompletedFuture.success(null);
+   }
+
+   public Future<V> removeAsync(Serializable name)
+   {
+      return CompletedFuture.success(remove(name));
+   }
+
+   public Map<K, V> getAll(Collection<? extends K> names)
+   {
+      checkKeys(names);
+      Map<K, V> result = new LinkedHashMap<K, V>(names.size());
+      for (K name : names)
+      {
+         V value = get(name);
+         if (value != null)
+         {
+            result.put(name, value);
+         }
+      }
+      return result;
+   }
+
+   public void removeAll(Collection<? extends K> names)
+   {
+      checkKeys(names);
+      for (K name : names)
+      {
+         state.remove(name);
+      }
+   }
+
+   /**
+    * Ensures that the provided collection of keys is not null and does not contain a null key.
+    */
+   static void checkKeys(Collection<?> names)
+   {
+      if (names == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
+      }
+      for (Object name : names)
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+      }
+   }
+
+   public Future<Map<K, V>> getAllAsync(Collection<? extends K> names)
+   {
+      return CompletedFuture.success(getAll(names));
+   }
+
    public List<? extends V> getCachedObjects()
    {
       LinkedList<V> list = new LinkedList<V>();
@@ -263,17 +592,22 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
 
    public int getCacheSize()
    {
-      return state.queue.size();
+      return state.size();
    }
 
    public int getCacheHit()
    {
-      return hits.get();
+      return CacheStatistics.toInt(statistics.getHits());
    }
 
    public int getCacheMiss()
    {
-      return misses.get();
+      return CacheStatistics.toInt(statistics.getMisses());
+   }
+
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
    }
 
    public synchronized void addCacheListener(CacheListener<? super K, ? super V> listener)
@@ -297,6 +631,21 @@ public class ConcurrentFIFOExoCache<K extends Serializable, V> implements ExoCac
 
    //
 
+   int weigh(K key, V obj)
+   {
+      Weigher<? super K, ? super V> weigher = this.weigher;
+      if (weigher == null)
+      {
+         return 1;
+      }
+      int weight = weigher.weigh(key, obj);
+      if (weight < 0)
+      {
+         throw new IllegalArgumentException("The weight of the key " + key + " cannot be negative");
+      }
+      return weight;
+   }
+
    void onExpire(K key, V obj)
    {
       if (!listeners.isEmpty())
@@ -0,0 +1,864 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.concurrent;
+
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheStatistics;
+import org.exoplatform.services.cache.CachedObjectSelector;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.log.Log;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link org.exoplatform.services.cache.ExoCache} implementation based on {@link java.util.concurrent.ConcurrentHashMap}
+ * that relies on the W-TinyLFU eviction policy. The new entries go first into a small admission window
+ * managed as an LRU, the entries evicted from the window then compete with the least recently used entries
+ * of a segmented LRU (probation and protected segments) and are only admitted if their estimated frequency
+ * is higher. The frequencies are estimated thanks to a compact count-min sketch.
+ * <p>
+ * The reads and the writes are recorded into buffers that are drained by a single thread at a time, so a
+ * get never waits for a lock and the writers only wait when the write buffer is too big.
+ *
+ * @version $Id$
+ */
+public class ConcurrentTinyLFUExoCache<K extends Serializable, V> implements InstrumentedExoCache<K, V>
+{
+
+   private static final int DEFAULT_MAX_SIZE = 50;
+
+   /**
+    * The amount of pending writes above which a writer waits for the eviction lock
+    */
+   private static final int WRITE_BUFFER_MAX = 128;
+
+   private static final int WINDOW = 0;
+
+   private static final int PROBATION = 1;
+
+   private static final int PROTECTED = 2;
+
+   private final Log log;
+
+   private volatile long liveTimeMillis;
+
+   volatile int maxSize;
+
+   private final CopyOnWriteArrayList<ListenerContext<K, V>> listeners;
+
+   private final ConcurrentHashMap<K, Node<K, V>> data;
+
+   private final ReadBuffer<Node<K, V>> readBuffer;
+
+   private final ConcurrentLinkedQueue<Runnable> writeBuffer;
+
+   private final AtomicInteger pendingWrites = new AtomicInteger();
+
+   private final ReentrantLock evictionLock = new ReentrantLock();
+
+   // The fields below are guarded by the eviction lock
+
+   private final FrequencySketch sketch;
+
+   private final AccessOrderDeque<K, V> window;
+
+   private final AccessOrderDeque<K, V> probation;
+
+   private final AccessOrderDeque<K, V> protectedSegment;
+
+   private final ArrayList<Node<K, V>> drainedReads = new ArrayList<Node<K, V>>();
+
+   private int windowMaxSize;
+
+   private int protectedMaxSize;
+
+   private final CacheStatistics statistics;
+
+   private String label;
+
+   private String name;
+
+   private boolean logEnabled = false;
+
+   public ConcurrentTinyLFUExoCache()
+   {
+      this(DEFAULT_MAX_SIZE);
+   }
+
+   public ConcurrentTinyLFUExoCache(int maxSize)
+   {
+      this(null, maxSize);
+   }
+
+   public ConcurrentTinyLFUExoCache(String name, int maxSize)
+   {
+      this(name, maxSize, null);
+   }
+
+   public ConcurrentTinyLFUExoCache(String name, int maxSize, Log log)
+   {
+      this.name = name;
+      this.statistics = new CacheStatistics(name);
+      this.log = log;
+      this.liveTimeMillis = -1;
+      this.listeners = new CopyOnWriteArrayList<ListenerContext<K, V>>();
+      this.data = new ConcurrentHashMap<K, Node<K, V>>();
+      this.readBuffer = new ReadBuffer<Node<K, V>>();
+      this.writeBuffer = new ConcurrentLinkedQueue<Runnable>();
+      this.window = new AccessOrderDeque<K, V>();
+      this.probation = new AccessOrderDeque<K, V>();
+      this.protectedSegment = new AccessOrderDeque<K, V>();
+      this.sketch = new FrequencySketch(maxSize);
+      this.maxSize = maxSize;
+      resize(maxSize);
+   }
+
+   /**
+    * Drains the pending events and checks that the eviction policy knows all the entries of the cache.
+    */
+   public void assertConsistent()
+   {
+      evictionLock.lock();
+      try
+      {
+         maintenance();
+         int mapSize = data.size();
+         int policySize = window.size + probation.size + protectedSegment.size;
+         if (policySize != mapSize)
+         {
+            throw new AssertionError("The map size is " + mapSize + " is different from the policy size "
+               + policySize);
+         }
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public void setName(String s)
+   {
+      name = s;
+      statistics.setCacheName(s);
+   }
+
+   public String getLabel()
+   {
+      if (label == null)
+      {
+         if (name.length() > 30)
+         {
+            String shortLabel = name.substring(name.lastIndexOf(".") + 1);
+            setLabel(shortLabel);
+            return shortLabel;
+         }
+         return name;
+      }
+      return label;
+   }
+
+   public void setLabel(String name)
+   {
+      label = name;
+   }
+
+   public long getLiveTime()
+   {
+      long tmp = getLiveTimeMillis();
+      return tmp == -1 ? -1 : tmp / 1000;
+   }
+
+   public void setLiveTime(long period)
+   {
+      setLiveTimeMillis(period * 1000);
+   }
+
+   public long getLiveTimeMillis()
+   {
+      return liveTimeMillis;
+   }
+
+   public void setLiveTimeMillis(long liveTimeMillis)
+   {
+      if (liveTimeMillis < 0)
+      {
+         liveTimeMillis = -1;
+      }
+      this.liveTimeMillis = liveTimeMillis;
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   public void setMaxSize(int max)
+   {
+      evictionLock.lock();
+      try
+      {
+         this.maxSize = max;
+         resize(max);
+         maintenance();
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public V get(Serializable name)
+   {
+      if (name == null)
+      {
+         return null;
+      }
+      long start = System.nanoTime();
+      Node<K, V> node = data.get(name);
+      if (node == null)
+      {
+         statistics.recordGet(start, false);
+         return null;
+      }
+      V o = node.getObject();
+      if (node.isValid())
+      {
+         statistics.recordGet(start, true);
+         if (readBuffer.offer(node) == ReadBuffer.FULL)
+         {
+            tryToDrain();
+         }
+         onGet(node.name, o);
+         return o;
+      }
+      statistics.recordGet(start, false);
+      if (data.remove(name, node))
+      {
+         node.retired = true;
+         afterWrite(new RemovalTask(node));
+         statistics.recordExpiration();
+         onExpire(node.name, o);
+      }
+      return null;
+   }
+
+   public void put(K name, V obj)
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      if (liveTimeMillis != 0)
+      {
+         long expirationTime = liveTimeMillis > 0 ? System.currentTimeMillis() + liveTimeMillis : Long.MAX_VALUE;
+         put(expirationTime, name, obj);
+      }
+   }
+
+   private void put(long expirationTime, K name, V obj)
+   {
+      long start = System.nanoTime();
+      Node<K, V> node = new Node<K, V>(expirationTime, name, obj);
+      Node<K, V> previous = data.put(name, node);
+      if (previous == null)
+      {
+         afterWrite(new AddTask(node));
+      }
+      else
+      {
+         previous.retired = true;
+         afterWrite(new UpdateTask(previous, node));
+      }
+      statistics.recordPut(start);
+      onPut(name, obj);
+   }
+
+   public void putMap(Map<? extends K, ? extends V> objs)
+   {
+      if (objs == null)
+      {
+         throw new IllegalArgumentException("No null map accepted");
+      }
+      long expirationTime = liveTimeMillis > 0 ? System.currentTimeMillis() + liveTimeMillis : Long.MAX_VALUE;
+      for (Serializable name : objs.keySet())
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+      }
+      for (Map.Entry<? extends K, ? extends V> entry : objs.entrySet())
+      {
+         put(expirationTime, entry.getKey(), entry.getValue());
+      }
+   }
+
+   public Map<K, V> getAll(Collection<? extends K> names)
+   {
+      ConcurrentFIFOExoCache.checkKeys(names);
+      Map<K, V> result = new LinkedHashMap<K, V>(names.size());
+      for (K name : names)
+      {
+         V value = get(name);
+         if (value != null)
+         {
+            result.put(name, value);
+         }
+      }
+      return result;
+   }
+
+   public void removeAll(Collection<? extends K> names)
+   {
+      ConcurrentFIFOExoCache.checkKeys(names);
+      for (K name : names)
+      {
+         remove(name);
+      }
+   }
+
+   public V remove(Serializable name)
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      Node<K, V> node = data.remove(name);
+      if (node == null)
+      {
+         return null;
+      }
+      node.retired = true;
+      afterWrite(new RemovalTask(node));
+      V object = node.getObject();
+      if (node.isValid())
+      {
+         statistics.recordRemoval();
+         onRemove(node.name, object);
+         return object;
+      }
+      statistics.recordExpiration();
+      onExpire(node.name, object);
+      return null;
+   }
+
+   public List<? extends V> getCachedObjects()
+   {
+      LinkedList<V> list = new LinkedList<V>();
+      for (Node<K, V> node : data.values())
+      {
+         V object = node.getObject();
+         if (node.isValid())
+         {
+            list.add(object);
+         }
+      }
+      return list;
+   }
+
+   public List<? extends V> removeCachedObjects()
+   {
+      List<? extends V> list = getCachedObjects();
+      clearCache();
+      return list;
+   }
+
+   public void clearCache()
+   {
+      evictionLock.lock();
+      try
+      {
+         maintenance();
+         for (Node<K, V> node : data.values())
+         {
+            if (data.remove(node.name, node))
+            {
+               node.retired = true;
+            }
+         }
+         window.clear();
+         probation.clear();
+         protectedSegment.clear();
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public void select(CachedObjectSelector<? super K, ? super V> selector) throws Exception
+   {
+      if (selector == null)
+      {
+         throw new IllegalArgumentException("No null selector");
+      }
+      for (Map.Entry<K, Node<K, V>> entry : data.entrySet())
+      {
+         K key = entry.getKey();
+         Node<K, V> info = entry.getValue();
+         if (selector.select(key, info))
+         {
+            selector.onSelect(this, key, info);
+         }
+      }
+   }
+
+   public int getCacheSize()
+   {
+      return data.size();
+   }
+
+   public int getCacheHit()
+   {
+      return CacheStatistics.toInt(statistics.getHits());
+   }
+
+   public int getCacheMiss()
+   {
+      return CacheStatistics.toInt(statistics.getMisses());
+   }
+
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
+   }
+
+   public synchronized void addCacheListener(CacheListener<? super K, ? super V> listener)
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener cannot be null");
+      }
+      listeners.add(new ListenerContext<K, V>(listener, this));
+   }
+
+   public boolean isLogEnabled()
+   {
+      return logEnabled;
+   }
+
+   public void setLogEnabled(boolean logEnabled)
+   {
+      this.logEnabled = logEnabled;
+   }
+
+   //
+
+   /**
+    * Records a write event and drains the buffers if no other thread is already doing it. If too
+    * many writes are pending, the current thread waits for the eviction lock to prevent the cache
+    * from growing beyond its capacity.
+    */
+   private void afterWrite(Runnable task)
+   {
+      writeBuffer.add(task);
+      if (pendingWrites.incrementAndGet() > WRITE_BUFFER_MAX)
+      {
+         evictionLock.lock();
+         try
+         {
+            maintenance();
+         }
+         finally
+         {
+            evictionLock.unlock();
+         }
+      }
+      tryToDrain();
+   }
+
+   /**
+    * Drains the buffers if the eviction lock is available, it never blocks.
+    */
+   private void tryToDrain()
+   {
+      do
+      {
+         if (!evictionLock.tryLock())
+         {
+            // The thread that owns the lock will check the write buffer once released
+            return;
+         }
+         try
+         {
+            maintenance();
+         }
+         finally
+         {
+            evictionLock.unlock();
+         }
+      }
+      while (!writeBuffer.isEmpty());
+   }
+
+   /**
+    * Applies the pending events to the eviction policy then evicts the entries in excess.
+    * Must be called with the eviction lock held.
+    */
+   private void maintenance()
+   {
+      readBuffer.drainTo(drainedReads);
+      for (int i = 0, length = drainedReads.size(); i < length; i++)
+      {
+         onAccess(drainedReads.get(i));
+      }
+      drainedReads.clear();
+      Runnable task;
+      while ((task = writeBuffer.poll()) != null)
+      {
+         pendingWrites.decrementAndGet();
+         task.run();
+      }
+      evict();
+   }
+
+   private void resize(int max)
+   {
+      int capacity = Math.max(max, 0);
+      int mainMaxSize = (int)(capacity * 0.99d);
+      this.windowMaxSize = capacity - mainMaxSize;
+      this.protectedMaxSize = (int)(mainMaxSize * 0.8d);
+      sketch.ensureCapacity(capacity);
+   }
+
+   private void onAccess(Node<K, V> node)
+   {
+      if (node.deque == null)
+      {
+         // Not yet added or already removed
+         return;
+      }
+      sketch.increment(node.keyHash);
+      if (node.queue == WINDOW)
+      {
+         window.moveToLast(node);
+      }
+      else if (node.queue == PROBATION)
+      {
+         probation.remove(node);
+         node.queue = PROTECTED;
+         protectedSegment.addLast(node);
+         while (protectedSegment.size > protectedMaxSize)
+         {
+            Node<K, V> demoted = protectedSegment.first();
+            protectedSegment.remove(demoted);
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+         }
+      }
+      else
+      {
+         protectedSegment.moveToLast(node);
+      }
+   }
+
+   private void evict()
+   {
+      int candidates = 0;
+      while (window.size > windowMaxSize)
+      {
+         Node<K, V> node = window.first();
+         window.remove(node);
+         node.queue = PROBATION;
+         probation.addLast(node);
+         candidates++;
+      }
+      int max = Math.max(maxSize, 0);
+      while (window.size + probation.size + protectedSegment.size > max)
+      {
+         Node<K, V> victim = probation.first();
+         if (victim == null)
+         {
+            victim = protectedSegment.size > 0 ? protectedSegment.first() : window.first();
+            evict(victim);
+            continue;
+         }
+         Node<K, V> candidate = candidates > 0 ? probation.last() : null;
+         if (candidate == null || candidate == victim)
+         {
+            if (candidate != null)
+            {
+               candidates--;
+            }
+            evict(victim);
+         }
+         else if (sketch.frequency(candidate.keyHash) > sketch.frequency(victim.keyHash))
+         {
+            evict(victim);
+         }
+         else
+         {
+            candidates--;
+            evict(candidate);
+         }
+      }
+   }
+
+   private void evict(Node<K, V> node)
+   {
+      node.deque.remove(node);
+      if (data.remove(node.name, node))
+      {
+         node.retired = true;
+         if (log != null && log.isTraceEnabled())
+         {
+            log.trace("Evicted item=" + node.serial + " [" + Thread.currentThread().getName() + "]");
+         }
+         statistics.recordEviction();
+         onExpire(node.name, node.getObject());
+      }
+   }
+
+   void onExpire(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onExpire(key, obj);
+   }
+
+   void onRemove(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onRemove(key, obj);
+   }
+
+   void onPut(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onPut(key, obj);
+   }
+
+   void onGet(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onGet(key, obj);
+   }
+
+   private class AddTask implements Runnable
+   {
+      private final Node<K, V> node;
+
+      AddTask(Node<K, V> node)
+      {
+         this.node = node;
+      }
+
+      public void run()
+      {
+         if (!node.retired)
+         {
+            sketch.increment(node.keyHash);
+            node.queue = WINDOW;
+            window.addLast(node);
+         }
+      }
+   }
+
+   private class UpdateTask implements Runnable
+   {
+      private final Node<K, V> previous;
+
+      private final Node<K, V> node;
+
+      UpdateTask(Node<K, V> previous, Node<K, V> node)
+      {
+         this.previous = previous;
+         this.node = node;
+      }
+
+      public void run()
+      {
+         AccessOrderDeque<K, V> deque = previous.deque;
+         int queue = WINDOW;
+         if (deque == null)
+         {
+            deque = window;
+         }
+         else
+         {
+            queue = previous.queue;
+            deque.remove(previous);
+         }
+         if (!node.retired)
+         {
+            sketch.increment(node.keyHash);
+            node.queue = queue;
+            deque.addLast(node);
+         }
+      }
+   }
+
+   private class RemovalTask implements Runnable
+   {
+      private final Node<K, V> node;
+
+      RemovalTask(Node<K, V> node)
+      {
+         this.node = node;
+      }
+
+      public void run()
+      {
+         if (node.deque != null)
+         {
+            node.deque.remove(node);
+         }
+      }
+   }
+
+   /**
+    * A cache entry, the links inherited from {@link Item} are used by the deque of the segment
+    * in which the entry is.
+    */
+   private static class Node<K extends Serializable, V> extends ObjectRef<K, V>
+   {
+
+      private final V object;
+
+      private final int keyHash;
+
+      /**
+       * Indicates whether the entry has been removed from the map
+       */
+      private volatile boolean retired;
+
+      /**
+       * The segment of the entry, guarded by the eviction lock
+       */
+      private int queue;
+
+      /**
+       * The deque that currently holds the entry, guarded by the eviction lock
+       */
+      private AccessOrderDeque<K, V> deque;
+
+      Node(long expirationTime, K name, V object)
+      {
+         super(expirationTime, name);
+         this.object = object;
+         this.keyHash = name.hashCode();
+      }
+
+      public boolean isValid()
+      {
+         return System.currentTimeMillis() < expirationTime;
+      }
+
+      public V getObject()
+      {
+         return object;
+      }
+   }
+
+   /**
+    * A doubly linked list ordered from the least recently used entry to the most
+    * recently used entry. It is not thread safe.
+    */
+   private static class AccessOrderDeque<K extends Serializable, V>
+   {
+      private final Item head = new Item();
+
+      private final Item tail = new Item();
+
+      private int size;
+
+      AccessOrderDeque()
+      {
+         clear();
+      }
+
+      @SuppressWarnings("unchecked")
+      Node<K, V> first()
+      {
+         return head.next == tail ? null : (Node<K, V>)head.next;
+      }
+
+      @SuppressWarnings("unchecked")
+      Node<K, V> last()
+      {
+         return tail.previous == head ? null : (Node<K, V>)tail.previous;
+      }
+
+      void addLast(Node<K, V> node)
+      {
+         Item previous = tail.previous;
+         node.previous = previous;
+         node.next = tail;
+         previous.next = node;
+         tail.previous = node;
+         node.deque = this;
+         size++;
+      }
+
+      void remove(Node<K, V> node)
+      {
+         node.previous.next = node.next;
+         node.next.previous = node.previous;
+         node.previous = null;
+         node.next = null;
+         node.deque = null;
+         size--;
+      }
+
+      void moveToLast(Node<K, V> node)
+      {
+         if (tail.previous != node)
+         {
+            remove(node);
+            addLast(node);
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      void clear()
+      {
+         for (Item item = head.next; item != null && item != tail;)
+         {
+            Item next = item.next;
+            Node<K, V> node = (Node<K, V>)item;
+            node.previous = null;
+            node.next = null;
+            node.deque = null;
+            item = next;
+         }
+         head.next = tail;
+         tail.previous = head;
+         size = 0;
+      }
+   }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.concurrent;
+
+/**
+ * A probabilistic multiset used to estimate the popularity of a key within a time window. It is a
+ * count-min sketch of 4-bit counters packed into longs, the counters are halved once the amount of
+ * recorded events reaches ten times the capacity so that the history ages out.
+ * <p>
+ * This class is not thread safe, it is only accessed by the thread that drains the buffers of
+ * {@link ConcurrentTinyLFUExoCache}.
+ *
+ * @version $Id$
+ */
+class FrequencySketch
+{
+
+   private static final long[] SEEDS =
+      {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+   private static final long RESET_MASK = 0x7777777777777777L;
+
+   private static final long ONE_MASK = 0x1111111111111111L;
+
+   private long[] table;
+
+   private int tableMask;
+
+   private int sampleSize;
+
+   private int size;
+
+   FrequencySketch(int maximumSize)
+   {
+      ensureCapacity(maximumSize);
+   }
+
+   /**
+    * Resizes the sketch if needed according to the new maximum size of the cache, the existing
+    * history is lost in that case.
+    *
+    * @param maximumSize the maximum size of the cache
+    */
+   void ensureCapacity(int maximumSize)
+   {
+      int maximum = Math.max(Math.min(maximumSize, 1 << 30), 16);
+      if (table != null && table.length >= maximum)
+      {
+         return;
+      }
+      table = new long[ceilingPowerOfTwo(maximum)];
+      tableMask = table.length - 1;
+      sampleSize = 10 * maximum;
+      size = 0;
+   }
+
+   /**
+    * Returns the estimated number of occurrences of the given hash code, up to the maximum (15).
+    *
+    * @param hashCode the hash code of the key
+    * @return the estimated frequency
+    */
+   int frequency(int hashCode)
+   {
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++)
+      {
+         int index = indexOf(hash, i);
+         int count = (int)((table[index] >>> ((start + i) << 2)) & 0xfL);
+         frequency = Math.min(frequency, count);
+      }
+      return frequency;
+   }
+
+   /**
+    * Increments the popularity of the given hash code if it does not exceed the maximum (15).
+    *
+    * @param hashCode the hash code of the key
+    */
+   void increment(int hashCode)
+   {
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++)
+      {
+         added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++size == sampleSize)
+      {
+         reset();
+      }
+   }
+
+   private boolean incrementAt(int i, int j)
+   {
+      int offset = j << 2;
+      long mask = 0xfL << offset;
+      if ((table[i] & mask) != mask)
+      {
+         table[i] += 1L << offset;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Halves every counter and adjusts the sample size accordingly.
+    */
+   private void reset()
+   {
+      int count = 0;
+      for (int i = 0; i < table.length; i++)
+      {
+         count += Long.bitCount(table[i] & ONE_MASK);
+         table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size = (size >>> 1) - (count >>> 2);
+   }
+
+   private int indexOf(int item, int i)
+   {
+      long hash = (item + SEEDS[i]) * SEEDS[i];
+      hash += hash >>> 32;
+      return ((int)hash) & tableMask;
+   }
+
+   private static int spread(int x)
+   {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+   }
+
+   private static int ceilingPowerOfTwo(int x)
+   {
+      return 1 << (32 - Integer.numberOfLeadingZeros(x - 1));
+   }
+}
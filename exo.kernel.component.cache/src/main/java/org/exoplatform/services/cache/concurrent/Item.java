@@ -37,6 +37,11 @@ public class Item
 
    Item next;
 
+   /**
+    * The weight of the item, it must not be modified once the item has been added to a queue
+    */
+   int weight;
+
    /**
     * This is final on purpose, we rely on object equality in the concurrent has
     */
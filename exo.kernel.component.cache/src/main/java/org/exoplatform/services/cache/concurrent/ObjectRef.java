@@ -35,6 +35,14 @@ abstract class ObjectRef<K extends Serializable, V> extends Item implements Obje
 
    protected final K name;
 
+   /**
+    * The links of the bucket of the {@link TimerWheel} in which the reference is indexed, they
+    * are guarded by the lock of the wheel
+    */
+   ObjectRef<K, V> timerPrevious;
+
+   ObjectRef<K, V> timerNext;
+
    protected ObjectRef(long expirationTime, K name)
    {
       this.name = name;
@@ -0,0 +1,882 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.concurrent;
+
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheStatistics;
+import org.exoplatform.services.cache.CachedObjectSelector;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.cache.JavaValueSerializer;
+import org.exoplatform.services.cache.ObjectCacheInfo;
+import org.exoplatform.services.cache.ValueSerializer;
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An {@link org.exoplatform.services.cache.ExoCache} implementation that stores the entries outside the java heap,
+ * so that big caches do not increase the garbage collection pauses. The keys and the values are serialized, the values
+ * thanks to the configured {@link ValueSerializer}, and written into ring buffers allocated with
+ * {@link java.nio.ByteBuffer#allocateDirect(int)}. The entries are partitioned by key hash into segments, each of them
+ * being protected by its own lock and bounded to its share of the max bytes.
+ * <p>
+ * When a segment is full, its oldest entries are evicted. With the <code>LRU</code> eviction policy, an entry that is
+ * read while being in the oldest half of its segment is moved back to the tail which approximates an LRU at the cost of
+ * a copy, with the default <code>FIFO</code> eviction policy the entries are evicted in insertion order. The max size
+ * is optional and bounds the amount of entries, the max bytes is always enforced.
+ * <p>
+ * Since the values are deserialized on each read, a get always returns a new copy of the value. The keys are compared
+ * by their serialized form, so a key must always be serialized the same way.
+ *
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+public class OffHeapExoCache<K extends Serializable, V> implements InstrumentedExoCache<K, V>
+{
+
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.component.cache.OffHeapExoCache");
+
+   /**
+    * The default maximum amount of bytes: 16 MB
+    */
+   public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+   /**
+    * The eviction policy that evicts the entries in insertion order
+    */
+   public static final String FIFO = "FIFO";
+
+   /**
+    * The eviction policy that evicts the least recently used entries
+    */
+   public static final String LRU = "LRU";
+
+   private static final int MAX_SEGMENTS = 16;
+
+   private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   private static final byte STRING_KEY = 0;
+
+   private static final byte SERIALIZED_KEY = 1;
+
+   private volatile long liveTimeMillis = -1;
+
+   private volatile int maxSize;
+
+   private volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+   private volatile boolean lru;
+
+   private volatile ValueSerializer<V> serializer = new JavaValueSerializer<V>();
+
+   private volatile OffHeapSegment[] segments;
+
+   private final CopyOnWriteArrayList<ListenerContext<K, V>> listeners = new CopyOnWriteArrayList<ListenerContext<K, V>>();
+
+   private final CacheStatistics statistics = new CacheStatistics(null);
+
+   private String label;
+
+   private String name;
+
+   private boolean logEnabled = false;
+
+   public OffHeapExoCache()
+   {
+   }
+
+   public OffHeapExoCache(String name, long maxBytes)
+   {
+      this.name = name;
+      statistics.setCacheName(name);
+      setMaxBytes(maxBytes);
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public void setName(String s)
+   {
+      name = s;
+      statistics.setCacheName(s);
+   }
+
+   public String getLabel()
+   {
+      if (label == null)
+      {
+         if (name.length() > 30)
+         {
+            String shortLabel = name.substring(name.lastIndexOf(".") + 1);
+            setLabel(shortLabel);
+            return shortLabel;
+         }
+         return name;
+      }
+      return label;
+   }
+
+   public void setLabel(String name)
+   {
+      label = name;
+   }
+
+   public long getLiveTime()
+   {
+      long tmp = getLiveTimeMillis();
+      return tmp == -1 ? -1 : tmp / 1000;
+   }
+
+   public void setLiveTime(long period)
+   {
+      setLiveTimeMillis(period * 1000);
+   }
+
+   public long getLiveTimeMillis()
+   {
+      return liveTimeMillis;
+   }
+
+   public void setLiveTimeMillis(long liveTimeMillis)
+   {
+      if (liveTimeMillis < 0)
+      {
+         liveTimeMillis = -1;
+      }
+      this.liveTimeMillis = liveTimeMillis;
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   /**
+    * Sets the maximum amount of entries, a value lower or equal to 0 means that only the max bytes
+    * bounds the cache.
+    */
+   public synchronized void setMaxSize(int max)
+   {
+      this.maxSize = max;
+      OffHeapSegment[] current = segments;
+      if (current != null)
+      {
+         for (OffHeapSegment segment : current)
+         {
+            segment.lock.lock();
+            try
+            {
+               segment.setMaxEntries(maxEntriesPerSegment(current.length));
+            }
+            finally
+            {
+               segment.lock.unlock();
+            }
+         }
+      }
+   }
+
+   /**
+    * @return the maximum amount of bytes that the entries can use
+    */
+   @Managed
+   @ManagedDescription("The maximum amount of bytes allocated outside the java heap")
+   public long getMaxBytes()
+   {
+      return maxBytes;
+   }
+
+   /**
+    * Sets the maximum amount of bytes that the entries can use, since the memory needs to be
+    * allocated again the content of the cache is lost.
+    *
+    * @param maxBytes the maximum amount of bytes
+    */
+   public synchronized void setMaxBytes(long maxBytes)
+   {
+      if (maxBytes < MIN_SEGMENT_SIZE)
+      {
+         throw new IllegalArgumentException("The max bytes cannot be lower than " + MIN_SEGMENT_SIZE);
+      }
+      if (maxBytes != this.maxBytes)
+      {
+         this.maxBytes = maxBytes;
+         // The memory will be allocated again on the next access, the previous one is released by the GC
+         segments = null;
+      }
+   }
+
+   /**
+    * @return the amount of bytes currently used by the entries including the ones removed but not yet reclaimed
+    */
+   @Managed
+   @ManagedDescription("The amount of bytes used outside the java heap")
+   public long getUsedBytes()
+   {
+      OffHeapSegment[] current = segments;
+      long used = 0;
+      if (current != null)
+      {
+         for (OffHeapSegment segment : current)
+         {
+            segment.lock.lock();
+            try
+            {
+               used += segment.usedBytes();
+            }
+            finally
+            {
+               segment.lock.unlock();
+            }
+         }
+      }
+      return used;
+   }
+
+   /**
+    * @return the eviction policy, either {@link #FIFO} or {@link #LRU}
+    */
+   public String getEvictionPolicy()
+   {
+      return lru ? LRU : FIFO;
+   }
+
+   /**
+    * Sets the eviction policy, either {@link #FIFO} or {@link #LRU}.
+    *
+    * @param evictionPolicy the eviction policy, null means {@link #FIFO}
+    */
+   public void setEvictionPolicy(String evictionPolicy)
+   {
+      if (evictionPolicy == null || FIFO.equalsIgnoreCase(evictionPolicy))
+      {
+         lru = false;
+      }
+      else if (LRU.equalsIgnoreCase(evictionPolicy))
+      {
+         lru = true;
+      }
+      else
+      {
+         throw new IllegalArgumentException("Unknown eviction policy " + evictionPolicy);
+      }
+   }
+
+   public ValueSerializer<V> getSerializer()
+   {
+      return serializer;
+   }
+
+   /**
+    * Sets the serializer of the values, since the existing values cannot be read anymore the content
+    * of the cache is lost.
+    *
+    * @param serializer the serializer of the values
+    */
+   public void setSerializer(ValueSerializer<V> serializer)
+   {
+      if (serializer == null)
+      {
+         throw new IllegalArgumentException("The serializer cannot be null");
+      }
+      this.serializer = serializer;
+      clearSegments();
+   }
+
+   public V get(Serializable name)
+   {
+      if (name == null)
+      {
+         return null;
+      }
+      long start = System.nanoTime();
+      byte[] key = toBytes(name);
+      if (key == null)
+      {
+         statistics.recordGet(start, false);
+         return null;
+      }
+      int hash = hash(key);
+      OffHeapSegment segment = segmentFor(hash);
+      List<byte[][]> expired = listeners.isEmpty() ? null : new ArrayList<byte[][]>();
+      long now = System.currentTimeMillis();
+      byte[] value;
+      segment.lock.lock();
+      try
+      {
+         value = segment.get(hash, key, now, lru, expired);
+      }
+      finally
+      {
+         segment.lock.unlock();
+      }
+      onExpire(expired);
+      V result = value == null ? null : toValue(value);
+      statistics.recordGet(start, result != null);
+      if (result == null)
+      {
+         return null;
+      }
+      onGet(cast(name), result);
+      return result;
+   }
+
+   public void put(K name, V obj)
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      if (liveTimeMillis != 0)
+      {
+         long expirationTime = liveTimeMillis > 0 ? System.currentTimeMillis() + liveTimeMillis : Long.MAX_VALUE;
+         put(expirationTime, name, obj);
+      }
+   }
+
+   public void putMap(Map<? extends K, ? extends V> objs)
+   {
+      if (objs == null)
+      {
+         throw new IllegalArgumentException("No null map accepted");
+      }
+      for (Serializable name : objs.keySet())
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+      }
+      if (liveTimeMillis != 0)
+      {
+         long expirationTime = liveTimeMillis > 0 ? System.currentTimeMillis() + liveTimeMillis : Long.MAX_VALUE;
+         for (Map.Entry<? extends K, ? extends V> entry : objs.entrySet())
+         {
+            put(expirationTime, entry.getKey(), entry.getValue());
+         }
+      }
+   }
+
+   private void put(long expirationTime, K name, V obj)
+   {
+      long start = System.nanoTime();
+      byte[] key = toBytes(name);
+      if (key == null)
+      {
+         return;
+      }
+      byte[] value;
+      try
+      {
+         value = serializer.serialize(obj);
+      }
+      catch (IOException e)
+      {
+         LOG.warn("Could not serialize the value of the key " + name + " in the cache " + this.name, e);
+         // Any previous value is removed since it is not up to date anymore
+         remove(name);
+         return;
+      }
+      int hash = hash(key);
+      OffHeapSegment segment = segmentFor(hash);
+      List<byte[][]> evicted = listeners.isEmpty() ? null : new ArrayList<byte[][]>();
+      boolean stored;
+      segment.lock.lock();
+      try
+      {
+         stored = segment.put(hash, key, value, expirationTime, evicted);
+         if (!stored)
+         {
+            segment.remove(hash, key, Long.MIN_VALUE, null);
+         }
+      }
+      finally
+      {
+         segment.lock.unlock();
+      }
+      if (!stored && logEnabled && LOG.isDebugEnabled())
+      {
+         LOG.debug("The entry of the key " + name + " is too big to be stored in the cache " + this.name);
+      }
+      onExpire(evicted);
+      if (stored)
+      {
+         statistics.recordPut(start);
+         onPut(name, obj);
+      }
+   }
+
+   public V remove(Serializable name)
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      byte[] key = toBytes(name);
+      if (key == null)
+      {
+         return null;
+      }
+      int hash = hash(key);
+      OffHeapSegment segment = segmentFor(hash);
+      List<byte[][]> expired = listeners.isEmpty() ? null : new ArrayList<byte[][]>();
+      byte[] value;
+      segment.lock.lock();
+      try
+      {
+         value = segment.remove(hash, key, System.currentTimeMillis(), expired);
+      }
+      finally
+      {
+         segment.lock.unlock();
+      }
+      onExpire(expired);
+      if (value == null)
+      {
+         return null;
+      }
+      V result = toValue(value);
+      statistics.recordRemoval();
+      onRemove(cast(name), result);
+      return result;
+   }
+
+   public Map<K, V> getAll(Collection<? extends K> names)
+   {
+      ConcurrentFIFOExoCache.checkKeys(names);
+      Map<K, V> result = new LinkedHashMap<K, V>(names.size());
+      for (K name : names)
+      {
+         V value = get(name);
+         if (value != null)
+         {
+            result.put(name, value);
+         }
+      }
+      return result;
+   }
+
+   public void removeAll(Collection<? extends K> names)
+   {
+      ConcurrentFIFOExoCache.checkKeys(names);
+      for (K name : names)
+      {
+         remove(name);
+      }
+   }
+
+   public List<? extends V> getCachedObjects()
+   {
+      LinkedList<V> list = new LinkedList<V>();
+      for (Object[] entry : collect(false))
+      {
+         V value = toValue((byte[])entry[1]);
+         if (value != null)
+         {
+            list.add(value);
+         }
+      }
+      return list;
+   }
+
+   public List<? extends V> removeCachedObjects()
+   {
+      List<? extends V> list = getCachedObjects();
+      clearCache();
+      return list;
+   }
+
+   public void clearCache()
+   {
+      clearSegments();
+      onClearCache();
+   }
+
+   public void select(CachedObjectSelector<? super K, ? super V> selector) throws Exception
+   {
+      if (selector == null)
+      {
+         throw new IllegalArgumentException("No null selector");
+      }
+      for (Object[] entry : collect(true))
+      {
+         K key = toKey((byte[])entry[0]);
+         V value = toValue((byte[])entry[1]);
+         if (key == null || value == null)
+         {
+            continue;
+         }
+         ObjectCacheInfo<V> info = new CacheInfo<V>(value, (Long)entry[2]);
+         if (selector.select(key, info))
+         {
+            selector.onSelect(this, key, info);
+         }
+      }
+   }
+
+   public int getCacheSize()
+   {
+      OffHeapSegment[] current = segments;
+      int size = 0;
+      if (current != null)
+      {
+         for (OffHeapSegment segment : current)
+         {
+            segment.lock.lock();
+            try
+            {
+               size += segment.size();
+            }
+            finally
+            {
+               segment.lock.unlock();
+            }
+         }
+      }
+      return size;
+   }
+
+   public int getCacheHit()
+   {
+      return CacheStatistics.toInt(statistics.getHits());
+   }
+
+   public int getCacheMiss()
+   {
+      return CacheStatistics.toInt(statistics.getMisses());
+   }
+
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
+   }
+
+   public synchronized void addCacheListener(CacheListener<? super K, ? super V> listener)
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener cannot be null");
+      }
+      listeners.add(new ListenerContext<K, V>(listener, this));
+   }
+
+   public boolean isLogEnabled()
+   {
+      return logEnabled;
+   }
+
+   public void setLogEnabled(boolean logEnabled)
+   {
+      this.logEnabled = logEnabled;
+   }
+
+   /**
+    * Checks the consistency of all the segments, only meant to be used for testing purpose.
+    */
+   public void assertConsistent()
+   {
+      OffHeapSegment[] current = segments;
+      if (current != null)
+      {
+         for (OffHeapSegment segment : current)
+         {
+            segment.lock.lock();
+            try
+            {
+               segment.assertConsistency();
+            }
+            finally
+            {
+               segment.lock.unlock();
+            }
+         }
+      }
+   }
+
+   //
+
+   /**
+    * Gives the segments, they are allocated on the first access.
+    */
+   private OffHeapSegment[] getSegments()
+   {
+      OffHeapSegment[] current = segments;
+      if (current == null)
+      {
+         synchronized (this)
+         {
+            current = segments;
+            if (current == null)
+            {
+               int count = 1;
+               while (count < MAX_SEGMENTS && maxBytes / (count * 2) >= MIN_SEGMENT_SIZE)
+               {
+                  count *= 2;
+               }
+               int capacity = (int)Math.min(maxBytes / count, Integer.MAX_VALUE - 8);
+               current = new OffHeapSegment[count];
+               for (int i = 0; i < count; i++)
+               {
+                  current[i] = new OffHeapSegment(capacity, statistics);
+                  current[i].setMaxEntries(maxEntriesPerSegment(count));
+               }
+               segments = current;
+            }
+         }
+      }
+      return current;
+   }
+
+   private int maxEntriesPerSegment(int count)
+   {
+      return maxSize <= 0 ? 0 : (maxSize + count - 1) / count;
+   }
+
+   private OffHeapSegment segmentFor(int hash)
+   {
+      OffHeapSegment[] current = getSegments();
+      // The highest bits are used to select the segment since the lowest ones are used by the index
+      return current[(hash >>> 28) & (current.length - 1)];
+   }
+
+   private void clearSegments()
+   {
+      OffHeapSegment[] current = segments;
+      if (current != null)
+      {
+         for (OffHeapSegment segment : current)
+         {
+            segment.lock.lock();
+            try
+            {
+               segment.clear();
+            }
+            finally
+            {
+               segment.lock.unlock();
+            }
+         }
+      }
+   }
+
+   /**
+    * Gives the valid entries of all the segments.
+    */
+   private List<Object[]> collect(boolean withKeys)
+   {
+      List<Object[]> entries = new ArrayList<Object[]>();
+      OffHeapSegment[] current = segments;
+      if (current != null)
+      {
+         long now = System.currentTimeMillis();
+         for (OffHeapSegment segment : current)
+         {
+            segment.lock.lock();
+            try
+            {
+               segment.collect(now, withKeys, entries);
+            }
+            finally
+            {
+               segment.lock.unlock();
+            }
+         }
+      }
+      return entries;
+   }
+
+   private static int hash(byte[] key)
+   {
+      int h = 1;
+      for (byte b : key)
+      {
+         h = 31 * h + b;
+      }
+      // Spread the bits so that both the lowest and the highest bits depend on the whole key
+      h ^= (h >>> 16);
+      h *= 0x85ebca6b;
+      h ^= (h >>> 13);
+      h *= 0xc2b2ae35;
+      h ^= (h >>> 16);
+      return h;
+   }
+
+   private byte[] toBytes(Serializable name)
+   {
+      if (name instanceof String)
+      {
+         byte[] chars = ((String)name).getBytes(UTF_8);
+         byte[] key = new byte[chars.length + 1];
+         key[0] = STRING_KEY;
+         System.arraycopy(chars, 0, key, 1, chars.length);
+         return key;
+      }
+      try
+      {
+         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+         baos.write(SERIALIZED_KEY);
+         ObjectOutputStream oos = new ObjectOutputStream(baos);
+         try
+         {
+            oos.writeObject(name);
+         }
+         finally
+         {
+            oos.close();
+         }
+         return baos.toByteArray();
+      }
+      catch (IOException e)
+      {
+         LOG.warn("Could not serialize the key " + name + " of the cache " + this.name, e);
+         return null;
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private K toKey(byte[] key)
+   {
+      if (key[0] == STRING_KEY)
+      {
+         return (K)new String(key, 1, key.length - 1, UTF_8);
+      }
+      try
+      {
+         ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(key, 1, key.length - 1));
+         try
+         {
+            return (K)ois.readObject();
+         }
+         finally
+         {
+            ois.close();
+         }
+      }
+      catch (Exception e)
+      {
+         LOG.warn("Could not deserialize a key of the cache " + name, e);
+         return null;
+      }
+   }
+
+   private V toValue(byte[] value)
+   {
+      try
+      {
+         return serializer.deserialize(value);
+      }
+      catch (IOException e)
+      {
+         LOG.warn("Could not deserialize a value of the cache " + name, e);
+         return null;
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private K cast(Serializable name)
+   {
+      return (K)name;
+   }
+
+   private static class CacheInfo<V> implements ObjectCacheInfo<V>
+   {
+
+      private final V value;
+
+      private final long expirationTime;
+
+      CacheInfo(V value, long expirationTime)
+      {
+         this.value = value;
+         this.expirationTime = expirationTime;
+      }
+
+      public long getExpireTime()
+      {
+         return expirationTime;
+      }
+
+      public V get()
+      {
+         return value;
+      }
+   }
+
+   void onExpire(List<byte[][]> entries)
+   {
+      if (entries != null && !entries.isEmpty() && !listeners.isEmpty())
+      {
+         for (byte[][] entry : entries)
+         {
+            K key = toKey(entry[0]);
+            V value = toValue(entry[1]);
+            for (ListenerContext<K, V> context : listeners)
+               context.onExpire(key, value);
+         }
+      }
+   }
+
+   void onRemove(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onRemove(key, obj);
+   }
+
+   void onPut(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onPut(key, obj);
+   }
+
+   void onGet(K key, V obj)
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onGet(key, obj);
+   }
+
+   void onClearCache()
+   {
+      if (!listeners.isEmpty())
+         for (ListenerContext<K, V> context : listeners)
+            context.onClearCache();
+   }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.concurrent;
+
+import org.exoplatform.services.cache.CacheStatistics;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A segment of an {@link OffHeapExoCache}. The entries are appended to a ring buffer allocated outside
+ * the java heap and evicted from its head, so the eviction order is the insertion order. The entries are
+ * indexed thanks to an open addressing hash table also allocated outside the java heap, so that the heap
+ * usage does not depend on the amount of entries.
+ * <p>
+ * An entry is laid out as follows: total length (int), status (byte), key hash (int), expiration time (long),
+ * key length (int), value length (int), key bytes and value bytes. A removed entry is only marked as dead,
+ * its space is reclaimed once the head of the ring reaches it. A slot of the hash table contains the
+ * key hash (int) and the offset of the entry plus one (int), 0 meaning that the slot is free.
+ * <p>
+ * All the methods must be called while holding the lock of the segment.
+ *
+ * @version $Id$
+ */
+class OffHeapSegment
+{
+
+   private static final int LENGTH = 0;
+
+   private static final int STATUS = 4;
+
+   private static final int HASH = 5;
+
+   private static final int EXPIRATION = 9;
+
+   private static final int KEY_LENGTH = 17;
+
+   private static final int VALUE_LENGTH = 21;
+
+   /**
+    * The size of the header of an entry
+    */
+   static final int HEADER = 25;
+
+   /**
+    * The marker indicating that the rest of the ring buffer is unused
+    */
+   private static final int WRAP = -1;
+
+   private static final byte LIVE = 1;
+
+   private static final byte DEAD = 0;
+
+   /**
+    * The size of a slot of the hash table
+    */
+   private static final int SLOT = 8;
+
+   private static final int INITIAL_SLOTS = 256;
+
+   /** . */
+   final ReentrantLock lock = new ReentrantLock();
+
+   /** . */
+   private final ByteBuffer data;
+
+   /** A view of the data used for the bulk operations. */
+   private final ByteBuffer view;
+
+   /** . */
+   private final int capacity;
+
+   /** . */
+   private ByteBuffer table;
+
+   /** . */
+   private int mask;
+
+   /** The amount of live entries. */
+   private int count;
+
+   /** The maximum amount of live entries. */
+   private int maxEntries = Integer.MAX_VALUE;
+
+   /** The offset of the oldest entry. */
+   private int head;
+
+   /** The offset where the next entry will be written. */
+   private int tail;
+
+   /** The amount of bytes between the head and the tail including the dead entries. */
+   private int used;
+
+   /** The statistics in which the evictions and the expirations are recorded. */
+   private final CacheStatistics statistics;
+
+   OffHeapSegment(int capacity, CacheStatistics statistics)
+   {
+      this.capacity = capacity;
+      this.statistics = statistics;
+      this.data = ByteBuffer.allocateDirect(capacity);
+      this.view = data.duplicate();
+      this.table = ByteBuffer.allocateDirect(INITIAL_SLOTS * SLOT);
+      this.mask = INITIAL_SLOTS - 1;
+   }
+
+   int size()
+   {
+      return count;
+   }
+
+   int usedBytes()
+   {
+      return used;
+   }
+
+   int capacity()
+   {
+      return capacity;
+   }
+
+   void setMaxEntries(int maxEntries)
+   {
+      this.maxEntries = maxEntries <= 0 ? Integer.MAX_VALUE : maxEntries;
+   }
+
+   /**
+    * Gives the value of the given key.
+    *
+    * @param promote indicates whether the entry should be moved to the tail if it is getting close to the head
+    * @param expired the list to which the entry is added if it has expired, can be null
+    * @return the value or null if there is no valid entry
+    */
+   byte[] get(int hash, byte[] key, long now, boolean promote, List<byte[][]> expired)
+   {
+      int slot = find(hash, key);
+      if (slot == -1)
+      {
+         return null;
+      }
+      int offset = offsetOf(slot);
+      long expirationTime = data.getLong(offset + EXPIRATION);
+      if (expirationTime <= now)
+      {
+         statistics.recordExpiration();
+         if (expired != null)
+         {
+            expired.add(new byte[][]{key, readValue(offset)});
+         }
+         kill(slot, offset);
+         return null;
+      }
+      byte[] value = readValue(offset);
+      if (promote && distanceFromTail(offset) > used / 2)
+      {
+         // The entry is in the oldest half of the ring, so it is moved to the tail to be evicted later
+         kill(slot, offset);
+         append(hash, key, value, expirationTime, expired);
+      }
+      return value;
+   }
+
+   /**
+    * Puts the given entry, the oldest entries are evicted if there is not enough space.
+    *
+    * @param evicted the list to which the evicted entries are added, can be null
+    * @return <code>false</code> if the entry is too big to be stored, <code>true</code> otherwise
+    */
+   boolean put(int hash, byte[] key, byte[] value, long expirationTime, List<byte[][]> evicted)
+   {
+      if (HEADER + key.length + value.length > capacity)
+      {
+         return false;
+      }
+      int slot = find(hash, key);
+      if (slot != -1)
+      {
+         kill(slot, offsetOf(slot));
+      }
+      while (count >= maxEntries)
+      {
+         evictHead(evicted);
+      }
+      append(hash, key, value, expirationTime, evicted);
+      return true;
+   }
+
+   /**
+    * Removes the entry of the given key.
+    *
+    * @param expired the list to which the entry is added if it has expired, can be null
+    * @return the value or null if there is no valid entry
+    */
+   byte[] remove(int hash, byte[] key, long now, List<byte[][]> expired)
+   {
+      int slot = find(hash, key);
+      if (slot == -1)
+      {
+         return null;
+      }
+      int offset = offsetOf(slot);
+      byte[] value = readValue(offset);
+      boolean valid = data.getLong(offset + EXPIRATION) > now;
+      kill(slot, offset);
+      if (valid)
+      {
+         return value;
+      }
+      statistics.recordExpiration();
+      if (expired != null)
+      {
+         expired.add(new byte[][]{key, value});
+      }
+      return null;
+   }
+
+   /**
+    * Removes all the entries.
+    */
+   void clear()
+   {
+      head = 0;
+      tail = 0;
+      used = 0;
+      count = 0;
+      table = ByteBuffer.allocateDirect(INITIAL_SLOTS * SLOT);
+      mask = INITIAL_SLOTS - 1;
+   }
+
+   /**
+    * Adds to the given list the valid entries from the oldest to the newest.
+    *
+    * @param withKeys indicates whether the keys must be read
+    */
+   void collect(long now, boolean withKeys, List<Object[]> entries)
+   {
+      int position = head;
+      int remaining = used;
+      while (remaining > 0)
+      {
+         int left = capacity - position;
+         if (left < HEADER || data.getInt(position + LENGTH) == WRAP)
+         {
+            remaining -= left;
+            position = 0;
+            continue;
+         }
+         int length = data.getInt(position + LENGTH);
+         long expirationTime = data.getLong(position + EXPIRATION);
+         if (data.get(position + STATUS) == LIVE && expirationTime > now)
+         {
+            entries.add(new Object[]{withKeys ? readKey(position) : null, readValue(position), expirationTime});
+         }
+         remaining -= length;
+         position += length;
+      }
+   }
+
+   /**
+    * Appends the given entry to the tail of the ring and indexes it.
+    */
+   private void append(int hash, byte[] key, byte[] value, long expirationTime, List<byte[][]> evicted)
+   {
+      int length = HEADER + key.length + value.length;
+      int offset = allocate(length, evicted);
+      data.putInt(offset + LENGTH, length);
+      data.put(offset + STATUS, LIVE);
+      data.putInt(offset + HASH, hash);
+      data.putLong(offset + EXPIRATION, expirationTime);
+      data.putInt(offset + KEY_LENGTH, key.length);
+      data.putInt(offset + VALUE_LENGTH, value.length);
+      view.position(offset + HEADER);
+      view.put(key);
+      view.put(value);
+      insert(hash, offset);
+   }
+
+   /**
+    * Reserves the given amount of bytes at the tail of the ring, evicting the oldest entries if needed.
+    */
+   private int allocate(int length, List<byte[][]> evicted)
+   {
+      while (true)
+      {
+         if (used == 0)
+         {
+            head = 0;
+            tail = 0;
+         }
+         if (used == 0 || tail > head)
+         {
+            int left = capacity - tail;
+            if (left >= length)
+            {
+               break;
+            }
+            // Not enough space until the end of the ring so we continue from the beginning
+            if (left >= HEADER)
+            {
+               data.putInt(tail + LENGTH, WRAP);
+            }
+            used += left;
+            tail = 0;
+         }
+         else if (head - tail >= length)
+         {
+            break;
+         }
+         else
+         {
+            evictHead(evicted);
+         }
+      }
+      int offset = tail;
+      tail += length;
+      used += length;
+      return offset;
+   }
+
+   /**
+    * Evicts the oldest entry.
+    */
+   private void evictHead(List<byte[][]> evicted)
+   {
+      int left = capacity - head;
+      if (left < HEADER || data.getInt(head + LENGTH) == WRAP)
+      {
+         used -= left;
+         head = 0;
+         return;
+      }
+      int length = data.getInt(head + LENGTH);
+      if (data.get(head + STATUS) == LIVE)
+      {
+         statistics.recordEviction();
+         if (evicted != null)
+         {
+            evicted.add(new byte[][]{readKey(head), readValue(head)});
+         }
+         delete(slotOf(data.getInt(head + HASH), head));
+         data.put(head + STATUS, DEAD);
+      }
+      used -= length;
+      head += length;
+   }
+
+   /**
+    * Marks the given entry as dead and removes it from the index.
+    */
+   private void kill(int slot, int offset)
+   {
+      data.put(offset + STATUS, DEAD);
+      delete(slot);
+   }
+
+   private int distanceFromTail(int offset)
+   {
+      return tail > offset ? tail - offset : tail + capacity - offset;
+   }
+
+   private byte[] readKey(int offset)
+   {
+      byte[] key = new byte[data.getInt(offset + KEY_LENGTH)];
+      view.position(offset + HEADER);
+      view.get(key);
+      return key;
+   }
+
+   private byte[] readValue(int offset)
+   {
+      int keyLength = data.getInt(offset + KEY_LENGTH);
+      byte[] value = new byte[data.getInt(offset + VALUE_LENGTH)];
+      view.position(offset + HEADER + keyLength);
+      view.get(value);
+      return value;
+   }
+
+   private boolean keyEquals(int offset, byte[] key)
+   {
+      if (data.getInt(offset + KEY_LENGTH) != key.length)
+      {
+         return false;
+      }
+      int position = offset + HEADER;
+      for (int i = 0; i < key.length; i++)
+      {
+         if (data.get(position + i) != key[i])
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private int offsetOf(int slot)
+   {
+      return table.getInt(slot * SLOT + 4) - 1;
+   }
+
+   /**
+    * @return the slot of the given key or -1 if it cannot be found
+    */
+   private int find(int hash, byte[] key)
+   {
+      for (int i = hash & mask;; i = (i + 1) & mask)
+      {
+         int ref = table.getInt(i * SLOT + 4);
+         if (ref == 0)
+         {
+            return -1;
+         }
+         if (table.getInt(i * SLOT) == hash && keyEquals(ref - 1, key))
+         {
+            return i;
+         }
+      }
+   }
+
+   /**
+    * @return the slot of the entry at the given offset
+    */
+   private int slotOf(int hash, int offset)
+   {
+      for (int i = hash & mask;; i = (i + 1) & mask)
+      {
+         if (table.getInt(i * SLOT + 4) == offset + 1)
+         {
+            return i;
+         }
+      }
+   }
+
+   private void insert(int hash, int offset)
+   {
+      if ((count + 1) * 4L > (mask + 1) * 3L)
+      {
+         resize();
+      }
+      int i = hash & mask;
+      while (table.getInt(i * SLOT + 4) != 0)
+      {
+         i = (i + 1) & mask;
+      }
+      table.putInt(i * SLOT, hash);
+      table.putInt(i * SLOT + 4, offset + 1);
+      count++;
+   }
+
+   /**
+    * Frees the given slot and shifts back the following slots of the cluster so that no lookup is broken.
+    */
+   private void delete(int slot)
+   {
+      int i = slot;
+      int j = slot;
+      while (true)
+      {
+         j = (j + 1) & mask;
+         int ref = table.getInt(j * SLOT + 4);
+         if (ref == 0)
+         {
+            break;
+         }
+         int k = table.getInt(j * SLOT) & mask;
+         // The slot j can be moved to i only if its ideal slot k is not cyclically within (i, j]
+         if (i <= j ? (i < k && k <= j) : (i < k || k <= j))
+         {
+            continue;
+         }
+         table.putInt(i * SLOT, table.getInt(j * SLOT));
+         table.putInt(i * SLOT + 4, ref);
+         i = j;
+      }
+      table.putInt(i * SLOT, 0);
+      table.putInt(i * SLOT + 4, 0);
+      count--;
+   }
+
+   /**
+    * Doubles the size of the hash table.
+    */
+   private void resize()
+   {
+      ByteBuffer oldTable = table;
+      int oldSlots = mask + 1;
+      table = ByteBuffer.allocateDirect(oldSlots * 2 * SLOT);
+      mask = oldSlots * 2 - 1;
+      for (int s = 0; s < oldSlots; s++)
+      {
+         int ref = oldTable.getInt(s * SLOT + 4);
+         if (ref != 0)
+         {
+            int hash = oldTable.getInt(s * SLOT);
+            int i = hash & mask;
+            while (table.getInt(i * SLOT + 4) != 0)
+            {
+               i = (i + 1) & mask;
+            }
+            table.putInt(i * SLOT, hash);
+            table.putInt(i * SLOT + 4, ref);
+         }
+      }
+   }
+
+   /**
+    * Checks the consistency of the segment, only meant to be used for testing purpose.
+    */
+   void assertConsistency()
+   {
+      int live = 0;
+      int position = head;
+      int remaining = used;
+      while (remaining > 0)
+      {
+         int left = capacity - position;
+         if (left < HEADER || data.getInt(position + LENGTH) == WRAP)
+         {
+            remaining -= left;
+            position = 0;
+            continue;
+         }
+         int length = data.getInt(position + LENGTH);
+         if (data.get(position + STATUS) == LIVE)
+         {
+            live++;
+            if (offsetOf(slotOf(data.getInt(position + HASH), position)) != position)
+            {
+               throw new AssertionError("The entry at " + position + " is not indexed");
+            }
+         }
+         remaining -= length;
+         position += length;
+      }
+      if (remaining != 0 || (used > 0 && position != tail))
+      {
+         throw new AssertionError("The ring is corrupted");
+      }
+      if (live != count)
+      {
+         throw new AssertionError("The amount of live entries " + live + " is different from the count " + count);
+      }
+   }
+}
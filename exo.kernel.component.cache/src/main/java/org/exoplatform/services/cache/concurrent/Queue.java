@@ -35,6 +35,12 @@ public interface Queue<I extends Item>
     */
    public int size();
 
+   /**
+    * Returns the total weight of the items of the queue
+    * @return the weight
+    */
+   public long weight();
+
    /**
     * Attempt to remove an item from the queue.
     *
@@ -58,4 +64,15 @@ public interface Queue<I extends Item>
     * @return the list of evicted items
     */
    public ArrayList<I> trim(int size);
+
+   /**
+    * Attempt to trim the queue. Trim will occur if no other thread is already performing a trim
+    * and the queue size is greater than the provided size or the queue weight is greater than the
+    * provided weight.
+    *
+    * @param size the wanted size
+    * @param weight the wanted weight, a value lower or equal to 0 means that the weight is not bounded
+    * @return the list of evicted items
+    */
+   public ArrayList<I> trim(int size, long weight);
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.concurrent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lossy buffer used to record the read events of {@link ConcurrentTinyLFUExoCache} without
+ * taking any lock. The events are spread over several ring buffers according to the calling
+ * thread to limit the contention, when a ring buffer is full the new events are simply dropped
+ * since they are only used as hints by the eviction policy.
+ * <p>
+ * Many threads can offer events concurrently but only one thread at a time is expected to drain
+ * the buffer.
+ *
+ * @version $Id$
+ */
+class ReadBuffer<E>
+{
+
+   /**
+    * The event has been recorded
+    */
+   static final int SUCCESS = 0;
+
+   /**
+    * The event has been dropped because of a concurrent offer
+    */
+   static final int FAILED = 1;
+
+   /**
+    * The event has been dropped or recorded but the ring buffer is now full
+    */
+   static final int FULL = 2;
+
+   /**
+    * The amount of events that can be held by a ring buffer
+    */
+   static final int RING_SIZE = 16;
+
+   private static final int RING_MASK = RING_SIZE - 1;
+
+   private final Ring<E>[] rings;
+
+   private final int mask;
+
+   @SuppressWarnings("unchecked")
+   ReadBuffer()
+   {
+      int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) - 1) << 1;
+      count = Math.min(Math.max(count, 1), 64);
+      this.rings = new Ring[count];
+      for (int i = 0; i < count; i++)
+      {
+         rings[i] = new Ring<E>();
+      }
+      this.mask = count - 1;
+   }
+
+   /**
+    * Records the given event.
+    *
+    * @param e the event to record
+    * @return {@link #SUCCESS}, {@link #FAILED} or {@link #FULL}
+    */
+   int offer(E e)
+   {
+      long id = Thread.currentThread().getId();
+      int h = (int)(id ^ (id >>> 32)) * 0x9e3779b9;
+      return rings[(h ^ (h >>> 16)) & mask].offer(e);
+   }
+
+   /**
+    * Moves all the recorded events into the given list. This method must not
+    * be called concurrently.
+    *
+    * @param sink the list into which the events are added
+    */
+   void drainTo(List<E> sink)
+   {
+      for (int i = 0; i < rings.length; i++)
+      {
+         rings[i].drainTo(sink);
+      }
+   }
+
+   private static class Ring<E>
+   {
+      private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<E>(RING_SIZE);
+
+      private final AtomicLong writeCounter = new AtomicLong();
+
+      private volatile long readCounter;
+
+      int offer(E e)
+      {
+         long head = readCounter;
+         long tail = writeCounter.get();
+         long size = tail - head;
+         if (size >= RING_SIZE)
+         {
+            return FULL;
+         }
+         if (writeCounter.compareAndSet(tail, tail + 1))
+         {
+            buffer.lazySet((int)(tail & RING_MASK), e);
+            return size + 1 == RING_SIZE ? FULL : SUCCESS;
+         }
+         return FAILED;
+      }
+
+      void drainTo(List<E> sink)
+      {
+         long head = readCounter;
+         long tail = writeCounter.get();
+         for (; head < tail; head++)
+         {
+            int index = (int)(head & RING_MASK);
+            E e = buffer.get(index);
+            if (e == null)
+            {
+               // The event has not been published yet
+               break;
+            }
+            buffer.lazySet(index, null);
+            sink.add(e);
+         }
+         readCounter = head;
+      }
+   }
+}
@@ -26,11 +26,23 @@ import org.exoplatform.services.log.Log;
 import org.exoplatform.services.rpc.RPCService;
 import org.exoplatform.services.rpc.RemoteCommand;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>This implementation of {@link ExoCache} will behave exactly the same way as {@link ConcurrentFIFOExoCache}
@@ -38,12 +50,18 @@ import java.util.UUID;
  * then it will be replicated over the cluster asynchronously to limit the performance impact
  * on the local cluster node.</p>
  * <p>This class can be used as a drop-in replacement for {@link ConcurrentFIFOExoCache} in a cluster environment 
- * as long as we know that modifications like remove, clearCache, removeCachedObjects, put or putMap happen rarely. 
+ * as long as we know that modifications like remove, removeAll, clearCache, removeCachedObjects, put or putMap happen rarely. 
  * In other words, it should be used for caches that rarely change.</p>
  * 
  * <b>This limitation is due to the fact that the mechanism used for the replication
  * has not been designed to support heavy load so it must be used with a lot of caution.</b>
  * 
+ * <p>To reduce the amount of messages, a batch window can be set, in which case the changes are
+ * buffered during the window, coalesced per key such that only the last change of a key is kept,
+ * then replicated in one binary message. A batch is also sent as soon as it reaches the max batch
+ * size. The other cluster nodes decode the whole batch before applying it and apply the batches
+ * one at a time.</p>
+ * 
  * @author <a href="mailto:nfilotto@exoplatform.com">Nicolas Filotto</a>
  * @version $Id$
  *
@@ -55,6 +73,26 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
     */
    private static final Log LOG = ExoLogger.getLogger("exo.kernel.component.cache.SimpleReplicatedExoCache");
 
+   /**
+    * The default max batch size
+    */
+   private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+   /**
+    * The marker of a removal in the replication buffer
+    */
+   private static final Object REMOVED = new Object();
+
+   /**
+    * The code of a put in a batch
+    */
+   private static final byte PUT = 0;
+
+   /**
+    * The code of a removal in a batch
+    */
+   private static final byte REMOVE = 1;
+
    /**
     * Component used to execute commands over the cluster.
     */
@@ -75,6 +113,47 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
     */
    private final String ctxName;
 
+   /**
+    * The window in milliseconds during which the changes are buffered, 0 if the changes
+    * are replicated immediately
+    */
+   private volatile long batchWindow;
+
+   /**
+    * The maximum amount of entries of a batch
+    */
+   private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+   /**
+    * The lock guarding the replication buffer
+    */
+   private final Object bufferLock = new Object();
+
+   /**
+    * The changes to replicate, the value being {@link #REMOVED} for a removal
+    */
+   private LinkedHashMap<K, Object> buffer = new LinkedHashMap<K, Object>();
+
+   /**
+    * Indicates whether the cache has been cleared since the last batch
+    */
+   private boolean clearPending;
+
+   /**
+    * Indicates whether a flush of the buffer has been scheduled
+    */
+   private boolean flushScheduled;
+
+   /**
+    * The lock ensuring that the batches are sent in order
+    */
+   private final Object sendLock = new Object();
+
+   /**
+    * The lock ensuring that the received batches are applied one at a time
+    */
+   private final Object applyLock = new Object();
+
    public SimpleReplicatedExoCache()
    {
       ExoContainer container = ExoContainerContext.getCurrentContainer();
@@ -137,6 +216,20 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
                         LOG.warn("Could not remove the entry " + args[2] + " on other cluster nodes", e);
                      }
                   }
+                  else if ("a".equals(args[1]))
+                  {
+                     try
+                     {
+                        for (Serializable name : (List<? extends Serializable>)args[2])
+                        {
+                           removeOnly(name);
+                        }
+                     }
+                     catch (Exception e)
+                     {
+                        LOG.warn("Could not remove the entries " + args[2] + " on other cluster nodes", e);
+                     }
+                  }
                   else if ("p".equals(args[1]))
                   {
                      try
@@ -148,6 +241,17 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
                         LOG.warn("Could not put the entry " + args[2] + " on other cluster nodes", e);
                      }
                   }
+                  else if ("b".equals(args[1]))
+                  {
+                     try
+                     {
+                        applyBatch((byte[])args[2]);
+                     }
+                     catch (Exception e)
+                     {
+                        LOG.warn("Could not apply a batch of changes on other cluster nodes", e);
+                     }
+                  }
                   else if ("m".equals(args[1]))
                   {
                      try
@@ -170,6 +274,258 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
       }
    }
 
+   /**
+    * @return the window in milliseconds during which the changes are buffered before being replicated
+    */
+   public long getBatchWindow()
+   {
+      return batchWindow;
+   }
+
+   /**
+    * Sets the window during which the changes are buffered and coalesced before being replicated in one message.
+    *
+    * @param batchWindow the window in milliseconds, a value lower or equal to 0 means that each change is
+    * replicated immediately
+    */
+   public void setBatchWindow(long batchWindow)
+   {
+      this.batchWindow = Math.max(batchWindow, 0);
+      if (batchWindow <= 0)
+      {
+         flush();
+      }
+   }
+
+   /**
+    * @return the maximum amount of entries of a batch
+    */
+   public int getMaxBatchSize()
+   {
+      return maxBatchSize;
+   }
+
+   /**
+    * Sets the maximum amount of entries of a batch, a batch is replicated as soon as it reaches this size.
+    *
+    * @param maxBatchSize the maximum amount of entries of a batch
+    */
+   public void setMaxBatchSize(int maxBatchSize)
+   {
+      if (maxBatchSize <= 0)
+      {
+         throw new IllegalArgumentException("The max batch size must be positive");
+      }
+      this.maxBatchSize = maxBatchSize;
+   }
+
+   /**
+    * Adds the given change to the replication buffer.
+    *
+    * @param name the key of the entry
+    * @param obj the value of the entry or {@link #REMOVED} for a removal
+    */
+   private void buffer(K name, Object obj)
+   {
+      boolean full;
+      boolean schedule = false;
+      synchronized (bufferLock)
+      {
+         buffer.put(name, obj);
+         full = buffer.size() >= maxBatchSize;
+         if (!full && !flushScheduled)
+         {
+            flushScheduled = true;
+            schedule = true;
+         }
+      }
+      if (full)
+      {
+         flush();
+      }
+      else if (schedule)
+      {
+         scheduleFlush();
+      }
+   }
+
+   /**
+    * Clears the replication buffer since the cache has been cleared.
+    */
+   private void bufferClear()
+   {
+      boolean schedule = false;
+      synchronized (bufferLock)
+      {
+         buffer.clear();
+         clearPending = true;
+         if (!flushScheduled)
+         {
+            flushScheduled = true;
+            schedule = true;
+         }
+      }
+      if (schedule)
+      {
+         scheduleFlush();
+      }
+   }
+
+   private void scheduleFlush()
+   {
+      getScheduler().schedule(new Runnable()
+      {
+         public void run()
+         {
+            flush();
+         }
+      }, batchWindow, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Replicates the buffered changes in one message.
+    */
+   public void flush()
+   {
+      synchronized (sendLock)
+      {
+         Map<K, Object> changes;
+         boolean clear;
+         synchronized (bufferLock)
+         {
+            flushScheduled = false;
+            if (buffer.isEmpty() && !clearPending)
+            {
+               return;
+            }
+            changes = buffer;
+            clear = clearPending;
+            buffer = new LinkedHashMap<K, Object>();
+            clearPending = false;
+         }
+         try
+         {
+            rpcService.executeCommandOnAllNodes(command, false, id, "b", encodeBatch(clear, changes));
+         }
+         catch (Exception e)
+         {
+            LOG.warn("Could not replicate " + changes.size() + " changes on other cluster nodes", e);
+         }
+      }
+   }
+
+   /**
+    * Encodes the given changes, the keys and the values are written with the same stream
+    * so that the class descriptors are only written once.
+    */
+   private byte[] encodeBatch(boolean clear, Map<K, Object> changes) throws IOException
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(baos);
+      try
+      {
+         out.writeBoolean(clear);
+         out.writeInt(changes.size());
+         for (Entry<K, Object> entry : changes.entrySet())
+         {
+            if (entry.getValue() == REMOVED)
+            {
+               out.writeByte(REMOVE);
+               out.writeObject(entry.getKey());
+            }
+            else
+            {
+               out.writeByte(PUT);
+               out.writeObject(entry.getKey());
+               out.writeObject(entry.getValue());
+            }
+         }
+      }
+      finally
+      {
+         out.close();
+      }
+      return baos.toByteArray();
+   }
+
+   /**
+    * Decodes the whole batch then applies it, so that nothing is applied if the batch cannot be decoded.
+    */
+   @SuppressWarnings("unchecked")
+   void applyBatch(byte[] batch) throws IOException, ClassNotFoundException
+   {
+      ObjectInputStream in = new BatchInputStream(new ByteArrayInputStream(batch));
+      boolean clear;
+      List<K> names;
+      List<V> values;
+      try
+      {
+         clear = in.readBoolean();
+         int size = in.readInt();
+         names = new ArrayList<K>(size);
+         values = new ArrayList<V>(size);
+         for (int i = 0; i < size; i++)
+         {
+            byte type = in.readByte();
+            names.add((K)in.readObject());
+            values.add(type == PUT ? (V)in.readObject() : null);
+         }
+      }
+      finally
+      {
+         in.close();
+      }
+      synchronized (applyLock)
+      {
+         if (clear)
+         {
+            clearCacheOnly();
+         }
+         for (int i = 0, length = names.size(); i < length; i++)
+         {
+            V value = values.get(i);
+            if (value == null)
+            {
+               removeOnly(names.get(i));
+            }
+            else
+            {
+               putIfNeeded(names.get(i), value);
+            }
+         }
+      }
+   }
+
+   /**
+    * Resolves the classes with the context class loader when they cannot be found
+    * with the default class loader.
+    */
+   private static class BatchInputStream extends ObjectInputStream
+   {
+      BatchInputStream(InputStream in) throws IOException
+      {
+         super(in);
+      }
+
+      @Override
+      protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+      {
+         try
+         {
+            return super.resolveClass(desc);
+         }
+         catch (ClassNotFoundException e)
+         {
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            if (cl == null)
+            {
+               throw e;
+            }
+            return Class.forName(desc.getName(), false, cl);
+         }
+      }
+   }
+
    /**
     * Removes the entry without replication
     * @param name the key of the entry to remove
@@ -204,7 +560,13 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
    public V remove(Serializable name)
    {
       V v = super.remove(name);
-      if (v != null)
+      if (v != null && batchWindow > 0)
+      {
+         @SuppressWarnings("unchecked")
+         K key = (K)name;
+         buffer(key, REMOVED);
+      }
+      else if (v != null)
       {
          try
          {
@@ -218,10 +580,47 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
       return v;
    }
 
+   @Override
+   public void removeAll(Collection<? extends K> names)
+   {
+      checkKeys(names);
+      ArrayList<K> removed = new ArrayList<K>(names.size());
+      for (K name : names)
+      {
+         if (super.remove(name) != null)
+         {
+            removed.add(name);
+         }
+      }
+      if (!removed.isEmpty() && batchWindow > 0)
+      {
+         for (K name : removed)
+         {
+            buffer(name, REMOVED);
+         }
+      }
+      else if (!removed.isEmpty())
+      {
+         try
+         {
+            rpcService.executeCommandOnAllNodes(command, false, id, "a", removed);
+         }
+         catch (Exception e)
+         {
+            LOG.warn("Could not remove the entries " + removed + " on other cluster nodes", e);
+         }
+      }
+   }
+
    @Override
    public void clearCache()
    {
       super.clearCache();
+      if (batchWindow > 0)
+      {
+         bufferClear();
+         return;
+      }
       try
       {
          rpcService.executeCommandOnAllNodes(command, false, id, "c");
@@ -236,6 +635,11 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
    public void put(K name, V obj)
    {
       super.put(name, obj);
+      if (batchWindow > 0)
+      {
+         buffer(name, obj);
+         return;
+      }
       try
       {
          rpcService.executeCommandOnAllNodes(command, false, id, "p", name, obj);
@@ -251,6 +655,14 @@ public class SimpleReplicatedExoCache<K extends Serializable, V extends Serializ
    public void putMap(Map<? extends K, ? extends V> objs)
    {
       super.putMap(objs);
+      if (batchWindow > 0)
+      {
+         for (Entry<? extends K, ? extends V> entry : objs.entrySet())
+         {
+            buffer(entry.getKey(), entry.getValue());
+         }
+         return;
+      }
       try
       {
          rpcService.executeCommandOnAllNodes(command, false, id, "m", new HashMap<K, V>(objs));
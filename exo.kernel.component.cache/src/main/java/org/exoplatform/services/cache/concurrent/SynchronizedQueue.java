@@ -40,6 +40,8 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
 
    volatile int queueSize; // The queue size cached (which can be an estimate)
 
+   volatile long queueWeight; // The total weight of the items
+
    private final Lock queueLock = new ReentrantLock();
 
    private volatile AtomicBoolean trimming = new AtomicBoolean();
@@ -77,13 +79,20 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
       return queueSize;
    }
 
+   public long weight()
+   {
+      return queueWeight;
+   }
+
    public void assertConsistency()
    {
       int cachedQueueSize = queueSize;
       int effectiveQueueSize = 0;
+      long effectiveQueueWeight = 0;
       for (Item item = head.next; item != tail; item = item.next) //NOSONAR
       {
          effectiveQueueSize++;
+         effectiveQueueWeight += item.weight;
       }
 
       if (effectiveQueueSize != cachedQueueSize)
@@ -91,6 +100,11 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
          throw new AssertionError("The cached queue size " + cachedQueueSize
             + "  is different from the effective queue size" + effectiveQueueSize);
       }
+      if (effectiveQueueWeight != queueWeight)
+      {
+         throw new AssertionError("The cached queue weight " + queueWeight
+            + " is different from the effective queue weight " + effectiveQueueWeight);
+      }
    }
 
    /**
@@ -114,6 +128,7 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
             item.previous = null;
             item.next = null;
             int newSize = --queueSize;
+            queueWeight -= item.weight;
             if (trace)
             {
                trace("Removed item=" + item.serial + " with previous=" + previous.serial + " and next=" + next.serial
@@ -152,6 +167,7 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
          head.next = item;
          item.previous = head;
          int newSize = ++queueSize;
+         queueWeight += item.weight;
          if (isTraceEnabled())
          {
             trace("Added item=" + item.serial + " with next=" + next.serial + " and queue=" + newSize);
@@ -172,6 +188,21 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
     */
    public ArrayList<I> trim(int size)
    {
+      return trim(size, 0);
+   }
+
+   /**
+    * Attempt to trim the queue. Trim will occur if no other thread is already performing a trim
+    * and the queue size is greater than the provided size or the queue weight is greater than the
+    * provided weight.
+    *
+    * @param size the wanted size
+    * @param weight the wanted weight, a value lower or equal to 0 means that the weight is not bounded
+    * @return the list of evicted items
+    */
+   public ArrayList<I> trim(int size, long weight)
+   {
+      long maxWeight = weight > 0 ? weight : Long.MAX_VALUE;
       if (trimming.compareAndSet(false, true))
       {
          try
@@ -179,10 +210,10 @@ public class SynchronizedQueue<I extends Item> implements Queue<I>
             queueLock.lock();
             try
             {
-               if (queueSize > size)
+               if (queueSize > size || queueWeight > maxWeight)
                {
-                  ArrayList<I> evictedItems = new ArrayList<I>(queueSize - size);
-                  while (queueSize > size)
+                  ArrayList<I> evictedItems = new ArrayList<I>(Math.max(queueSize - size, 1));
+                  while (queueSize > size || queueWeight > maxWeight)
                   {
                      I last = (I)tail.previous;
                      remove(last);
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.concurrent;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A hierarchical timer wheel indexing the entries of a {@link CacheState} by expiration time, so that the
+ * expired entries can be found without scanning the whole cache. Each level is a ring of buckets covering
+ * a time span, the entries expiring soon are in the lowest level whose buckets last about one second and
+ * the others are in higher levels with coarser buckets. When the wheel is advanced, the buckets whose time
+ * has passed or has just begun are emptied, the expired entries are returned and the other ones are moved
+ * to a lower level, so an entry is removed at most one second after its expiration.
+ * <p>
+ * The entries that never expire are not indexed. The cost of an advance is proportional to the amount of
+ * buckets that have been passed and of entries that they contain, it does not depend on the cache size.
+ *
+ * @version $Id$
+ */
+class TimerWheel<K extends Serializable, V>
+{
+
+   /**
+    * The amount of bits to shift a time in milliseconds to get the index of its bucket for each level,
+    * the buckets last respectively about 1 second, 1 minute, 1 hour, 1.5 day and 6 days.
+    */
+   private static final int[] SHIFTS = {10, 16, 22, 27, 29};
+
+   /**
+    * The amount of buckets for each level, the buckets of a level cover the span of one bucket of the next
+    * level, the last level contains all the entries expiring later.
+    */
+   private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+   /** . */
+   final ReentrantLock lock = new ReentrantLock();
+
+   /** The sentinels of the buckets. */
+   private final ObjectRef<K, V>[][] wheel;
+
+   /** The time up to which the wheel has been advanced. */
+   private volatile long currentTime;
+
+   /** The amount of indexed entries. */
+   private volatile int size;
+
+   @SuppressWarnings("unchecked")
+   TimerWheel(long currentTime)
+   {
+      this.currentTime = currentTime;
+      this.wheel = new ObjectRef[BUCKETS.length][];
+      for (int i = 0; i < BUCKETS.length; i++)
+      {
+         wheel[i] = new ObjectRef[BUCKETS[i]];
+         for (int j = 0; j < BUCKETS[i]; j++)
+         {
+            ObjectRef<K, V> sentinel = new Sentinel<K, V>();
+            sentinel.timerPrevious = sentinel;
+            sentinel.timerNext = sentinel;
+            wheel[i][j] = sentinel;
+         }
+      }
+   }
+
+   int size()
+   {
+      return size;
+   }
+
+   /**
+    * @return <code>true</code> if some entries are indexed and at least one bucket has been passed since
+    * the last advance
+    */
+   boolean needsAdvance(long now)
+   {
+      return size > 0 && (now >>> SHIFTS[0]) != (currentTime >>> SHIFTS[0]);
+   }
+
+   /**
+    * Indexes the given entry if it can expire.
+    */
+   void schedule(ObjectRef<K, V> ref)
+   {
+      if (ref.expirationTime == Long.MAX_VALUE)
+      {
+         return;
+      }
+      lock.lock();
+      try
+      {
+         link(ref);
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Removes the given entry from the index if it has been indexed.
+    */
+   void deschedule(ObjectRef<K, V> ref)
+   {
+      if (ref.expirationTime == Long.MAX_VALUE)
+      {
+         return;
+      }
+      lock.lock();
+      try
+      {
+         unlink(ref);
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Advances the wheel up to the given time.
+    *
+    * @param now the current time
+    * @param wait indicates whether the method should wait if another thread is advancing the wheel,
+    * if not it returns immediately
+    * @return the expired entries that have been removed from the index
+    */
+   List<ObjectRef<K, V>> advance(long now, boolean wait)
+   {
+      if (wait)
+      {
+         lock.lock();
+      }
+      else if (!lock.tryLock())
+      {
+         return null;
+      }
+      try
+      {
+         long previousTime = currentTime;
+         if (now <= previousTime)
+         {
+            return null;
+         }
+         currentTime = now;
+         List<ObjectRef<K, V>> expired = null;
+         for (int i = 0; i < SHIFTS.length; i++)
+         {
+            long previousTicks = previousTime >>> SHIFTS[i];
+            long delta = (now >>> SHIFTS[i]) - previousTicks;
+            if (delta <= 0)
+            {
+               // The higher levels cannot have changed
+               break;
+            }
+            // The bucket of the current tick is also processed so that its entries are moved to a lower level
+            int count = (int)Math.min(delta + 1, BUCKETS[i]);
+            for (int j = 0; j < count; j++)
+            {
+               int index = (int)((previousTicks + j) & (BUCKETS[i] - 1));
+               expired = expire(wheel[i][index], now, expired);
+            }
+         }
+         return expired;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Empties the given bucket, the expired entries are added to the given list and the other
+    * ones are indexed again.
+    */
+   private List<ObjectRef<K, V>> expire(ObjectRef<K, V> sentinel, long now, List<ObjectRef<K, V>> expired)
+   {
+      ObjectRef<K, V> ref = sentinel.timerNext;
+      sentinel.timerNext = sentinel;
+      sentinel.timerPrevious = sentinel;
+      while (ref != sentinel)
+      {
+         ObjectRef<K, V> next = ref.timerNext;
+         ref.timerNext = null;
+         ref.timerPrevious = null;
+         size--;
+         if (ref.expirationTime <= now)
+         {
+            if (expired == null)
+            {
+               expired = new ArrayList<ObjectRef<K, V>>();
+            }
+            expired.add(ref);
+         }
+         else
+         {
+            link(ref);
+         }
+         ref = next;
+      }
+      return expired;
+   }
+
+   /**
+    * Gives the sentinel of the bucket in which the given expiration time must be indexed.
+    */
+   private ObjectRef<K, V> findBucket(long expirationTime)
+   {
+      long time = Math.max(expirationTime, currentTime);
+      long duration = time - currentTime;
+      for (int i = 0; i < SHIFTS.length - 1; i++)
+      {
+         if (duration < (1L << SHIFTS[i + 1]))
+         {
+            return wheel[i][(int)((time >>> SHIFTS[i]) & (BUCKETS[i] - 1))];
+         }
+      }
+      return wheel[SHIFTS.length - 1][0];
+   }
+
+   private void link(ObjectRef<K, V> ref)
+   {
+      if (ref.timerNext != null)
+      {
+         return;
+      }
+      ObjectRef<K, V> sentinel = findBucket(ref.expirationTime);
+      ObjectRef<K, V> last = sentinel.timerPrevious;
+      ref.timerPrevious = last;
+      ref.timerNext = sentinel;
+      last.timerNext = ref;
+      sentinel.timerPrevious = ref;
+      size++;
+   }
+
+   private void unlink(ObjectRef<K, V> ref)
+   {
+      ObjectRef<K, V> next = ref.timerNext;
+      if (next != null)
+      {
+         ObjectRef<K, V> previous = ref.timerPrevious;
+         previous.timerNext = next;
+         next.timerPrevious = previous;
+         ref.timerNext = null;
+         ref.timerPrevious = null;
+         size--;
+      }
+   }
+
+   public void assertConsistency()
+   {
+      lock.lock();
+      try
+      {
+         int count = 0;
+         for (ObjectRef<K, V>[] level : wheel)
+         {
+            for (ObjectRef<K, V> sentinel : level)
+            {
+               for (ObjectRef<K, V> ref = sentinel.timerNext; ref != sentinel; ref = ref.timerNext)
+               {
+                  count++;
+               }
+            }
+         }
+         if (count != size)
+         {
+            throw new AssertionError("The wheel size " + size + " is different from the amount of indexed entries "
+               + count);
+         }
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * The head of a bucket.
+    */
+   private static class Sentinel<K extends Serializable, V> extends ObjectRef<K, V>
+   {
+
+      Sentinel()
+      {
+         super(0, null);
+      }
+
+      public boolean isValid()
+      {
+         return false;
+      }
+
+      public V getObject()
+      {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.future;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Future} that gathers the results of several futures launched concurrently, the result is
+ * a map of the non null values by key.
+ *
+ * @version $Id$
+ * @param <K> the key type parameter
+ * @param <V> the value type parameter
+ */
+public class CombinedFuture<K, V> implements Future<Map<K, V>>
+{
+
+   /** . */
+   private final Map<K, Future<V>> futures;
+
+   /**
+    * @param futures the futures to combine by key
+    */
+   public CombinedFuture(Map<K, Future<V>> futures)
+   {
+      this.futures = futures;
+   }
+
+   public boolean cancel(boolean mayInterruptIfRunning)
+   {
+      boolean cancelled = false;
+      for (Future<V> future : futures.values())
+      {
+         cancelled |= future.cancel(mayInterruptIfRunning);
+      }
+      return cancelled;
+   }
+
+   public boolean isCancelled()
+   {
+      for (Future<V> future : futures.values())
+      {
+         if (future.isCancelled())
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   public boolean isDone()
+   {
+      for (Future<V> future : futures.values())
+      {
+         if (!future.isDone())
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   public Map<K, V> get() throws InterruptedException, ExecutionException
+   {
+      Map<K, V> result = new LinkedHashMap<K, V>(futures.size());
+      for (Map.Entry<K, Future<V>> entry : futures.entrySet())
+      {
+         V value = entry.getValue().get();
+         if (value != null)
+         {
+            result.put(entry.getKey(), value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Waits for all the results and converts the checked exceptions into runtime exceptions in order
+    * to be usable from the synchronous cache operations.
+    *
+    * @return the map of the non null values by key
+    */
+   public Map<K, V> join()
+   {
+      try
+      {
+         return get();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for the values", e);
+      }
+      catch (ExecutionException e)
+      {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException)
+         {
+            throw (RuntimeException)cause;
+         }
+         else if (cause instanceof Error)
+         {
+            throw (Error)cause;
+         }
+         throw new IllegalStateException("Could not retrieve the values", cause);
+      }
+   }
+
+   public Map<K, V> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+      TimeoutException
+   {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      Map<K, V> result = new LinkedHashMap<K, V>(futures.size());
+      for (Map.Entry<K, Future<V>> entry : futures.entrySet())
+      {
+         V value = entry.getValue().get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+         if (value != null)
+         {
+            result.put(entry.getKey(), value);
+         }
+      }
+      return result;
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.future;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Future} whose result is already known, it is used by the caches that implement
+ * {@link org.exoplatform.services.cache.AsyncExoCache} by executing the operations synchronously.
+ *
+ * @version $Id$
+ * @param <V> the value type parameter
+ */
+public class CompletedFuture<V> implements Future<V>
+{
+
+   /** . */
+   private final V value;
+
+   /** . */
+   private final Throwable cause;
+
+   private CompletedFuture(V value, Throwable cause)
+   {
+      this.value = value;
+      this.cause = cause;
+   }
+
+   /**
+    * @param value the result of the future
+    * @return a future completed successfully with the given value
+    */
+   public static <V> CompletedFuture<V> success(V value)
+   {
+      return new CompletedFuture<V>(value, null);
+   }
+
+   /**
+    * @param cause the exception that prevented the operation to complete
+    * @return a future completed exceptionally with the given cause
+    */
+   public static <V> CompletedFuture<V> failure(Throwable cause)
+   {
+      return new CompletedFuture<V>(null, cause);
+   }
+
+   public boolean cancel(boolean mayInterruptIfRunning)
+   {
+      return false;
+   }
+
+   public boolean isCancelled()
+   {
+      return false;
+   }
+
+   public boolean isDone()
+   {
+      return true;
+   }
+
+   public V get() throws ExecutionException
+   {
+      if (cause != null)
+      {
+         throw new ExecutionException(cause);
+      }
+      return value;
+   }
+
+   public V get(long timeout, TimeUnit unit) throws ExecutionException
+   {
+      return get();
+   }
+}
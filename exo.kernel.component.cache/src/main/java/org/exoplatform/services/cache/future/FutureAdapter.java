@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.future;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Future} that converts the result of another future, the conversion is done only once
+ * by the first thread that retrieves the result, the next calls get the converted value directly.
+ * It is typically used to update the statistics and to notify the listeners of a cache once
+ * the result of a remote operation is known.
+ *
+ * @version $Id$
+ * @param <S> the type of the result of the underlying future
+ * @param <V> the type of the converted result
+ */
+public abstract class FutureAdapter<S, V> implements Future<V>
+{
+
+   /** . */
+   private final Future<S> delegate;
+
+   /** . */
+   private boolean converted;
+
+   /** . */
+   private V value;
+
+   /** . */
+   private ExecutionException failure;
+
+   public FutureAdapter(Future<S> delegate)
+   {
+      this.delegate = delegate;
+   }
+
+   /**
+    * Converts the result of the underlying future.
+    *
+    * @param result the result of the underlying future
+    * @return the converted result
+    * @throws Exception if the result could not be converted
+    */
+   protected abstract V convert(S result) throws Exception;
+
+   public boolean cancel(boolean mayInterruptIfRunning)
+   {
+      return delegate.cancel(mayInterruptIfRunning);
+   }
+
+   public boolean isCancelled()
+   {
+      return delegate.isCancelled();
+   }
+
+   public boolean isDone()
+   {
+      return delegate.isDone();
+   }
+
+   public V get() throws InterruptedException, ExecutionException
+   {
+      return complete(delegate.get());
+   }
+
+   public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+   {
+      return complete(delegate.get(timeout, unit));
+   }
+
+   private synchronized V complete(S result) throws ExecutionException
+   {
+      if (!converted)
+      {
+         try
+         {
+            value = convert(result);
+         }
+         catch (Exception e)
+         {
+            failure = new ExecutionException(e);
+         }
+         converted = true;
+      }
+      if (failure != null)
+      {
+         throw failure;
+      }
+      return value;
+   }
+}
@@ -21,15 +21,35 @@ package org.exoplatform.services.cache.future;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A future cache that prevents the loading of the same resource twice. This should be used when the resource
  * to load is very expensive or cannot be concurrently retrieved (like a classloading). 
+ * <p>
+ * When created with a {@link BatchLoader}, the misses of distinct keys arriving within a short window
+ * (or up to a maximum amount of keys) are coalesced into a single {@link BatchLoader#retrieveAll} call,
+ * a given key is still loaded only once even if it is requested concurrently.
+ * <p>
+ * Sub classes can also make the values be reloaded in the background before they expire (refresh-ahead)
+ * and serve expired values while they are reloaded (stale-while-revalidate), see {@link #isRefreshNeeded(Object)},
+ * {@link #getStale(Object)} and {@link #getRefreshExecutor()}. The background loads share the same
+ * single-flight mechanism as the foreground loads.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
@@ -43,6 +63,18 @@ public abstract class FutureCache<K, V, C>
    /** . */
    private final Loader<K, V, C> loader;
 
+   /** . */
+   private final BatchLoader<K, V, C> batchLoader;
+
+   /** . */
+   private final int maxBatchSize;
+
+   /** . */
+   private final long batchWindow;
+
+   /** The batch that is currently collecting keys, if any. */
+   private final AtomicReference<Batch> currentBatch;
+
    /** . */
    private final ConcurrentMap<K, FutureTask<V>> futureEntries;
 
@@ -53,13 +85,107 @@ public abstract class FutureCache<K, V, C>
    public FutureCache(Loader<K, V, C> loader)
    {
       this.loader = loader;
+      this.batchLoader = null;
+      this.maxBatchSize = 1;
+      this.batchWindow = 0;
+      this.currentBatch = null;
+      this.futureEntries = new ConcurrentHashMap<K, FutureTask<V>>();
+   }
+
+   /**
+    * @param loader the loader used to retrieve the missing values by batch
+    * @param maxBatchSize the maximum amount of keys that can be loaded at once
+    * @param batchWindow the maximum amount of time in milliseconds during which the misses are collected
+    * before being loaded, a value lower or equal to 0 means that a batch is loaded as soon as it is created.
+    * Unless its batch gets full, every miss waits this amount of time before being loaded, even when no other
+    * thread joins its batch, so this latency is the cost of the batching and it should remain small compared
+    * to the time needed to load a batch.
+    */
+   public FutureCache(BatchLoader<K, V, C> loader, int maxBatchSize, long batchWindow)
+   {
+      if (maxBatchSize < 1)
+      {
+         throw new IllegalArgumentException("The maximum size of a batch must be positive");
+      }
+      this.loader = loader;
+      this.batchLoader = loader;
+      this.maxBatchSize = maxBatchSize;
+      this.batchWindow = batchWindow;
+      this.currentBatch = new AtomicReference<Batch>();
       this.futureEntries = new ConcurrentHashMap<K, FutureTask<V>>();
    }
 
    protected abstract V get(K key);
 
+   /**
+    * Called each time the loader has been invoked, once per key or once per batch of keys. By default
+    * it does nothing.
+    *
+    * @param startNanos the value of {@link System#nanoTime()} when the loader was invoked
+    * @param success indicates whether the loader completed without throwing an exception
+    */
+   protected void onLoad(long startNanos, boolean success)
+   {
+   }
+
    protected abstract void put(K key, V value);
 
+   /**
+    * Performs a lookup of several keys at once. By default each key is looked up separately, it should be
+    * overridden when the underlying cache supports bulk lookups.
+    *
+    * @param keys the keys to look up
+    * @return the values found by key
+    */
+   protected Map<K, V> getAll(Collection<? extends K> keys)
+   {
+      Map<K, V> result = new LinkedHashMap<K, V>(keys.size());
+      for (K key : keys)
+      {
+         V value = get(key);
+         if (value != null)
+         {
+            result.put(key, value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Indicates whether the cached value of the given key should be reloaded in the background. By default
+    * the values are never reloaded in the background.
+    *
+    * @param key the key of a cached value
+    * @return <code>true</code> if the value should be reloaded, <code>false</code> otherwise
+    */
+   protected boolean isRefreshNeeded(K key)
+   {
+      return false;
+   }
+
+   /**
+    * Gives the expired value of the given key if it can still be served while the value is reloaded
+    * in the background. By default no expired value is served.
+    *
+    * @param key the key of a missing value
+    * @return the expired value or null if there is none
+    */
+   protected V getStale(K key)
+   {
+      return null;
+   }
+
+   /**
+    * Gives the executor used to reload the values in the background, it is expected to be bounded
+    * and to reject the tasks once it is saturated. By default there is none.
+    *
+    * @return the executor or null if the values cannot be reloaded in the background
+    */
+   protected Executor getRefreshExecutor()
+   {
+      return null;
+   }
+
    /**
     * Perform a cache lookup for the specified key within the specified context.
     * When the value cannot be loaded (because it does not exist or it failed or anything else that
@@ -78,71 +204,515 @@ public abstract class FutureCache<K, V, C>
       // the same resource concurrently
       if (value == null)
       {
-         // Create our future
-         FutureTask<V> future = new FutureTask<V>(new Callable<V>()
+         V stale = getStale(key);
+         if (stale != null)
+         {
+            // The expired value is served while it is reloaded
+            refresh(context, key);
+            value = stale;
+         }
+         else if (batchLoader == null)
+         {
+            value = load(context, key);
+         }
+         else
+         {
+            value = loadAll(context, Collections.singletonList(key)).get(key);
+         }
+      }
+      else if (isRefreshNeeded(key))
+      {
+         refresh(context, key);
+      }
+
+      //
+      return value;
+   }
+
+   /**
+    * Perform a cache lookup for all the specified keys within the specified context. The cached values
+    * are first retrieved with a single bulk lookup, then the missing values are loaded the same way
+    * as {@link #get(Object, Object)} does. The keys whose value cannot be loaded are not part of the result.
+    *
+    * @param context the context in which the resources are accessed
+    * @param keys the keys identifying the resources
+    * @return the values by key
+    */
+   public final Map<K, V> getAll(final C context, final Collection<? extends K> keys)
+   {
+      // First we try a bulk cache get
+      Map<K, V> values = getAll(keys);
+      for (K key : values.keySet())
+      {
+         if (isRefreshNeeded(key))
          {
-            public V call() throws Exception
+            refresh(context, key);
+         }
+      }
+      if (values.size() == keys.size())
+      {
+         return values;
+      }
+
+      // Then we load the missing values unless they can be served expired
+      Map<K, V> loaded = new LinkedHashMap<K, V>();
+      List<K> missing = new ArrayList<K>(keys.size() - values.size());
+      for (K key : keys)
+      {
+         if (!values.containsKey(key))
+         {
+            V stale = getStale(key);
+            if (stale != null)
+            {
+               refresh(context, key);
+               loaded.put(key, stale);
+            }
+            else
+            {
+               missing.add(key);
+            }
+         }
+      }
+      if (batchLoader == null)
+      {
+         for (K key : missing)
+         {
+            V value = load(context, key);
+            if (value != null)
             {
-               // Retrieve the value from the loader
-               V value = loader.retrieve(context, key);
+               loaded.put(key, value);
+            }
+         }
+      }
+      else if (!missing.isEmpty())
+      {
+         loaded.putAll(loadAll(context, missing));
+      }
 
-               //
-               if (value != null)
-               {
-                  // Cache it, it is made available to other threads (unless someone removes it)
-                  put(key, value);
+      // We preserve the order of the keys
+      Map<K, V> result = new LinkedHashMap<K, V>(keys.size());
+      for (K key : keys)
+      {
+         V value = values.get(key);
+         if (value == null)
+         {
+            value = loaded.get(key);
+         }
+         if (value != null)
+         {
+            result.put(key, value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Loads the value of the given key, a given resource is loaded only once even if it is requested
+    * concurrently.
+    */
+   private V load(final C context, final K key)
+   {
+      V value = null;
+
+      // Create our future
+      FutureTask<V> future = newLoadingTask(context, key);
+
+      // This boolean means we inserted in the local
+      boolean inserted = true;
+
+      // This boolean means that the future of another thread has been cancelled
+      boolean cancelled = false;
+
+      //
+      try
+      {
+         FutureTask<V> phantom = futureEntries.putIfAbsent(key, future);
+
+         // Use the value that could have been inserted by another thread
+         if (phantom != null)
+         {
+            future = phantom;
+            inserted = false;
+         }
+         else
+         {
+            future.run();
+         }
+
+         // Returns the value
+         value = future.get();
+      }
+      catch (CancellationException e)
+      {
+         cancelled = true;
+      }
+      catch (ExecutionException e)
+      {
+         LOG.error("Computing of resource " + key + " threw an exception", e.getCause());
+      }
+      catch (Exception e)
+      {
+         LOG.error("Retrieval of resource " + key + " threw an exception", e);
+      }
+      finally
+      {
+         // Clean up the per key map but only if our insertion succeeded and with our future
+         if (inserted)
+         {
+            futureEntries.remove(key, future);
+         }
+      }
+
+      // A background reload could not be scheduled so we load the value ourselves
+      if (cancelled)
+      {
+         value = load(context, key);
+      }
+
+      //
+      return value;
+   }
+
+   /**
+    * Creates the task that loads the value of the given key and caches it.
+    */
+   private FutureTask<V> newLoadingTask(final C context, final K key)
+   {
+      return new FutureTask<V>(new Callable<V>()
+      {
+         public V call() throws Exception
+         {
+            // Retrieve the value from the loader
+            long start = System.nanoTime();
+            V value;
+            try
+            {
+               value = loader.retrieve(context, key);
+            }
+            catch (Exception e)
+            {
+               onLoad(start, false);
+               throw e;
+            }
+            onLoad(start, true);
 
-                  // Return value
-                  return value;
+            //
+            if (value != null)
+            {
+               // Cache it, it is made available to other threads (unless someone removes it)
+               put(key, value);
+
+               // Return value
+               return value;
+            }
+            else
+            {
+               return null;
+            }
+         }
+      });
+   }
+
+   /**
+    * Reloads the value of the given key in the background unless it is already being loaded, the reload
+    * is registered like any other load so that the concurrent lookups of the same key wait for it.
+    *
+    * @param context the context in which the resource is accessed
+    * @param key the key identifying the resource
+    * @return <code>true</code> if the reload could be scheduled, <code>false</code> otherwise
+    */
+   protected final boolean refresh(final C context, final K key)
+   {
+      Executor executor = getRefreshExecutor();
+      if (executor == null || futureEntries.containsKey(key))
+      {
+         return false;
+      }
+      final FutureTask<V> future = newLoadingTask(context, key);
+      if (futureEntries.putIfAbsent(key, future) != null)
+      {
+         // Already being loaded
+         return false;
+      }
+      try
+      {
+         executor.execute(new Runnable()
+         {
+            public void run()
+            {
+               try
+               {
+                  future.run();
+                  future.get();
                }
-               else
+               catch (ExecutionException e)
+               {
+                  LOG.error("Refreshing of resource " + key + " threw an exception", e.getCause());
+               }
+               catch (Exception e)
+               {
+                  LOG.error("Refreshing of resource " + key + " threw an exception", e);
+               }
+               finally
                {
-                  return null;
+                  futureEntries.remove(key, future);
                }
             }
          });
+         return true;
+      }
+      catch (RejectedExecutionException e)
+      {
+         // The executor is saturated, the threads that could already wait for this future will load
+         // the value by themselves
+         futureEntries.remove(key, future);
+         future.cancel(false);
+         if (LOG.isDebugEnabled())
+         {
+            LOG.debug("The refresh of the resource " + key + " has been rejected", e);
+         }
+         return false;
+      }
+   }
 
-         // This boolean means we inserted in the local
-         boolean inserted = true;
-
-         //
+   /**
+    * Loads the values of the given keys thanks to the batch loader. Each key that is not already being
+    * loaded is added to the current batch, the thread that creates a batch is in charge of loading it once
+    * the batch is full or the batch window has elapsed.
+    */
+   private Map<K, V> loadAll(final C context, final Collection<K> keys)
+   {
+      Map<K, FutureTask<V>> futures = new LinkedHashMap<K, FutureTask<V>>(keys.size());
+      Map<K, FutureTask<V>> inserted = new LinkedHashMap<K, FutureTask<V>>(keys.size());
+      Map<K, V> result = new LinkedHashMap<K, V>(keys.size());
+      try
+      {
+         List<Batch> owned = new ArrayList<Batch>(1);
          try
          {
-            FutureTask<V> phantom = futureEntries.putIfAbsent(key, future);
+            for (K key : keys)
+            {
+               BatchEntry entry = new BatchEntry(key);
+               FutureTask<V> future = new FutureTask<V>(entry);
+               FutureTask<V> phantom = futureEntries.putIfAbsent(key, future);
 
-            // Use the value that could have been inserted by another thread
-            if (phantom != null)
+               // Use the value that could have been inserted by another thread
+               if (phantom != null)
+               {
+                  futures.put(key, phantom);
+               }
+               else
+               {
+                  futures.put(key, future);
+                  inserted.put(key, future);
+                  enqueue(context, entry, future, owned);
+               }
+            }
+         }
+         finally
+         {
+            // Load the batches that we created even if the enqueue loop failed, other threads
+            // may have joined them and wait for their futures
+            for (Batch batch : owned)
             {
-               future = phantom;
-               inserted = false;
+               batch.load();
             }
-            else
+         }
+
+         //
+         for (Map.Entry<K, FutureTask<V>> entry : futures.entrySet())
+         {
+            try
             {
-               future.run();
+               V value = entry.getValue().get();
+               if (value != null)
+               {
+                  result.put(entry.getKey(), value);
+               }
+            }
+            catch (CancellationException e)
+            {
+               // A background reload could not be scheduled so we load the value ourselves
+               V value = load(context, entry.getKey());
+               if (value != null)
+               {
+                  result.put(entry.getKey(), value);
+               }
             }
+            catch (ExecutionException e)
+            {
+               LOG.error("Computing of resource " + entry.getKey() + " threw an exception", e.getCause());
+            }
+            catch (Exception e)
+            {
+               LOG.error("Retrieval of resource " + entry.getKey() + " threw an exception", e);
+            }
+         }
+      }
+      finally
+      {
+         // Clean up the per key map but only for our insertions and with our futures, a future that
+         // could not be added to a batch is cancelled so that the threads waiting for it load the value
+         for (Map.Entry<K, FutureTask<V>> entry : inserted.entrySet())
+         {
+            futureEntries.remove(entry.getKey(), entry.getValue());
+            entry.getValue().cancel(false);
+         }
+      }
+      return result;
+   }
 
-            // Returns the value
-            value = future.get();
+   /**
+    * Adds the given entry to the current batch if it has been created for the same context and is still open,
+    * otherwise a new batch is created and added to the list of batches owned by the current thread.
+    */
+   private void enqueue(C context, BatchEntry entry, FutureTask<V> future, List<Batch> owned)
+   {
+      while (true)
+      {
+         Batch batch = currentBatch.get();
+         if (batch != null && batch.accept(context) && batch.add(entry, future))
+         {
+            return;
          }
-         catch (ExecutionException e)
+         Batch created = new Batch(context);
+         created.add(entry, future);
+         if (currentBatch.compareAndSet(batch, created))
          {
-            LOG.error("Computing of resource " + key + " threw an exception", e.getCause());
+            owned.add(created);
+            return;
          }
-         catch (Exception e)
+      }
+   }
+
+   /**
+    * The task used to get the value of a key once its batch has been loaded.
+    */
+   private class BatchEntry implements Callable<V>
+   {
+
+      /** . */
+      private final K key;
+
+      /** The batch to which the entry has been added. */
+      private volatile Batch batch;
+
+      private BatchEntry(K key)
+      {
+         this.key = key;
+      }
+
+      public V call() throws Exception
+      {
+         V value = batch.getValue(key);
+
+         //
+         if (value != null)
          {
-            LOG.error("Retrieval of resource " + key + " threw an exception", e);
+            // Cache it, it is made available to other threads (unless someone removes it)
+            put(key, value);
          }
-         finally
+         return value;
+      }
+   }
+
+   /**
+    * A set of keys to be loaded at once within the same context.
+    */
+   private class Batch
+   {
+
+      /** . */
+      private final C context;
+
+      /** . */
+      private final Map<K, FutureTask<V>> futures = new LinkedHashMap<K, FutureTask<V>>();
+
+      /** Indicates whether the batch still accepts keys. */
+      private boolean closed;
+
+      /** . */
+      private Map<K, V> values;
+
+      /** . */
+      private Exception failure;
+
+      private Batch(C context)
+      {
+         this.context = context;
+      }
+
+      private boolean accept(C context)
+      {
+         return this.context == null ? context == null : this.context.equals(context);
+      }
+
+      private synchronized boolean add(BatchEntry entry, FutureTask<V> future)
+      {
+         if (closed || futures.size() >= maxBatchSize)
+         {
+            return false;
+         }
+         entry.batch = this;
+         futures.put(entry.key, future);
+         if (futures.size() >= maxBatchSize)
          {
-            // Clean up the per key map but only if our insertion succeeded and with our future
-            if (inserted)
+            // Wake up the owner as the batch is full
+            notifyAll();
+         }
+         return true;
+      }
+
+      private V getValue(K key) throws Exception
+      {
+         if (failure != null)
+         {
+            throw failure;
+         }
+         return values == null ? null : values.get(key);
+      }
+
+      /**
+       * Waits until the batch is full or the batch window has elapsed, then loads the values
+       * and completes the futures. A batch that nobody else joins is thus loaded with a delay of
+       * the batch window.
+       */
+      private void load()
+      {
+         List<FutureTask<V>> tasks;
+         synchronized (this)
+         {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindow);
+            try
             {
-               futureEntries.remove(key, future);
+               long remaining;
+               while (futures.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0)
+               {
+                  TimeUnit.NANOSECONDS.timedWait(this, remaining);
+               }
             }
+            catch (InterruptedException e)
+            {
+               Thread.currentThread().interrupt();
+            }
+            closed = true;
+            tasks = new ArrayList<FutureTask<V>>(futures.values());
+         }
+         currentBatch.compareAndSet(this, null);
+         long start = System.nanoTime();
+         try
+         {
+            values = batchLoader.retrieveAll(context, new ArrayList<K>(futures.keySet()));
+         }
+         catch (Exception e)
+         {
+            failure = e;
+         }
+         onLoad(start, failure == null);
+         for (FutureTask<V> task : tasks)
+         {
+            task.run();
          }
       }
-
-      //
-      return value;
    }
 }
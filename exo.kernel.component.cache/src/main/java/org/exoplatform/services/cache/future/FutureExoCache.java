@@ -18,11 +18,38 @@
  */
 package org.exoplatform.services.cache.future;
 
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentTinyLFUExoCache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * A {@link FutureCache} backed by an {@link ExoCache}. It can optionally reload the values in the background
+ * once they reach a given fraction of the live time of the cache (refresh-ahead) and keep on serving
+ * the expired values during a grace period while they are reloaded (stale-while-revalidate),
+ * see {@link #enableRefresh(Executor, float, long)}.
+ * <p>
+ * The duration of the loads is recorded into the statistics of the cache when it maintains some,
+ * otherwise into statistics dedicated to this future cache, see {@link #getStatistics()}.
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
@@ -32,12 +59,126 @@ public class FutureExoCache<K extends Serializable, V, C> extends FutureCache<K,
    /** . */
    private final ExoCache<K, V> cache;
 
+   /** The statistics in which the loads are recorded. */
+   private final CacheStatistics statistics;
+
+   /** The executor used to reload the values in the background. */
+   private volatile Executor refreshExecutor;
+
+   /** The fraction of the live time from which a value is reloaded in the background, 0 if disabled. */
+   private volatile float refreshAheadFactor;
+
+   /** The amount of time in milliseconds during which an expired value can be served, 0 if disabled. */
+   private volatile long staleGracePeriod;
+
+   /**
+    * The time at which the cached values have been put, only maintained when the refresh is enabled and
+    * the cache has a live time, the put times older than the live time and the grace period are purged.
+    */
+   private final ConcurrentMap<K, PutTime<K>> putTimes = new ConcurrentHashMap<K, PutTime<K>>();
+
+   /** The put times in put order, used to purge them. */
+   private final Queue<PutTime<K>> putOrder = new ConcurrentLinkedQueue<PutTime<K>>();
+
+   /** The expired values that can still be served. */
+   private final ConcurrentMap<K, StaleValue<V>> staleValues = new ConcurrentHashMap<K, StaleValue<V>>();
+
+   /** The keys of the stale values in expiration order, used to purge them. */
+   private final Queue<K> staleKeys = new ConcurrentLinkedQueue<K>();
+
    public FutureExoCache(Loader<K, V, C> loader, ExoCache<K, V> cache)
    {
       super(loader);
 
       //
       this.cache = cache;
+      this.statistics = statisticsOf(cache);
+   }
+
+   /**
+    * @param loader the loader used to retrieve the missing values by batch
+    * @param cache the cache
+    * @param maxBatchSize the maximum amount of keys that can be loaded at once
+    * @param batchWindow the maximum amount of time in milliseconds during which the misses are collected
+    * before being loaded
+    */
+   public FutureExoCache(BatchLoader<K, V, C> loader, ExoCache<K, V> cache, int maxBatchSize, long batchWindow)
+   {
+      super(loader, maxBatchSize, batchWindow);
+
+      //
+      this.cache = cache;
+      this.statistics = statisticsOf(cache);
+   }
+
+   private static CacheStatistics statisticsOf(ExoCache<?, ?> cache)
+   {
+      CacheStatistics statistics =
+         cache instanceof InstrumentedExoCache ? ((InstrumentedExoCache<?, ?>)cache).getStatistics() : null;
+      return statistics == null ? new CacheStatistics(cache.getName()) : statistics;
+   }
+
+   /**
+    * @return the statistics in which the duration of the loads is recorded, they are the statistics
+    * of the underlying cache if it maintains some
+    */
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
+   }
+
+   /**
+    * Enables the refresh-ahead and/or the stale-while-revalidate modes, it is meant to be called once before
+    * the cache is used.
+    *
+    * @param executor the bounded executor used to reload the values in the background
+    * @param refreshAheadFactor the fraction of the live time of the cache from which a value is reloaded
+    * in the background, the refresh-ahead mode is disabled if it is not between 0 and 1
+    * @param staleGracePeriod the amount of time in milliseconds during which an expired value is still served
+    * while it is reloaded, the stale-while-revalidate mode is disabled if it is lower or equal to 0
+    */
+   public void enableRefresh(Executor executor, float refreshAheadFactor, long staleGracePeriod)
+   {
+      if (executor == null)
+      {
+         throw new IllegalArgumentException("The executor cannot be null");
+      }
+      boolean registered = refreshExecutor != null;
+      this.refreshAheadFactor = refreshAheadFactor > 0 && refreshAheadFactor < 1 ? refreshAheadFactor : 0;
+      this.staleGracePeriod = Math.max(staleGracePeriod, 0);
+      this.refreshExecutor = executor;
+      if (!registered)
+      {
+         cache.addCacheListener(new RefreshListener());
+      }
+   }
+
+   /**
+    * Creates a bounded executor that can be used to reload the values in the background, the tasks
+    * are rejected once all the threads are busy and the queue is full.
+    *
+    * @param name the name of the cache, used to name the threads
+    * @param threads the maximum amount of threads
+    * @param queueSize the maximum amount of pending reloads
+    * @return the executor
+    */
+   public static ExecutorService newRefreshExecutor(final String name, int threads, int queueSize)
+   {
+      ThreadPoolExecutor executor =
+         new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+            new ThreadFactory()
+            {
+               private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+               public Thread newThread(Runnable r)
+               {
+                  Thread t = new Thread(r, name + "-refresh-" + threadNumber.getAndIncrement());
+                  t.setDaemon(true);
+                  return t;
+               }
+            });
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
    }
 
    @Override
@@ -46,10 +187,211 @@ public class FutureExoCache<K extends Serializable, V, C> extends FutureCache<K,
       return cache.get(key);
    }
 
+   @Override
+   protected void onLoad(long startNanos, boolean success)
+   {
+      statistics.recordLoad(startNanos, success);
+   }
+
+   @Override
+   protected boolean isRefreshNeeded(K key)
+   {
+      float factor = refreshAheadFactor;
+      if (factor == 0)
+      {
+         return false;
+      }
+      long liveTime = getLiveTimeMillis();
+      PutTime<K> putTime = putTimes.get(key);
+      return liveTime > 0 && putTime != null
+         && System.currentTimeMillis() - putTime.time >= (long)(liveTime * factor);
+   }
+
+   @Override
+   protected V getStale(K key)
+   {
+      if (staleGracePeriod == 0)
+      {
+         return null;
+      }
+      StaleValue<V> stale = staleValues.get(key);
+      if (stale == null)
+      {
+         return null;
+      }
+      else if (stale.deadline < System.currentTimeMillis())
+      {
+         staleValues.remove(key, stale);
+         return null;
+      }
+      return stale.value;
+   }
+
+   @Override
+   protected Executor getRefreshExecutor()
+   {
+      return refreshExecutor;
+   }
+
+   @Override
+   protected Map<K, V> getAll(Collection<? extends K> keys)
+   {
+      return cache.getAll(keys);
+   }
+
    @Override
    protected void put(K key, V entry)
    {
       cache.put(key, entry);
    }
+
+   /**
+    * @return the live time of the cache in milliseconds, a value lower or equal to 0 if there is none
+    */
+   private long getLiveTimeMillis()
+   {
+      if (cache instanceof ConcurrentFIFOExoCache)
+      {
+         return ((ConcurrentFIFOExoCache<K, V>)cache).getLiveTimeMillis();
+      }
+      else if (cache instanceof ConcurrentTinyLFUExoCache)
+      {
+         return ((ConcurrentTinyLFUExoCache<K, V>)cache).getLiveTimeMillis();
+      }
+      long liveTime = cache.getLiveTime();
+      return liveTime > 0 ? liveTime * 1000 : liveTime;
+   }
+
+   /**
+    * Removes the put times older than the given time, their values have expired for more than the
+    * grace period so they cannot be refreshed or served anymore.
+    */
+   private void purgePutTimes(long oldest)
+   {
+      PutTime<K> putTime;
+      while ((putTime = putOrder.peek()) != null && putTime.time < oldest)
+      {
+         if (putOrder.remove(putTime))
+         {
+            putTimes.remove(putTime.key, putTime);
+         }
+      }
+   }
+
+   /**
+    * Removes the stale values whose grace period has elapsed.
+    */
+   private void purgeStaleValues(long now)
+   {
+      K key;
+      while ((key = staleKeys.peek()) != null)
+      {
+         StaleValue<V> stale = staleValues.get(key);
+         if (stale != null && stale.deadline >= now)
+         {
+            break;
+         }
+         if (staleKeys.remove(key) && stale != null)
+         {
+            staleValues.remove(key, stale);
+         }
+      }
+   }
+
+   /**
+    * The time at which the value of a key has been put.
+    */
+   private static class PutTime<K>
+   {
+
+      /** . */
+      private final K key;
+
+      /** . */
+      private final long time;
+
+      private PutTime(K key, long time)
+      {
+         this.key = key;
+         this.time = time;
+      }
+   }
+
+   /**
+    * An expired value that can still be served until the given deadline.
+    */
+   private static class StaleValue<V>
+   {
+
+      /** . */
+      private final V value;
+
+      /** . */
+      private final long deadline;
+
+      private StaleValue(V value, long deadline)
+      {
+         this.value = value;
+         this.deadline = deadline;
+      }
+   }
+
+   /**
+    * Keeps track of the put times and of the expired values.
+    */
+   private class RefreshListener implements CacheListener<K, V>
+   {
+
+      public void onExpire(CacheListenerContext context, K key, V obj) throws Exception
+      {
+         PutTime<K> putTime = putTimes.remove(key);
+         long gracePeriod = staleGracePeriod;
+         if (gracePeriod > 0 && obj != null && putTime != null)
+         {
+            // The evictions are notified as expirations too, only the values that reached
+            // their live time are kept otherwise the size of the cache would not be bounded
+            long now = System.currentTimeMillis();
+            long expirationTime = putTime.time + getLiveTimeMillis();
+            if (expirationTime <= now)
+            {
+               purgeStaleValues(now);
+               staleValues.put(key, new StaleValue<V>(obj, expirationTime + gracePeriod));
+               staleKeys.add(key);
+            }
+         }
+      }
+
+      public void onRemove(CacheListenerContext context, K key, V obj) throws Exception
+      {
+         putTimes.remove(key);
+         staleValues.remove(key);
+      }
+
+      public void onPut(CacheListenerContext context, K key, V obj) throws Exception
+      {
+         long liveTime = getLiveTimeMillis();
+         if ((refreshAheadFactor > 0 || staleGracePeriod > 0) && liveTime > 0)
+         {
+            long now = System.currentTimeMillis();
+            purgePutTimes(now - liveTime - staleGracePeriod);
+            PutTime<K> putTime = new PutTime<K>(key, now);
+            putTimes.put(key, putTime);
+            putOrder.add(putTime);
+         }
+         staleValues.remove(key);
+      }
+
+      public void onGet(CacheListenerContext context, K key, V obj) throws Exception
+      {
+      }
+
+      public void onClearCache(CacheListenerContext context) throws Exception
+      {
+         putTimes.clear();
+         putOrder.clear();
+         staleValues.clear();
+         staleKeys.clear();
+      }
+   }
 }
 
@@ -29,7 +29,14 @@ import org.exoplatform.services.cache.ExoCacheConfigPlugin;
 import org.exoplatform.services.cache.ExoCacheFactory;
 import org.exoplatform.services.cache.ExoCacheInitException;
 import org.exoplatform.services.cache.SimpleExoCache;
+import org.exoplatform.services.cache.TwoLevelExoCache;
+import org.exoplatform.services.cache.ValueSerializer;
+import org.exoplatform.services.cache.Weigher;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.concurrent.OffHeapExoCache;
+import org.exoplatform.services.cache.concurrent.SimpleReplicatedExoCache;
 import org.exoplatform.services.cache.invalidation.InvalidationExoCache;
+import org.exoplatform.services.cache.invalidation.VersionedInvalidationExoCache;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 
@@ -200,15 +207,27 @@ public class CacheServiceImpl implements CacheService
          simple = factory_.createCache(safeConfig);
       }
       
+      ExoCache cache = simple;
+      // If the flag avoid value replication is enabled and the cache is replicated
+      // or distributed we wrap the eXo cache instance into an InvalidationExoCache 
+      // or a VersionedInvalidationExoCache to enable the invalidation
+      if (safeConfig.avoidValueReplication() && (safeConfig.isRepicated() || safeConfig.isDistributed()))
+      {
+         cache = safeConfig.isNearCache() ? new VersionedInvalidationExoCache(simple,
+            safeConfig.getInvalidationFlushInterval()) : new InvalidationExoCache(simple);
+      }
+      // If a local cache is configured, we keep it in front of the eXo cache instance
+      if (safeConfig.getLocalMaxSize() > 0)
+      {
+         cache = new TwoLevelExoCache(cache, safeConfig.getLocalMaxSize(), safeConfig.getLocalLiveTime(),
+            safeConfig.isLocalInvalidation());
+      }
       if (managed != null)
       {
-         managed.registerCache(simple);
+         // The two-level cache is registered instead of the cache behind to expose the hit ratios of both levels
+         managed.registerCache(cache instanceof TwoLevelExoCache ? cache : simple);
       }
-      // If the flag avoid value replication is enabled and the cache is replicated
-      // or distributed we wrap the eXo cache instance into an InvalidationExoCache 
-      // to enable the invalidation
-      return safeConfig.avoidValueReplication() && (safeConfig.isRepicated() || safeConfig.isDistributed())
-         ? new InvalidationExoCache(simple) : simple;
+      return cache;
    }
 
    public Collection<ExoCache<? extends Serializable, ?>> getAllCacheInstances()
@@ -269,6 +288,45 @@ public class CacheServiceImpl implements CacheService
          simple.setMaxSize(config.getMaxSize());
          simple.setLiveTime(config.getLiveTime());
          simple.setLogEnabled(config.isLogEnabled());
+         if (simple instanceof ConcurrentFIFOExoCache)
+         {
+            ConcurrentFIFOExoCache fifo = (ConcurrentFIFOExoCache)simple;
+            if (config.getStripes() > 1)
+            {
+               fifo.setStripes(config.getStripes());
+            }
+            if (config.getWeigher() != null)
+            {
+               fifo.setWeigher(createInstance(config.getWeigher(), Weigher.class));
+            }
+            fifo.setMaxWeight(config.getMaxWeight());
+            if (config.getExpirationInterval() > 0)
+            {
+               fifo.setExpirationInterval(config.getExpirationInterval());
+            }
+         }
+         if (simple instanceof SimpleReplicatedExoCache)
+         {
+            SimpleReplicatedExoCache replicated = (SimpleReplicatedExoCache)simple;
+            if (config.getReplicationMaxBatchSize() > 0)
+            {
+               replicated.setMaxBatchSize(config.getReplicationMaxBatchSize());
+            }
+            replicated.setBatchWindow(config.getReplicationBatchWindow());
+         }
+         if (simple instanceof OffHeapExoCache)
+         {
+            OffHeapExoCache offHeap = (OffHeapExoCache)simple;
+            if (config.getMaxBytes() > 0)
+            {
+               offHeap.setMaxBytes(config.getMaxBytes());
+            }
+            if (config.getSerializer() != null)
+            {
+               offHeap.setSerializer(createInstance(config.getSerializer(), ValueSerializer.class));
+            }
+            offHeap.setEvictionPolicy(config.getEvictionPolicy());
+         }
          if (simple.isLogEnabled())
          {
             simple.addCacheListener(loggingListener_);
@@ -276,6 +334,42 @@ public class CacheServiceImpl implements CacheService
          return simple;
       }
 
+      /**
+       * Create a new instance of the given class that is used to configure a cache
+       * @param className the full qualified name of the class
+       * @param type the type of the expected instance
+       * @return a new instance of the given class
+       * @throws ExoCacheInitException if any exception happens while creating the instance
+       */
+      private <T> T createInstance(String className, Class<T> type) throws ExoCacheInitException
+      {
+         try
+         {
+            final Class<?> clazz = ClassLoading.loadClass(className, this);
+            return type.cast(clazz.newInstance());
+         }
+         catch (ClassNotFoundException e)
+         {
+            throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+               + className, e);
+         }
+         catch (InstantiationException e)
+         {
+            throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+               + className, e);
+         }
+         catch (IllegalAccessException e)
+         {
+            throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+               + className, e);
+         }
+         catch (ClassCastException e)
+         {
+            throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+               + className, e);
+         }
+      }
+
       /**
        * Create a new instance of ExoCache according to the given configuration
        * @param config the ExoCache configuration
@@ -24,10 +24,17 @@ import org.exoplatform.management.annotations.Managed;
 import org.exoplatform.management.annotations.ManagedDescription;
 import org.exoplatform.management.jmx.annotations.NameTemplate;
 import org.exoplatform.management.jmx.annotations.Property;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.concurrent.OffHeapExoCache;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
@@ -74,6 +81,146 @@ public class CacheServiceManaged implements ManagementAware
       }
    }
 
+   @Managed
+   @ManagedDescription("The total weight of the entries of all the cache instances that support a weighted eviction")
+   public long getCacheWeight()
+   {
+      long weight = 0;
+      for (Object o : cacheService.getAllCacheInstances())
+      {
+         if (o instanceof ConcurrentFIFOExoCache)
+         {
+            weight += ((ConcurrentFIFOExoCache)o).getCacheWeight();
+         }
+      }
+      return weight;
+   }
+
+   @Managed
+   @ManagedDescription("The amount of bytes used outside the java heap by all the cache instances")
+   public long getOffHeapUsedBytes()
+   {
+      long used = 0;
+      for (Object o : cacheService.getAllCacheInstances())
+      {
+         if (o instanceof OffHeapExoCache)
+         {
+            used += ((OffHeapExoCache)o).getUsedBytes();
+         }
+      }
+      return used;
+   }
+
+   @Managed
+   @ManagedDescription("The maximum amount of bytes that can be allocated outside the java heap by all the cache instances")
+   public long getOffHeapMaxBytes()
+   {
+      long max = 0;
+      for (Object o : cacheService.getAllCacheInstances())
+      {
+         if (o instanceof OffHeapExoCache)
+         {
+            max += ((OffHeapExoCache)o).getMaxBytes();
+         }
+      }
+      return max;
+   }
+
+   @Managed
+   @ManagedDescription("The count of cache hits of all the cache instances that maintain statistics")
+   public long getHitCount()
+   {
+      long hits = 0;
+      for (CacheStatistics statistics : getAllStatistics())
+      {
+         hits += statistics.getHits();
+      }
+      return hits;
+   }
+
+   @Managed
+   @ManagedDescription("The count of cache misses of all the cache instances that maintain statistics")
+   public long getMissCount()
+   {
+      long misses = 0;
+      for (CacheStatistics statistics : getAllStatistics())
+      {
+         misses += statistics.getMisses();
+      }
+      return misses;
+   }
+
+   @Managed
+   @ManagedDescription("The ratio of the lookups that found a value in all the cache instances that maintain statistics")
+   public double getHitRatio()
+   {
+      long hits = 0;
+      long total = 0;
+      for (CacheStatistics statistics : getAllStatistics())
+      {
+         long cacheHits = statistics.getHits();
+         hits += cacheHits;
+         total += cacheHits + statistics.getMisses();
+      }
+      return total == 0 ? 0 : (double)hits / total;
+   }
+
+   @Managed
+   @ManagedDescription("The count of entries evicted from all the cache instances that maintain statistics")
+   public long getEvictionCount()
+   {
+      long evictions = 0;
+      for (CacheStatistics statistics : getAllStatistics())
+      {
+         evictions += statistics.getEvictions();
+      }
+      return evictions;
+   }
+
+   @Managed
+   @ManagedDescription("The count of entries expired from all the cache instances that maintain statistics")
+   public long getExpirationCount()
+   {
+      long expirations = 0;
+      for (CacheStatistics statistics : getAllStatistics())
+      {
+         expirations += statistics.getExpirations();
+      }
+      return expirations;
+   }
+
+   @Managed
+   @ManagedDescription("Reset the statistics of all the cache instances")
+   public void resetStatistics()
+   {
+      for (CacheStatistics statistics : getAllStatistics())
+      {
+         statistics.reset();
+      }
+   }
+
+   /**
+    * @return the statistics of all the cache instances that maintain statistics
+    */
+   List<CacheStatistics> getAllStatistics()
+   {
+      List<CacheStatistics> result = new ArrayList<CacheStatistics>();
+      for (Object o : cacheService.getAllCacheInstances())
+      {
+         CacheStatistics statistics = getStatistics((ExoCache)o);
+         if (statistics != null)
+         {
+            result.add(statistics);
+         }
+      }
+      return result;
+   }
+
+   private static CacheStatistics getStatistics(ExoCache cache)
+   {
+      return cache instanceof InstrumentedExoCache ? ((InstrumentedExoCache)cache).getStatistics() : null;
+   }
+
    public void setContext(ManagementContext context)
    {
       this.context = context;
@@ -84,6 +231,11 @@ public class CacheServiceManaged implements ManagementAware
       if (context != null)
       {
          context.register(cache);
+         CacheStatistics statistics = getStatistics(cache);
+         if (statistics != null)
+         {
+            context.register(statistics);
+         }
       }
    }
 }
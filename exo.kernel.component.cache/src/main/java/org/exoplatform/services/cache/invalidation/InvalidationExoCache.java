@@ -20,8 +20,10 @@ package org.exoplatform.services.cache.invalidation;
 
 import org.exoplatform.services.cache.CacheListener;
 import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.CachedObjectSelector;
 import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.InstrumentedExoCache;
 import org.exoplatform.services.cache.ObjectCacheInfo;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
@@ -32,6 +34,7 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,7 +59,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @version $Id$
  *
  */
-public class InvalidationExoCache<K extends Serializable, V> implements ExoCache<K, V>,
+public class InvalidationExoCache<K extends Serializable, V> implements InstrumentedExoCache<K, V>,
    CacheListener<K, InvalidationExoCache.HashCode<V>>
 {
    /**
@@ -190,6 +193,32 @@ public class InvalidationExoCache<K extends Serializable, V> implements ExoCache
       delegate.putMap(map);
    }
 
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getAll(java.util.Collection)
+    */
+   public Map<K, V> getAll(Collection<? extends K> keys) throws IllegalArgumentException
+   {
+      Map<K, HashCode<V>> hashCodes = delegate.getAll(keys);
+      Map<K, V> result = new LinkedHashMap<K, V>(hashCodes.size());
+      for (K key : hashCodes.keySet())
+      {
+         V value = localCache.get(key);
+         if (value != null)
+         {
+            result.put(key, value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#removeAll(java.util.Collection)
+    */
+   public void removeAll(Collection<? extends K> keys) throws IllegalArgumentException
+   {
+      delegate.removeAll(keys);
+   }
+
    /**
     * @see org.exoplatform.services.cache.ExoCache#clearCache()
     */
@@ -287,6 +316,14 @@ public class InvalidationExoCache<K extends Serializable, V> implements ExoCache
       return delegate.getCacheMiss();
    }
 
+   /**
+    * @see org.exoplatform.services.cache.InstrumentedExoCache#getStatistics()
+    */
+   public CacheStatistics getStatistics()
+   {
+      return delegate instanceof InstrumentedExoCache ? ((InstrumentedExoCache<?, ?>)delegate).getStatistics() : null;
+   }
+
    /**
     * @see org.exoplatform.services.cache.ExoCache#getCachedObjects()
     */
@@ -0,0 +1,867 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.invalidation;
+
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CacheStatistics;
+import org.exoplatform.services.cache.CachedObjectSelector;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.cache.ObjectCacheInfo;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This eXo cache type is a near cache decorator allowing ExoCache instances that have
+ * big values or non serializable values to be replicated thanks to an invalidation
+ * mechanism. Unlike {@link InvalidationExoCache}, the replicated cache only contains a
+ * version stamp per key, the values are kept in a local cache along with the stamp
+ * under which they have been put, and a local value is only returned if its stamp
+ * is the stamp of the replicated cache.
+ * <p>
+ * A stamp is made of a version generated from the current time, of a random 64-bit node
+ * identifier and of the hash code of the value. The versions are only monotonic within a
+ * node so the stamps are only compared for equality. Like for {@link InvalidationExoCache},
+ * when another node puts a value with the same hash code, typically the same value loaded
+ * after a cache miss, the local value is kept under the new stamp instead of being invalidated,
+ * otherwise the nodes reading through the same key would keep invalidating each other.
+ * When a flush interval is set, the puts and the removals are not immediately
+ * replicated, they are accumulated, coalesced per key and replicated in one batch at the end of
+ * the interval, the local cache being always up to date. Meanwhile the other cluster nodes may
+ * still see the previous values.
+ *
+ * @version $Id$
+ * @LevelAPI Experimental
+ */
+public class VersionedInvalidationExoCache<K extends Serializable, V> implements InstrumentedExoCache<K, V>,
+   CacheListener<K, VersionedInvalidationExoCache.Stamp>
+{
+   /**
+    * Logger.
+    */
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.component.cache.VersionedInvalidationExoCache");
+
+   /**
+    * The random identifier of the local node
+    */
+   private static final long NODE_ID = UUID.randomUUID().getMostSignificantBits();
+
+   /**
+    * The last version that has been generated
+    */
+   private static final AtomicLong LAST_VERSION = new AtomicLong();
+
+   /**
+    * The marker of a pending removal, it is compared by reference
+    */
+   private static final Stamp REMOVED = new Stamp(Long.MIN_VALUE, 0L, 0);
+
+   /**
+    * The eXo cache instance that contains the version stamps
+    */
+   private final ExoCache<K, Stamp> delegate;
+
+   /**
+    * The listeners of the cache
+    */
+   private final CopyOnWriteArrayList<CacheListener<? super K, ? super V>> listeners;
+
+   /**
+    * The local cache that contains the real values
+    */
+   private final ConcurrentMap<K, Versioned<V>> localCache;
+
+   /**
+    * The version stamps and the removals that have not been replicated yet
+    */
+   private final ConcurrentMap<K, Stamp> pending;
+
+   /**
+    * The interval in milliseconds between two flushes, 0 if the changes are replicated immediately
+    */
+   private final long flushInterval;
+
+   /**
+    * Indicates whether a flush has been scheduled
+    */
+   private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+   /**
+    * @param delegate the underneath eXo cache instance, we assume that the eXo cache
+    * implementation behind is fully functional.
+    */
+   public VersionedInvalidationExoCache(ExoCache<K, V> delegate)
+   {
+      this(delegate, 0);
+   }
+
+   /**
+    * @param delegate the underneath eXo cache instance, we assume that the eXo cache
+    * implementation behind is fully functional.
+    * @param flushInterval the interval in milliseconds during which the changes are accumulated
+    * before being replicated, a value lower or equal to 0 means that they are replicated immediately
+    */
+   @SuppressWarnings("unchecked")
+   public VersionedInvalidationExoCache(ExoCache<K, V> delegate, long flushInterval)
+   {
+      this.delegate = (ExoCache<K, Stamp>)delegate;
+      // We listen to the cache in order to be notified of the remote changes
+      this.delegate.addCacheListener(this);
+      this.listeners = new CopyOnWriteArrayList<CacheListener<? super K, ? super V>>();
+      int concurrencyLevel = delegate.getMaxSize() > 0 && delegate.getMaxSize() < 512 ? delegate.getMaxSize() : 512;
+      this.localCache = new ConcurrentHashMap<K, Versioned<V>>(concurrencyLevel, 0.75f, concurrencyLevel);
+      this.pending = new ConcurrentHashMap<K, Stamp>();
+      this.flushInterval = Math.max(flushInterval, 0);
+   }
+
+   /**
+    * @return a new stamp of the given value, its version is greater than all the versions previously
+    * generated by this node
+    */
+   static Stamp nextStamp(Object value)
+   {
+      long candidate = System.currentTimeMillis();
+      while (true)
+      {
+         long last = LAST_VERSION.get();
+         long next = candidate > last ? candidate : last + 1;
+         if (LAST_VERSION.compareAndSet(last, next))
+         {
+            return new Stamp(next, NODE_ID, value.hashCode());
+         }
+      }
+   }
+
+   /**
+    * @return the interval in milliseconds between two flushes
+    */
+   public long getFlushInterval()
+   {
+      return flushInterval;
+   }
+
+   /**
+    * @return the amount of changes that have not been replicated yet
+    */
+   public int getPendingSize()
+   {
+      return pending.size();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getName()
+    */
+   public String getName()
+   {
+      return delegate.getName();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#setName(java.lang.String)
+    */
+   public void setName(String name)
+   {
+      delegate.setName(name);
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getLabel()
+    */
+   public String getLabel()
+   {
+      return delegate.getLabel();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#setLabel(java.lang.String)
+    */
+   public void setLabel(String s)
+   {
+      delegate.setLabel(s);
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#get(java.io.Serializable)
+    */
+   public V get(Serializable name)
+   {
+      if (name == null)
+      {
+         return null;
+      }
+      Stamp stamp = pending.get(name);
+      if (stamp == null)
+      {
+         stamp = delegate.get(name);
+      }
+      return validate(name, stamp);
+   }
+
+   /**
+    * Gives the local value of the given key if it is valid according to the given stamp
+    */
+   @SuppressWarnings("unchecked")
+   private V validate(Serializable name, Stamp stamp)
+   {
+      if (stamp == null || stamp == REMOVED)
+      {
+         return null;
+      }
+      Versioned<V> local = localCache.get(name);
+      if (local == null)
+      {
+         return null;
+      }
+      if (local.stamp.equals(stamp))
+      {
+         return local.value;
+      }
+      Stamp change = pending.get(name);
+      if (local.stamp.equals(change))
+      {
+         // A local change is being replicated
+         return local.value;
+      }
+      if (local.stamp.hash == stamp.hash)
+      {
+         // Another node has put a value with the same hash code, the local value is kept under the new stamp
+         localCache.replace((K)name, local, new Versioned<V>(local.value, stamp));
+         return local.value;
+      }
+      // The value has been changed by another node, the versions are only monotonic within a node so
+      // we cannot rely on their order to know which value is the most recent one
+      localCache.remove(name, local);
+      return null;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#remove(java.io.Serializable)
+    */
+   public V remove(Serializable key) throws NullPointerException
+   {
+      if (key == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      Versioned<V> local = localCache.remove(key);
+      if (flushInterval > 0)
+      {
+         @SuppressWarnings("unchecked")
+         K name = (K)key;
+         pending.put(name, REMOVED);
+         scheduleFlush();
+      }
+      else
+      {
+         delegate.remove(key);
+      }
+      return local == null ? null : local.value;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#put(java.io.Serializable, java.lang.Object)
+    */
+   public void put(K key, V value) throws NullPointerException
+   {
+      if (key == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      else if (value == null)
+      {
+         throw new IllegalArgumentException("No null cache value accepted");
+      }
+      Stamp stamp = nextStamp(value);
+      localCache.put(key, new Versioned<V>(value, stamp));
+      if (flushInterval > 0)
+      {
+         pending.put(key, stamp);
+         scheduleFlush();
+      }
+      else
+      {
+         delegate.put(key, stamp);
+      }
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#putMap(java.util.Map)
+    */
+   public void putMap(Map<? extends K, ? extends V> objs) throws IllegalArgumentException
+   {
+      if (objs == null)
+      {
+         throw new IllegalArgumentException("No null map accepted");
+      }
+      for (Entry<? extends K, ? extends V> entry : objs.entrySet())
+      {
+         if (entry.getKey() == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+         else if (entry.getValue() == null)
+         {
+            throw new IllegalArgumentException("No null cache value accepted");
+         }
+      }
+      Map<K, Stamp> stamps = new LinkedHashMap<K, Stamp>();
+      for (Entry<? extends K, ? extends V> entry : objs.entrySet())
+      {
+         Stamp stamp = nextStamp(entry.getValue());
+         localCache.put(entry.getKey(), new Versioned<V>(entry.getValue(), stamp));
+         stamps.put(entry.getKey(), stamp);
+      }
+      if (flushInterval > 0)
+      {
+         pending.putAll(stamps);
+         scheduleFlush();
+      }
+      else
+      {
+         delegate.putMap(stamps);
+      }
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getAll(java.util.Collection)
+    */
+   public Map<K, V> getAll(Collection<? extends K> keys) throws IllegalArgumentException
+   {
+      Map<K, Stamp> stamps = delegate.getAll(keys);
+      Map<K, V> result = new LinkedHashMap<K, V>(keys.size());
+      for (K key : keys)
+      {
+         Stamp stamp = pending.get(key);
+         V value = validate(key, stamp == null ? stamps.get(key) : stamp);
+         if (value != null)
+         {
+            result.put(key, value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#removeAll(java.util.Collection)
+    */
+   public void removeAll(Collection<? extends K> keys) throws IllegalArgumentException
+   {
+      if (keys == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
+      }
+      for (K key : keys)
+      {
+         if (key == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+      }
+      for (K key : keys)
+      {
+         localCache.remove(key);
+      }
+      if (flushInterval > 0)
+      {
+         for (K key : keys)
+         {
+            pending.put(key, REMOVED);
+         }
+         scheduleFlush();
+      }
+      else
+      {
+         delegate.removeAll(keys);
+      }
+   }
+
+   /**
+    * Replicates all the pending changes, the puts are replicated in one batch and the removals in another.
+    */
+   public void flush()
+   {
+      flushScheduled.set(false);
+      if (pending.isEmpty())
+      {
+         return;
+      }
+      Map<K, Stamp> stamps = new HashMap<K, Stamp>();
+      List<K> removals = new ArrayList<K>();
+      for (Entry<K, Stamp> entry : pending.entrySet())
+      {
+         K key = entry.getKey();
+         Stamp stamp = entry.getValue();
+         // The change could have been replaced concurrently, in which case it will be part of the next flush
+         if (pending.remove(key, stamp))
+         {
+            if (stamp == REMOVED)
+            {
+               removals.add(key);
+            }
+            else
+            {
+               stamps.put(key, stamp);
+            }
+         }
+      }
+      if (!stamps.isEmpty())
+      {
+         delegate.putMap(stamps);
+      }
+      if (!removals.isEmpty())
+      {
+         delegate.removeAll(removals);
+      }
+   }
+
+   private void scheduleFlush()
+   {
+      if (flushScheduled.compareAndSet(false, true))
+      {
+         // The flushes are short so they share the scheduler of the background tasks of the caches
+         ConcurrentFIFOExoCache.getScheduler().schedule(new Runnable()
+         {
+            public void run()
+            {
+               try
+               {
+                  flush();
+               }
+               catch (RuntimeException e)
+               {
+                  LOG.error("Could not replicate the changes of the cache " + getName(), e);
+               }
+            }
+         }, flushInterval, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#clearCache()
+    */
+   public void clearCache()
+   {
+      pending.clear();
+      localCache.clear();
+      delegate.clearCache();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#select(org.exoplatform.services.cache.CachedObjectSelector)
+    */
+   public void select(CachedObjectSelector<? super K, ? super V> selector) throws Exception
+   {
+      if (selector == null)
+      {
+         throw new IllegalArgumentException("No null selector");
+      }
+      for (Entry<K, Versioned<V>> entry : localCache.entrySet())
+      {
+         final K key = entry.getKey();
+         final V value = entry.getValue().value;
+         ObjectCacheInfo<V> info = new ObjectCacheInfo<V>()
+         {
+            public V get()
+            {
+               return value;
+            }
+
+            public long getExpireTime()
+            {
+               // Cannot know: The expire time is managed by eXo Cache itself
+               return -1;
+            }
+         };
+         if (selector.select(key, info))
+         {
+            selector.onSelect(this, key, info);
+         }
+      }
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getCacheSize()
+    */
+   public int getCacheSize()
+   {
+      return localCache.size();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getMaxSize()
+    */
+   public int getMaxSize()
+   {
+      return delegate.getMaxSize();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#setMaxSize(int)
+    */
+   public void setMaxSize(int max)
+   {
+      delegate.setMaxSize(max);
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getLiveTime()
+    */
+   public long getLiveTime()
+   {
+      return delegate.getLiveTime();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#setLiveTime(long)
+    */
+   public void setLiveTime(long period)
+   {
+      delegate.setLiveTime(period);
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getCacheHit()
+    */
+   public int getCacheHit()
+   {
+      return delegate.getCacheHit();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getCacheMiss()
+    */
+   public int getCacheMiss()
+   {
+      return delegate.getCacheMiss();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.InstrumentedExoCache#getStatistics()
+    */
+   public CacheStatistics getStatistics()
+   {
+      return delegate instanceof InstrumentedExoCache ? ((InstrumentedExoCache<?, ?>)delegate).getStatistics() : null;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#getCachedObjects()
+    */
+   public List<? extends V> getCachedObjects()
+   {
+      List<V> list = new ArrayList<V>(localCache.size());
+      for (Versioned<V> local : localCache.values())
+      {
+         list.add(local.value);
+      }
+      return list;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#removeCachedObjects()
+    */
+   public List<? extends V> removeCachedObjects()
+   {
+      final List<? extends V> list = getCachedObjects();
+      clearCache();
+      return list;
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#addCacheListener(org.exoplatform.services.cache.CacheListener)
+    */
+   public void addCacheListener(CacheListener<? super K, ? super V> listener) throws IllegalArgumentException
+   {
+      if (listener == null)
+      {
+         throw new IllegalArgumentException("The listener cannot be null");
+      }
+      listeners.add(listener);
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#isLogEnabled()
+    */
+   public boolean isLogEnabled()
+   {
+      return delegate.isLogEnabled();
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.ExoCache#setLogEnabled(boolean)
+    */
+   public void setLogEnabled(boolean b)
+   {
+      delegate.setLogEnabled(b);
+   }
+
+   /**
+    * Removes the local value of the given key unless it is a local change that has not been
+    * replicated yet. The versions of the other nodes cannot be ordered with the local ones,
+    * so the local value is removed whatever the given stamp.
+    *
+    * @return the removed value or null if no value has been removed
+    */
+   private V invalidate(K key, Stamp stamp)
+   {
+      Versioned<V> local = localCache.get(key);
+      if (local != null && !local.stamp.equals(pending.get(key)) && localCache.remove(key, local))
+      {
+         return local.value;
+      }
+      return null;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onExpire(CacheListenerContext context, K key, Stamp obj) throws Exception
+   {
+      V value = invalidate(key, obj);
+      if (listeners.isEmpty())
+      {
+         return;
+      }
+      for (CacheListener<? super K, ? super V> listener : listeners)
+      {
+         try
+         {
+            listener.onExpire(context, key, value);
+         }
+         catch (Exception e)
+         {
+            if (LOG.isWarnEnabled())
+               LOG.warn("Cannot execute the CacheListener properly", e);
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onRemove(CacheListenerContext context, K key, Stamp obj) throws Exception
+   {
+      V value = invalidate(key, obj);
+      if (listeners.isEmpty())
+      {
+         return;
+      }
+      for (CacheListener<? super K, ? super V> listener : listeners)
+      {
+         try
+         {
+            listener.onRemove(context, key, value);
+         }
+         catch (Exception e)
+         {
+            if (LOG.isWarnEnabled())
+               LOG.warn("Cannot execute the CacheListener properly", e);
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onPut(CacheListenerContext context, K key, Stamp obj) throws Exception
+   {
+      V value = null;
+      Versioned<V> local = localCache.get(key);
+      if (local != null)
+      {
+         if (obj != null && local.stamp.equals(obj))
+         {
+            // It is the local put or the same stamp so the local value is still valid
+            value = local.value;
+         }
+         else if (obj != null && local.stamp.hash == obj.hash && !local.stamp.equals(pending.get(key)))
+         {
+            // Another node has put a value with the same hash code, typically the same value loaded after
+            // a cache miss, so the local value is kept under the new stamp
+            if (localCache.replace(key, local, new Versioned<V>(local.value, obj)))
+            {
+               value = local.value;
+            }
+         }
+         else
+         {
+            // A new value has been put by another node so we invalidate the local one
+            localCache.remove(key, local);
+         }
+      }
+      if (listeners.isEmpty())
+      {
+         return;
+      }
+      for (CacheListener<? super K, ? super V> listener : listeners)
+         try
+         {
+            listener.onPut(context, key, value);
+         }
+         catch (Exception e)
+         {
+            if (LOG.isWarnEnabled())
+               LOG.warn("Cannot execute the CacheListener properly", e);
+         }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void onGet(CacheListenerContext context, K key, Stamp obj) throws Exception
+   {
+      if (listeners.isEmpty())
+      {
+         return;
+      }
+      Versioned<V> local = obj == null ? null : localCache.get(key);
+      V value = local == null ? null : local.value;
+      for (CacheListener<? super K, ? super V> listener : listeners)
+         try
+         {
+            listener.onGet(context, key, value);
+         }
+         catch (Exception e)
+         {
+            if (LOG.isWarnEnabled())
+               LOG.warn("Cannot execute the CacheListener properly", e);
+         }
+   }
+
+   /**
+    * @see org.exoplatform.services.cache.CacheListener#onClearCache(org.exoplatform.services.cache.CacheListenerContext)
+    */
+   public void onClearCache(CacheListenerContext context) throws Exception
+   {
+      localCache.clear();
+      if (listeners.isEmpty())
+      {
+         return;
+      }
+      for (CacheListener<? super K, ? super V> listener : listeners)
+      {
+         try
+         {
+            listener.onClearCache(context);
+         }
+         catch (Exception e)
+         {
+            if (LOG.isWarnEnabled())
+               LOG.warn("Cannot execute the CacheListener properly", e);
+         }
+      }
+   }
+
+   /**
+    * A local value with the stamp under which it has been put
+    */
+   private static class Versioned<V>
+   {
+      private final V value;
+
+      private final Stamp stamp;
+
+      Versioned(V value, Stamp stamp)
+      {
+         this.value = value;
+         this.stamp = stamp;
+      }
+   }
+
+   /**
+    * The stamp of a value, it is the only data replicated per put
+    */
+   public static final class Stamp implements Serializable
+   {
+      /**
+       * The serial version UID
+       */
+      private static final long serialVersionUID = -4286237215702858561L;
+
+      /**
+       * The version, only monotonic within the node that generated it
+       */
+      private final long version;
+
+      /**
+       * The identifier of the node that generated the version
+       */
+      private final long node;
+
+      /**
+       * The hash code of the value
+       */
+      private final int hash;
+
+      public Stamp(long version, long node, int hash)
+      {
+         this.version = version;
+         this.node = node;
+         this.hash = hash;
+      }
+
+      /**
+       * @return the hash code of the value
+       */
+      public int getHash()
+      {
+         return hash;
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o)
+         {
+            return true;
+         }
+         if (!(o instanceof Stamp))
+         {
+            return false;
+         }
+         Stamp stamp = (Stamp)o;
+         return version == stamp.version && node == stamp.node && hash == stamp.hash;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         int result = (int)(version ^ (version >>> 32));
+         result = 31 * result + (int)(node ^ (node >>> 32));
+         return 31 * result + hash;
+      }
+   }
+}
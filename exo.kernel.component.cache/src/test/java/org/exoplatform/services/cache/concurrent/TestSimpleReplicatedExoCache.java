@@ -223,6 +223,56 @@ public class TestSimpleReplicatedExoCache
       Assert.assertNull(cache2.get("c"));
    }
 
+   @Test
+   public void testBatch() throws Exception
+   {
+      cache1.setBatchWindow(100);
+      cache1.setMaxBatchSize(1000);
+      Assert.assertEquals(0, cache1.getCacheSize());
+      Assert.assertEquals(0, cache2.getCacheSize());
+      for (int i = 0; i < 100; i++)
+      {
+         cache1.put("a" + (i % 10), "value" + i);
+      }
+      cache1.put("b", "value");
+      cache1.remove("a0");
+      Assert.assertEquals(10, cache1.getCacheSize());
+      for (int i = 0; i < 10; i++)
+      {
+         if (cache2.getCacheSize() == 10)
+            break;
+         Thread.sleep(200);
+      }
+      Assert.assertEquals(10, cache2.getCacheSize());
+      Assert.assertNull(cache2.get("a0"));
+      Assert.assertEquals("value99", cache2.get("a9"));
+      Assert.assertEquals("value", cache2.get("b"));
+      cache1.clearCache();
+      cache1.put("c", "value");
+      cache1.flush();
+      for (int i = 0; i < 10; i++)
+      {
+         if (cache2.getCacheSize() == 1)
+            break;
+         Thread.sleep(200);
+      }
+      Assert.assertEquals(1, cache2.getCacheSize());
+      Assert.assertEquals("value", cache2.get("c"));
+      // A batch is sent as soon as it is full
+      cache1.setBatchWindow(60000);
+      cache1.setMaxBatchSize(2);
+      cache1.put("d", "value");
+      cache1.put("e", "value");
+      for (int i = 0; i < 10; i++)
+      {
+         if (cache2.getCacheSize() == 3)
+            break;
+         Thread.sleep(200);
+      }
+      Assert.assertEquals(3, cache2.getCacheSize());
+      cache1.setBatchWindow(0);
+   }
+
    @Test
    public void testIsolation() throws Exception
    {
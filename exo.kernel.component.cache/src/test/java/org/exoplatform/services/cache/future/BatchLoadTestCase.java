@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.future;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version $Id$
+ */
+public class BatchLoadTestCase extends TestCase
+{
+
+   public void testCoalescing() throws Exception
+   {
+      final CountingLoader loader = new CountingLoader();
+      final BatchMap futureCache = new BatchMap(loader, 5, 10000);
+      final CountDownLatch startSignal = new CountDownLatch(1);
+      final CountDownLatch doneSignal = new CountDownLatch(5);
+      final Map<String, String> results = new ConcurrentHashMap<String, String>();
+      for (int i = 0; i < 5; i++)
+      {
+         final String key = "key" + i;
+         new Thread()
+         {
+            public void run()
+            {
+               try
+               {
+                  startSignal.await();
+                  String value = futureCache.get("ctx", key);
+                  if (value != null)
+                  {
+                     results.put(key, value);
+                  }
+               }
+               catch (InterruptedException e)
+               {
+                  Thread.currentThread().interrupt();
+               }
+               finally
+               {
+                  doneSignal.countDown();
+               }
+            }
+         }.start();
+      }
+      startSignal.countDown();
+      doneSignal.await();
+      // The batch is full so it is loaded without waiting for the end of the window
+      assertEquals(5, results.size());
+      assertEquals("ctx_key3", results.get("key3"));
+      assertEquals(5, loader.keys.get());
+      assertTrue(loader.calls.get() < 5);
+      assertEquals(5, futureCache.data.size());
+   }
+
+   public void testGetAll()
+   {
+      CountingLoader loader = new CountingLoader();
+      BatchMap futureCache = new BatchMap(loader, 10, 0);
+      futureCache.data.put("a", "cached");
+      Map<String, String> values = futureCache.getAll("ctx", Arrays.asList("a", "b", "c", "missing"));
+      assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<String>(values.keySet()));
+      assertEquals("cached", values.get("a"));
+      assertEquals("ctx_b", values.get("b"));
+      assertEquals(1, loader.calls.get());
+      assertEquals(3, loader.keys.get());
+      assertNull(futureCache.data.get("missing"));
+      assertEquals("ctx_c", futureCache.get("ctx", "c"));
+      assertEquals(1, loader.calls.get());
+   }
+
+   public void testMaxBatchSize()
+   {
+      CountingLoader loader = new CountingLoader();
+      BatchMap futureCache = new BatchMap(loader, 2, 0);
+      Map<String, String> values = futureCache.getAll("ctx", Arrays.asList("a", "b", "c", "d", "e"));
+      assertEquals(5, values.size());
+      assertEquals(3, loader.calls.get());
+      assertEquals(5, loader.keys.get());
+   }
+
+   public void testFailure()
+   {
+      BatchMap futureCache = new BatchMap(new CountingLoader()
+      {
+         @Override
+         public Map<String, String> retrieveAll(String context, Collection<String> keys) throws Exception
+         {
+            throw new Exception("DON'T FREAK OUT");
+         }
+      }, 10, 0);
+      assertTrue(futureCache.getAll("ctx", Arrays.asList("a", "b")).isEmpty());
+      assertNull(futureCache.get("ctx", "a"));
+      assertTrue(futureCache.data.isEmpty());
+   }
+
+   private static class CountingLoader implements BatchLoader<String, String, String>
+   {
+
+      final AtomicInteger calls = new AtomicInteger();
+
+      final AtomicInteger keys = new AtomicInteger();
+
+      public String retrieve(String context, String key) throws Exception
+      {
+         return retrieveAll(context, Collections.singletonList(key)).get(key);
+      }
+
+      public Map<String, String> retrieveAll(String context, Collection<String> keys) throws Exception
+      {
+         calls.incrementAndGet();
+         this.keys.addAndGet(keys.size());
+         Map<String, String> values = new HashMap<String, String>();
+         for (String key : keys)
+         {
+            if (!key.equals("missing"))
+            {
+               values.put(key, context + "_" + key);
+            }
+         }
+         return values;
+      }
+   }
+
+   private static class BatchMap extends FutureCache<String, String, String>
+   {
+
+      final Map<String, String> data = new ConcurrentHashMap<String, String>();
+
+      BatchMap(BatchLoader<String, String, String> loader, int maxBatchSize, long batchWindow)
+      {
+         super(loader, maxBatchSize, batchWindow);
+      }
+
+      @Override
+      protected String get(String key)
+      {
+         return data.get(key);
+      }
+
+      @Override
+      protected void put(String key, String value)
+      {
+         data.put(key, value);
+      }
+   }
+}
@@ -21,6 +21,8 @@ package org.exoplatform.services.cache.future;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
@@ -55,6 +57,23 @@ public class GetTestCase extends TestCase
       Assert.assertFalse(futureCache.data.containsKey("foo"));
    }
 
+   public void testGetAll()
+   {
+      FutureMap<Callable<String>> futureCache = new FutureMap<Callable<String>>(new StringLoader());
+      futureCache.data.put("foo", "foo_value");
+      Map<String, String> values = futureCache.getAll(new Callable<String>()
+      {
+         public String call() throws Exception
+         {
+            return "bar_value";
+         }
+      }, Arrays.asList("foo", "bar"));
+      Assert.assertEquals(2, values.size());
+      Assert.assertEquals("foo_value", values.get("foo"));
+      Assert.assertEquals("bar_value", values.get("bar"));
+      Assert.assertEquals("bar_value", futureCache.data.get("bar"));
+   }
+
    public void testThrowException()
    {
       FutureMap<Callable<String>> futureCache = new FutureMap<Callable<String>>(new StringLoader());
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.future;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version $Id$
+ */
+public class RefreshTestCase extends TestCase
+{
+
+   private ExecutorService executor;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      executor = FutureExoCache.newRefreshExecutor("RefreshTestCase", 1, 10);
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      executor.shutdownNow();
+   }
+
+   public void testRefreshAhead() throws Exception
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>(10);
+      cache.setLiveTime(1);
+      CountingLoader loader = new CountingLoader();
+      FutureExoCache<String, String, Object> futureCache = new FutureExoCache<String, String, Object>(loader, cache);
+      futureCache.enableRefresh(executor, 0.5f, 0);
+      assertEquals("foo_1", futureCache.get(null, "foo"));
+      assertEquals("foo_1", futureCache.get(null, "foo"));
+      assertEquals(1, loader.count.get());
+      Thread.sleep(600);
+      // The current value is served while it is reloaded in the background
+      loader.latch = new CountDownLatch(1);
+      assertEquals("foo_1", futureCache.get(null, "foo"));
+      assertTrue(loader.latch.await(5, TimeUnit.SECONDS));
+      waitFor(cache, "foo", "foo_2");
+      assertEquals("foo_2", futureCache.get(null, "foo"));
+      assertEquals(2, loader.count.get());
+   }
+
+   public void testStaleWhileRevalidate() throws Exception
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>(10);
+      cache.setLiveTimeMillis(200);
+      CountingLoader loader = new CountingLoader();
+      FutureExoCache<String, String, Object> futureCache = new FutureExoCache<String, String, Object>(loader, cache);
+      futureCache.enableRefresh(executor, 0, 10000);
+      assertEquals("foo_1", futureCache.get(null, "foo"));
+      Thread.sleep(300);
+      // The expired value is served while it is reloaded in the background
+      loader.latch = new CountDownLatch(1);
+      assertEquals("foo_1", futureCache.get(null, "foo"));
+      assertTrue(loader.latch.await(5, TimeUnit.SECONDS));
+      waitFor(cache, "foo", "foo_2");
+      assertEquals(2, loader.count.get());
+      cache.remove("foo");
+      // A removed value is never served
+      assertEquals("foo_3", futureCache.get(null, "foo"));
+   }
+
+   public void testEvictionIsNotStale() throws Exception
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>(1);
+      cache.setLiveTime(60);
+      CountingLoader loader = new CountingLoader();
+      FutureExoCache<String, String, Object> futureCache = new FutureExoCache<String, String, Object>(loader, cache);
+      futureCache.enableRefresh(executor, 0, 10000);
+      assertEquals("foo_1", futureCache.get(null, "foo"));
+      // The value of foo is evicted before its live time
+      assertEquals("bar_2", futureCache.get(null, "bar"));
+      assertNull(cache.get("foo"));
+      // An evicted value is never served
+      assertEquals("foo_3", futureCache.get(null, "foo"));
+      assertEquals(3, loader.count.get());
+   }
+
+   private void waitFor(ConcurrentFIFOExoCache<String, String> cache, String key, String value)
+      throws InterruptedException
+   {
+      for (int i = 0; i < 100 && !value.equals(cache.get(key)); i++)
+      {
+         Thread.sleep(50);
+      }
+      assertEquals(value, cache.get(key));
+   }
+
+   private static class CountingLoader implements Loader<String, String, Object>
+   {
+
+      final AtomicInteger count = new AtomicInteger();
+
+      volatile CountDownLatch latch;
+
+      public String retrieve(Object context, String key) throws Exception
+      {
+         String value = key + "_" + count.incrementAndGet();
+         if (latch != null)
+         {
+            latch.countDown();
+         }
+         return value;
+      }
+   }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.test;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.CacheStatistics;
+import org.exoplatform.services.cache.LatencyHistogram;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentTinyLFUExoCache;
+import org.exoplatform.services.cache.concurrent.OffHeapExoCache;
+import org.exoplatform.services.cache.future.FutureExoCache;
+import org.exoplatform.services.cache.future.Loader;
+import org.exoplatform.services.cache.invalidation.InvalidationExoCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version $Id$
+ */
+public class TestCacheStatistics extends TestCase
+{
+
+   public void testHistogram()
+   {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals(0, histogram.getCount());
+      assertEquals(0, histogram.getPercentile(99));
+      for (int i = 1; i <= 1000; i++)
+      {
+         histogram.record(i * 1000L);
+      }
+      histogram.record(-1);
+      assertEquals(1000, histogram.getCount());
+      assertEquals(1000000L, histogram.getMax());
+      assertEquals(500500L, histogram.getMean());
+      assertWithin(500000L, histogram.getPercentile(50));
+      assertWithin(990000L, histogram.getPercentile(99));
+      assertEquals(1000000L, histogram.getPercentile(100));
+      assertWithin(1000L, histogram.getPercentile(0));
+
+      // A value beyond the highest tracked magnitude
+      histogram.record(TimeUnit.HOURS.toNanos(1));
+      assertEquals(TimeUnit.HOURS.toNanos(1), histogram.getMax());
+      assertEquals(TimeUnit.HOURS.toNanos(1), histogram.getPercentile(100));
+
+      histogram.reset();
+      assertEquals(0, histogram.getCount());
+      assertEquals(0, histogram.getMax());
+      assertEquals(0, histogram.getMean());
+   }
+
+   public void testConcurrentRecording() throws Exception
+   {
+      final CacheStatistics statistics = new CacheStatistics("test");
+      final int threads = 8;
+      final int iterations = 10000;
+      final CountDownLatch startSignal = new CountDownLatch(1);
+      final CountDownLatch doneSignal = new CountDownLatch(threads);
+      for (int i = 0; i < threads; i++)
+      {
+         new Thread()
+         {
+            public void run()
+            {
+               try
+               {
+                  startSignal.await();
+                  for (int j = 0; j < iterations; j++)
+                  {
+                     statistics.recordGet(System.nanoTime(), j % 4 != 0);
+                  }
+               }
+               catch (InterruptedException e)
+               {
+                  Thread.currentThread().interrupt();
+               }
+               finally
+               {
+                  doneSignal.countDown();
+               }
+            }
+         }.start();
+      }
+      startSignal.countDown();
+      doneSignal.await();
+      assertEquals(threads * iterations * 3 / 4, statistics.getHits());
+      assertEquals(threads * iterations / 4, statistics.getMisses());
+      assertEquals(threads * iterations, statistics.getGetLatency().getCount());
+      assertEquals(0.75, statistics.getHitRatio(), 0.0001);
+      assertEquals(0.75, statistics.getRecentHitRatio(), 0.0001);
+      statistics.reset();
+      assertEquals(0, statistics.getHits());
+      assertEquals(0, statistics.getMisses());
+      assertEquals(0.0, statistics.getRecentHitRatio());
+   }
+
+   public void testConcurrentFIFOExoCache() throws Exception
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>("test", 2);
+      CacheStatistics statistics = cache.getStatistics();
+      assertEquals("test", statistics.getCacheName());
+      cache.put("a", "a");
+      cache.put("b", "b");
+      cache.put("c", "c");
+      assertEquals(3, statistics.getPuts());
+      assertEquals(1, statistics.getEvictions());
+      assertNull(cache.get("a"));
+      assertEquals("b", cache.get("b"));
+      assertEquals(1, statistics.getHits());
+      assertEquals(1, statistics.getMisses());
+      assertEquals(1, cache.getCacheHit());
+      assertEquals(1, cache.getCacheMiss());
+      assertEquals(2, statistics.getGetLatency().getCount());
+      assertEquals(3, statistics.getPutLatency().getCount());
+      assertEquals("b", cache.remove("b"));
+      assertEquals(1, statistics.getRemovals());
+      cache.setLiveTimeMillis(10);
+      cache.put("d", "d");
+      Thread.sleep(50);
+      assertNull(cache.get("d"));
+      assertEquals(1, statistics.getExpirations());
+      cache.setName("renamed");
+      assertEquals("renamed", statistics.getCacheName());
+
+      // The decorators give the statistics of the cache they decorate
+      assertSame(statistics, new InvalidationExoCache<String, String>(cache).getStatistics());
+   }
+
+   public void testConcurrentTinyLFUExoCache() throws Exception
+   {
+      ConcurrentTinyLFUExoCache<String, String> cache = new ConcurrentTinyLFUExoCache<String, String>("test", 100);
+      CacheStatistics statistics = cache.getStatistics();
+      cache.put("a", "a");
+      assertEquals("a", cache.get("a"));
+      assertNull(cache.get("b"));
+      assertEquals("a", cache.remove("a"));
+      assertEquals(1, statistics.getPuts());
+      assertEquals(1, statistics.getHits());
+      assertEquals(1, statistics.getMisses());
+      assertEquals(1, statistics.getRemovals());
+      for (int i = 0; i < 1000; i++)
+      {
+         cache.put("key" + i, "value" + i);
+      }
+      cache.assertConsistent();
+      assertEquals(1000 - cache.getCacheSize(), statistics.getEvictions());
+   }
+
+   public void testOffHeapExoCache() throws Exception
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", 64 * 1024);
+      cache.setMaxSize(16);
+      CacheStatistics statistics = cache.getStatistics();
+      for (int i = 0; i < 100; i++)
+      {
+         cache.put("key" + i, "value" + i);
+      }
+      assertEquals(100, statistics.getPuts());
+      assertEquals(100 - cache.getCacheSize(), statistics.getEvictions());
+      assertEquals("value99", cache.get("key99"));
+      assertNull(cache.get("key0"));
+      assertEquals(1, statistics.getHits());
+      assertEquals(1, statistics.getMisses());
+      assertEquals("value99", cache.remove("key99"));
+      assertEquals(1, statistics.getRemovals());
+   }
+
+   public void testFutureExoCache() throws Exception
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>("test", 10);
+      FutureExoCache<String, String, Object> futureCache =
+         new FutureExoCache<String, String, Object>(new Loader<String, String, Object>()
+         {
+            public String retrieve(Object context, String key) throws Exception
+            {
+               if (key.equals("fail"))
+               {
+                  throw new Exception("Expected failure");
+               }
+               Thread.sleep(5);
+               return key.toUpperCase();
+            }
+         }, cache);
+      CacheStatistics statistics = futureCache.getStatistics();
+      assertSame(cache.getStatistics(), statistics);
+      assertEquals("A", futureCache.get(null, "a"));
+      assertEquals("A", futureCache.get(null, "a"));
+      assertNull(futureCache.get(null, "fail"));
+      assertEquals(2, statistics.getLoads());
+      assertEquals(1, statistics.getLoadFailures());
+      assertTrue(statistics.getLoadTimeMax() >= TimeUnit.MILLISECONDS.toNanos(5));
+   }
+
+   /**
+    * Checks that the given value is within the relative error of the histogram.
+    */
+   private static void assertWithin(long expected, long actual)
+   {
+      assertTrue("Expected " + expected + " but was " + actual, Math.abs(expected - actual) <= expected * 0.07);
+   }
+}
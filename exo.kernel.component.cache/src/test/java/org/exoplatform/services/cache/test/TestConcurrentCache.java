@@ -25,9 +25,11 @@ import org.exoplatform.services.cache.CacheListenerContext;
 import org.exoplatform.services.cache.CachedObjectSelector;
 import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.cache.ObjectCacheInfo;
+import org.exoplatform.services.cache.Weigher;
 import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -190,6 +192,57 @@ public class TestConcurrentCache extends TestCase
       cache.assertExpire("Foo", v1).assertEmpty();
    }
 
+   public void testExpireOnWrite()
+   {
+      CacheHelper<String, Object> cache = new CacheHelper<String, Object>();
+      cache.setLiveTimeMillis(100);
+      cache.put("Foo", v1);
+      cache.assertPut("Foo", v1).assertEmpty();
+      waitFor(1200);
+
+      // The expired entry is removed by the next write without being accessed
+      cache.put("Bar", v2);
+      cache.assertPut("Bar", v2).assertExpire("Foo", v1).assertEmpty();
+      assertEquals(1, cache.getCacheSize());
+      cache.assertConsistent();
+   }
+
+   public void testExpire()
+   {
+      CacheHelper<String, Object> cache = new CacheHelper<String, Object>();
+      cache.setLiveTimeMillis(100);
+      cache.put("Foo", v1);
+      cache.setLiveTimeMillis(-1);
+      cache.put("Bar", v2);
+      cache.assertPut("Foo", v1).assertPut("Bar", v2).assertEmpty();
+      waitFor(1200);
+      cache.expire();
+      cache.assertExpire("Foo", v1).assertEmpty();
+      assertEquals(1, cache.getCacheSize());
+      assertEquals(v2, cache.get("Bar"));
+      cache.assertConsistent();
+   }
+
+   public void testBackgroundExpiration()
+   {
+      ConcurrentFIFOExoCache<String, Object> cache = new ConcurrentFIFOExoCache<String, Object>(10);
+      cache.setLiveTimeMillis(100);
+      cache.setExpirationInterval(1);
+      assertEquals(1, cache.getExpirationInterval());
+      for (int i = 0; i < 5; i++)
+      {
+         cache.put("Foo" + i, v1);
+      }
+      for (int i = 0; i < 50 && cache.getCacheSize() > 0; i++)
+      {
+         waitFor(100);
+      }
+      assertEquals(0, cache.getCacheSize());
+      cache.assertConsistent();
+      cache.setExpirationInterval(0);
+      assertEquals(0, cache.getExpirationInterval());
+   }
+
    public void testExpireOnRemove()
    {
       CacheHelper<String, Object> cache = new CacheHelper<String, Object>();
@@ -258,6 +311,228 @@ public class TestConcurrentCache extends TestCase
       assertEquals(0, cache.getCacheSize());
    }
 
+   public void testStripes()
+   {
+      ConcurrentFIFOExoCache<Integer, Object> cache = new ConcurrentFIFOExoCache<Integer, Object>("striped", 10, 4, null);
+      assertEquals(4, cache.getStripes());
+      for (int i = 0; i < 100; i++)
+      {
+         cache.put(i, v1);
+         cache.assertConsistent();
+      }
+      assertTrue(cache.getCacheSize() <= 10);
+      assertEquals(cache.getCacheSize(), cache.getCachedObjects().size());
+      for (int i = 90; i < 100; i++)
+      {
+         cache.remove(i);
+         cache.assertConsistent();
+      }
+      cache.setStripes(2);
+      assertEquals(2, cache.getStripes());
+      assertEquals(0, cache.getCacheSize());
+      cache.put(1, v1);
+      assertEquals(v1, cache.get(1));
+      cache.assertConsistent();
+   }
+
+   public void testSetStripes()
+   {
+      CacheHelper<String, Object> cache = new CacheHelper<String, Object>(10);
+      cache.put("a", v1);
+      cache.assertPut("a", v1).assertEmpty();
+      long removals = cache.getStatistics().getRemovals();
+      cache.setStripes(4);
+      cache.assertClear().assertEmpty();
+      assertEquals(removals + 1, cache.getStatistics().getRemovals());
+      assertEquals(0, cache.getCacheSize());
+      // The amount of stripes cannot exceed the max size
+      cache.setStripes(20);
+      assertEquals(10, cache.getStripes());
+      cache.assertClear().assertEmpty();
+      for (int i = 0; i < 20; i++)
+      {
+         cache.put("" + i, v1);
+         assertEquals(v1, cache.get("" + i));
+         cache.assertConsistent();
+      }
+   }
+
+   public void testSetMaxSizeBelowStripes()
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>("striped", 16);
+      cache.setStripes(16);
+      cache.setMaxSize(5);
+      // Each stripe keeps at least one entry
+      for (int i = 0; i < 32; i++)
+      {
+         cache.put("" + i, "" + i);
+         assertEquals("" + i, cache.get("" + i));
+         cache.assertConsistent();
+      }
+   }
+
+   public void testWeight()
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>("weighted", 100);
+      cache.setWeigher(new Weigher<String, String>()
+      {
+         public int weigh(String key, String value)
+         {
+            return value.length();
+         }
+      });
+      cache.setMaxWeight(10);
+      cache.put("a", "aaaa");
+      cache.put("b", "bbbb");
+      assertEquals(8, cache.getCacheWeight());
+      cache.put("c", "cccc");
+      cache.assertConsistent();
+      assertNull(cache.get("a"));
+      assertEquals("bbbb", cache.get("b"));
+      assertEquals(8, cache.getCacheWeight());
+      cache.put("b", "b");
+      assertEquals(5, cache.getCacheWeight());
+      cache.remove("c");
+      assertEquals(1, cache.getCacheWeight());
+
+      // An entry heavier than the max weight is evicted right away
+      cache.put("d", "ddddddddddd");
+      cache.assertConsistent();
+      assertNull(cache.get("d"));
+      assertEquals(0, cache.getCacheWeight());
+      assertEquals(0, cache.getCacheSize());
+
+      // Without weigher all the entries weigh 1
+      cache.setWeigher(null);
+      cache.setMaxWeight(2);
+      cache.put("a", "a");
+      cache.put("b", "b");
+      cache.put("c", "c");
+      assertEquals(2, cache.getCacheWeight());
+      assertEquals(2, cache.getCacheSize());
+   }
+
+   public void testSetWeigher()
+   {
+      ConcurrentFIFOExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>("weighted", 100);
+      Weigher<String, String> weigher = new Weigher<String, String>()
+      {
+         public int weigh(String key, String value)
+         {
+            return value.length();
+         }
+      };
+      cache.setWeigher(weigher);
+      cache.put("a", "a");
+      cache.put("b", "bb");
+      assertEquals(3, cache.getCacheWeight());
+
+      // The same weigher keeps the content
+      cache.setWeigher(weigher);
+      assertEquals(2, cache.getCacheSize());
+      long removals = cache.getStatistics().getRemovals();
+
+      // Another weigher clears the content
+      cache.setWeigher(null);
+      assertEquals(0, cache.getCacheSize());
+      assertEquals(0, cache.getCacheWeight());
+      assertEquals(removals + 2, cache.getStatistics().getRemovals());
+   }
+
+   public void testStripedWeight()
+   {
+      ConcurrentFIFOExoCache<Integer, String> cache = new ConcurrentFIFOExoCache<Integer, String>("weighted", 1000, 4, null);
+      cache.setWeigher(new Weigher<Integer, String>()
+      {
+         public int weigh(Integer key, String value)
+         {
+            return value.length();
+         }
+      });
+      cache.setMaxWeight(100);
+      for (int i = 0; i < 200; i++)
+      {
+         cache.put(i, "0123456789");
+         cache.assertConsistent();
+         assertTrue(cache.getCacheWeight() <= 100);
+      }
+      assertEquals(cache.getCacheSize() * 10, cache.getCacheWeight());
+   }
+
+   public void testGetAllRemoveAll()
+   {
+      CacheHelper<String, Object> cache = new CacheHelper<String, Object>(3);
+      cache.put("a", v1);
+      cache.put("b", v2);
+      cache.assertPut("a", v1).assertPut("b", v2).assertEmpty();
+      Map<String, Object> values = cache.getAll(Arrays.asList("a", "b", "c"));
+      assertEquals(2, values.size());
+      assertEquals(v1, values.get("a"));
+      assertEquals(v2, values.get("b"));
+      cache.assertGet("a", v1).assertGet("b", v2).assertEmpty();
+      cache.removeAll(Arrays.asList("a", "c"));
+      cache.assertRemove("a", v1).assertEmpty();
+      assertEquals(1, cache.getCacheSize());
+      assertNull(cache.get("a"));
+      try
+      {
+         cache.removeAll(Arrays.asList("b", null));
+         fail();
+      }
+      catch (IllegalArgumentException e)
+      {
+         // expected
+      }
+      assertEquals(1, cache.getCacheSize());
+      try
+      {
+         cache.getAll(null);
+         fail();
+      }
+      catch (IllegalArgumentException e)
+      {
+         // expected
+      }
+   }
+
+   public void testAsync() throws Exception
+   {
+      CacheHelper<String, Object> cache = new CacheHelper<String, Object>(3);
+      assertNull(cache.putAsync("a", v1).get());
+      cache.assertPut("a", v1).assertEmpty();
+      assertEquals(v1, cache.getAsync("a").get());
+      cache.assertGet("a", v1).assertEmpty();
+      assertNull(cache.getAsync("b").get());
+      cache.assertEmpty();
+      cache.put("b", v2);
+      cache.assertPut("b", v2).assertEmpty();
+      Map<String, Object> values = cache.getAllAsync(Arrays.asList("a", "b", "c")).get();
+      assertEquals(2, values.size());
+      assertEquals(v1, values.get("a"));
+      assertEquals(v2, values.get("b"));
+      cache.assertGet("a", v1).assertGet("b", v2).assertEmpty();
+      assertEquals(v1, cache.removeAsync("a").get());
+      cache.assertRemove("a", v1).assertEmpty();
+      try
+      {
+         cache.putAsync(null, v1);
+         fail();
+      }
+      catch (IllegalArgumentException e)
+      {
+         // expected
+      }
+      try
+      {
+         cache.getAllAsync(Arrays.asList("a", null));
+         fail();
+      }
+      catch (IllegalArgumentException e)
+      {
+         // expected
+      }
+   }
+
    private void waitFor(long millis)
    {
       try
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.test;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.concurrent.ConcurrentTinyLFUExoCache;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version $Id$
+ */
+public class TestConcurrentTinyLFUCache extends TestCase
+{
+
+   public void testNullKey()
+   {
+      ConcurrentTinyLFUExoCache<String, Object> cache = new ConcurrentTinyLFUExoCache<String, Object>(2);
+      cache.put("a", "a");
+      assertNull(cache.get(null));
+      try
+      {
+         cache.put(null, new Object());
+         fail("Was expecting an IllegalArgumentException");
+      }
+      catch (IllegalArgumentException ignore)
+      {
+         assertEquals(1, cache.getCacheSize());
+      }
+      try
+      {
+         cache.remove(null);
+         fail("Was expecting an IllegalArgumentException");
+      }
+      catch (IllegalArgumentException ignore)
+      {
+         assertEquals(1, cache.getCacheSize());
+      }
+      try
+      {
+         Map<String, String> tmp = new HashMap<String, String>();
+         tmp.put("b", "b");
+         tmp.put(null, "b");
+         cache.putMap(tmp);
+         fail("Was expecting an IllegalArgumentException");
+      }
+      catch (IllegalArgumentException ignore)
+      {
+         assertEquals(1, cache.getCacheSize());
+         assertEquals("a", cache.get("a"));
+      }
+   }
+
+   public void testPutGetRemove()
+   {
+      EventCounter listener = new EventCounter();
+      ConcurrentTinyLFUExoCache<String, Object> cache = new ConcurrentTinyLFUExoCache<String, Object>(2);
+      cache.addCacheListener(listener);
+      cache.put("Foo", "v1");
+      assertEquals(1, listener.puts.get());
+      assertEquals("v1", cache.get("Foo"));
+      assertEquals(1, listener.gets.get());
+      cache.put("Foo", "v2");
+      assertEquals("v2", cache.get("Foo"));
+      assertEquals(1, cache.getCacheSize());
+      assertEquals("v2", cache.remove("Foo"));
+      assertEquals(1, listener.removes.get());
+      assertNull(cache.get("Foo"));
+      assertEquals(0, cache.getCacheSize());
+      assertEquals(2, cache.getCacheHit());
+      assertEquals(1, cache.getCacheMiss());
+      cache.assertConsistent();
+   }
+
+   public void testOverCapacity()
+   {
+      EventCounter listener = new EventCounter();
+      ConcurrentTinyLFUExoCache<String, Object> cache = new ConcurrentTinyLFUExoCache<String, Object>(2);
+      cache.addCacheListener(listener);
+      cache.put("Foo", "v1");
+      cache.put("Bar", "v2");
+      cache.put("Juu", "v3");
+      assertEquals(2, cache.getCacheSize());
+      assertEquals(3, listener.puts.get());
+      assertEquals(1, listener.expires.get());
+      cache.assertConsistent();
+      cache.setMaxSize(1);
+      assertEquals(1, cache.getCacheSize());
+      assertEquals(2, listener.expires.get());
+      cache.assertConsistent();
+   }
+
+   public void testFrequentEntrySurvivesScan()
+   {
+      ConcurrentTinyLFUExoCache<String, Object> cache = new ConcurrentTinyLFUExoCache<String, Object>(10);
+      cache.put("hot", "hot");
+      for (int i = 0; i < 10; i++)
+      {
+         assertEquals("hot", cache.get("hot"));
+      }
+      for (int i = 0; i < 100; i++)
+      {
+         cache.put("scan" + i, "scan" + i);
+      }
+      assertEquals("hot", cache.get("hot"));
+      assertEquals(10, cache.getCacheSize());
+      cache.assertConsistent();
+   }
+
+   public void testExpireOnGet() throws Exception
+   {
+      EventCounter listener = new EventCounter();
+      ConcurrentTinyLFUExoCache<String, Object> cache = new ConcurrentTinyLFUExoCache<String, Object>(2);
+      cache.addCacheListener(listener);
+      cache.setLiveTimeMillis(15);
+      cache.put("Foo", "v1");
+      Thread.sleep(25);
+      assertNull(cache.get("Foo"));
+      assertEquals(1, listener.expires.get());
+      assertEquals(0, cache.getCacheSize());
+      cache.assertConsistent();
+   }
+
+   public void testClearCache()
+   {
+      ConcurrentTinyLFUExoCache<String, Object> cache = new ConcurrentTinyLFUExoCache<String, Object>(4);
+      cache.put("Foo", "v1");
+      cache.put("Bar", "v2");
+      Set<Object> expectedSet = new HashSet<Object>();
+      expectedSet.add("v1");
+      expectedSet.add("v2");
+      assertEquals(expectedSet, new HashSet<Object>(cache.removeCachedObjects()));
+      assertEquals(0, cache.getCacheSize());
+      assertNull(cache.get("Foo"));
+      cache.assertConsistent();
+   }
+
+   public void testConcurrentAccess() throws Exception
+   {
+      final ConcurrentTinyLFUExoCache<Integer, Object> cache = new ConcurrentTinyLFUExoCache<Integer, Object>(100);
+      int threads = 10;
+      final CountDownLatch startSignal = new CountDownLatch(1);
+      final CountDownLatch doneSignal = new CountDownLatch(threads);
+      final AtomicInteger errors = new AtomicInteger();
+      for (int i = 0; i < threads; i++)
+      {
+         final int seed = i;
+         new Thread()
+         {
+            public void run()
+            {
+               try
+               {
+                  startSignal.await();
+                  for (int j = 0; j < 10000; j++)
+                  {
+                     Integer key = (j * 31 + seed) % 500;
+                     if (j % 3 == 0)
+                     {
+                        cache.put(key, key);
+                     }
+                     else if (j % 17 == 0)
+                     {
+                        cache.remove(key);
+                     }
+                     else
+                     {
+                        Object value = cache.get(key);
+                        if (value != null && !value.equals(key))
+                        {
+                           errors.incrementAndGet();
+                        }
+                     }
+                  }
+               }
+               catch (Exception e)
+               {
+                  errors.incrementAndGet();
+               }
+               finally
+               {
+                  doneSignal.countDown();
+               }
+            }
+         }.start();
+      }
+      startSignal.countDown();
+      doneSignal.await();
+      assertEquals(0, errors.get());
+      cache.assertConsistent();
+      assertTrue(cache.getCacheSize() <= 100);
+   }
+
+   private static class EventCounter implements CacheListener<Serializable, Object>
+   {
+      private final AtomicInteger expires = new AtomicInteger();
+
+      private final AtomicInteger removes = new AtomicInteger();
+
+      private final AtomicInteger puts = new AtomicInteger();
+
+      private final AtomicInteger gets = new AtomicInteger();
+
+      public void onExpire(CacheListenerContext context, Serializable key, Object obj) throws Exception
+      {
+         expires.incrementAndGet();
+      }
+
+      public void onRemove(CacheListenerContext context, Serializable key, Object obj) throws Exception
+      {
+         removes.incrementAndGet();
+      }
+
+      public void onPut(CacheListenerContext context, Serializable key, Object obj) throws Exception
+      {
+         puts.incrementAndGet();
+      }
+
+      public void onGet(CacheListenerContext context, Serializable key, Object obj) throws Exception
+      {
+         gets.incrementAndGet();
+      }
+
+      public void onClearCache(CacheListenerContext context) throws Exception
+      {
+      }
+   }
+}
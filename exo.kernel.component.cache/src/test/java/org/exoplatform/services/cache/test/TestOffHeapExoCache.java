@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.test;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.CacheListener;
+import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CachedObjectSelector;
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.ObjectCacheInfo;
+import org.exoplatform.services.cache.ValueSerializer;
+import org.exoplatform.services.cache.concurrent.OffHeapExoCache;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version $Id$
+ */
+public class TestOffHeapExoCache extends TestCase
+{
+
+   private static final int MAX_BYTES = 64 * 1024;
+
+   public void testNullKey()
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", MAX_BYTES);
+      cache.put("a", "a");
+      assertNull(cache.get(null));
+      try
+      {
+         cache.put(null, "b");
+         fail("Was expecting an IllegalArgumentException");
+      }
+      catch (IllegalArgumentException ignore)
+      {
+         assertEquals(1, cache.getCacheSize());
+      }
+      try
+      {
+         cache.remove(null);
+         fail("Was expecting an IllegalArgumentException");
+      }
+      catch (IllegalArgumentException ignore)
+      {
+         assertEquals(1, cache.getCacheSize());
+      }
+      try
+      {
+         Map<String, String> tmp = new HashMap<String, String>();
+         tmp.put("b", "b");
+         tmp.put(null, "b");
+         cache.putMap(tmp);
+         fail("Was expecting an IllegalArgumentException");
+      }
+      catch (IllegalArgumentException ignore)
+      {
+         assertEquals(1, cache.getCacheSize());
+         assertEquals("a", cache.get("a"));
+      }
+   }
+
+   public void testPutGetRemove()
+   {
+      OffHeapExoCache<Serializable, String> cache = new OffHeapExoCache<Serializable, String>("test", MAX_BYTES);
+      cache.put("a", "b");
+      cache.put(1, "c");
+      cache.put(new ArrayList<String>(Arrays.asList("x", "y")), "d");
+      assertEquals("b", cache.get("a"));
+      assertEquals("c", cache.get(1));
+      assertEquals("d", cache.get(new ArrayList<String>(Arrays.asList("x", "y"))));
+      assertNull(cache.get("1"));
+      assertEquals(3, cache.getCacheSize());
+      cache.put("a", "e");
+      assertEquals("e", cache.get("a"));
+      assertEquals(3, cache.getCacheSize());
+      assertEquals("c", cache.remove(1));
+      assertNull(cache.get(1));
+      assertNull(cache.remove(1));
+      assertEquals(2, cache.getCacheSize());
+      assertEquals(4, cache.getCacheHit());
+      assertEquals(2, cache.getCacheMiss());
+      cache.removeAll(Arrays.asList("a", "b"));
+      assertEquals(1, cache.getCacheSize());
+      cache.assertConsistent();
+   }
+
+   public void testEvictionByBytes()
+   {
+      OffHeapExoCache<String, byte[]> cache = new OffHeapExoCache<String, byte[]>("test", MAX_BYTES);
+      final AtomicInteger expired = new AtomicInteger();
+      cache.addCacheListener(new ListenerAdapter<String, byte[]>()
+      {
+         @Override
+         public void onExpire(CacheListenerContext context, String key, byte[] obj) throws Exception
+         {
+            expired.incrementAndGet();
+         }
+      });
+      for (int i = 0; i < 200; i++)
+      {
+         cache.put("key" + i, new byte[1024]);
+         cache.assertConsistent();
+         assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+      }
+      assertTrue(cache.getCacheSize() < 64);
+      assertEquals(200, cache.getCacheSize() + expired.get());
+      assertNotNull(cache.get("key199"));
+      assertNull(cache.get("key0"));
+
+      // An entry bigger than the cache is not stored and removes the previous value
+      cache.put("key199", new byte[MAX_BYTES]);
+      assertNull(cache.get("key199"));
+      cache.assertConsistent();
+   }
+
+   public void testMaxSize()
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", MAX_BYTES);
+      cache.setMaxSize(3);
+      cache.put("a", "a");
+      cache.put("b", "b");
+      cache.put("c", "c");
+      cache.put("d", "d");
+      assertEquals(3, cache.getCacheSize());
+      assertNull(cache.get("a"));
+      assertEquals("d", cache.get("d"));
+   }
+
+   public void testFIFO()
+   {
+      OffHeapExoCache<String, byte[]> cache = new OffHeapExoCache<String, byte[]>("test", MAX_BYTES);
+      fill(cache);
+      assertNull(cache.get("key0"));
+   }
+
+   public void testLRU()
+   {
+      OffHeapExoCache<String, byte[]> cache = new OffHeapExoCache<String, byte[]>("test", MAX_BYTES);
+      cache.setEvictionPolicy("LRU");
+      assertEquals(OffHeapExoCache.LRU, cache.getEvictionPolicy());
+      fill(cache);
+      assertNotNull(cache.get("key0"));
+   }
+
+   /**
+    * Fills the cache while reading the first entry after each put.
+    */
+   private void fill(OffHeapExoCache<String, byte[]> cache)
+   {
+      cache.put("key0", new byte[1024]);
+      for (int i = 1; i < 200; i++)
+      {
+         cache.get("key0");
+         cache.put("key" + i, new byte[1024]);
+      }
+      cache.assertConsistent();
+   }
+
+   public void testExpiration() throws Exception
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", MAX_BYTES);
+      final Set<String> expired = new HashSet<String>();
+      cache.addCacheListener(new ListenerAdapter<String, String>()
+      {
+         @Override
+         public void onExpire(CacheListenerContext context, String key, String obj) throws Exception
+         {
+            expired.add(key + "=" + obj);
+         }
+      });
+      cache.setLiveTimeMillis(200);
+      cache.put("a", "b");
+      assertEquals("b", cache.get("a"));
+      Thread.sleep(300);
+      assertNull(cache.get("a"));
+      assertEquals(Collections.singleton("a=b"), expired);
+      assertEquals(0, cache.getCacheSize());
+
+      cache.setLiveTimeMillis(0);
+      cache.put("a", "b");
+      assertNull(cache.get("a"));
+   }
+
+   public void testListeners()
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", MAX_BYTES);
+      final StringBuilder events = new StringBuilder();
+      cache.addCacheListener(new ListenerAdapter<String, String>()
+      {
+         @Override
+         public void onPut(CacheListenerContext context, String key, String obj) throws Exception
+         {
+            events.append("put:").append(key).append(' ');
+         }
+
+         @Override
+         public void onGet(CacheListenerContext context, String key, String obj) throws Exception
+         {
+            events.append("get:").append(key).append(' ');
+         }
+
+         @Override
+         public void onRemove(CacheListenerContext context, String key, String obj) throws Exception
+         {
+            events.append("remove:").append(key).append(' ');
+         }
+
+         @Override
+         public void onClearCache(CacheListenerContext context) throws Exception
+         {
+            events.append("clear");
+         }
+      });
+      cache.put("a", "b");
+      cache.get("a");
+      cache.get("b");
+      cache.remove("a");
+      cache.clearCache();
+      assertEquals("put:a get:a remove:a clear", events.toString());
+   }
+
+   public void testSelect() throws Exception
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", MAX_BYTES);
+      cache.put("a", "1");
+      cache.put("b", "2");
+      cache.put("c", "3");
+      cache.remove("b");
+      assertEquals(new HashSet<String>(Arrays.asList("1", "3")), new HashSet<String>(cache.getCachedObjects()));
+      final Map<String, String> selected = new HashMap<String, String>();
+      cache.select(new CachedObjectSelector<String, String>()
+      {
+         public boolean select(String key, ObjectCacheInfo<? extends String> ocinfo)
+         {
+            return true;
+         }
+
+         public void onSelect(ExoCache<? extends String, ? extends String> cache, String key,
+            ObjectCacheInfo<? extends String> ocinfo) throws Exception
+         {
+            selected.put(key, ocinfo.get());
+         }
+      });
+      assertEquals(2, selected.size());
+      assertEquals("1", selected.get("a"));
+      assertEquals("3", selected.get("c"));
+      assertEquals(2, cache.removeCachedObjects().size());
+      assertEquals(0, cache.getCacheSize());
+      assertEquals(0, cache.getUsedBytes());
+   }
+
+   public void testSerializer()
+   {
+      OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", MAX_BYTES);
+      cache.setSerializer(new ValueSerializer<String>()
+      {
+         public byte[] serialize(String value) throws IOException
+         {
+            if (value.length() == 0)
+            {
+               throw new IOException("Empty value");
+            }
+            return value.getBytes("UTF-8");
+         }
+
+         public String deserialize(byte[] bytes) throws IOException
+         {
+            return new String(bytes, "UTF-8");
+         }
+      });
+      cache.put("a", "b");
+      assertEquals("b", cache.get("a"));
+      cache.put("a", "");
+      assertNull(cache.get("a"));
+   }
+
+   public void testRandomOperations()
+   {
+      OffHeapExoCache<String, byte[]> cache = new OffHeapExoCache<String, byte[]>("test", MAX_BYTES);
+      cache.setEvictionPolicy("LRU");
+      Random random = new Random(0);
+      for (int i = 0; i < 20000; i++)
+      {
+         String key = "key" + random.nextInt(500);
+         int op = random.nextInt(10);
+         if (op < 5)
+         {
+            byte[] value = new byte[random.nextInt(2048)];
+            Arrays.fill(value, (byte)key.hashCode());
+            cache.put(key, value);
+            byte[] result = cache.get(key);
+            assertNotNull(result);
+            assertTrue(Arrays.equals(value, result));
+         }
+         else if (op < 8)
+         {
+            byte[] result = cache.get(key);
+            if (result != null && result.length > 0)
+            {
+               assertEquals((byte)key.hashCode(), result[0]);
+            }
+         }
+         else
+         {
+            cache.remove(key);
+            assertNull(cache.get(key));
+         }
+         if (i % 100 == 0)
+         {
+            cache.assertConsistent();
+         }
+      }
+      cache.assertConsistent();
+   }
+
+   public void testConcurrentAccess() throws Exception
+   {
+      final OffHeapExoCache<String, String> cache = new OffHeapExoCache<String, String>("test", 4 * MAX_BYTES);
+      final int threads = 8;
+      final CountDownLatch startSignal = new CountDownLatch(1);
+      final CountDownLatch doneSignal = new CountDownLatch(threads);
+      final AtomicInteger errors = new AtomicInteger();
+      for (int i = 0; i < threads; i++)
+      {
+         final int index = i;
+         new Thread()
+         {
+            public void run()
+            {
+               try
+               {
+                  startSignal.await();
+                  for (int j = 0; j < 5000; j++)
+                  {
+                     String key = "key" + (j % 1000);
+                     String value = key + "-" + index;
+                     cache.put(key, value);
+                     String result = cache.get(key);
+                     if (result != null && !result.startsWith(key + "-"))
+                     {
+                        errors.incrementAndGet();
+                     }
+                  }
+               }
+               catch (Exception e)
+               {
+                  errors.incrementAndGet();
+               }
+               finally
+               {
+                  doneSignal.countDown();
+               }
+            }
+         }.start();
+      }
+      startSignal.countDown();
+      doneSignal.await();
+      assertEquals(0, errors.get());
+      cache.assertConsistent();
+   }
+
+   private static class ListenerAdapter<K extends Serializable, V> implements CacheListener<K, V>
+   {
+
+      public void onExpire(CacheListenerContext context, K key, V obj) throws Exception
+      {
+      }
+
+      public void onRemove(CacheListenerContext context, K key, V obj) throws Exception
+      {
+      }
+
+      public void onPut(CacheListenerContext context, K key, V obj) throws Exception
+      {
+      }
+
+      public void onGet(CacheListenerContext context, K key, V obj) throws Exception
+      {
+      }
+
+      public void onClearCache(CacheListenerContext context) throws Exception
+      {
+      }
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.test;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.TwoLevelExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The remote cache is simulated by a local cache shared by the two-level caches.
+ *
+ * @version $Id$
+ */
+public class TestTwoLevelExoCache extends TestCase
+{
+
+   private ConcurrentFIFOExoCache<String, String> delegate;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      delegate = new ConcurrentFIFOExoCache<String, String>("remote", 100);
+   }
+
+   public void testLocalHits()
+   {
+      TwoLevelExoCache<String, String> cache = new TwoLevelExoCache<String, String>(delegate, 10, 0, true);
+      cache.put("a", "a");
+      assertEquals("a", delegate.get("a"));
+      assertEquals("a", cache.get("a"));
+      assertEquals(1, cache.getRemoteCacheHit());
+      assertEquals(1, cache.getLocalCacheMiss());
+      assertEquals(0, cache.getLocalCacheHit());
+      for (int i = 0; i < 10; i++)
+      {
+         assertEquals("a", cache.get("a"));
+      }
+      assertEquals(1, cache.getRemoteCacheHit());
+      assertEquals(10, cache.getLocalCacheHit());
+      assertNull(cache.get("b"));
+      assertEquals(1, cache.getRemoteCacheMiss());
+      assertEquals(11, cache.getCacheHit());
+      assertEquals(1, cache.getCacheMiss());
+      assertEquals(10d / 12, cache.getLocalHitRatio(), 0.0001);
+      assertEquals(0.5d, cache.getRemoteHitRatio(), 0.0001);
+      assertEquals(1, cache.getLocalCacheSize());
+      assertEquals("a", cache.remove("a"));
+      assertNull(cache.get("a"));
+      assertNull(delegate.get("a"));
+   }
+
+   public void testBoundedStaleness() throws Exception
+   {
+      TwoLevelExoCache<String, String> node1 = new TwoLevelExoCache<String, String>(delegate, 10, 200, false);
+      TwoLevelExoCache<String, String> node2 = new TwoLevelExoCache<String, String>(delegate, 10, 200, false);
+      node1.put("a", "a");
+      assertEquals("a", node1.get("a"));
+      node2.put("a", "b");
+      // The first node is not notified so it can still serve its local value
+      assertEquals("a", node1.get("a"));
+      assertEquals("b", node2.get("a"));
+      Thread.sleep(300);
+      assertEquals("b", node1.get("a"));
+   }
+
+   public void testInvalidation()
+   {
+      TwoLevelExoCache<String, String> node1 = new TwoLevelExoCache<String, String>(delegate, 10, 0, true);
+      TwoLevelExoCache<String, String> node2 = new TwoLevelExoCache<String, String>(delegate, 10, 0, true);
+      node1.put("a", "a");
+      assertEquals("a", node1.get("a"));
+      node2.put("a", "b");
+      assertEquals("b", node1.get("a"));
+      node2.remove("a");
+      assertNull(node1.get("a"));
+      node1.put("a", "c");
+      assertEquals("c", node1.get("a"));
+      delegate.put("a", "d");
+      assertEquals("d", node1.get("a"));
+   }
+
+   public void testConcurrentInvalidation()
+   {
+      ConcurrentFIFOExoCache<String, String> remote = new ConcurrentFIFOExoCache<String, String>("remote", 100)
+      {
+         private boolean invalidated;
+
+         @Override
+         public String get(Serializable name)
+         {
+            String value = super.get(name);
+            if (!invalidated)
+            {
+               // Simulates a put that occurs once the old value has been read
+               invalidated = true;
+               put((String)name, "b");
+            }
+            return value;
+         }
+      };
+      remote.put("a", "a");
+      TwoLevelExoCache<String, String> cache = new TwoLevelExoCache<String, String>(remote, 10, 0, true);
+      assertEquals("a", cache.get("a"));
+      // The old value has not been kept locally
+      assertEquals(0, cache.getLocalCacheSize());
+      assertEquals("b", cache.get("a"));
+      assertEquals("b", cache.get("a"));
+      assertEquals(1, cache.getLocalCacheHit());
+   }
+
+   public void testGetAll()
+   {
+      TwoLevelExoCache<String, String> cache = new TwoLevelExoCache<String, String>(delegate, 10, 0, true);
+      cache.put("a", "a");
+      cache.put("b", "b");
+      assertEquals("a", cache.get("a"));
+      Map<String, String> values = cache.getAll(Arrays.asList("a", "b", "c"));
+      assertEquals(2, values.size());
+      assertEquals("a", values.get("a"));
+      assertEquals("b", values.get("b"));
+      assertEquals(2, cache.getRemoteCacheHit());
+      assertEquals(1, cache.getRemoteCacheMiss());
+      assertEquals(2, cache.getLocalCacheSize());
+      cache.removeAll(Arrays.asList("a", "c"));
+      assertEquals(1, cache.getLocalCacheSize());
+      assertNull(cache.get("a"));
+      assertEquals("b", cache.get("b"));
+   }
+
+   public void testClearCache()
+   {
+      TwoLevelExoCache<String, String> cache = new TwoLevelExoCache<String, String>(delegate, 10, 0, false);
+      cache.put("a", "a");
+      assertEquals("a", cache.get("a"));
+      assertEquals(1, cache.getLocalCacheSize());
+      cache.clearCache();
+      assertEquals(0, cache.getLocalCacheSize());
+      assertEquals(0, cache.getCacheSize());
+      assertNull(cache.get("a"));
+   }
+
+   public void testLocalMaxSize()
+   {
+      TwoLevelExoCache<String, String> cache = new TwoLevelExoCache<String, String>(delegate, 2, 0, false);
+      for (int i = 0; i < 5; i++)
+      {
+         cache.put("k" + i, "v" + i);
+         assertEquals("v" + i, cache.get("k" + i));
+      }
+      assertEquals(2, cache.getLocalCacheSize());
+      assertEquals(5, cache.getCacheSize());
+   }
+}
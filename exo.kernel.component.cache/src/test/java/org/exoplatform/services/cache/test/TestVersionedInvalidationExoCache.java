@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.test;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.exoplatform.services.cache.invalidation.VersionedInvalidationExoCache;
+import org.exoplatform.services.cache.invalidation.VersionedInvalidationExoCache.Stamp;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The two near caches share the same underlying cache to simulate two cluster nodes.
+ *
+ * @version $Id$
+ */
+public class TestVersionedInvalidationExoCache extends TestCase
+{
+
+   private ConcurrentFIFOExoCache<String, Serializable> delegate;
+
+   private ExoCache<String, Object> node1;
+
+   private ExoCache<String, Object> node2;
+
+   @Override
+   @SuppressWarnings({"rawtypes", "unchecked"})
+   protected void setUp() throws Exception
+   {
+      delegate = new ConcurrentFIFOExoCache<String, Serializable>("near", 100);
+      node1 = new VersionedInvalidationExoCache(delegate);
+      node2 = new VersionedInvalidationExoCache(delegate);
+   }
+
+   public void testPutGetRemove()
+   {
+      Object value = new Object();
+      node1.put("a", value);
+      assertSame(value, node1.get("a"));
+      assertTrue(delegate.get("a") instanceof Stamp);
+
+      // The value is not replicated
+      assertNull(node2.get("a"));
+      Object value2 = new Object();
+      node2.put("a", value2);
+
+      // The put of the second node invalidates the value of the first node
+      assertNull(node1.get("a"));
+      assertSame(value2, node2.get("a"));
+      assertSame(value2, node2.remove("a"));
+      assertNull(node2.get("a"));
+      assertNull(delegate.get("a"));
+   }
+
+   public void testReadThrough()
+   {
+      // Both nodes load the same value after a cache miss
+      assertNull(node1.get("a"));
+      assertNull(node2.get("a"));
+      node1.put("a", "a");
+      node2.put("a", "a");
+
+      // The local copies survive the put of the other node
+      assertEquals("a", node1.get("a"));
+      assertEquals("a", node2.get("a"));
+      assertEquals(1, node1.getCacheSize());
+      assertEquals(1, node2.getCacheSize());
+      node1.put("a", "a");
+      assertEquals("a", node1.get("a"));
+      assertEquals("a", node2.get("a"));
+
+      // A different value still invalidates the other copy
+      node2.put("a", "b");
+      assertNull(node1.get("a"));
+      assertEquals("b", node2.get("a"));
+   }
+
+   public void testSameHashCode()
+   {
+      // Like with InvalidationExoCache, two values with the same hash code are considered as equal
+      node1.put("a", "Aa");
+      node2.put("a", "BB");
+      assertEquals("Aa".hashCode(), "BB".hashCode());
+      assertEquals("Aa", node1.get("a"));
+      assertEquals("BB", node2.get("a"));
+   }
+
+   public void testOtherStamp() throws Exception
+   {
+      node1.put("a", "a");
+
+      // A put of another value by a node that does not have the value
+      delegate.put("a", new Stamp(Long.MAX_VALUE, 42L, "b".hashCode()));
+      assertNull(node1.get("a"));
+      assertEquals(0, node1.getCacheSize());
+
+      // A later put by a node whose clock is behind gives a lower version
+      node1.put("a", "a");
+      Stamp stamp = (Stamp)delegate.get("a");
+      assertEquals("a".hashCode(), stamp.getHash());
+      delegate.put("a", new Stamp(1L, 42L, "b".hashCode()));
+      assertNull(node1.get("a"));
+      assertEquals(0, node1.getCacheSize());
+   }
+
+   public void testRemoteRemoval() throws Exception
+   {
+      node1.put("a", "a");
+      node2.put("a", "a");
+      assertEquals("a", node1.get("a"));
+
+      // The removal of another node always invalidates the local copy
+      node2.remove("a");
+      assertNull(node1.get("a"));
+      assertEquals(0, node1.getCacheSize());
+   }
+
+   public void testGetAllRemoveAll()
+   {
+      node1.put("a", "a");
+      node1.put("b", "b");
+      node2.put("c", "c");
+      Map<String, Object> values = node1.getAll(Arrays.asList("a", "b", "c"));
+      assertEquals(2, values.size());
+      assertEquals("a", values.get("a"));
+      assertEquals("b", values.get("b"));
+      node1.removeAll(Arrays.asList("a", "c"));
+      assertNull(node1.get("a"));
+      assertNull(node2.get("c"));
+      assertEquals("b", node1.get("b"));
+   }
+
+   public void testClearCache()
+   {
+      node1.put("a", "a");
+      node2.put("b", "b");
+      node1.clearCache();
+      assertEquals(0, node1.getCacheSize());
+      assertNull(node1.get("a"));
+      assertNull(node2.get("b"));
+   }
+
+   @SuppressWarnings({"rawtypes", "unchecked"})
+   public void testFlushInterval() throws Exception
+   {
+      VersionedInvalidationExoCache<String, Object> batched = new VersionedInvalidationExoCache(delegate, 60000);
+      node2.put("a", "a2");
+      node2.put("b", "b2");
+      batched.put("a", "a1");
+      batched.put("a", "a1'");
+      batched.remove("b");
+      batched.put("c", "c1");
+
+      // The local cache is up to date but nothing has been replicated yet
+      assertEquals("a1'", batched.get("a"));
+      assertNull(batched.get("b"));
+      assertEquals("c1", batched.get("c"));
+      assertEquals("a2", node2.get("a"));
+      assertEquals("b2", node2.get("b"));
+      assertEquals(3, batched.getPendingSize());
+
+      batched.flush();
+      assertEquals(0, batched.getPendingSize());
+      assertEquals("a1'", batched.get("a"));
+      assertEquals("c1", batched.get("c"));
+      assertNull(node2.get("a"));
+      assertNull(node2.get("b"));
+      assertNull(delegate.get("b"));
+   }
+
+   @SuppressWarnings({"rawtypes", "unchecked"})
+   public void testScheduledFlush() throws Exception
+   {
+      VersionedInvalidationExoCache<String, Object> batched = new VersionedInvalidationExoCache(delegate, 50);
+      node2.put("a", "a2");
+      batched.put("a", "a1");
+      assertEquals("a2", node2.get("a"));
+      for (int i = 0; i < 100 && batched.getPendingSize() > 0; i++)
+      {
+         Thread.sleep(20);
+      }
+      assertEquals(0, batched.getPendingSize());
+      assertNull(node2.get("a"));
+      assertEquals("a1", batched.get("a"));
+   }
+}
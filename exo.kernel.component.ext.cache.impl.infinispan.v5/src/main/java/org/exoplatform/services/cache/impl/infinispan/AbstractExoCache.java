@@ -19,13 +19,19 @@
 package org.exoplatform.services.cache.impl.infinispan;
 
 import org.exoplatform.commons.utils.SecurityHelper;
+import org.exoplatform.services.cache.AsyncExoCache;
 import org.exoplatform.services.cache.CacheInfo;
 import org.exoplatform.services.cache.CacheListener;
 import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.CachedObjectSelector;
 import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.cache.ExoCacheConfig;
+import org.exoplatform.services.cache.InstrumentedExoCache;
 import org.exoplatform.services.cache.ObjectCacheInfo;
+import org.exoplatform.services.cache.future.CombinedFuture;
+import org.exoplatform.services.cache.future.CompletedFuture;
+import org.exoplatform.services.cache.future.FutureAdapter;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 import org.infinispan.AdvancedCache;
@@ -48,7 +54,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Future;
 
 /**
  * An {@link org.exoplatform.services.cache.ExoCache} implementation based on {@link Cache}.
@@ -57,7 +63,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @version $Id$
  *
  */
-public abstract class AbstractExoCache<K extends Serializable, V> implements ExoCache<K, V>
+public abstract class AbstractExoCache<K extends Serializable, V> implements AsyncExoCache<K, V>,
+   InstrumentedExoCache<K, V>
 {
 
    /**
@@ -65,9 +72,7 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
     */
    private static final Log LOG = ExoLogger.getLogger("exo.kernel.component.ext.cache.impl.infinispan.v5.AbstractExoCache"); //NOSONAR
 
-   private final AtomicInteger hits = new AtomicInteger(0);
-
-   private final AtomicInteger misses = new AtomicInteger(0);
+   private final CacheStatistics statistics = new CacheStatistics(null);
 
    private String label;
 
@@ -126,25 +131,114 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
       {
          return null;
       }
+      long start = System.nanoTime();
       final V result = cache.get(name);
-      if (result == null)
+      statistics.recordGet(start, result != null);
+      onGet((K)name, result);
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<V> getAsync(final Serializable name)
+   {
+      if (name == null)
       {
-         misses.incrementAndGet();
+         return CompletedFuture.success(null);
       }
-      else
+      final long start = System.nanoTime();
+      final K key = (K)name;
+      Future<V> future = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Future<V>>()
       {
-         hits.incrementAndGet();
+         @Override
+         public Future<V> run()
+         {
+            return cache.getAsync(key);
+         }
+      });
+      return new FutureAdapter<V, V>(future)
+      {
+         @Override
+         protected V convert(V result)
+         {
+            statistics.recordGet(start, result != null);
+            onGet(key, result);
+            return result;
+         }
+      };
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Future<Map<K, V>> getAllAsync(Collection<? extends K> names)
+   {
+      return getAllFuture(names);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Map<K, V> getAll(Collection<? extends K> names)
+   {
+      if (distributed)
+      {
+         // The entries are spread over the cluster so we retrieve them concurrently
+         return getAllFuture(names).join();
+      }
+      checkKeys(names);
+      Map<K, V> result = new LinkedHashMap<K, V>(names.size());
+      for (K name : names)
+      {
+         V value = get(name);
+         if (value != null)
+         {
+            result.put(name, value);
+         }
       }
-      onGet((K)name, result);
       return result;
    }
 
+   /**
+    * Launches a lookup of all the given keys concurrently
+    */
+   private CombinedFuture<K, V> getAllFuture(Collection<? extends K> names)
+   {
+      checkKeys(names);
+      Map<K, Future<V>> futures = new LinkedHashMap<K, Future<V>>(names.size());
+      for (K name : names)
+      {
+         futures.put(name, getAsync(name));
+      }
+      return new CombinedFuture<K, V>(futures);
+   }
+
+   /**
+    * Ensures that the provided collection of keys is not null and does not contain a null key
+    */
+   private static void checkKeys(Collection<?> names)
+   {
+      if (names == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
+      }
+      for (Object name : names)
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+      }
+   }
+
    /**
     * {@inheritDoc}
     */
    public int getCacheHit()
    {
-      return hits.get();
+      return CacheStatistics.toInt(statistics.getHits());
    }
 
    /**
@@ -152,7 +246,15 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
     */
    public int getCacheMiss()
    {
-      return misses.get();
+      return CacheStatistics.toInt(statistics.getMisses());
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
    }
 
    /**
@@ -233,6 +335,7 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
          // ignore null values
          return;
       }
+      long start = System.nanoTime();
       SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
       {
 
@@ -243,6 +346,7 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
             return null;
          }
       });
+      statistics.recordPut(start);
       onPut(key, value);
    }
 
@@ -254,6 +358,49 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
       cache.withFlags(Flag.SKIP_REMOTE_LOOKUP, Flag.IGNORE_RETURN_VALUES).put(key, value);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   public Future<Void> putAsync(final K key, final V value) throws IllegalArgumentException
+   {
+      if (key == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      else if (value == null)
+      {
+         // ignore null values
+         return CompletedFuture.success(null);
+      }
+      final long start = System.nanoTime();
+      Future<V> future = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Future<V>>()
+      {
+         @Override
+         public Future<V> run()
+         {
+            return putOnlyAsync(key, value);
+         }
+      });
+      return new FutureAdapter<V, Void>(future)
+      {
+         @Override
+         protected Void convert(V result)
+         {
+            statistics.recordPut(start);
+            onPut(key, value);
+            return null;
+         }
+      };
+   }
+
+   /**
+    * Only puts the data into the cache asynchronously nothing more
+    */
+   protected Future<V> putOnlyAsync(K key, V value)
+   {
+      return cache.withFlags(Flag.SKIP_REMOTE_LOOKUP, Flag.IGNORE_RETURN_VALUES).putAsync(key, value);
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -323,10 +470,82 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
             return cache.remove(name);
          }
       });
+      if (result != null)
+      {
+         statistics.recordRemoval();
+      }
       onRemove((K)name, result);
       return result;
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   public void removeAll(final Collection<? extends K> names) throws IllegalArgumentException
+   {
+      checkKeys(names);
+      SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
+      {
+
+         @Override
+         public Void run()
+         {
+            // Start transaction
+            cache.startBatch();
+            try
+            {
+               Map<K, V> removed = new LinkedHashMap<K, V>();
+               for (K name : names)
+               {
+                  removed.put(name, cache.remove(name));
+               }
+               cache.endBatch(true);
+               // End transaction
+               for (Map.Entry<K, V> entry : removed.entrySet())
+               {
+                  onRemove(entry.getKey(), entry.getValue());
+               }
+            }
+            catch (Exception e) //NOSONAR
+            {
+               cache.endBatch(false);
+               LOG.warn("An error occurs while executing the removeAll method", e);
+            }
+            return null;
+         }
+      });
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<V> removeAsync(final Serializable name) throws IllegalArgumentException
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      Future<V> future = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Future<V>>()
+      {
+         @Override
+         public Future<V> run()
+         {
+            return cache.removeAsync(name);
+         }
+      });
+      final K key = (K)name;
+      return new FutureAdapter<V, V>(future)
+      {
+         @Override
+         protected V convert(V result)
+         {
+            onRemove(key, result);
+            return result;
+         }
+      };
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -404,6 +623,7 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
    public void setName(String name)
    {
       this.name = name;
+      statistics.setCacheName(name);
    }
 
    /**
@@ -523,6 +743,7 @@ public abstract class AbstractExoCache<K extends Serializable, V> implements Exo
          {
             for (Map.Entry<K, V> entry : evt.getEntries().entrySet())
             {
+               statistics.recordEviction();
                onExpire(entry.getKey(), entry.getValue());
             }
          }
@@ -24,28 +24,40 @@ import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.management.annotations.Managed;
 import org.exoplatform.management.annotations.ManagedDescription;
 import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.services.cache.AsyncExoCache;
 import org.exoplatform.services.cache.CacheInfo;
 import org.exoplatform.services.cache.CacheListener;
 import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.CachedObjectSelector;
 import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.cache.ExoCacheConfig;
+import org.exoplatform.services.cache.InstrumentedExoCache;
 import org.exoplatform.services.cache.ObjectCacheInfo;
+import org.exoplatform.services.cache.future.CombinedFuture;
+import org.exoplatform.services.cache.future.CompletedFuture;
+import org.exoplatform.services.cache.future.FutureAdapter;
 import org.exoplatform.services.ispn.AbstractMapper;
 import org.exoplatform.services.ispn.DistributedCacheManager;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
+import org.infinispan.distexec.DefaultExecutorService;
+import org.infinispan.distexec.DistributedCallable;
 import org.infinispan.distexec.mapreduce.Collector;
 import org.infinispan.distexec.mapreduce.MapReduceTask;
 import org.infinispan.distexec.mapreduce.Reducer;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
 import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
 import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
 import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
 
@@ -54,24 +66,44 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * An {@link org.exoplatform.services.cache.ExoCache} implementation based on a distributed cache of Infinispan
+ * shared by all the cache instances.
+ * <p>
+ * The size of the cache is maintained incrementally from the events of Infinispan, each node counts the entries
+ * of the cache that it stores locally and the size of the cache is estimated from this count, the amount of
+ * cluster nodes and the amount of owners of each entry, so it is exact as long as all the nodes store all the
+ * entries. As the expirations are not notified, the count can be periodically reconciled with the local content.
+ * The entries are iterated in one single pass thanks to a distributed task that only reads the local content
+ * of each node, the entries of a node are retrieved once the entries of the previous node have been consumed.
+ * 
  * @author <a href="mailto:nfilotto@exoplatform.com">Nicolas Filotto</a>
  * @version $Id$
  *
  */
-public class DistributedExoCache<K extends Serializable, V> implements ExoCache<K, V>
+public class DistributedExoCache<K extends Serializable, V> implements AsyncExoCache<K, V>,
+   InstrumentedExoCache<K, V>
 {
 
    /**
@@ -82,9 +114,7 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
 
    public static final String CACHE_NAME = "eXoCache";
 
-   private final AtomicInteger hits = new AtomicInteger(0);
-
-   private final AtomicInteger misses = new AtomicInteger(0);
+   private final CacheStatistics statistics = new CacheStatistics(null);
 
    private String label;
 
@@ -102,8 +132,25 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
    private static final ConcurrentMap<Cache, ConcurrentMap<String, List<ListenerContext>>> ALL_LISTENERS =
       new ConcurrentHashMap<Cache, ConcurrentMap<String, List<ListenerContext>>>();
 
+   /**
+    * The amount of entries stored locally per cache instance, per infinispan cache
+    */
+   @SuppressWarnings("rawtypes")
+   private static final ConcurrentMap<Cache, ConcurrentMap<String, AtomicInteger>> ALL_SIZES =
+      new ConcurrentHashMap<Cache, ConcurrentMap<String, AtomicInteger>>();
+
+   /**
+    * The scheduler of the size reconciliations, lazily created
+    */
+   private static volatile ScheduledThreadPoolExecutor SCHEDULER;
+
    protected final AdvancedCache<CacheKey<K>, V> cache;
 
+   /**
+    * The amount of entries of this cache instance stored locally
+    */
+   private final AtomicInteger size;
+
    @SuppressWarnings("unchecked")
    public DistributedExoCache(ExoContainerContext ctx, ExoCacheConfig config, Cache<K, V> cache)
    {
@@ -114,6 +161,158 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       setName(config.getName());
       setLogEnabled(config.isLogEnabled());
       setReplicated(config.isRepicated());
+      this.size = getOrCreateSize(getOrCreateSizes(this.cache), fullName);
+      // The entries may have been added before the creation of the cache instance
+      reconcileSize();
+      long interval = config.getSizeReconciliationInterval();
+      if (interval > 0)
+      {
+         ReconciliationTask task = new ReconciliationTask(this);
+         task.future = getScheduler().scheduleWithFixedDelay(task, interval, interval, TimeUnit.SECONDS);
+      }
+   }
+
+   /**
+    * Gives the amount of entries stored locally per cache instance, the first call for a given
+    * infinispan cache registers the listener that maintains them
+    */
+   @SuppressWarnings("rawtypes")
+   private static ConcurrentMap<String, AtomicInteger> getOrCreateSizes(AdvancedCache cache)
+   {
+      ConcurrentMap<String, AtomicInteger> sizes = ALL_SIZES.get(cache);
+      if (sizes == null)
+      {
+         synchronized (ALL_SIZES)
+         {
+            sizes = ALL_SIZES.get(cache);
+            if (sizes == null)
+            {
+               sizes = new ConcurrentHashMap<String, AtomicInteger>();
+               cache.addListener(new SizeListener(cache, sizes));
+               ALL_SIZES.put(cache, sizes);
+            }
+         }
+      }
+      return sizes;
+   }
+
+   private static AtomicInteger getOrCreateSize(ConcurrentMap<String, AtomicInteger> sizes, String fullName)
+   {
+      AtomicInteger size = sizes.get(fullName);
+      if (size == null)
+      {
+         size = new AtomicInteger();
+         AtomicInteger oldValue = sizes.putIfAbsent(fullName, size);
+         if (oldValue != null)
+         {
+            size = oldValue;
+         }
+      }
+      return size;
+   }
+
+   /**
+    * Indicates whether the given key is stored locally as owner of the key
+    */
+   @SuppressWarnings("rawtypes")
+   private static boolean isLocal(AdvancedCache cache, Object key)
+   {
+      DistributionManager dm = cache.getDistributionManager();
+      return dm == null || dm.getLocality(key).isLocal();
+   }
+
+   /**
+    * Recounts the entries of the cache instance that are stored locally in order to fix the drift of
+    * the count maintained from the events, typically due to the expirations that are not notified.
+    * Only the local content is read so it doesn't generate any network traffic.
+    */
+   public void reconcileSize()
+   {
+      int count = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Integer>()
+      {
+
+         @Override
+         public Integer run()
+         {
+            long now = System.currentTimeMillis();
+            int count = 0;
+            for (InternalCacheEntry entry : cache.getDataContainer())
+            {
+               Object key = entry.getKey();
+               if (key instanceof CacheKey && fullName.equals(((CacheKey<?>)key).getFullName())
+                  && !entry.isExpired(now) && isLocal(cache, key))
+               {
+                  count++;
+               }
+            }
+            return count;
+         }
+
+      });
+      size.set(count);
+   }
+
+   private static ScheduledThreadPoolExecutor getScheduler()
+   {
+      if (SCHEDULER == null)
+      {
+         synchronized (DistributedExoCache.class)
+         {
+            if (SCHEDULER == null)
+            {
+               SCHEDULER = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+               {
+                  public Thread newThread(Runnable r)
+                  {
+                     Thread thread = new Thread(r, "exo-distributed-cache-size");
+                     thread.setDaemon(true);
+                     return thread;
+                  }
+               });
+            }
+         }
+      }
+      return SCHEDULER;
+   }
+
+   /**
+    * The periodic reconciliation of the size, it only weakly references the cache so that it does not prevent
+    * it from being garbage collected and cancels itself once the cache has been collected.
+    */
+   private static class ReconciliationTask implements Runnable
+   {
+
+      private final WeakReference<DistributedExoCache<?, ?>> cache;
+
+      volatile ScheduledFuture<?> future;
+
+      ReconciliationTask(DistributedExoCache<?, ?> cache)
+      {
+         this.cache = new WeakReference<DistributedExoCache<?, ?>>(cache);
+      }
+
+      public void run()
+      {
+         DistributedExoCache<?, ?> cache = this.cache.get();
+         if (cache == null)
+         {
+            ScheduledFuture<?> future = this.future;
+            if (future != null)
+            {
+               future.cancel(false);
+            }
+            return;
+         }
+         try
+         {
+            cache.reconcileSize();
+         }
+         catch (RuntimeException e)
+         {
+            // An exception would prevent the next executions
+            LOG.error("Could not reconcile the size of the cache " + cache.getName(), e);
+         }
+      }
    }
 
    AdvancedCache<CacheKey<K>, V> getCache()
@@ -224,6 +423,7 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       {
          return null;
       }
+      long start = System.nanoTime();
       @SuppressWarnings("rawtypes")
       final CacheKey key = new CacheKey<Serializable>(fullName, name);
       final V result = SecurityHelper.doPrivilegedAction(new PrivilegedAction<V>()
@@ -236,16 +436,92 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
          }
 
       });
-      if (result == null)
+      statistics.recordGet(start, result != null);
+      onGet(key, result);
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<V> getAsync(Serializable name)
+   {
+      if (name == null)
       {
-         misses.incrementAndGet();
+         return CompletedFuture.success(null);
       }
-      else
+      final long start = System.nanoTime();
+      final CacheKey<K> key = new CacheKey<K>(fullName, (K)name);
+      Future<V> future = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Future<V>>()
       {
-         hits.incrementAndGet();
+
+         @Override
+         public Future<V> run()
+         {
+            return cache.getAsync(key);
+         }
+
+      });
+      return new FutureAdapter<V, V>(future)
+      {
+         @Override
+         protected V convert(V result)
+         {
+            statistics.recordGet(start, result != null);
+            onGet(key, result);
+            return result;
+         }
+      };
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Future<Map<K, V>> getAllAsync(Collection<? extends K> names)
+   {
+      return getAllFuture(names);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Map<K, V> getAll(Collection<? extends K> names)
+   {
+      // The entries are spread over the cluster so we retrieve them concurrently
+      return getAllFuture(names).join();
+   }
+
+   /**
+    * Launches a lookup of all the given keys concurrently
+    */
+   private CombinedFuture<K, V> getAllFuture(Collection<? extends K> names)
+   {
+      checkKeys(names);
+      Map<K, Future<V>> futures = new LinkedHashMap<K, Future<V>>(names.size());
+      for (K name : names)
+      {
+         futures.put(name, getAsync(name));
+      }
+      return new CombinedFuture<K, V>(futures);
+   }
+
+   /**
+    * Ensures that the provided collection of keys is not null and does not contain a null key
+    */
+   private static void checkKeys(Collection<?> names)
+   {
+      if (names == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
+      }
+      for (Object name : names)
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
       }
-      onGet(key, result);
-      return result;
    }
 
    /**
@@ -253,7 +529,7 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
     */
    public int getCacheHit()
    {
-      return hits.get();
+      return CacheStatistics.toInt(statistics.getHits());
    }
 
    /**
@@ -261,7 +537,15 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
     */
    public int getCacheMiss()
    {
-      return misses.get();
+      return CacheStatistics.toInt(statistics.getMisses());
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
    }
 
    /**
@@ -269,25 +553,20 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
     */
    public int getCacheSize()
    {
-      Map<String, Integer> map = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Map<String, Integer>>()
+      int local = Math.max(size.get(), 0);
+      if (cache.getDistributionManager() == null)
       {
-
-         @Override
-         public Map<String, Integer> run()
-         {
-            MapReduceTask<CacheKey<K>, V, String, Integer> task =
-               new MapReduceTask<CacheKey<K>, V, String, Integer>(cache);
-            task.mappedWith(new GetSizeMapper<K, V>(fullName)).reducedWith(new GetSizeReducer<String>());
-            return task.execute();
-         }
-
-      });
-      int sum = 0;
-      for (Integer i : map.values())
+         // All the nodes have all the entries
+         return local;
+      }
+      int members = cache.getCacheManager().getMembers() == null ? 1 : cache.getCacheManager().getMembers().size();
+      int owners = cache.getCacheConfiguration().clustering().hash().numOwners();
+      if (members <= owners)
       {
-         sum += i;
+         // All the nodes have all the entries
+         return local;
       }
-      return sum;
+      return (int)Math.min(Integer.MAX_VALUE, (long)local * members / owners);
    }
 
    /**
@@ -295,26 +574,125 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
     */
    public List<V> getCachedObjects()
    {
-      Map<String, List<V>> map = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Map<String, List<V>>>()
+      List<V> result = new ArrayList<V>();
+      for (Iterator<Map.Entry<K, V>> it = entries(); it.hasNext();)
       {
+         result.add(it.next().getValue());
+      }
+      return result;
+   }
 
-         @Override
-         public Map<String, List<V>> run()
+   /**
+    * Gives an iterator over the entries of the cache that retrieves them lazily node by node in one
+    * single pass, each node only returns the entries that it stores locally as primary owner
+    */
+   private Iterator<Map.Entry<K, V>> entries()
+   {
+      if (cache.getDistributionManager() == null || cache.getRpcManager() == null)
+      {
+         // All the nodes have all the entries so the local content is enough
+         return getLocalEntries(cache, fullName).entrySet().iterator();
+      }
+      List<Future<Map<K, V>>> futures =
+         SecurityHelper.doPrivilegedAction(new PrivilegedAction<List<Future<Map<K, V>>>>()
+         {
+
+            @Override
+            public List<Future<Map<K, V>>> run()
+            {
+               DefaultExecutorService des = new DefaultExecutorService(cache);
+               try
+               {
+                  return des.submitEverywhere(new GetLocalEntriesTask<K, V>(fullName));
+               }
+               finally
+               {
+                  des.shutdown();
+               }
+            }
+
+         });
+      return new NodeIterator(futures);
+   }
+
+   /**
+    * Gives the entries of the given cache instance stored in the local data container, in case the cache
+    * is distributed only the entries for which the local node is the primary owner are returned in order
+    * to get each entry only once cluster-wide
+    */
+   @SuppressWarnings({"rawtypes", "unchecked"})
+   private static <K, V> Map<K, V> getLocalEntries(AdvancedCache cache, String fullName)
+   {
+      DistributionManager dm = cache.getDistributionManager();
+      Object self = dm == null ? null : cache.getCacheManager().getAddress();
+      long now = System.currentTimeMillis();
+      Map<K, V> result = new LinkedHashMap<K, V>();
+      for (Object o : cache.getDataContainer())
+      {
+         InternalCacheEntry entry = (InternalCacheEntry)o;
+         Object key = entry.getKey();
+         if (key instanceof CacheKey && fullName.equals(((CacheKey<?>)key).getFullName())
+            && !entry.isExpired(now) && (dm == null || self.equals(dm.getPrimaryLocation(key))))
          {
-            MapReduceTask<CacheKey<K>, V, String, List<V>> task =
-               new MapReduceTask<CacheKey<K>, V, String, List<V>>(cache);
-            task.mappedWith(new GetCachedObjectsMapper<K, V>(fullName)).reducedWith(
-               new GetCachedObjectsReducer<String, V>());
-            return task.execute();
+            result.put(((CacheKey<K>)key).getKey(), (V)entry.getValue());
          }
+      }
+      return result;
+   }
 
-      });
-      List<V> result = new ArrayList<V>();
-      for (List<V> vals : map.values())
+   /**
+    * An iterator that waits for the entries of the next node only when the entries of the current one
+    * have been consumed
+    */
+   private class NodeIterator implements Iterator<Map.Entry<K, V>>
+   {
+      private final Iterator<Future<Map<K, V>>> nodes;
+
+      private Iterator<Map.Entry<K, V>> current;
+
+      NodeIterator(List<Future<Map<K, V>>> nodes)
       {
-         result.addAll(vals);
+         this.nodes = nodes.iterator();
+      }
+
+      public boolean hasNext()
+      {
+         while (current == null || !current.hasNext())
+         {
+            if (!nodes.hasNext())
+            {
+               return false;
+            }
+            try
+            {
+               current = nodes.next().get().entrySet().iterator();
+            }
+            catch (InterruptedException e)
+            {
+               Thread.currentThread().interrupt();
+               throw new IllegalStateException("Interrupted while retrieving the entries of the cache " + fullName, e);
+            }
+            catch (ExecutionException e)
+            {
+               throw new IllegalStateException("Could not retrieve the entries of the cache " + fullName, e.getCause());
+            }
+         }
+         return true;
+      }
+
+      public Map.Entry<K, V> next()
+      {
+         if (!hasNext())
+         {
+            throw new NoSuchElementException();
+         }
+         return current.next();
+      }
+
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
       }
-      return result;
    }
 
    /**
@@ -371,6 +749,7 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
          // ignore null values
          return;
       }
+      long start = System.nanoTime();
       SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
       {
 
@@ -382,6 +761,7 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
          }
 
       });
+      statistics.recordPut(start);
       onPut(key, value);
    }
 
@@ -393,6 +773,52 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       cache.withFlags(Flag.SKIP_REMOTE_LOOKUP, Flag.IGNORE_RETURN_VALUES).put(new CacheKey<K>(fullName, key), value);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   public Future<Void> putAsync(final K key, final V value) throws IllegalArgumentException
+   {
+      if (key == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      else if (value == null)
+      {
+         // ignore null values
+         return CompletedFuture.success(null);
+      }
+      final long start = System.nanoTime();
+      Future<V> future = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Future<V>>()
+      {
+
+         @Override
+         public Future<V> run()
+         {
+            return putOnlyAsync(key, value);
+         }
+
+      });
+      return new FutureAdapter<V, Void>(future)
+      {
+         @Override
+         protected Void convert(V result)
+         {
+            statistics.recordPut(start);
+            onPut(key, value);
+            return null;
+         }
+      };
+   }
+
+   /**
+    * Only puts the data into the cache asynchronously nothing more
+    */
+   protected Future<V> putOnlyAsync(K key, V value)
+   {
+      return cache.withFlags(Flag.SKIP_REMOTE_LOOKUP, Flag.IGNORE_RETURN_VALUES).putAsync(
+         new CacheKey<K>(fullName, key), value);
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -464,10 +890,83 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
             return cache.remove(key);
          }
       });
+      if (result != null)
+      {
+         statistics.recordRemoval();
+      }
       onRemove(key, result);
       return result;
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   public void removeAll(final Collection<? extends K> names) throws IllegalArgumentException
+   {
+      checkKeys(names);
+      SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
+      {
+
+         @Override
+         public Void run()
+         {
+            // Start transaction
+            cache.startBatch();
+            try
+            {
+               Map<CacheKey<K>, V> removed = new LinkedHashMap<CacheKey<K>, V>();
+               for (K name : names)
+               {
+                  CacheKey<K> key = new CacheKey<K>(fullName, name);
+                  removed.put(key, cache.remove(key));
+               }
+               cache.endBatch(true);
+               // End transaction
+               for (Map.Entry<CacheKey<K>, V> entry : removed.entrySet())
+               {
+                  onRemove(entry.getKey(), entry.getValue());
+               }
+            }
+            catch (Exception e) //NOSONAR
+            {
+               cache.endBatch(false);
+               LOG.warn("An error occurs while executing the removeAll method", e);
+            }
+            return null;
+         }
+      });
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<V> removeAsync(Serializable name) throws IllegalArgumentException
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      final CacheKey<K> key = new CacheKey<K>(fullName, (K)name);
+      Future<V> future = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Future<V>>()
+      {
+         @Override
+         public Future<V> run()
+         {
+            return cache.removeAsync(key);
+         }
+      });
+      return new FutureAdapter<V, V>(future)
+      {
+         @Override
+         protected V convert(V result)
+         {
+            onRemove(key, result);
+            return result;
+         }
+      };
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -487,26 +986,15 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       {
          throw new IllegalArgumentException("No null selector");
       }
-      Map<K, V> map = SecurityHelper.doPrivilegedAction(new PrivilegedAction<Map<K, V>>()
-      {
-
-         @Override
-         public Map<K, V> run()
-         {
-            MapReduceTask<CacheKey<K>, V, K, V> task = new MapReduceTask<CacheKey<K>, V, K, V>(cache);
-            task.mappedWith(new GetEntriesMapper<K, V>(fullName)).reducedWith(new GetEntriesReducer<K, V>());
-            return task.execute();
-         }
-
-      });
-
-      for (K key : map.keySet())
+      for (Iterator<Map.Entry<K, V>> it = entries(); it.hasNext();)
       {
+         Map.Entry<K, V> entry = it.next();
+         K key = entry.getKey();
          if (key == null)
          {
             continue;
          }
-         final V value = map.get(key);
+         final V value = entry.getValue();
          ObjectCacheInfo<V> info = new ObjectCacheInfo<V>()
          {
             public V get()
@@ -557,6 +1045,7 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
    public void setName(String name)
    {
       this.name = name;
+      statistics.setCacheName(name);
    }
 
    /**
@@ -730,6 +1219,63 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       }
    }
 
+   /**
+    * The listener that maintains the amount of entries stored locally per cache instance
+    */
+   @Listener
+   public static class SizeListener
+   {
+      @SuppressWarnings("rawtypes")
+      private final AdvancedCache cache;
+
+      private final ConcurrentMap<String, AtomicInteger> sizes;
+
+      @SuppressWarnings("rawtypes")
+      SizeListener(AdvancedCache cache, ConcurrentMap<String, AtomicInteger> sizes)
+      {
+         this.cache = cache;
+         this.sizes = sizes;
+      }
+
+      @CacheEntryCreated
+      public void cacheEntryCreated(CacheEntryCreatedEvent<Object, Object> evt)
+      {
+         if (!evt.isPre())
+         {
+            update(evt.getKey(), 1);
+         }
+      }
+
+      @CacheEntryRemoved
+      public void cacheEntryRemoved(CacheEntryRemovedEvent<Object, Object> evt)
+      {
+         if (!evt.isPre())
+         {
+            update(evt.getKey(), -1);
+         }
+      }
+
+      @CacheEntriesEvicted
+      public void cacheEntriesEvicted(CacheEntriesEvictedEvent<Object, Object> evt)
+      {
+         if (!evt.isPre())
+         {
+            for (Object key : evt.getEntries().keySet())
+            {
+               update(key, -1);
+            }
+         }
+      }
+
+      private void update(Object key, int delta)
+      {
+         if (key instanceof CacheKey && isLocal(cache, key))
+         {
+            getOrCreateSize(sizes, ((CacheKey<?>)key).getFullName()).addAndGet(delta);
+         }
+      }
+   }
+
    private static class ListenerContext<K extends Serializable, V> implements CacheListenerContext, CacheInfo
    {
 
@@ -1000,100 +1546,6 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       }
    }
 
-   public static class GetSizeMapper<K, V> extends AbstractExoCacheMapper<K, V, String, Integer>
-   {
-
-      public GetSizeMapper()
-      {
-      }
-
-      public GetSizeMapper(String fullName)
-      {
-         super(fullName);
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      protected void _map(CacheKey<K> key, V value, Collector<String, Integer> collector)
-      {
-         collector.emit("total", Integer.valueOf(1));
-      }
-
-   }
-
-   public static class GetSizeReducer<K> implements Reducer<K, Integer>
-   {
-
-      /**
-       * The serial version UID
-       */
-      private static final long serialVersionUID = -5264142863835473112L;
-
-      /**
-       * @see org.infinispan.distexec.mapreduce.Reducer#reduce(java.lang.Object, java.util.Iterator)
-       */
-      @Override
-      public Integer reduce(K reducedKey, Iterator<Integer> iter)
-      {
-         int sum = 0;
-         while (iter.hasNext())
-         {
-            Integer i = iter.next();
-            sum += i;
-         }
-         return sum;
-      }
-   }
-
-   public static class GetCachedObjectsMapper<K, V> extends AbstractExoCacheMapper<K, V, String, List<V>>
-   {
-
-      public GetCachedObjectsMapper()
-      {
-      }
-
-      public GetCachedObjectsMapper(String fullName)
-      {
-         super(fullName);
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      protected void _map(CacheKey<K> key, V value, Collector<String, List<V>> collector)
-      {
-         collector.emit("values", Collections.singletonList(value));
-      }
-
-   }
-
-   public static class GetCachedObjectsReducer<K, V> implements Reducer<K, List<V>>
-   {
-
-      /**
-       * The serial version UID
-       */
-      private static final long serialVersionUID = 8069024420056440405L;
-
-      /**
-       * @see org.infinispan.distexec.mapreduce.Reducer#reduce(java.lang.Object, java.util.Iterator)
-       */
-      @Override
-      public List<V> reduce(K reducedKey, Iterator<List<V>> iter)
-      {
-         List<V> values = new ArrayList<V>();
-         while (iter.hasNext())
-         {
-            List<V> vals = iter.next();
-            values.addAll(vals);
-         }
-         return values;
-      }
-   }
-
    public static class ClearCacheMapper<K, V> extends AbstractExoCacheMapper<K, V, Void, Void>
    {
 
@@ -1148,42 +1600,55 @@ public class DistributedExoCache<K extends Serializable, V> implements ExoCache<
       }
    }
 
-   public static class GetEntriesMapper<K, V> extends AbstractExoCacheMapper<K, V, K, V>
+   /**
+    * The task executed on each cluster node to retrieve the entries of a cache instance that the node
+    * stores locally as primary owner, it only reads the local data container
+    */
+   public static class GetLocalEntriesTask<K, V> implements DistributedCallable<Object, Object, Map<K, V>>,
+      Serializable
    {
-      public GetEntriesMapper()
-      {
-      }
 
-      public GetEntriesMapper(String fullName)
-      {
-         super(fullName);
-      }
+      /**
+       * The serial version UID
+       */
+      private static final long serialVersionUID = -3517447395627254187L;
 
       /**
-       * {@inheritDoc}
+       * The full name of the cache instance
        */
-      @Override
-      protected void _map(CacheKey<K> key, V value, Collector<K, V> collector)
+      private final String fullName;
+
+      private transient Cache<Object, Object> cache;
+
+      public GetLocalEntriesTask(String fullName)
       {
-         collector.emit(key.getKey(), value);
+         this.fullName = fullName;
       }
-   }
-
-   public static class GetEntriesReducer<K, V> implements Reducer<K, V>
-   {
 
       /**
-       * The serial version UID
+       * {@inheritDoc}
        */
-      private static final long serialVersionUID = 5153826700048219537L;
+      public void setEnvironment(Cache<Object, Object> cache, Set<Object> inputKeys)
+      {
+         this.cache = cache;
+      }
 
       /**
-       * @see org.infinispan.distexec.mapreduce.Reducer#reduce(java.lang.Object, java.util.Iterator)
+       * {@inheritDoc}
        */
-      @Override
-      public V reduce(K reducedKey, Iterator<V> iter)
+      public Map<K, V> call() throws Exception
       {
-         return iter == null || !iter.hasNext() ? null : iter.next();
+         final AdvancedCache<Object, Object> cache = this.cache.getAdvancedCache();
+         return SecurityHelper.doPrivilegedAction(new PrivilegedAction<Map<K, V>>()
+         {
+
+            @Override
+            public Map<K, V> run()
+            {
+               return getLocalEntries(cache, fullName);
+            }
+
+         });
       }
    }
 }
\ No newline at end of file
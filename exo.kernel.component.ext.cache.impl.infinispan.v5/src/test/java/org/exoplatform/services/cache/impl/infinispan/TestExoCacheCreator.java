@@ -27,6 +27,7 @@ import org.infinispan.Cache;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -184,6 +185,15 @@ public class TestExoCacheCreator implements ExoCacheCreator
 
       }
 
+      public Map getAll(Collection keys) throws IllegalArgumentException
+      {
+         return null;
+      }
+
+      public void removeAll(Collection keys) throws IllegalArgumentException
+      {
+      }
+
       public Object remove(Serializable key) throws NullPointerException
       {
          return null;
@@ -36,7 +36,11 @@ import org.exoplatform.services.ispn.DistributedCacheManager;
 import org.infinispan.affinity.KeyAffinityService;
 import org.infinispan.affinity.KeyAffinityServiceFactory;
 import org.infinispan.affinity.KeyGenerator;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -229,6 +233,79 @@ public class TestDistributedExoCache extends TestCase
       assertEquals(3, count.intValue());
    }
 
+   public void testIterateEntries() throws Exception
+   {
+      for (int i = 0; i < 7; i++)
+      {
+         cache.put(new MyKey("k" + i), i);
+      }
+      assertEquals(7, cache.getCacheSize());
+      // Each entry is returned once and the entries of the other cache instances are ignored
+      List<Object> values = cache.getCachedObjects();
+      assertEquals(7, values.size());
+      for (int i = 0; i < 7; i++)
+      {
+         assertTrue(values.contains(i));
+      }
+      final AtomicInteger count = new AtomicInteger();
+      cache.select(new CachedObjectSelector<Serializable, Object>()
+      {
+
+         public void onSelect(ExoCache<? extends Serializable, ? extends Object> cache, Serializable key,
+            ObjectCacheInfo<? extends Object> ocinfo) throws Exception
+         {
+            count.incrementAndGet();
+         }
+
+         public boolean select(Serializable key, ObjectCacheInfo<? extends Object> ocinfo)
+         {
+            return true;
+         }
+      });
+      assertEquals(7, count.get());
+   }
+
+   public void testReconcileSize() throws Exception
+   {
+      cache.put(new MyKey("a"), "a");
+      cache.put(new MyKey("b"), "b");
+      cache.remove(new MyKey("a"));
+      assertEquals(1, cache.getCacheSize());
+      cache.reconcileSize();
+      assertEquals(1, cache.getCacheSize());
+      assertEquals(1, cache2.getCacheSize());
+   }
+
+   public void testSizeWithEviction() throws Exception
+   {
+      PortalContainer pc = PortalContainer.getInstance();
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.eviction().strategy(EvictionStrategy.LRU).maxEntries(5);
+      EmbeddedCacheManager manager = new DefaultCacheManager(builder.build());
+      try
+      {
+         ExoCacheConfig config = new ExoCacheConfig();
+         config.setName("MyCacheEvicted");
+         DistributedExoCache<Serializable, Object> evicted =
+            new DistributedExoCache<Serializable, Object>(
+               (ExoContainerContext)pc.getComponentInstanceOfType(ExoContainerContext.class), config,
+               manager.<Serializable, Object> getCache());
+         for (int i = 0; i < 20; i++)
+         {
+            evicted.put(new MyKey("key" + i), "value" + i);
+         }
+         int size = evicted.getCacheSize();
+         assertTrue(size > 0 && size < 20);
+         // The size maintained from the events must match the actual content
+         evicted.reconcileSize();
+         assertEquals(size, evicted.getCacheSize());
+      }
+      finally
+      {
+         manager.stop();
+      }
+   }
+
    public void testGetHitsNMisses() throws Exception
    {
       int hits = cache.getCacheHit();
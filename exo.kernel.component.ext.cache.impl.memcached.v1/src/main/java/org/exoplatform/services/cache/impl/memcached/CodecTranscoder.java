@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.impl.memcached;
+
+import net.spy.memcached.CachedData;
+import net.spy.memcached.transcoders.SerializingTranscoder;
+import net.spy.memcached.transcoders.Transcoder;
+
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The {@link Transcoder} used by the {@link MCExoCache} to convert its values thanks to
+ * a {@link ValueCodec}. The values are encoded into a buffer reused by each thread and are
+ * compressed when their encoded form is larger than the compression threshold and the
+ * compression allows to reduce their size. The values stored with the default transcoder
+ * of spymemcached can still be read.
+ * 
+ * @version $Id$
+ */
+class CodecTranscoder implements Transcoder<Object>
+{
+   /**
+    * Logger.
+    */
+   private static final Log LOG = ExoLogger//NOSONAR
+      .getLogger("exo.kernel.component.ext.cache.impl.memcached.v1.CodecTranscoder");//NOSONAR
+
+   /**
+    * The flag indicating that the value has been encoded with a {@link ValueCodec}
+    */
+   static final int ENCODED = 1 << 16;
+
+   /**
+    * The flag indicating that the encoded value has been compressed
+    */
+   static final int COMPRESSED = 1 << 17;
+
+   /**
+    * The maximum size of the buffers kept from one call to another
+    */
+   private static final int MAX_RETAINED_SIZE = 64 * 1024;
+
+   private static final ThreadLocal<EncodingBuffer> BUFFERS = new ThreadLocal<EncodingBuffer>()
+   {
+      @Override
+      protected EncodingBuffer initialValue()
+      {
+         return new EncodingBuffer();
+      }
+   };
+
+   private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<Deflater>()
+   {
+      @Override
+      protected Deflater initialValue()
+      {
+         return new Deflater(Deflater.BEST_SPEED);
+      }
+   };
+
+   private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>()
+   {
+      @Override
+      protected Inflater initialValue()
+      {
+         return new Inflater();
+      }
+   };
+
+   /**
+    * The transcoder used to read the values that have not been encoded with a {@link ValueCodec}
+    */
+   private static final Transcoder<Object> LEGACY = new SerializingTranscoder();
+
+   private final ValueCodec codec;
+
+   private final int compressionThreshold;
+
+   /**
+    * @param codec the codec to use to encode and decode the values
+    * @param compressionThreshold the minimum size in bytes of an encoded value to
+    * try to compress it, a value <= 0 disables the compression
+    */
+   CodecTranscoder(ValueCodec codec, int compressionThreshold)
+   {
+      this.codec = codec;
+      this.compressionThreshold = compressionThreshold;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean asyncDecode(CachedData d)
+   {
+      return (d.getFlags() & COMPRESSED) != 0;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public CachedData encode(Object o)
+   {
+      EncodingBuffer buffer = BUFFERS.get();
+      buffer.reset();
+      try
+      {
+         codec.encode(o, buffer);
+         int flags = ENCODED;
+         byte[] data = null;
+         if (compressionThreshold > 0 && buffer.size() >= compressionThreshold)
+         {
+            data = compress(buffer);
+         }
+         if (data == null)
+         {
+            data = buffer.toByteArray();
+         }
+         else
+         {
+            flags |= COMPRESSED;
+         }
+         return new CachedData(flags, data, getMaxSize());
+      }
+      catch (IOException e)
+      {
+         throw new IllegalArgumentException("Could not encode the value " + o, e);
+      }
+      finally
+      {
+         if (buffer.capacity() > MAX_RETAINED_SIZE)
+         {
+            // We don't keep too big buffers
+            BUFFERS.remove();
+         }
+      }
+   }
+
+   /**
+    * Compresses the content of the given buffer
+    * @return the compressed content prefixed with its original length or <code>null</code>
+    * if the compression doesn't allow to reduce the size
+    */
+   private static byte[] compress(EncodingBuffer buffer)
+   {
+      int length = buffer.size();
+      byte[] out = buffer.getScratch(length);
+      out[0] = (byte)(length >>> 24);
+      out[1] = (byte)(length >>> 16);
+      out[2] = (byte)(length >>> 8);
+      out[3] = (byte)length;
+      Deflater deflater = DEFLATERS.get();
+      deflater.reset();
+      deflater.setInput(buffer.getBuffer(), 0, length);
+      deflater.finish();
+      int size = 4;
+      while (!deflater.finished() && size < length)
+      {
+         size += deflater.deflate(out, size, length - size);
+      }
+      return deflater.finished() ? Arrays.copyOf(out, size) : null;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Object decode(CachedData d)
+   {
+      int flags = d.getFlags();
+      if ((flags & ENCODED) == 0)
+      {
+         return LEGACY.decode(d);
+      }
+      byte[] data = d.getData();
+      try
+      {
+         if ((flags & COMPRESSED) != 0)
+         {
+            data = decompress(data);
+         }
+         return codec.decode(new ByteArrayInputStream(data));
+      }
+      catch (IOException e)
+      {
+         LOG.warn("Could not decode the value", e);
+      }
+      catch (DataFormatException e)
+      {
+         LOG.warn("Could not decompress the value", e);
+      }
+      return null;
+   }
+
+   /**
+    * Decompresses the given data
+    */
+   private static byte[] decompress(byte[] data) throws DataFormatException
+   {
+      int length =
+         (data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | (data[3] & 0xFF);
+      byte[] result = new byte[length];
+      Inflater inflater = INFLATERS.get();
+      inflater.reset();
+      inflater.setInput(data, 4, data.length - 4);
+      int size = 0;
+      while (size < length && !inflater.finished())
+      {
+         int read = inflater.inflate(result, size, length - size);
+         if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+         {
+            break;
+         }
+         size += read;
+      }
+      if (size != length)
+      {
+         throw new DataFormatException("Expected " + length + " bytes but got " + size);
+      }
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getMaxSize()
+   {
+      return CachedData.MAX_SIZE;
+   }
+
+   /**
+    * A {@link ByteArrayOutputStream} giving access to its internal buffer and to an additional
+    * scratch buffer used for the compression
+    */
+   private static class EncodingBuffer extends ByteArrayOutputStream
+   {
+      private byte[] scratch;
+
+      EncodingBuffer()
+      {
+         super(512);
+      }
+
+      byte[] getBuffer()
+      {
+         return buf;
+      }
+
+      byte[] getScratch(int size)
+      {
+         if (scratch == null || scratch.length < size)
+         {
+            scratch = new byte[Math.max(size, 512)];
+         }
+         return scratch;
+      }
+
+      int capacity()
+      {
+         return scratch == null ? buf.length : Math.max(buf.length, scratch.length);
+      }
+   }
+}
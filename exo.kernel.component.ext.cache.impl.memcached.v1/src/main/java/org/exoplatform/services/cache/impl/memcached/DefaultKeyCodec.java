@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.impl.memcached;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The default {@link KeyCodec}. The String keys are used as is unless they start with
+ * the reserved character <code>~</code> in which case it is doubled, the primitive
+ * wrappers are converted into their String representation prefixed with <code>~</code>
+ * and a type code, any other key is encoded with the {@link DefaultValueCodec} and
+ * converted in URL safe Base64. Keys whose encoded form is too long to fit into a memcached
+ * key are replaced with a digest.
+ * 
+ * @version $Id$
+ */
+public class DefaultKeyCodec implements KeyCodec
+{
+   /**
+    * The maximum length in bytes of an encoded key, the remaining bytes are kept
+    * for the namespace
+    */
+   static final int MAX_KEY_LENGTH = 200;
+
+   private static final char PREFIX = '~';
+
+   private static final char[] BASE64 =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+   private static final DefaultValueCodec CODEC = new DefaultValueCodec();
+
+   /**
+    * {@inheritDoc}
+    */
+   public String encode(Serializable key)
+   {
+      String result;
+      if (key instanceof String)
+      {
+         String value = (String)key;
+         result = value.length() > 0 && value.charAt(0) == PREFIX ? PREFIX + value : value;
+      }
+      else if (key instanceof Integer)
+      {
+         result = "~I" + key;
+      }
+      else if (key instanceof Long)
+      {
+         result = "~J" + key;
+      }
+      else if (key instanceof Boolean)
+      {
+         result = "~Z" + key;
+      }
+      else if (key instanceof Short)
+      {
+         result = "~S" + key;
+      }
+      else if (key instanceof Byte)
+      {
+         result = "~B" + key;
+      }
+      else if (key instanceof Character && !Character.isWhitespace((Character)key)
+         && !Character.isISOControl((Character)key))
+      {
+         result = "~C" + key;
+      }
+      else
+      {
+         ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+         try
+         {
+            CODEC.encode(key, out);
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Could not serialize the key " + key, e);
+         }
+         byte[] bytes = out.toByteArray();
+         result = "~O" + toBase64(bytes);
+      }
+      return isTooLong(result) ? "~H" + digest(result) : result;
+   }
+
+   /**
+    * Indicates whether the UTF-8 form of the given String is longer than {@link #MAX_KEY_LENGTH}
+    */
+   private static boolean isTooLong(String value)
+   {
+      int length = value.length();
+      if (length > MAX_KEY_LENGTH)
+      {
+         return true;
+      }
+      else if (length * 3 <= MAX_KEY_LENGTH)
+      {
+         // Even if all the characters are encoded with 3 bytes, it will fit
+         return false;
+      }
+      try
+      {
+         return value.getBytes("UTF-8").length > MAX_KEY_LENGTH;
+      }
+      catch (UnsupportedEncodingException e)
+      {
+         throw new IllegalStateException("UTF-8 is not supported", e);
+      }
+   }
+
+   /**
+    * Gives the SHA-1 digest of the given String in URL safe Base64
+    */
+   private static String digest(String value)
+   {
+      try
+      {
+         byte[] bytes = MessageDigest.getInstance("SHA-1").digest(value.getBytes("UTF-8"));
+         return toBase64(bytes);
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new IllegalStateException("SHA-1 is not supported", e);
+      }
+      catch (UnsupportedEncodingException e)
+      {
+         throw new IllegalStateException("UTF-8 is not supported", e);
+      }
+   }
+
+   /**
+    * Converts the given bytes in URL safe Base64 without padding and without line separators
+    */
+   private static String toBase64(byte[] bytes)
+   {
+      int length = bytes.length;
+      StringBuilder sb = new StringBuilder((length * 4 + 2) / 3);
+      int i = 0;
+      for (; i + 2 < length; i += 3)
+      {
+         int value = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+         sb.append(BASE64[value >>> 18]).append(BASE64[(value >>> 12) & 0x3F]).append(BASE64[(value >>> 6) & 0x3F])
+            .append(BASE64[value & 0x3F]);
+      }
+      if (i < length)
+      {
+         int value = (bytes[i] & 0xFF) << 16 | (i + 1 < length ? (bytes[i + 1] & 0xFF) << 8 : 0);
+         sb.append(BASE64[value >>> 18]).append(BASE64[(value >>> 12) & 0x3F]);
+         if (i + 1 < length)
+         {
+            sb.append(BASE64[(value >>> 6) & 0x3F]);
+         }
+      }
+      return sb.toString();
+   }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.impl.memcached;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+
+/**
+ * The default {@link ValueCodec}. The value is prefixed with a one byte tag giving its
+ * type, Strings, primitive wrappers and byte arrays are then written in their raw form,
+ * {@link Externalizable} values are written with their class name followed by the
+ * content of {@link Externalizable#writeExternal(java.io.ObjectOutput)} and any other
+ * value falls back to the Java serialization.
+ * 
+ * @version $Id$
+ */
+public class DefaultValueCodec implements ValueCodec
+{
+   private static final byte STRING = 1;
+
+   private static final byte INTEGER = 2;
+
+   private static final byte LONG = 3;
+
+   private static final byte BOOLEAN = 4;
+
+   private static final byte BYTE = 5;
+
+   private static final byte SHORT = 6;
+
+   private static final byte CHARACTER = 7;
+
+   private static final byte FLOAT = 8;
+
+   private static final byte DOUBLE = 9;
+
+   private static final byte BYTES = 10;
+
+   private static final byte EXTERNALIZABLE = 11;
+
+   private static final byte SERIALIZABLE = 12;
+
+   /**
+    * {@inheritDoc}
+    */
+   public void encode(Object value, OutputStream out) throws IOException
+   {
+      DataOutputStream dos = new DataOutputStream(out);
+      if (value instanceof String)
+      {
+         dos.writeByte(STRING);
+         dos.write(((String)value).getBytes("UTF-8"));
+      }
+      else if (value instanceof Integer)
+      {
+         dos.writeByte(INTEGER);
+         dos.writeInt((Integer)value);
+      }
+      else if (value instanceof Long)
+      {
+         dos.writeByte(LONG);
+         dos.writeLong((Long)value);
+      }
+      else if (value instanceof Boolean)
+      {
+         dos.writeByte(BOOLEAN);
+         dos.writeBoolean((Boolean)value);
+      }
+      else if (value instanceof Byte)
+      {
+         dos.writeByte(BYTE);
+         dos.writeByte((Byte)value);
+      }
+      else if (value instanceof Short)
+      {
+         dos.writeByte(SHORT);
+         dos.writeShort((Short)value);
+      }
+      else if (value instanceof Character)
+      {
+         dos.writeByte(CHARACTER);
+         dos.writeChar((Character)value);
+      }
+      else if (value instanceof Float)
+      {
+         dos.writeByte(FLOAT);
+         dos.writeFloat((Float)value);
+      }
+      else if (value instanceof Double)
+      {
+         dos.writeByte(DOUBLE);
+         dos.writeDouble((Double)value);
+      }
+      else if (value instanceof byte[])
+      {
+         dos.writeByte(BYTES);
+         dos.write((byte[])value);
+      }
+      else if (value instanceof Externalizable && Modifier.isPublic(value.getClass().getModifiers()))
+      {
+         dos.writeByte(EXTERNALIZABLE);
+         dos.writeUTF(value.getClass().getName());
+         ObjectOutputStream oos = new ObjectOutputStream(dos);
+         ((Externalizable)value).writeExternal(oos);
+         oos.flush();
+      }
+      else
+      {
+         dos.writeByte(SERIALIZABLE);
+         ObjectOutputStream oos = new ObjectOutputStream(dos);
+         oos.writeObject(value);
+         oos.flush();
+      }
+      dos.flush();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Object decode(InputStream in) throws IOException
+   {
+      DataInputStream dis = new DataInputStream(in);
+      byte type = dis.readByte();
+      switch (type)
+      {
+         case STRING :
+            return new String(readFully(dis), "UTF-8");
+         case INTEGER :
+            return dis.readInt();
+         case LONG :
+            return dis.readLong();
+         case BOOLEAN :
+            return dis.readBoolean();
+         case BYTE :
+            return dis.readByte();
+         case SHORT :
+            return dis.readShort();
+         case CHARACTER :
+            return dis.readChar();
+         case FLOAT :
+            return dis.readFloat();
+         case DOUBLE :
+            return dis.readDouble();
+         case BYTES :
+            return readFully(dis);
+         case EXTERNALIZABLE :
+            return readExternalizable(dis);
+         case SERIALIZABLE :
+            try
+            {
+               return new CodecInputStream(dis).readObject();
+            }
+            catch (ClassNotFoundException e)
+            {
+               throw new IOException("Could not find the class of the value: " + e.getMessage());
+            }
+         default :
+            throw new IOException("Unknown value type: " + type);
+      }
+   }
+
+   private Object readExternalizable(DataInputStream dis) throws IOException
+   {
+      String className = dis.readUTF();
+      Externalizable value;
+      try
+      {
+         value = (Externalizable)loadClass(className).newInstance();
+      }
+      catch (ClassNotFoundException e)
+      {
+         throw new IOException("Could not find the class " + className);
+      }
+      catch (InstantiationException e)
+      {
+         throw new IOException("Could not instantiate the class " + className + ": " + e.getMessage());
+      }
+      catch (IllegalAccessException e)
+      {
+         throw new IOException("Could not instantiate the class " + className + ": " + e.getMessage());
+      }
+      try
+      {
+         value.readExternal(new CodecInputStream(dis));
+      }
+      catch (ClassNotFoundException e)
+      {
+         throw new IOException("Could not read the content of " + className + ": " + e.getMessage());
+      }
+      return value;
+   }
+
+   /**
+    * Reads all the remaining bytes of the given stream
+    */
+   private static byte[] readFully(InputStream in) throws IOException
+   {
+      byte[] buffer = new byte[Math.max(in.available(), 16)];
+      int length = 0;
+      int read;
+      while ((read = in.read(buffer, length, buffer.length - length)) != -1)
+      {
+         length += read;
+         if (length == buffer.length)
+         {
+            int next = in.read();
+            if (next == -1)
+            {
+               break;
+            }
+            byte[] newBuffer = new byte[buffer.length << 1];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+            buffer[length++] = (byte)next;
+         }
+      }
+      if (length == buffer.length)
+      {
+         return buffer;
+      }
+      byte[] result = new byte[length];
+      System.arraycopy(buffer, 0, result, 0, length);
+      return result;
+   }
+
+   /**
+    * Loads the given class from the context class loader first, then from the class loader
+    * of the codec
+    */
+   private static Class<?> loadClass(String className) throws ClassNotFoundException
+   {
+      ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      if (cl != null)
+      {
+         try
+         {
+            return Class.forName(className, false, cl);
+         }
+         catch (ClassNotFoundException e)
+         {
+            // Try with the class loader of the codec
+         }
+      }
+      return Class.forName(className, false, DefaultValueCodec.class.getClassLoader());
+   }
+
+   /**
+    * An {@link ObjectInputStream} that resolves the classes using the context class loader
+    * when possible
+    */
+   private static class CodecInputStream extends ObjectInputStream
+   {
+      CodecInputStream(InputStream in) throws IOException
+      {
+         super(in);
+      }
+
+      @Override
+      protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+      {
+         try
+         {
+            return loadClass(desc.getName());
+         }
+         catch (ClassNotFoundException e)
+         {
+            return super.resolveClass(desc);
+         }
+      }
+   }
+}
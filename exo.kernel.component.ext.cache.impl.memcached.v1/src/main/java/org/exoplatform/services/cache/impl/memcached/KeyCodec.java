@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.impl.memcached;
+
+import java.io.Serializable;
+
+/**
+ * Converts the keys of an {@link MCExoCache} into the String used to build the
+ * memcached key. The result will be prefixed with the namespace of the cache so it
+ * must not contain any whitespace nor control characters and its length must remain
+ * small enough to fit into a memcached key (250 bytes).
+ * Two different keys must give two different results.
+ * 
+ * @version $Id$
+ *
+ * @LevelAPI Experimental
+ */
+public interface KeyCodec
+{
+   /**
+    * Encodes the given key
+    * @param key the key to encode, never <code>null</code>
+    * @return the String representation of the key
+    */
+   String encode(Serializable key);
+}
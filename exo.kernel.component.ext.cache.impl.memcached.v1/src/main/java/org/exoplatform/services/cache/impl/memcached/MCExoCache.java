@@ -20,26 +20,34 @@ package org.exoplatform.services.cache.impl.memcached;
 
 import net.spy.memcached.CASValue;
 import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.GetCompletionListener;
+import net.spy.memcached.internal.GetFuture;
+import net.spy.memcached.internal.OperationCompletionListener;
 import net.spy.memcached.internal.OperationFuture;
 
-import org.apache.ws.commons.util.Base64;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.management.annotations.Managed;
 import org.exoplatform.management.annotations.ManagedDescription;
 import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.services.cache.AsyncExoCache;
 import org.exoplatform.services.cache.CacheInfo;
 import org.exoplatform.services.cache.CacheListener;
 import org.exoplatform.services.cache.CacheListenerContext;
+import org.exoplatform.services.cache.CacheStatistics;
 import org.exoplatform.services.cache.CachedObjectSelector;
 import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.cache.ExoCacheConfig;
+import org.exoplatform.services.cache.InstrumentedExoCache;
+import org.exoplatform.services.cache.future.CompletedFuture;
+import org.exoplatform.services.cache.future.FutureAdapter;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -47,16 +55,25 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * An {@link org.exoplatform.services.cache.ExoCache} implementation based on spymemcached.
+ * <p>
+ * The asynchronous operations rely on the namespace known locally to avoid an additional round-trip,
+ * the namespace is fetched with the values and if it has changed meanwhile (typically because of a
+ * remote clear cache), the operation falls back to its synchronous version once the result is requested.
+ * The asynchronous puts are the exception, they are completed by the completion listeners of the memcached
+ * operations whether or not the result is requested.
  * 
  * @author <a href="mailto:nfilotto@exoplatform.com">Nicolas Filotto</a>
  * @version $Id$
  */
-public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
+public class MCExoCache<K extends Serializable, V> implements AsyncExoCache<K, V>,
+   InstrumentedExoCache<K, V>
 {
 
    /**
@@ -65,9 +82,17 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
    private static final Log LOG = ExoLogger//NOSONAR
       .getLogger("exo.kernel.component.ext.cache.impl.memcached.v1.AbstractExoCache");//NOSONAR
 
-   private final AtomicInteger hits = new AtomicInteger(0);
+   /**
+    * The task of the futures that are completed explicitly
+    */
+   private static final Runnable NO_OP = new Runnable()
+   {
+      public void run()
+      {
+      }
+   };
 
-   private final AtomicInteger misses = new AtomicInteger(0);
+   private final CacheStatistics statistics = new CacheStatistics(null);
 
    private final AtomicInteger count = new AtomicInteger(0);
 
@@ -89,12 +114,36 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
 
    protected final MemcachedClient cache;
 
+   /**
+    * The codec used to convert the keys
+    */
+   private final KeyCodec keyCodec;
+
+   /**
+    * The transcoder used to convert the values
+    */
+   private final CodecTranscoder transcoder;
+
    @SuppressWarnings("rawtypes")
    private static final ConcurrentMap<String, List<ListenerContext>> ALL_LISTENERS =
       new ConcurrentHashMap<String, List<ListenerContext>>();
 
    public MCExoCache(ExoContainerContext ctx, ExoCacheConfig config, MemcachedClient cache, long expirationTimeout)
    {
+      this(ctx, config, cache, expirationTimeout, new DefaultKeyCodec(), new DefaultValueCodec(), 0);
+   }
+
+   /**
+    * @param keyCodec the codec to use to convert the keys
+    * @param valueCodec the codec to use to convert the values
+    * @param compressionThreshold the minimum size in bytes of an encoded value to try to
+    * compress it, a value <= 0 disables the compression
+    */
+   public MCExoCache(ExoContainerContext ctx, ExoCacheConfig config, MemcachedClient cache, long expirationTimeout,
+      KeyCodec keyCodec, ValueCodec valueCodec, int compressionThreshold)
+   {
+      this.keyCodec = keyCodec;
+      this.transcoder = new CodecTranscoder(valueCodec, compressionThreshold);
       this.fullName = ctx.getName() + "-" + config.getName();
       this.cache = cache;
       this.expirationTimeout = (int)(expirationTimeout / 1000L);
@@ -166,12 +215,12 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
    private String getNamespace(int triesLeft)
    {
       String oldNamespace = lastNamespace.get();
-      CASValue<Object> casValue = cache.getAndTouch(fullName, expirationTimeout);
+      CASValue<Object> casValue = cache.getAndTouch(fullName, expirationTimeout, transcoder);
       String value;
       if (casValue == null || casValue.getValue() == null)
       {
          value = UUID.randomUUID().toString();
-         OperationFuture<Boolean> resp = cache.add(fullName, expirationTimeout, value);
+         OperationFuture<Boolean> resp = cache.add(fullName, expirationTimeout, value, transcoder);
          Boolean result = null;
          try
          {
@@ -208,6 +257,16 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
       return value;
    }
 
+   /**
+    * Gives the last known namespace without any round-trip if it is already known
+    * @return the namespace
+    */
+   private String getLastNamespace()
+   {
+      String namespace = lastNamespace.get();
+      return namespace == null ? getNamespace() : namespace;
+   }
+
    /**
     * Gives the name of the key with the prefix
     * @param name the name of the key without the prefix
@@ -230,47 +289,10 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
       StringBuilder sb = new StringBuilder();
       sb.append(namespace);
       sb.append(':');
-      sb.append(toString(name));
+      sb.append(keyCodec.encode(name));
       return sb.toString();
    }
 
-   /**
-    * Used to serialize the key
-    * @param key the key to serialize
-    * @return the value of the key serialized in Base64
-    */
-   private static String toString(Serializable key)
-   {
-      if (key instanceof String)
-         return (String)key;
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      ObjectOutputStream oos = null;
-      try
-      {
-         oos = new ObjectOutputStream(baos);
-         oos.writeObject(key);
-      }
-      catch (IOException e)
-      {
-         throw new RuntimeException("Could not serialize the key " + key, e);
-      }
-      finally
-      {
-         if (oos != null)
-         {
-            try
-            {
-               oos.close();
-            }
-            catch (IOException e)
-            {
-               LOG.trace("Could not close the object output stream", e);
-            }
-         }
-      }
-      return Base64.encode(baos.toByteArray());
-   }
-
    /**
     * {@inheritDoc}
     */
@@ -280,7 +302,7 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
       // described in the doc https://code.google.com/p/memcached/wiki/NewProgrammingTricks#Namespacing
       String namespace = UUID.randomUUID().toString();
       String oldNamespace = lastNamespace.get();
-      OperationFuture<Boolean> resp = cache.set(fullName, expirationTimeout, namespace);
+      OperationFuture<Boolean> resp = cache.set(fullName, expirationTimeout, namespace, transcoder);
       Boolean result;
       try
       {
@@ -308,18 +330,141 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
       {
          return null;
       }
-      CASValue<Object> casValue = cache.getAndTouch(getKeyFullName(name), expirationTimeout);
+      long start = System.nanoTime();
+      CASValue<Object> casValue = cache.getAndTouch(getKeyFullName(name), expirationTimeout, transcoder);
       V result = casValue == null ? null : (V)casValue.getValue();
-      if (result == null)
+      statistics.recordGet(start, result != null);
+      onGet((K)name, result);
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<V> getAsync(final Serializable name)
+   {
+      if (name == null)
       {
-         misses.incrementAndGet();
+         return CompletedFuture.success(null);
       }
-      else
+      final long start = System.nanoTime();
+      final String namespace = getLastNamespace();
+      final String keyFullName = getKeyFullName(namespace, name);
+      // The namespace and the value are retrieved in the same round-trip
+      BulkFuture<Map<String, Object>> future = cache.asyncGetBulk(transcoder, fullName, keyFullName);
+      return new FutureAdapter<Map<String, Object>, V>(future)
       {
-         hits.incrementAndGet();
+         @Override
+         protected V convert(Map<String, Object> values)
+         {
+            if (!namespace.equals(values.get(fullName)))
+            {
+               // The namespace has changed
+               return MCExoCache.this.get(name);
+            }
+            V result = (V)values.get(keyFullName);
+            touch(fullName);
+            if (result != null)
+            {
+               touch(keyFullName);
+            }
+            statistics.recordGet(start, result != null);
+            onGet((K)name, result);
+            return result;
+         }
+      };
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<Map<K, V>> getAllAsync(Collection<? extends K> names)
+   {
+      if (names == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
       }
-      onGet((K)name, result);
-      return result;
+      final long start = System.nanoTime();
+      final String namespace = getLastNamespace();
+      final Map<String, K> keys = new LinkedHashMap<String, K>(names.size());
+      for (K name : names)
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+         keys.put(getKeyFullName(namespace, name), name);
+      }
+      List<String> keyFullNames = new ArrayList<String>(keys.size() + 1);
+      keyFullNames.add(fullName);
+      keyFullNames.addAll(keys.keySet());
+      // The namespace and the values are retrieved in the same round-trip
+      BulkFuture<Map<String, Object>> future = cache.asyncGetBulk(keyFullNames, transcoder);
+      return new FutureAdapter<Map<String, Object>, Map<K, V>>(future)
+      {
+         @Override
+         protected Map<K, V> convert(Map<String, Object> values)
+         {
+            Map<K, V> result = new LinkedHashMap<K, V>(keys.size());
+            if (!namespace.equals(values.get(fullName)))
+            {
+               // The namespace has changed
+               for (K name : keys.values())
+               {
+                  V value = MCExoCache.this.get(name);
+                  if (value != null)
+                  {
+                     result.put(name, value);
+                  }
+               }
+               return result;
+            }
+            touch(fullName);
+            for (Map.Entry<String, K> entry : keys.entrySet())
+            {
+               V value = (V)values.get(entry.getKey());
+               if (value != null)
+               {
+                  touch(entry.getKey());
+                  result.put(entry.getValue(), value);
+               }
+               statistics.recordGet(start, value != null);
+               onGet(entry.getValue(), value);
+            }
+            return result;
+         }
+      };
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Map<K, V> getAll(Collection<? extends K> names)
+   {
+      // The namespace and the values are retrieved within a single multi-get
+      try
+      {
+         return getAllAsync(names).get();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Could not get the values for the keys " + names, e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new RuntimeException("Could not get the values for the keys " + names, e.getCause());
+      }
+   }
+
+   /**
+    * Resets the expiration time of the given key without waiting for the response
+    */
+   private void touch(String keyFullName)
+   {
+      cache.touch(keyFullName, expirationTimeout);
    }
 
    /**
@@ -327,7 +472,7 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
     */
    public int getCacheHit()
    {
-      return hits.get();
+      return CacheStatistics.toInt(statistics.getHits());
    }
 
    /**
@@ -335,7 +480,15 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
     */
    public int getCacheMiss()
    {
-      return misses.get();
+      return CacheStatistics.toInt(statistics.getMisses());
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public CacheStatistics getStatistics()
+   {
+      return statistics;
    }
 
    /**
@@ -411,7 +564,9 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
          // ignore null values
          return;
       }
+      long start = System.nanoTime();
       putOnly(getNamespace(), key, value);
+      statistics.recordPut(start);
       onPut(key, value);
    }
 
@@ -420,7 +575,7 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
     */
    protected void putOnly(String namespace, K key, V value)
    {
-      OperationFuture<Boolean> resp = cache.add(getKeyFullName(namespace, key), expirationTimeout, value);
+      OperationFuture<Boolean> resp = cache.add(getKeyFullName(namespace, key), expirationTimeout, value, transcoder);
       Boolean result;
       try
       {
@@ -433,7 +588,7 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
       if (result == null || !result.booleanValue())
       {
          // The value already exists in the cache so we simply replace it
-         resp = cache.replace(getKeyFullName(namespace, key), expirationTimeout, value);
+         resp = cache.replace(getKeyFullName(namespace, key), expirationTimeout, value, transcoder);
          try
          {
             result = resp.get();
@@ -455,6 +610,25 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
       }
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   public Future<Void> putAsync(final K key, final V value) throws IllegalArgumentException
+   {
+      if (key == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      else if (value == null)
+      {
+         // ignore null values
+         return CompletedFuture.success(null);
+      }
+      AsyncPut put = new AsyncPut(key, value);
+      put.start(getLastNamespace());
+      return put;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -476,7 +650,9 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
          String namespace = getNamespace();
          for (Map.Entry<? extends K, ? extends V> entry : objs.entrySet())
          {
+            long start = System.nanoTime();
             putOnly(namespace, entry.getKey(), entry.getValue());
+            statistics.recordPut(start);
             onPut(entry.getKey(), entry.getValue());
          }
       }
@@ -497,7 +673,7 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
          throw new IllegalArgumentException("No null cache key accepted");
       }
       String namespace = getNamespace();
-      V value = (V)cache.get(getKeyFullName(namespace, name));
+      V value = (V)cache.get(getKeyFullName(namespace, name), transcoder);
       OperationFuture<Boolean> resp = cache.delete(getKeyFullName(namespace, name));
       Boolean result;
       try
@@ -515,11 +691,117 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
             // The value has been removed successfully and the namespace has not been modified during the process
             count.decrementAndGet();
          }
+         statistics.recordRemoval();
          onRemove((K)name, value);
       }
       return value;
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public void removeAll(Collection<? extends K> names) throws IllegalArgumentException
+   {
+      if (names == null)
+      {
+         throw new IllegalArgumentException("No null collection accepted");
+      }
+      for (K name : names)
+      {
+         if (name == null)
+         {
+            throw new IllegalArgumentException("No null cache key accepted");
+         }
+      }
+      String namespace = getNamespace();
+      Map<String, K> keys = new LinkedHashMap<String, K>(names.size());
+      for (K name : names)
+      {
+         keys.put(getKeyFullName(namespace, name), name);
+      }
+      // Both the multi-get and the deletions are sent without waiting, the multi-get is processed first
+      BulkFuture<Map<String, Object>> values = cache.asyncGetBulk(keys.keySet(), transcoder);
+      Map<String, OperationFuture<Boolean>> resps = new LinkedHashMap<String, OperationFuture<Boolean>>(keys.size());
+      for (String keyFullName : keys.keySet())
+      {
+         resps.put(keyFullName, cache.delete(keyFullName));
+      }
+      Map<String, Object> previous;
+      try
+      {
+         previous = values.get();
+      }
+      catch (Exception e)
+      {
+         throw new RuntimeException("Could not remove the values for the keys " + names, e);
+      }
+      for (Map.Entry<String, OperationFuture<Boolean>> entry : resps.entrySet())
+      {
+         Boolean result;
+         try
+         {
+            result = entry.getValue().get();
+         }
+         catch (Exception e)
+         {
+            throw new RuntimeException("Could not remove the value for the key " + keys.get(entry.getKey()), e);
+         }
+         if (result != null && result.booleanValue())
+         {
+            if (namespace.equals(lastNamespace.get()))
+            {
+               // The value has been removed successfully and the namespace has not been modified during the process
+               count.decrementAndGet();
+            }
+            statistics.recordRemoval();
+            onRemove(keys.get(entry.getKey()), (V)previous.get(entry.getKey()));
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public Future<V> removeAsync(final Serializable name) throws IllegalArgumentException
+   {
+      if (name == null)
+      {
+         throw new IllegalArgumentException("No null cache key accepted");
+      }
+      final String namespace = getLastNamespace();
+      final String keyFullName = getKeyFullName(namespace, name);
+      // Both operations are sent without waiting, the namespace and the value are retrieved first
+      final BulkFuture<Map<String, Object>> values = cache.asyncGetBulk(transcoder, fullName, keyFullName);
+      OperationFuture<Boolean> future = cache.delete(keyFullName);
+      return new FutureAdapter<Boolean, V>(future)
+      {
+         @Override
+         protected V convert(Boolean result) throws Exception
+         {
+            Map<String, Object> current = values.get();
+            if (!namespace.equals(current.get(fullName)))
+            {
+               // The namespace has changed so the value has been removed from a dead namespace
+               return MCExoCache.this.remove(name);
+            }
+            V previous = (V)current.get(keyFullName);
+            if (result != null && result.booleanValue())
+            {
+               if (namespace.equals(lastNamespace.get()))
+               {
+                  // The value has been removed successfully and the namespace has not been modified during the process
+                  count.decrementAndGet();
+               }
+               statistics.recordRemoval();
+               onRemove((K)name, previous);
+            }
+            return previous;
+         }
+      };
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -568,6 +850,7 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
    public void setName(String name)
    {
       this.name = name;
+      statistics.setCacheName(name);
    }
 
    /**
@@ -787,4 +1070,133 @@ public class MCExoCache<K extends Serializable, V> implements ExoCache<K, V>
    {
       return expirationTimeout;
    }
+
+   /**
+    * An asynchronous put, all its steps are executed by the completion listeners of the
+    * memcached operations so that the value is stored even if {@link Future#get()} is never called
+    */
+   private class AsyncPut extends FutureTask<Void>
+   {
+      private final K key;
+
+      private final V value;
+
+      private final long start = System.nanoTime();
+
+      AsyncPut(K key, V value)
+      {
+         super(NO_OP, null);
+         this.key = key;
+         this.value = value;
+      }
+
+      /**
+       * Adds the value to the given namespace and overwrites it if it already exists
+       */
+      void start(final String namespace)
+      {
+         // Both operations are sent without waiting, the namespace is checked once the value has been stored
+         final GetFuture<Object> currentNamespace = cache.asyncGet(fullName, transcoder);
+         final String keyFullName = getKeyFullName(namespace, key);
+         cache.add(keyFullName, expirationTimeout, value, transcoder).addListener(new OperationCompletionListener()
+         {
+            public void onComplete(OperationFuture<?> future) throws Exception
+            {
+               try
+               {
+                  if (Boolean.TRUE.equals(future.get()))
+                  {
+                     if (namespace.equals(lastNamespace.get()))
+                     {
+                        // A new value has been added and the namespace has not been modified during the process
+                        count.incrementAndGet();
+                     }
+                     checkNamespace(namespace, currentNamespace);
+                     return;
+                  }
+                  // The value already exists in the cache so we overwrite it
+                  cache.set(keyFullName, expirationTimeout, value, transcoder).addListener(
+                     new OperationCompletionListener()
+                     {
+                        public void onComplete(OperationFuture<?> future) throws Exception
+                        {
+                           try
+                           {
+                              if (Boolean.TRUE.equals(future.get()))
+                              {
+                                 checkNamespace(namespace, currentNamespace);
+                              }
+                              else
+                              {
+                                 setException(new RuntimeException("Could not set the value of the key " + key));
+                              }
+                           }
+                           catch (Exception e)
+                           {
+                              setException(e);
+                           }
+                        }
+                     });
+               }
+               catch (Exception e)
+               {
+                  setException(e);
+               }
+            }
+         });
+      }
+
+      /**
+       * Checks that the value has not been stored in a dead namespace, if so it is stored once again
+       * in the current namespace
+       */
+      private void checkNamespace(final String namespace, GetFuture<Object> currentNamespace)
+      {
+         currentNamespace.addListener(new GetCompletionListener()
+         {
+            public void onComplete(GetFuture<?> future) throws Exception
+            {
+               try
+               {
+                  Object current = future.get();
+                  if (current == null || namespace.equals(current))
+                  {
+                     // Without namespace, the next access will start with an empty cache so the value is
+                     // simply dropped
+                     done();
+                     return;
+                  }
+                  // The namespace has changed so the value has been stored in a dead namespace
+                  cache.set(getKeyFullName((String)current, key), expirationTimeout, value, transcoder).addListener(
+                     new OperationCompletionListener()
+                     {
+                        public void onComplete(OperationFuture<?> future) throws Exception
+                        {
+                           try
+                           {
+                              future.get();
+                              done();
+                           }
+                           catch (Exception e)
+                           {
+                              setException(e);
+                           }
+                        }
+                     });
+               }
+               catch (Exception e)
+               {
+                  setException(e);
+               }
+            }
+         });
+      }
+
+      private void done()
+      {
+         statistics.recordPut(start);
+         onPut(key, value);
+         set(null);
+      }
+   }
 }
@@ -29,6 +29,22 @@ public class MCExoCacheConfig extends org.exoplatform.services.cache.ExoCacheCon
 
    private long expirationTimeout;
 
+   /**
+    * The FQN of the {@link KeyCodec} to use, the {@link DefaultKeyCodec} is used by default
+    */
+   private String keyCodec;
+
+   /**
+    * The FQN of the {@link ValueCodec} to use, the {@link DefaultValueCodec} is used by default
+    */
+   private String valueCodec;
+
+   /**
+    * The minimum size in bytes of an encoded value to try to compress it, the compression is
+    * disabled if the value is <= 0 which is the default value
+    */
+   private int compressionThreshold;
+
    public long getExpirationTimeout()
    {
       return expirationTimeout;
@@ -38,4 +54,34 @@ public class MCExoCacheConfig extends org.exoplatform.services.cache.ExoCacheCon
    {
       this.expirationTimeout = expirationTimeout;
    }
+
+   public String getKeyCodec()
+   {
+      return keyCodec;
+   }
+
+   public void setKeyCodec(String keyCodec)
+   {
+      this.keyCodec = keyCodec;
+   }
+
+   public String getValueCodec()
+   {
+      return valueCodec;
+   }
+
+   public void setValueCodec(String valueCodec)
+   {
+      this.valueCodec = valueCodec;
+   }
+
+   public int getCompressionThreshold()
+   {
+      return compressionThreshold;
+   }
+
+   public void setCompressionThreshold(int compressionThreshold)
+   {
+      this.compressionThreshold = compressionThreshold;
+   }
 }
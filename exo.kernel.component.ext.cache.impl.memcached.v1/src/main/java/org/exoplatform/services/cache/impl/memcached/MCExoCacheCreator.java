@@ -18,6 +18,7 @@ package org.exoplatform.services.cache.impl.memcached;
 
 import net.spy.memcached.MemcachedClient;
 
+import org.exoplatform.commons.utils.ClassLoading;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.cache.ExoCacheConfig;
@@ -54,7 +55,14 @@ public class MCExoCacheCreator
       if (config instanceof MCExoCacheConfig)
       {
          final MCExoCacheConfig eaConfig = (MCExoCacheConfig)config;
-         return create(ctx, config, cache, eaConfig.getExpirationTimeout());
+         KeyCodec keyCodec =
+            eaConfig.getKeyCodec() == null ? new DefaultKeyCodec() : createInstance(eaConfig.getKeyCodec(),
+               KeyCodec.class);
+         ValueCodec valueCodec =
+            eaConfig.getValueCodec() == null ? new DefaultValueCodec() : createInstance(eaConfig.getValueCodec(),
+               ValueCodec.class);
+         return new MCExoCache<Serializable, Object>(ctx, config, cache, eaConfig.getExpirationTimeout(), keyCodec,
+            valueCodec, eaConfig.getCompressionThreshold());
       }
       else
       {
@@ -71,4 +79,40 @@ public class MCExoCacheCreator
    {
       return new MCExoCache<Serializable, Object>(ctx, config, cache, expirationTimeout);
    }
+
+   /**
+    * Create a new instance of the given class that is used to configure a cache
+    * @param className the full qualified name of the class
+    * @param type the type of the expected instance
+    * @return a new instance of the given class
+    * @throws ExoCacheInitException if any exception happens while creating the instance
+    */
+   private <T> T createInstance(String className, Class<T> type) throws ExoCacheInitException
+   {
+      try
+      {
+         final Class<?> clazz = ClassLoading.loadClass(className, this);
+         return type.cast(clazz.newInstance());
+      }
+      catch (ClassNotFoundException e)
+      {
+         throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+            + className, e);
+      }
+      catch (InstantiationException e)
+      {
+         throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+            + className, e);
+      }
+      catch (IllegalAccessException e)
+      {
+         throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+            + className, e);
+      }
+      catch (ClassCastException e)
+      {
+         throw new ExoCacheInitException("Cannot create instance of " + type.getSimpleName() + " of type "
+            + className, e);
+      }
+   }
 }
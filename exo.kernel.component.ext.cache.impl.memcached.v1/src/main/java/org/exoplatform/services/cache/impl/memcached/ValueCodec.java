@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.impl.memcached;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts the values of an {@link MCExoCache} into the bytes stored into memcached
+ * and back. The encoder writes into an {@link OutputStream} so that the caller can
+ * reuse its buffer from one call to another.
+ * 
+ * @version $Id$
+ *
+ * @LevelAPI Experimental
+ */
+public interface ValueCodec
+{
+   /**
+    * Encodes the given value
+    * @param value the value to encode, never <code>null</code>
+    * @param out the stream in which the encoded value must be written
+    * @throws IOException if the value could not be encoded
+    */
+   void encode(Object value, OutputStream out) throws IOException;
+
+   /**
+    * Decodes a value previously encoded with {@link #encode(Object, OutputStream)}
+    * @param in the stream from which the encoded value can be read
+    * @return the decoded value
+    * @throws IOException if the value could not be decoded
+    */
+   Object decode(InputStream in) throws IOException;
+}
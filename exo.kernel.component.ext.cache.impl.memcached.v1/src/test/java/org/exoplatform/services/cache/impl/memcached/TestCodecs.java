@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.services.cache.impl.memcached;
+
+import junit.framework.TestCase;
+
+import net.spy.memcached.CachedData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @version $Id$
+ */
+public class TestCodecs extends TestCase
+{
+
+   public void testKeyCodec() throws Exception
+   {
+      KeyCodec codec = new DefaultKeyCodec();
+      assertEquals("a", codec.encode("a"));
+      assertEquals("", codec.encode(""));
+      assertEquals("~~a", codec.encode("~a"));
+      assertFalse(codec.encode(1).equals(codec.encode("1")));
+      assertFalse(codec.encode(1).equals(codec.encode(1L)));
+      assertFalse(codec.encode(true).equals(codec.encode("true")));
+      assertEquals(codec.encode(1), codec.encode(1));
+      String key = codec.encode(new ArrayList<String>(Arrays.asList("a", "b")));
+      assertTrue(key.startsWith("~O"));
+      assertEquals(key, codec.encode(new ArrayList<String>(Arrays.asList("a", "b"))));
+      assertFalse(key.equals(codec.encode(new ArrayList<String>(Arrays.asList("a", "c")))));
+      for (char c : key.toCharArray())
+      {
+         assertFalse(Character.isWhitespace(c));
+      }
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < DefaultKeyCodec.MAX_KEY_LENGTH; i++)
+      {
+         sb.append('a');
+      }
+      assertEquals(sb.toString(), codec.encode(sb.toString()));
+      String longKey = codec.encode(sb.toString() + "a");
+      assertTrue(longKey.startsWith("~H"));
+      assertTrue(longKey.length() < DefaultKeyCodec.MAX_KEY_LENGTH);
+      assertFalse(longKey.equals(codec.encode(sb.toString() + "b")));
+      // Non ASCII characters are counted with their UTF-8 length
+      sb.setLength(DefaultKeyCodec.MAX_KEY_LENGTH / 2 + 1);
+      assertEquals(DefaultKeyCodec.MAX_KEY_LENGTH / 2 + 1, sb.length());
+      assertTrue(codec.encode(sb.toString().replace('a', '\u00e9')).startsWith("~H"));
+   }
+
+   public void testValueCodec() throws Exception
+   {
+      ValueCodec codec = new DefaultValueCodec();
+      Object[] values =
+         {"foo", "", "\u00e9t\u00e9", 1, Long.MAX_VALUE, true, (byte)2, (short)3, 'c', 1.5f, 2.5d,
+            new MyExternalizable("bar", 4), new HashMap<String, Integer>()};
+      for (Object value : values)
+      {
+         assertEquals(value, decode(codec, encode(codec, value)));
+      }
+      byte[] bytes = {1, 2, 3};
+      assertTrue(Arrays.equals(bytes, (byte[])decode(codec, encode(codec, bytes))));
+      assertEquals(5, encode(codec, 1).length);
+      assertEquals(4, encode(codec, "foo").length);
+      // The Externalizable values are much smaller than with the Java serialization
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutputStream oos = new ObjectOutputStream(baos);
+      oos.writeObject(new MyExternalizable("bar", 4));
+      oos.close();
+      assertTrue(encode(codec, new MyExternalizable("bar", 4)).length < baos.size());
+      Map<String, Integer> map = new HashMap<String, Integer>();
+      map.put("a", 1);
+      assertEquals(map, decode(codec, encode(codec, map)));
+   }
+
+   public void testTranscoder() throws Exception
+   {
+      CodecTranscoder transcoder = new CodecTranscoder(new DefaultValueCodec(), 100);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 1000; i++)
+      {
+         sb.append("value");
+      }
+      String value = sb.toString();
+      CachedData data = transcoder.encode(value);
+      assertTrue((data.getFlags() & CodecTranscoder.COMPRESSED) != 0);
+      assertTrue(data.getData().length < value.length());
+      assertTrue(transcoder.asyncDecode(data));
+      assertEquals(value, transcoder.decode(data));
+      // Too small to be compressed
+      data = transcoder.encode("small");
+      assertEquals(CodecTranscoder.ENCODED, data.getFlags());
+      assertFalse(transcoder.asyncDecode(data));
+      assertEquals("small", transcoder.decode(data));
+      // The buffer is reused
+      assertEquals(5, transcoder.decode(transcoder.encode(5)));
+      // Not compressible
+      byte[] random = new byte[1000];
+      new Random(0).nextBytes(random);
+      data = transcoder.encode(random);
+      assertEquals(CodecTranscoder.ENCODED, data.getFlags());
+      assertTrue(Arrays.equals(random, (byte[])transcoder.decode(data)));
+      // Compression disabled
+      transcoder = new CodecTranscoder(new DefaultValueCodec(), 0);
+      data = transcoder.encode(value);
+      assertEquals(CodecTranscoder.ENCODED, data.getFlags());
+      assertEquals(value, transcoder.decode(data));
+      // The values stored by the default transcoder can still be read
+      assertEquals("legacy", transcoder.decode(new CachedData(0, "legacy".getBytes("UTF-8"), transcoder.getMaxSize())));
+   }
+
+   private static byte[] encode(ValueCodec codec, Object value) throws IOException
+   {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      codec.encode(value, out);
+      return out.toByteArray();
+   }
+
+   private static Object decode(ValueCodec codec, byte[] data) throws IOException
+   {
+      return codec.decode(new ByteArrayInputStream(data));
+   }
+
+   public static class MyExternalizable implements Externalizable
+   {
+      private String name;
+
+      private int value;
+
+      public MyExternalizable()
+      {
+      }
+
+      MyExternalizable(String name, int value)
+      {
+         this.name = name;
+         this.value = value;
+      }
+
+      public void writeExternal(ObjectOutput out) throws IOException
+      {
+         out.writeUTF(name);
+         out.writeInt(value);
+      }
+
+      public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+      {
+         name = in.readUTF();
+         value = in.readInt();
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (!(o instanceof MyExternalizable))
+         {
+            return false;
+         }
+         MyExternalizable other = (MyExternalizable)o;
+         return name.equals(other.name) && value == other.value;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return name.hashCode() + value;
+      }
+   }
+}
@@ -31,6 +31,7 @@ import org.exoplatform.services.cache.ObjectCacheInfo;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -95,6 +96,28 @@ public class TestMCExoCache extends TestCase
       assertEquals(4, cache.getCacheSize());
    }
 
+   public void testPutAsync() throws Exception
+   {
+      cache.put(new MyKey("a"), "a");
+      assertEquals(1, listener.put);
+
+      // The result is never requested
+      cache.putAsync(new MyKey("a"), "b");
+      for (int i = 0; i < 100 && !"b".equals(cache.get(new MyKey("a"))); i++)
+      {
+         Thread.sleep(20);
+      }
+      assertEquals("b", cache.get(new MyKey("a")));
+      assertEquals(1, cache.getCacheSize());
+
+      cache.putAsync(new MyKey("a"), "c").get();
+      assertEquals("c", cache.get(new MyKey("a")));
+      cache.putAsync(new MyKey("b"), "b").get();
+      assertEquals("b", cache.get(new MyKey("b")));
+      assertEquals(2, cache.getCacheSize());
+      assertEquals(4, listener.put);
+   }
+
    public void testClearCache() throws Exception
    {
       cache.put(new MyKey("a"), "a");
@@ -146,6 +169,20 @@ public class TestMCExoCache extends TestCase
       assertEquals(1, cache.getCacheSize());
    }
 
+   public void testRemoveAll() throws Exception
+   {
+      cache.put(new MyKey("a"), 1);
+      cache.put(new MyKey("b"), 2);
+      cache.put(new MyKey("c"), 3);
+      long removals = cache.getStatistics().getRemovals();
+      cache.removeAll(Arrays.<Serializable> asList(new MyKey("a"), new MyKey("b"), new MyKey("x")));
+      assertEquals(1, cache.getCacheSize());
+      assertEquals(2, listener.remove);
+      // One removal per deleted value
+      assertEquals(removals + 2, cache.getStatistics().getRemovals());
+      assertEquals(3, cache.get(new MyKey("c")));
+   }
+
    public void testPutMap() throws Exception
    {
       Map<Serializable, Object> values = new HashMap<Serializable, Object>();
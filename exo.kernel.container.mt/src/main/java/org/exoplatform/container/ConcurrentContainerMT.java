@@ -18,13 +18,17 @@
  */
 package org.exoplatform.container;
 
+import org.exoplatform.commons.utils.ClassLoading;
 import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.commons.utils.SecurityHelper;
+import org.exoplatform.container.configuration.ConfigurationManager;
 import org.exoplatform.container.management.ManageableComponentAdapterFactoryMT;
 import org.exoplatform.container.spi.ComponentAdapter;
 import org.exoplatform.container.spi.ComponentAdapterFactory;
 import org.exoplatform.container.spi.ContainerException;
 import org.exoplatform.container.util.ContainerUtil;
+import org.exoplatform.container.xml.Component;
+import org.exoplatform.container.xml.ExternalComponentPlugins;
 import org.exoplatform.container.xml.InitParams;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
@@ -50,19 +54,15 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RunnableFuture;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -84,7 +84,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
 
    private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.mt.ConcurrentContainerMT");
 
-   private static volatile transient ThreadPoolExecutor EXECUTOR;
+   private static volatile transient KernelExecutor EXECUTOR;
 
    private final transient ThreadLocal<ComponentTaskContext> currentCtx = new ThreadLocal<ComponentTaskContext>();
 
@@ -95,11 +95,25 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
       new ConcurrentHashMap<Object, CreationalContextComponentAdapter<?>>();
 
    /**
-    * The name of the system parameter to indicate the total amount of threads to use for the kernel
+    * The locks used to start each component only once. Locks are used instead of monitors so that
+    * the virtual threads are not pinned to their carrier thread while a component starts.
+    */
+   private final transient ConcurrentMap<ComponentAdapter<?>, Lock> startLocks =
+      new ConcurrentHashMap<ComponentAdapter<?>, Lock>();
+
+   /**
+    * The name of the system parameter to indicate the total amount of threads to use for the kernel, more
+    * generally the parallelism of the {@link KernelExecutor}
     */
    public static final String THREAD_POOL_SIZE_PARAM_NAME = "org.exoplatform.container.mt.tps";
 
-   private static ThreadPoolExecutor getExecutor()
+   /**
+    * The name of the system parameter to indicate the name of the {@link KernelExecutorStrategy} to use,
+    * by default it is {@link PlatformThreadExecutorStrategy#NAME}
+    */
+   public static final String EXECUTOR_STRATEGY_PARAM_NAME = "org.exoplatform.container.mt.executor";
+
+   private static KernelExecutor getExecutor()
    {
       if (EXECUTOR == null && Mode.hasMode(Mode.MULTI_THREADED))
       {
@@ -107,6 +121,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
          {
             if (EXECUTOR == null)
             {
+               KernelExecutorStrategy strategy = getExecutorStrategy();
                String sValue = PropertyManager.getProperty(THREAD_POOL_SIZE_PARAM_NAME);
                int threadPoolSize;
                if (sValue != null)
@@ -116,16 +131,47 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
                }
                else
                {
-                  threadPoolSize = Math.min(2 * Runtime.getRuntime().availableProcessors(), 30);
+                  threadPoolSize = strategy.getDefaultParallelism();
                }
                LOG.debug("The size of the thread pool used by the kernel has been set to " + threadPoolSize);
-               EXECUTOR = new KernelThreadPoolExecutor(threadPoolSize);
+               EXECUTOR = strategy.createExecutor(threadPoolSize);
             }
          }
       }
       return EXECUTOR;
    }
 
+   /**
+    * Gives the {@link KernelExecutorStrategy} whose name has been set thanks to the system property
+    * {@link #EXECUTOR_STRATEGY_PARAM_NAME}, if it cannot be found or is not supported the default
+    * strategy is used
+    */
+   static KernelExecutorStrategy getExecutorStrategy()
+   {
+      String name = PropertyManager.getProperty(EXECUTOR_STRATEGY_PARAM_NAME);
+      if (name != null && !(name = name.trim()).isEmpty() && !name.equals(PlatformThreadExecutorStrategy.NAME))
+      {
+         ServiceLoader<KernelExecutorStrategy> loader = ServiceLoader.load(KernelExecutorStrategy.class);
+         for (Iterator<KernelExecutorStrategy> it = loader.iterator(); it.hasNext();)
+         {
+            KernelExecutorStrategy strategy = it.next();
+            if (name.equals(strategy.getName()))
+            {
+               if (strategy.isSupported())
+               {
+                  LOG.debug("The executor strategy used by the kernel is '" + name + "'");
+                  return strategy;
+               }
+               LOG.warn("The executor strategy '" + name + "' is not supported in this environment, the default "
+                  + "executor strategy will be used");
+               return new PlatformThreadExecutorStrategy();
+            }
+         }
+         LOG.warn("The executor strategy '" + name + "' cannot be found, the default executor strategy will be used");
+      }
+      return new PlatformThreadExecutorStrategy();
+   }
+
    /**
     * Creates a new container with the default {@link ComponentAdapterFactory} and a parent container.
     */
@@ -233,14 +279,14 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
       final Map<ComponentAdapter<T>, Object> adapterToInstanceMap =
          enableMultiThreading ? new ConcurrentHashMap<ComponentAdapter<T>, Object>()
             : new HashMap<ComponentAdapter<T>, Object>();
-      ThreadPoolExecutor executor = enableMultiThreading ? getExecutor() : null;
+      KernelExecutor executor = enableMultiThreading ? getExecutor() : null;
       if (enableMultiThreading && executor == null)
       {
          enableMultiThreading = false;
       }
       for (final ComponentAdapter<T> adapter : adapters)
       {
-         if (enableMultiThreading && LockManager.getInstance().getTotalUncompletedTasks() < executor.getCorePoolSize()
+         if (enableMultiThreading && LockManager.getInstance().getTotalUncompletedTasks() < executor.getParallelism()
             && !(adapter instanceof InstanceComponentAdapter))
          {
             final ExoContainer container = ExoContainerContext.getCurrentContainerIfPresent();
@@ -346,15 +392,34 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
    {
       // First we get the context manager to prevent deadlock
       holder.getContextManager();
-      // Then, create and initialize the components
-      getComponentInstancesOfType(Startable.class);
-      Object startables = getComponentAdaptersOfType(Startable.class);
-      @SuppressWarnings("unchecked")
-      List<ComponentAdapter<?>> adapters = (List<ComponentAdapter<?>>)startables;
       final Map<ComponentAdapter<?>, Object> alreadyStarted = new ConcurrentHashMap<ComponentAdapter<?>, Object>();
       final AtomicReference<Exception> error = new AtomicReference<Exception>();
-      // We first start all the non containers
-      start(adapters, alreadyStarted, new HashSet<ComponentAdapter<?>>(), error, true);
+      KernelExecutor executor = Mode.hasMode(Mode.GRAPH_SCHEDULING) ? getExecutor() : null;
+      try
+      {
+         if (executor != null)
+         {
+            // Then, create, initialize and start the components according to their dependency graph
+            Object startables = getComponentAdaptersOfType(Startable.class);
+            @SuppressWarnings("unchecked")
+            List<ComponentAdapter<?>> adapters = (List<ComponentAdapter<?>>)startables;
+            start(adapters, alreadyStarted, error, executor);
+         }
+         else
+         {
+            // Then, create and initialize the components
+            getComponentInstancesOfType(Startable.class);
+         }
+         Object startables = getComponentAdaptersOfType(Startable.class);
+         @SuppressWarnings("unchecked")
+         List<ComponentAdapter<?>> adapters = (List<ComponentAdapter<?>>)startables;
+         // We first start all the non containers
+         start(adapters, alreadyStarted, new HashSet<ComponentAdapter<?>>(), error, true);
+      }
+      finally
+      {
+         startLocks.clear();
+      }
       if (error.get() != null)
       {
          throw new RuntimeException("Could not start the container", error.get());
@@ -367,6 +432,74 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
       }
    }
 
+   /**
+    * Creates, initializes and starts the provided adapters and their dependencies using a
+    * {@link StartupScheduler}
+    */
+   private void start(Collection<ComponentAdapter<?>> adapters, final Map<ComponentAdapter<?>, Object> alreadyStarted,
+      final AtomicReference<Exception> error, KernelExecutor executor)
+   {
+      List<ComponentAdapter<?>> nonContainers = new ArrayList<ComponentAdapter<?>>(adapters.size());
+      for (ComponentAdapter<?> adapter : adapters)
+      {
+         if (!ExoContainer.class.isAssignableFrom(adapter.getComponentImplementation()))
+         {
+            nonContainers.add(adapter);
+         }
+      }
+      StartupScheduler scheduler = new StartupScheduler(this, nonContainers);
+      Throwable t = scheduler.execute(StartupScheduler.CREATE, new StartupScheduler.Task()
+      {
+         @SuppressWarnings("unchecked")
+         public void execute(ComponentAdapter<?> adapter)
+         {
+            if (adapter.isSingleton() || Startable.class.isAssignableFrom(adapter.getComponentImplementation()))
+            {
+               getInstance((ComponentAdapter<Object>)adapter, Object.class, false);
+            }
+         }
+      }, executor);
+      rethrow(t);
+      t = scheduler.execute(StartupScheduler.START, new StartupScheduler.Task()
+      {
+         public void execute(ComponentAdapter<?> adapter)
+         {
+            // The dependencies have already been started, the error of this component is tracked apart
+            // so that the failure of another component cannot be reported as a failure of this one
+            AtomicReference<Exception> componentError = new AtomicReference<Exception>();
+            start(Collections.<ComponentAdapter<?>> singletonList(adapter), alreadyStarted,
+               new HashSet<ComponentAdapter<?>>(), componentError, true);
+            Exception e = componentError.get();
+            if (e != null)
+            {
+               error.compareAndSet(null, e);
+               throw new RuntimeException("Could not start the component " + adapter.getComponentKey(), e);
+            }
+         }
+      }, executor);
+      rethrow(t);
+      scheduler.logCriticalPath(holder.getContext().getName());
+   }
+
+   /**
+    * Throws the given error of a {@link StartupScheduler} if any
+    */
+   private static void rethrow(Throwable t)
+   {
+      if (t instanceof RuntimeException)
+      {
+         throw (RuntimeException)t;
+      }
+      else if (t instanceof Error)
+      {
+         throw (Error)t;
+      }
+      else if (t != null)
+      {
+         throw new RuntimeException(t);
+      }
+   }
+
    /**
     * Starts all the provided adapters
     */
@@ -378,7 +511,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
          return;
       boolean enableMultiThreading = Mode.hasMode(Mode.MULTI_THREADED) && adapters.size() > 1;
       List<Future<?>> submittedTasks = null;
-      ThreadPoolExecutor executor = enableMultiThreading ? getExecutor() : null;
+      KernelExecutor executor = enableMultiThreading ? getExecutor() : null;
       if (enableMultiThreading && executor == null)
       {
          enableMultiThreading = false;
@@ -397,7 +530,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
             // The component has already been started or is in progress
             continue;
          }
-         if (enableMultiThreading && LockManager.getInstance().getTotalUncompletedTasks() < executor.getCorePoolSize()
+         if (enableMultiThreading && LockManager.getInstance().getTotalUncompletedTasks() < executor.getParallelism()
             && !(adapter instanceof InstanceComponentAdapter))
          {
             final ExoContainer container = ExoContainerContext.getCurrentContainerIfPresent();
@@ -441,7 +574,9 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
                               // The component has already been started
                               return null;
                            }
-                           synchronized (adapter)
+                           Lock lock = getStartLock(adapter);
+                           lock.lock();
+                           try
                            {
                               if (alreadyStarted.containsKey(adapter))
                               {
@@ -451,13 +586,20 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
                               try
                               {
                                  Startable startable = (Startable)adapter.getComponentInstance();
+                                 long begin = StartupProfiler.begin();
                                  startable.start();
+                                 StartupProfiler.end(getHolder(), adapter.getComponentImplementation(),
+                                    StartupProfiler.Phase.START, null, begin);
                               }
                               finally
                               {
                                  alreadyStarted.put(adapter, adapter);
                               }
                            }
+                           finally
+                           {
+                              lock.unlock();
+                           }
                         }
                         catch (Exception e)
                         {
@@ -496,7 +638,9 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
                // The component has already been started
                continue;
             }
-            synchronized (adapter)
+            Lock lock = getStartLock(adapter);
+            lock.lock();
+            try
             {
                if (alreadyStarted.containsKey(adapter))
                {
@@ -506,7 +650,10 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
                try
                {
                   Startable startable = (Startable)adapter.getComponentInstance();
+                  long begin = StartupProfiler.begin();
                   startable.start();
+                  StartupProfiler.end(getHolder(), adapter.getComponentImplementation(), StartupProfiler.Phase.START,
+                     null, begin);
                }
                catch (Exception e)
                {
@@ -517,6 +664,10 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
                   alreadyStarted.put(adapter, adapter);
                }
             }
+            finally
+            {
+               lock.unlock();
+            }
          }
       }
       if (submittedTasks != null)
@@ -545,6 +696,24 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
       }
    }
 
+   /**
+    * Gives the lock to acquire to start the given component
+    */
+   private Lock getStartLock(ComponentAdapter<?> adapter)
+   {
+      Lock lock = startLocks.get(adapter);
+      if (lock == null)
+      {
+         Lock newLock = new ReentrantLock();
+         lock = startLocks.putIfAbsent(adapter, newLock);
+         if (lock == null)
+         {
+            lock = newLock;
+         }
+      }
+      return lock;
+   }
+
    private Collection<ComponentAdapter<?>> getDependencies(Collection<Dependency> dependencies, boolean withLazy,
       boolean withNonLazy)
    {
@@ -556,7 +725,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
          if ((dep.isLazy() && !withLazy) || (!dep.isLazy() && !withNonLazy))
             continue;
          ComponentAdapter<?> adapter = dep.getAdapter(holder);
-         boolean isLocal = componentAdapters.contains(adapter);
+         boolean isLocal = isLocal(adapter);
          if (!isLocal)
          {
             // To prevent infinite loop we assume that component adapters of
@@ -568,6 +737,108 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
       return result;
    }
 
+   /**
+    * Gives the local components on which the given component depends as far as it can be known
+    * without creating it: the parameters of its constructor, its injected fields and methods and the
+    * parameters of the constructors of its plugins. The lazy dependencies, such as the providers, are ignored
+    */
+   Collection<ComponentAdapter<?>> getStartupDependencies(ComponentAdapter<?> adapter)
+   {
+      if (adapter instanceof InstanceComponentAdapter)
+      {
+         return Collections.emptyList();
+      }
+      Collection<Dependency> dependencies = null;
+      if (adapter instanceof ComponentAdapterDependenciesAware)
+      {
+         ComponentAdapterDependenciesAware<?> cada = (ComponentAdapterDependenciesAware<?>)adapter;
+         if (cada.getCreateDependencies() != null && cada.getInitDependencies() != null)
+         {
+            // The component has already been created so its dependencies are known
+            dependencies = new LinkedHashSet<Dependency>(cada.getCreateDependencies());
+            dependencies.addAll(cada.getInitDependencies());
+         }
+      }
+      if (dependencies == null)
+      {
+         dependencies = resolveDependencies(adapter);
+      }
+      // The lazy dependencies are not needed to create or to start the component
+      Collection<ComponentAdapter<?>> result = getDependencies(dependencies, false, true);
+      if (result == null)
+      {
+         return Collections.emptyList();
+      }
+      return result;
+   }
+
+   /**
+    * Deduces the dependencies of the given component from its class and its configuration, the errors
+    * are ignored as they will be reported when the component is created
+    */
+   private Collection<Dependency> resolveDependencies(ComponentAdapter<?> adapter)
+   {
+      Class<?> clazz = adapter.getComponentImplementation();
+      Collection<Dependency> dependencies = new LinkedHashSet<Dependency>();
+      List<Dependency> lDependencies = new ArrayList<Dependency>();
+      try
+      {
+         getConstructor(clazz, lDependencies);
+         dependencies.addAll(lDependencies);
+      }
+      catch (Exception e)
+      {
+         LOG.debug("Could not find the constructor of " + clazz.getName(), e);
+      }
+      lDependencies.clear();
+      try
+      {
+         initializeComponent(clazz, lDependencies, new ArrayList<ComponentTask<Void>>(), null);
+         dependencies.addAll(lDependencies);
+      }
+      catch (RuntimeException e)
+      {
+         LOG.debug("Could not find the injected dependencies of " + clazz.getName(), e);
+      }
+      ConfigurationManager manager = holder.getComponentInstanceOfType(ConfigurationManager.class);
+      if (manager != null)
+      {
+         Object key = adapter.getComponentKey();
+         String componentKey = key instanceof String ? (String)key : ((Class<?>)key).getName();
+         Component component = manager.getComponent(componentKey);
+         if (component != null)
+         {
+            addPluginDependencies(adapter, component.getComponentPlugins(), dependencies);
+         }
+         ExternalComponentPlugins ecplugins = manager.getConfiguration().getExternalComponentPlugins(componentKey);
+         if (ecplugins != null)
+         {
+            addPluginDependencies(adapter, ecplugins.getComponentPlugins(), dependencies);
+         }
+      }
+      return dependencies;
+   }
+
+   private void addPluginDependencies(ComponentAdapter<?> adapter,
+      List<org.exoplatform.container.xml.ComponentPlugin> plugins, Collection<Dependency> dependencies)
+   {
+      if (plugins == null)
+         return;
+      for (org.exoplatform.container.xml.ComponentPlugin plugin : plugins)
+      {
+         try
+         {
+            List<Dependency> lDependencies = new ArrayList<Dependency>();
+            getConstructor(ClassLoading.forName(plugin.getType(), adapter), lDependencies);
+            dependencies.addAll(lDependencies);
+         }
+         catch (Exception e)
+         {
+            LOG.debug("Could not find the constructor of the plugin " + plugin.getName(), e);
+         }
+      }
+   }
+
    @SuppressWarnings("unchecked")
    public <T> Constructor<T> getConstructor(Class<T> clazz, List<Dependency> dependencies) throws Exception
    {
@@ -988,7 +1259,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
          return;
       List<Future<?>> submittedTasks = null;
       boolean enableMultiThreading = Mode.hasMode(Mode.MULTI_THREADED) && dependencies.size() > 1;
-      ThreadPoolExecutor executor = enableMultiThreading ? getExecutor() : null;
+      KernelExecutor executor = enableMultiThreading ? getExecutor() : null;
       if (enableMultiThreading && executor == null)
       {
          enableMultiThreading = false;
@@ -1000,7 +1271,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
             // Prevent infinite loop
             continue;
          }
-         if (enableMultiThreading && LockManager.getInstance().getTotalUncompletedTasks() < executor.getCorePoolSize()
+         if (enableMultiThreading && LockManager.getInstance().getTotalUncompletedTasks() < executor.getParallelism()
             && !(dependency.getAdapter(holder) instanceof InstanceComponentAdapter))
          {
             final ExoContainer container = ExoContainerContext.getCurrentContainerIfPresent();
@@ -1171,7 +1442,7 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
          synchronized (ConcurrentContainerMT.class)
          {
             // Both modes could be removed so we can shutdown the executor
-            ThreadPoolExecutor executor = EXECUTOR;
+            KernelExecutor executor = EXECUTOR;
             if (executor != null && !executor.isShutdown())
             {
                executor.shutdown();
@@ -1221,73 +1492,4 @@ public class ConcurrentContainerMT extends ConcurrentContainer implements TopExo
          }
       }
    }
-
-   private static class KernelThreadFactory implements ThreadFactory
-   {
-      final ThreadGroup group;
-
-      final AtomicInteger threadNumber = new AtomicInteger(1);
-
-      final String namePrefix;
-
-      KernelThreadFactory()
-      {
-         SecurityManager s = System.getSecurityManager();
-         group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
-         namePrefix = "kernel-thread-";
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      public Thread newThread(Runnable r)
-      {
-         Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
-         if (!t.isDaemon())
-            t.setDaemon(true);
-         if (t.getPriority() != Thread.NORM_PRIORITY)
-            t.setPriority(Thread.NORM_PRIORITY);
-         return t;
-      }
-   }
-
-   private static class KernelThreadPoolExecutor extends ThreadPoolExecutor
-   {
-      public KernelThreadPoolExecutor(int threadPoolSize)
-      {
-         super(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
-            new KernelThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value)
-      {
-         return LockManager.getInstance().createRunnableFuture(runnable, value);
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable)
-      {
-         return LockManager.getInstance().createRunnableFuture(callable);
-      }
-
-      /**
-       * {@inheritDoc}
-       */
-      public Future<?> submit(Runnable task)
-      {
-         if (task == null)
-            throw new NullPointerException();
-         RunnableFuture<Object> ftask = newTaskFor(task, null);
-         if (LockManager.getInstance().incrementAndGetTotalUncompletedTasks() <= getCorePoolSize())
-            execute(ftask);
-         else
-            ftask.run();
-         return ftask;
-      }
-   }
 }
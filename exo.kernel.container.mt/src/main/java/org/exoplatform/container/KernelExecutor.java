@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The executor used by the kernel to create, initialize and start the components in parallel when the
+ * mode {@link Mode#MULTI_THREADED} is enabled. The futures of the submitted tasks must be created thanks to
+ * {@link LockManager#createRunnableFuture(Runnable, Object)} or {@link LockManager#createRunnableFuture(java.util.concurrent.Callable)}
+ * to allow the {@link LockManager} to detect the deadlocks and to know the total amount of uncompleted tasks.
+ * A task submitted while the parallelism has been reached must be executed by the calling thread.
+ *
+ * @version $Id$
+ */
+public interface KernelExecutor extends ExecutorService
+{
+   /**
+    * Gives the maximum amount of tasks that the kernel can execute in parallel, beyond this limit
+    * the kernel executes the tasks in the calling thread
+    */
+   int getParallelism();
+}
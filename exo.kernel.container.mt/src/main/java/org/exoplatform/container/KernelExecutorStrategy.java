@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import java.util.ServiceLoader;
+
+/**
+ * Defines the way the {@link KernelExecutor} is created when the mode {@link Mode#MULTI_THREADED} is
+ * enabled. The strategies are retrieved thanks to the {@link ServiceLoader} and the strategy to use is
+ * selected by name thanks to the system property
+ * {@link ConcurrentContainerMT#EXECUTOR_STRATEGY_PARAM_NAME}, by default a fixed pool of platform threads
+ * is used.
+ *
+ * @version $Id$
+ */
+public interface KernelExecutorStrategy
+{
+   /**
+    * Gives the name of the strategy
+    */
+   String getName();
+
+   /**
+    * Indicates whether the strategy can be used in the current environment
+    */
+   boolean isSupported();
+
+   /**
+    * Gives the parallelism to use when it has not been set thanks to the system property
+    * {@link ConcurrentContainerMT#THREAD_POOL_SIZE_PARAM_NAME}
+    */
+   int getDefaultParallelism();
+
+   /**
+    * Creates a new {@link KernelExecutor}
+    * @param parallelism the maximum amount of tasks to execute in parallel
+    */
+   KernelExecutor createExecutor(int parallelism);
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link KernelExecutor} based on a fixed pool of platform threads, the tasks are executed by the
+ * calling thread when all the threads of the pool are busy.
+ *
+ * @version $Id$
+ */
+class KernelThreadPoolExecutor extends ThreadPoolExecutor implements KernelExecutor
+{
+   public KernelThreadPoolExecutor(int threadPoolSize)
+   {
+      super(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+         new KernelThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getParallelism()
+   {
+      return getCorePoolSize();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value)
+   {
+      return LockManager.getInstance().createRunnableFuture(runnable, value);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable)
+   {
+      return LockManager.getInstance().createRunnableFuture(callable);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Future<?> submit(Runnable task)
+   {
+      if (task == null)
+         throw new NullPointerException();
+      RunnableFuture<Object> ftask = newTaskFor(task, null);
+      if (LockManager.getInstance().incrementAndGetTotalUncompletedTasks() <= getCorePoolSize())
+         execute(ftask);
+      else
+         ftask.run();
+      return ftask;
+   }
+
+   private static class KernelThreadFactory implements ThreadFactory
+   {
+      final ThreadGroup group;
+
+      final AtomicInteger threadNumber = new AtomicInteger(1);
+
+      final String namePrefix;
+
+      KernelThreadFactory()
+      {
+         SecurityManager s = System.getSecurityManager();
+         group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
+         namePrefix = "kernel-thread-";
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      public Thread newThread(Runnable r)
+      {
+         Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
+         if (!t.isDaemon())
+            t.setDaemon(true);
+         if (t.getPriority() != Thread.NORM_PRIORITY)
+            t.setPriority(Thread.NORM_PRIORITY);
+         return t;
+      }
+   }
+}
@@ -50,7 +50,14 @@ public enum Mode {
    /**
     * Indicates whether or not the multi-threading should be disabled on startup complete.
     */
-   DISABLE_MT_ON_STARTUP_COMPLETE;
+   DISABLE_MT_ON_STARTUP_COMPLETE,
+
+   /**
+    * Use this mode when you want the kernel to create and start the components of a container according
+    * to their dependency graph built up front rather than discovering the dependencies while creating
+    * the components. It is only used when the <i>multi-threaded</i> mode is enabled.
+    */
+   GRAPH_SCHEDULING;
 
    /**
     * The logger
@@ -74,6 +81,12 @@ public enum Mode {
     */
    public static final String DISABLE_MT_ON_STARTUP_COMPLETE_PARAM_NAME = "org.exoplatform.container.dmtosc.enabled";
 
+   /**
+    * The name of the system parameter to indicate that we want to enable the <i>graph scheduling</i> mode
+    * of the kernel
+    */
+   public static final String GRAPH_SCHEDULING_PARAM_NAME = "org.exoplatform.container.gs.enabled";
+
    private static volatile Set<Mode> MODES;
 
    static void setModes(Mode... modes)
@@ -166,6 +179,15 @@ public enum Mode {
                   {
                      LOG.debug("The 'multi-threaded' mode of the kernel won't be disabled once fully started");
                   }
+                  sValue = PropertyManager.getProperty(GRAPH_SCHEDULING_PARAM_NAME);
+                  if (sValue != null && Boolean.valueOf(sValue))
+                  {
+                     sModes.add(GRAPH_SCHEDULING);
+                     if (LOG.isDebugEnabled())
+                     {
+                        LOG.debug("The 'graph scheduling' mode of the kernel has been enabled");
+                     }
+                  }
                }
                else if (LOG.isDebugEnabled())
                {
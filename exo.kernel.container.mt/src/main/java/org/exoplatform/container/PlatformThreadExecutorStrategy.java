@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+/**
+ * The default {@link KernelExecutorStrategy}, it uses a fixed pool of platform threads whose size is by default
+ * twice the amount of processors with a maximum of 30 threads.
+ *
+ * @version $Id$
+ */
+public class PlatformThreadExecutorStrategy implements KernelExecutorStrategy
+{
+
+   /**
+    * The name of the strategy
+    */
+   public static final String NAME = "platform";
+
+   /**
+    * {@inheritDoc}
+    */
+   public String getName()
+   {
+      return NAME;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean isSupported()
+   {
+      return true;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getDefaultParallelism()
+   {
+      return Math.min(2 * Runtime.getRuntime().availableProcessors(), 30);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public KernelExecutor createExecutor(int parallelism)
+   {
+      return new KernelThreadPoolExecutor(parallelism);
+   }
+}
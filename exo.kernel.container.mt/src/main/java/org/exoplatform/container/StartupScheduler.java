@@ -0,0 +1,636 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.commons.utils.SecurityHelper;
+import org.exoplatform.container.spi.ComponentAdapter;
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Schedules the creation and the start of the components of a {@link ConcurrentContainerMT} according
+ * to their dependency graph. The graph is built up front from the dependencies that can be deduced from
+ * the classes and the configuration of the components. A component is processed as soon as all its
+ * dependencies have been processed, and the components with the longest chain of dependents are
+ * processed first. Components that depend on each other form a unit that is processed by one thread.
+ * Once the container is started, the critical path is logged with the time spent on each component.
+ *
+ * @version $Id$
+ */
+class StartupScheduler
+{
+
+   /**
+    * The logger
+    */
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.mt.StartupScheduler");
+
+   /**
+    * The index of the creation phase in the durations of a node
+    */
+   static final int CREATE = 0;
+
+   /**
+    * The index of the start phase in the durations of a node
+    */
+   static final int START = 1;
+
+   /**
+    * The processing order of the units, the ones with the longest chain of dependents first
+    */
+   private static final Comparator<Unit> PRIORITY = new Comparator<Unit>()
+   {
+      public int compare(Unit u1, Unit u2)
+      {
+         if (u1.level != u2.level)
+         {
+            return u1.level > u2.level ? -1 : 1;
+         }
+         return u1.index < u2.index ? -1 : (u1.index == u2.index ? 0 : 1);
+      }
+   };
+
+   /** . */
+   private final Map<ComponentAdapter<?>, Node> adapterToNode = new HashMap<ComponentAdapter<?>, Node>();
+
+   /**
+    * All the nodes in the order of their discovery
+    */
+   private final List<Node> nodes = new ArrayList<Node>();
+
+   /**
+    * All the units, a unit always comes after its dependencies
+    */
+   private final List<Unit> units = new ArrayList<Unit>();
+
+   /**
+    * Builds the dependency graph of the given components and of their local dependencies
+    */
+   StartupScheduler(ConcurrentContainerMT container, Collection<ComponentAdapter<?>> adapters)
+   {
+      LinkedList<Node> toVisit = new LinkedList<Node>();
+      for (ComponentAdapter<?> adapter : adapters)
+      {
+         getNode(adapter, toVisit);
+      }
+      while (!toVisit.isEmpty())
+      {
+         Node node = toVisit.removeFirst();
+         for (ComponentAdapter<?> dependency : container.getStartupDependencies(node.adapter))
+         {
+            if (ExoContainer.class.isAssignableFrom(dependency.getComponentImplementation()))
+            {
+               // The sub containers are started afterwards
+               continue;
+            }
+            Node dep = getNode(dependency, toVisit);
+            if (dep != node)
+            {
+               node.dependencies.add(dep);
+            }
+         }
+      }
+      buildUnits();
+   }
+
+   private Node getNode(ComponentAdapter<?> adapter, LinkedList<Node> toVisit)
+   {
+      Node node = adapterToNode.get(adapter);
+      if (node == null)
+      {
+         node = new Node(adapter);
+         adapterToNode.put(adapter, node);
+         nodes.add(node);
+         toVisit.add(node);
+      }
+      return node;
+   }
+
+   /**
+    * Groups the nodes by strongly connected components thanks to the algorithm of Tarjan which gives
+    * them in an order where a unit always comes after its dependencies, then computes the length of the
+    * longest chain of dependents of each unit
+    */
+   private void buildUnits()
+   {
+      int[] counter = new int[1];
+      LinkedList<Node> stack = new LinkedList<Node>();
+      for (Node node : nodes)
+      {
+         if (node.visitIndex < 0)
+         {
+            connect(node, counter, stack);
+         }
+      }
+      for (Unit unit : units)
+      {
+         for (Node node : unit.nodes)
+         {
+            for (Node dep : node.dependencies)
+            {
+               if (dep.unit != unit)
+               {
+                  unit.dependencies.add(dep.unit);
+                  dep.unit.dependents.add(unit);
+               }
+            }
+         }
+      }
+      for (int i = units.size() - 1; i >= 0; i--)
+      {
+         Unit unit = units.get(i);
+         int level = 0;
+         for (Unit dependent : unit.dependents)
+         {
+            level = Math.max(level, dependent.level);
+         }
+         unit.level = level + unit.nodes.size();
+      }
+   }
+
+   /**
+    * Visits the nodes reachable from the given node, the depth first search is done with an explicit
+    * stack so that a long chain of dependencies cannot overflow the stack of the thread
+    */
+   private void connect(Node root, int[] counter, LinkedList<Node> stack)
+   {
+      // The current path of the depth first search and the dependencies left to visit for each node of the path
+      LinkedList<Node> path = new LinkedList<Node>();
+      LinkedList<Iterator<Node>> remaining = new LinkedList<Iterator<Node>>();
+      visit(root, counter, stack, path, remaining);
+      while (!path.isEmpty())
+      {
+         Node node = path.getFirst();
+         Iterator<Node> it = remaining.getFirst();
+         if (it.hasNext())
+         {
+            Node dep = it.next();
+            if (dep.visitIndex < 0)
+            {
+               visit(dep, counter, stack, path, remaining);
+            }
+            else if (dep.onStack)
+            {
+               node.lowLink = Math.min(node.lowLink, dep.visitIndex);
+            }
+            continue;
+         }
+         path.removeFirst();
+         remaining.removeFirst();
+         if (!path.isEmpty())
+         {
+            Node parent = path.getFirst();
+            parent.lowLink = Math.min(parent.lowLink, node.lowLink);
+         }
+         if (node.lowLink == node.visitIndex)
+         {
+            addUnit(node, stack);
+         }
+      }
+   }
+
+   private void visit(Node node, int[] counter, LinkedList<Node> stack, LinkedList<Node> path,
+      LinkedList<Iterator<Node>> remaining)
+   {
+      node.visitIndex = node.lowLink = counter[0]++;
+      stack.addFirst(node);
+      node.onStack = true;
+      path.addFirst(node);
+      remaining.addFirst(node.dependencies.iterator());
+   }
+
+   /**
+    * Creates a unit with the given node and all the nodes above it in the stack
+    */
+   private void addUnit(Node node, LinkedList<Node> stack)
+   {
+      Unit unit = new Unit(units.size());
+      Node member;
+      do
+      {
+         member = stack.removeFirst();
+         member.onStack = false;
+         member.unit = unit;
+         unit.nodes.add(member);
+      }
+      while (member != node);
+      // Keep the order of discovery within the unit
+      Collections.reverse(unit.nodes);
+      units.add(unit);
+   }
+
+   /**
+    * Executes the given task on all the components, a component is only processed once all its
+    * dependencies have been processed
+    * @param phase the phase in which the duration of each task must be recorded
+    * @param task the task to execute
+    * @param executor the executor to use to process the components in parallel
+    * @return the first error that occurred, <code>null</code> if none
+    */
+   Throwable execute(int phase, Task task, KernelExecutor executor)
+   {
+      final Execution execution = new Execution(phase, task);
+      final ExoContainer currentContainer = ExoContainerContext.getCurrentContainerIfPresent();
+      final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      Runnable worker = new Runnable()
+      {
+         public void run()
+         {
+            SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
+            {
+               public Void run()
+               {
+                  ExoContainer oldContainer = ExoContainerContext.getCurrentContainerIfPresent();
+                  ClassLoader oldCl = Thread.currentThread().getContextClassLoader();
+                  try
+                  {
+                     ExoContainerContext.setCurrentContainer(currentContainer);
+                     Thread.currentThread().setContextClassLoader(cl);
+                     execution.run();
+                  }
+                  finally
+                  {
+                     Thread.currentThread().setContextClassLoader(oldCl);
+                     ExoContainerContext.setCurrentContainer(oldContainer);
+                  }
+                  return null;
+               }
+            });
+         }
+      };
+      int workers = Math.min(executor.getParallelism(), units.size());
+      List<Future<?>> submittedTasks = new ArrayList<Future<?>>();
+      for (int i = 1; i < workers; i++)
+      {
+         submittedTasks.add(executor.submit(worker));
+      }
+      // The current thread is also used
+      execution.run();
+      for (int i = 0, length = submittedTasks.size(); i < length; i++)
+      {
+         try
+         {
+            submittedTasks.get(i).get();
+         }
+         catch (ExecutionException e)
+         {
+            execution.fail(e.getCause());
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            execution.fail(e);
+         }
+      }
+      return execution.error;
+   }
+
+   /**
+    * Gives the longest chain of dependent components, the duration of a component being the total
+    * time spent to create and start it
+    * @return the components of the critical path, the first one being a dependency of the second one
+    * and so on
+    */
+   List<ComponentAdapter<?>> getCriticalPath()
+   {
+      List<ComponentAdapter<?>> path = new ArrayList<ComponentAdapter<?>>();
+      for (Node node : getCriticalPathNodes())
+      {
+         path.add(node.adapter);
+      }
+      return path;
+   }
+
+   /**
+    * Computes the critical path, the units being sorted such that the dependencies come first, the
+    * longest chain ending with a given unit can be computed from the chains of its dependencies
+    */
+   private List<Node> getCriticalPathNodes()
+   {
+      Unit last = null;
+      for (Unit unit : units)
+      {
+         unit.previous = null;
+         long distance = 0;
+         for (Unit dependency : unit.dependencies)
+         {
+            if (dependency.distance > distance)
+            {
+               distance = dependency.distance;
+               unit.previous = dependency;
+            }
+         }
+         unit.distance = distance + unit.getDuration();
+         if (last == null || unit.distance > last.distance)
+         {
+            last = unit;
+         }
+      }
+      LinkedList<Node> path = new LinkedList<Node>();
+      for (Unit unit = last; unit != null; unit = unit.previous)
+      {
+         path.addAll(0, unit.nodes);
+      }
+      return path;
+   }
+
+   /**
+    * Logs the critical path of the startup
+    */
+   void logCriticalPath(String containerName)
+   {
+      if (!LOG.isInfoEnabled())
+      {
+         return;
+      }
+      List<Node> path = getCriticalPathNodes();
+      if (path.isEmpty())
+      {
+         return;
+      }
+      long total = 0;
+      StringBuilder sb = new StringBuilder();
+      for (Node node : path)
+      {
+         long duration = node.durations[CREATE] + node.durations[START];
+         total += duration;
+         if (sb.length() > 0)
+         {
+            sb.append(" -> ");
+         }
+         sb.append(node.adapter.getComponentKey()).append(" (").append(duration / 1000000).append(" ms)");
+      }
+      LOG.info("The critical path of the startup of the container '" + containerName + "' is " + total / 1000000
+         + " ms long for " + nodes.size() + " components: " + sb);
+   }
+
+   /**
+    * The task to execute on each component
+    */
+   static interface Task
+   {
+      void execute(ComponentAdapter<?> adapter) throws Exception;
+   }
+
+   /**
+    * A component of the dependency graph
+    */
+   private static class Node
+   {
+      /** . */
+      private final ComponentAdapter<?> adapter;
+
+      /** . */
+      private final Set<Node> dependencies = new LinkedHashSet<Node>();
+
+      /**
+       * The time spent in nanoseconds to create and to start the component
+       */
+      private final long[] durations = new long[2];
+
+      /** . */
+      private Unit unit;
+
+      /**
+       * The index of the node in the depth first search of the algorithm of Tarjan
+       */
+      private int visitIndex = -1;
+
+      /** . */
+      private int lowLink;
+
+      /** . */
+      private boolean onStack;
+
+      private Node(ComponentAdapter<?> adapter)
+      {
+         this.adapter = adapter;
+      }
+   }
+
+   /**
+    * A set of components that depend on each other, they are processed one after another
+    */
+   private static class Unit
+   {
+      /** . */
+      private final int index;
+
+      /** . */
+      private final List<Node> nodes = new ArrayList<Node>();
+
+      /** . */
+      private final Set<Unit> dependencies = new LinkedHashSet<Unit>();
+
+      /** . */
+      private final Set<Unit> dependents = new LinkedHashSet<Unit>();
+
+      /**
+       * The length of the longest chain of dependents including this unit
+       */
+      private int level;
+
+      /**
+       * The previous unit in the critical path
+       */
+      private Unit previous;
+
+      /**
+       * The total duration of the longest chain of dependencies ending with this unit
+       */
+      private long distance;
+
+      private Unit(int index)
+      {
+         this.index = index;
+      }
+
+      private long getDuration()
+      {
+         long duration = 0;
+         for (Node node : nodes)
+         {
+            duration += node.durations[CREATE] + node.durations[START];
+         }
+         return duration;
+      }
+   }
+
+   /**
+    * The state of the execution of a task on all the components
+    */
+   private class Execution
+   {
+      /** . */
+      private final int phase;
+
+      /** . */
+      private final Task task;
+
+      /** . */
+      private final PriorityQueue<Unit> ready = new PriorityQueue<Unit>(11, PRIORITY);
+
+      /**
+       * The remaining amount of dependencies to process per unit
+       */
+      private final int[] remaining = new int[units.size()];
+
+      /**
+       * The amount of units that have not been processed yet
+       */
+      private int pending = units.size();
+
+      /** . */
+      private Throwable error;
+
+      private Execution(int phase, Task task)
+      {
+         this.phase = phase;
+         this.task = task;
+         for (Unit unit : units)
+         {
+            remaining[unit.index] = unit.dependencies.size();
+            if (unit.dependencies.isEmpty())
+            {
+               ready.add(unit);
+            }
+         }
+      }
+
+      /**
+       * Locks are used instead of monitors so that the virtual threads are not pinned to their
+       * carrier thread while waiting for a unit to process
+       */
+      private final Lock lock = new ReentrantLock();
+
+      /** . */
+      private final Condition changed = lock.newCondition();
+
+      private void fail(Throwable t)
+      {
+         lock.lock();
+         try
+         {
+            if (error == null)
+            {
+               error = t;
+            }
+            changed.signalAll();
+         }
+         finally
+         {
+            lock.unlock();
+         }
+      }
+
+      private void run()
+      {
+         while (true)
+         {
+            Unit unit;
+            lock.lock();
+            try
+            {
+               while ((unit = ready.poll()) == null && error == null && pending > 0)
+               {
+                  try
+                  {
+                     changed.await();
+                  }
+                  catch (InterruptedException e)
+                  {
+                     Thread.currentThread().interrupt();
+                     fail(e);
+                  }
+               }
+               if (unit == null || error != null)
+               {
+                  return;
+               }
+            }
+            finally
+            {
+               lock.unlock();
+            }
+            Throwable t = null;
+            for (Node node : unit.nodes)
+            {
+               long time = System.nanoTime();
+               try
+               {
+                  task.execute(node.adapter);
+               }
+               catch (Throwable e)
+               {
+                  t = e;
+               }
+               finally
+               {
+                  node.durations[phase] += System.nanoTime() - time;
+               }
+               if (t != null)
+               {
+                  break;
+               }
+            }
+            lock.lock();
+            try
+            {
+               if (t != null)
+               {
+                  fail(t);
+                  return;
+               }
+               pending--;
+               for (Unit dependent : unit.dependents)
+               {
+                  if (--remaining[dependent.index] == 0)
+                  {
+                     ready.add(dependent);
+                  }
+               }
+               changed.signalAll();
+            }
+            finally
+            {
+               lock.unlock();
+            }
+         }
+      }
+   }
+}
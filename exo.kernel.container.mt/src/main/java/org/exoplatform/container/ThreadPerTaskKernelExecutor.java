@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link KernelExecutor} that starts a new thread for each task thanks to the given {@link ThreadFactory}.
+ * It is meant to be used with cheap threads like virtual threads, so that the tasks blocked on I/O don't
+ * prevent other tasks from being executed. The tasks are executed by the calling thread when the parallelism
+ * has been reached or when the executor has been shut down.
+ *
+ * @version $Id$
+ */
+public class ThreadPerTaskKernelExecutor extends AbstractExecutorService implements KernelExecutor
+{
+
+   /**
+    * The factory used to create the threads
+    */
+   private final ThreadFactory factory;
+
+   /**
+    * The maximum amount of tasks executed in parallel
+    */
+   private final int parallelism;
+
+   /**
+    * The threads currently executing a task
+    */
+   private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+   /**
+    * The lock used to wait for the termination
+    */
+   private final Lock lock = new ReentrantLock();
+
+   private final Condition terminated = lock.newCondition();
+
+   /**
+    * The amount of threads that have been started and that are not yet over
+    */
+   private int activeThreads;
+
+   private volatile boolean shutdown;
+
+   public ThreadPerTaskKernelExecutor(ThreadFactory factory, int parallelism)
+   {
+      if (factory == null)
+         throw new NullPointerException();
+      if (parallelism < 1)
+         throw new IllegalArgumentException("The parallelism must be greater than 0");
+      this.factory = factory;
+      this.parallelism = parallelism;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getParallelism()
+   {
+      return parallelism;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value)
+   {
+      return LockManager.getInstance().createRunnableFuture(runnable, value);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable)
+   {
+      return LockManager.getInstance().createRunnableFuture(callable);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public Future<?> submit(Runnable task)
+   {
+      if (task == null)
+         throw new NullPointerException();
+      RunnableFuture<Object> ftask = newTaskFor(task, null);
+      if (LockManager.getInstance().incrementAndGetTotalUncompletedTasks() <= parallelism)
+         execute(ftask);
+      else
+         ftask.run();
+      return ftask;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void execute(final Runnable command)
+   {
+      if (command == null)
+         throw new NullPointerException();
+      boolean rejected;
+      lock.lock();
+      try
+      {
+         rejected = shutdown;
+         if (!rejected)
+         {
+            activeThreads++;
+         }
+      }
+      finally
+      {
+         lock.unlock();
+      }
+      if (rejected)
+      {
+         // Like the CallerRunsPolicy but without discarding the task, otherwise its future would never be done
+         command.run();
+         return;
+      }
+      Thread thread;
+      try
+      {
+         thread = factory.newThread(new Runnable()
+         {
+            public void run()
+            {
+               Thread current = Thread.currentThread();
+               threads.add(current);
+               try
+               {
+                  command.run();
+               }
+               finally
+               {
+                  threads.remove(current);
+                  onThreadExit();
+               }
+            }
+         });
+         thread.start();
+      }
+      catch (RuntimeException e)
+      {
+         onThreadExit();
+         throw e;
+      }
+      catch (Error e)
+      {
+         onThreadExit();
+         throw e;
+      }
+   }
+
+   /**
+    * Called when a thread is over or could not be started
+    */
+   private void onThreadExit()
+   {
+      lock.lock();
+      try
+      {
+         if (--activeThreads == 0 && shutdown)
+         {
+            terminated.signalAll();
+         }
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void shutdown()
+   {
+      lock.lock();
+      try
+      {
+         shutdown = true;
+         if (activeThreads == 0)
+         {
+            terminated.signalAll();
+         }
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public List<Runnable> shutdownNow()
+   {
+      shutdown();
+      for (Thread thread : threads)
+      {
+         thread.interrupt();
+      }
+      return Collections.emptyList();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean isShutdown()
+   {
+      return shutdown;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean isTerminated()
+   {
+      lock.lock();
+      try
+      {
+         return shutdown && activeThreads == 0;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+   {
+      long nanos = unit.toNanos(timeout);
+      lock.lock();
+      try
+      {
+         while (!shutdown || activeThreads > 0)
+         {
+            if (nanos <= 0)
+            {
+               return false;
+            }
+            nanos = terminated.awaitNanos(nanos);
+         }
+         return true;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The {@link KernelExecutorStrategy} that executes each task in a new virtual thread, which allows the
+ * kernel to create in parallel much more components than the amount of processors when they block on
+ * I/O. The virtual threads are created by reflection, so this strategy is only supported on the JDKs
+ * that provide them. The parallelism is by default 256 tasks.
+ * <p>
+ * The kernel only uses {@link java.util.concurrent.locks.Lock locks} while creating and starting the
+ * components, but the components themselves may still use monitors. Before JDK 24 (JEP 491), a virtual
+ * thread that blocks inside a <code>synchronized</code> block stays pinned to its carrier thread, so
+ * components that do so can limit the parallelism of this strategy.
+ *
+ * @version $Id$
+ */
+public class VirtualThreadExecutorStrategy implements KernelExecutorStrategy
+{
+
+   /**
+    * The logger
+    */
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.mt.VirtualThreadExecutorStrategy");
+
+   /**
+    * The name of the strategy
+    */
+   public static final String NAME = "virtual";
+
+   /**
+    * The default parallelism
+    */
+   private static final int DEFAULT_PARALLELISM = 256;
+
+   /**
+    * The prefix of the name of the threads
+    */
+   private static final String NAME_PREFIX = "kernel-vthread-";
+
+   /**
+    * {@inheritDoc}
+    */
+   public String getName()
+   {
+      return NAME;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public boolean isSupported()
+   {
+      try
+      {
+         createThreadFactory();
+         return true;
+      }
+      catch (Exception e)
+      {
+         if (LOG.isDebugEnabled())
+         {
+            LOG.debug("The virtual threads are not supported: " + e.getMessage());
+         }
+         return false;
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public int getDefaultParallelism()
+   {
+      return DEFAULT_PARALLELISM;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public KernelExecutor createExecutor(int parallelism)
+   {
+      try
+      {
+         return new ThreadPerTaskKernelExecutor(createThreadFactory(), parallelism);
+      }
+      catch (Exception e)
+      {
+         throw new UnsupportedOperationException("The virtual threads are not supported", e);
+      }
+   }
+
+   /**
+    * Creates a factory of virtual threads, it is equivalent to
+    * <code>Thread.ofVirtual().name(NAME_PREFIX, 1).factory()</code>
+    */
+   private static ThreadFactory createThreadFactory() throws Exception
+   {
+      Method ofVirtual = Thread.class.getMethod("ofVirtual");
+      // The methods are taken from the public interface as the implementation is not accessible
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = ofVirtual.invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, NAME_PREFIX, 1L);
+      return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+   }
+}
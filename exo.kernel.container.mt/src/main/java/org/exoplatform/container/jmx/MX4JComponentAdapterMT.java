@@ -32,6 +32,8 @@ import org.exoplatform.container.Dependency;
 import org.exoplatform.container.DependencyStackListener;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.LockManager;
+import org.exoplatform.container.StartupProfiler;
+import org.exoplatform.container.StartupProfiler.Phase;
 import org.exoplatform.container.component.ComponentLifecycle;
 import org.exoplatform.container.component.ComponentPlugin;
 import org.exoplatform.container.configuration.ConfigurationManager;
@@ -350,6 +352,7 @@ public class MX4JComponentAdapterMT<T> extends MX4JComponentAdapter<T> implement
       {
          public Void execute(final CreationalContextComponentAdapter<?> cCtx) throws Exception
          {
+            long begin = StartupProfiler.begin();
             try
             {
                getContainer().loadArguments(args);
@@ -382,6 +385,7 @@ public class MX4JComponentAdapterMT<T> extends MX4JComponentAdapter<T> implement
 
                cplugin.setName(plugin.getName());
                cplugin.setDescription(plugin.getDescription());
+               StartupProfiler.end(exocontainer.getHolder(), clazz, Phase.PLUGIN, plugin.getName(), begin);
                return null;
             }
             catch (InvocationTargetException e)
@@ -541,7 +545,9 @@ public class MX4JComponentAdapterMT<T> extends MX4JComponentAdapter<T> implement
          createCtx = createCtx.addToContext(getComponentKey());
          container.setComponentTaskContext(createCtx);
       }
+      long begin = StartupProfiler.begin();
       container.loadDependencies(getComponentKey(), createCtx, getCreateDependencies(), ComponentTaskType.CREATE);
+      StartupProfiler.end(exocontainer, getComponentImplementation(), Phase.WAIT, null, begin);
    }
 
    /**
@@ -564,7 +570,9 @@ public class MX4JComponentAdapterMT<T> extends MX4JComponentAdapter<T> implement
       try
       {
          ComponentTask<T> task = createTask.get();
+         long begin = StartupProfiler.begin();
          T result = task.call(ctx);
+         StartupProfiler.end(exocontainer, getComponentImplementation(), Phase.CREATE, null, begin);
          if (instance_ != null)
          {
             // Avoid instantiating twice the same component in case of a cyclic reference due
@@ -600,13 +608,17 @@ public class MX4JComponentAdapterMT<T> extends MX4JComponentAdapter<T> implement
       {
          if (tasks != null && !tasks.isEmpty())
          {
+            long begin = StartupProfiler.begin();
             container.loadDependencies(getComponentKey(), taskCtx, getInitDependencies(), ComponentTaskType.INIT);
+            StartupProfiler.end(exocontainer, getComponentImplementation(), Phase.WAIT, null, begin);
+            begin = StartupProfiler.begin();
             for (Iterator<ComponentTask<Void>> it = tasks.iterator(); it.hasNext();)
             {
                task = it.next();
                task.call(ctx);
                task = null;
             }
+            StartupProfiler.end(exocontainer, getComponentImplementation(), Phase.INIT, null, begin);
          }
          if (instance_ != null)
          {
@@ -76,7 +76,9 @@ public class TestExoContainerMT extends TestExoContainer
       return Arrays.asList(new Object[][]{{null}, {new Mode[]{Mode.MULTI_THREADED}},
          {new Mode[]{Mode.MULTI_THREADED, Mode.DISABLE_MT_ON_STARTUP_COMPLETE}}, {new Mode[]{Mode.AUTO_SOLVE_DEP_ISSUES}},
          {new Mode[]{Mode.MULTI_THREADED, Mode.AUTO_SOLVE_DEP_ISSUES}},
-         {new Mode[]{Mode.MULTI_THREADED, Mode.AUTO_SOLVE_DEP_ISSUES, Mode.DISABLE_MT_ON_STARTUP_COMPLETE}}});
+         {new Mode[]{Mode.MULTI_THREADED, Mode.AUTO_SOLVE_DEP_ISSUES, Mode.DISABLE_MT_ON_STARTUP_COMPLETE}},
+         {new Mode[]{Mode.MULTI_THREADED, Mode.GRAPH_SCHEDULING}},
+         {new Mode[]{Mode.MULTI_THREADED, Mode.AUTO_SOLVE_DEP_ISSUES, Mode.GRAPH_SCHEDULING}}});
    }
 
    @Test
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.commons.utils.PropertyManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * @version $Id$
+ */
+public class TestKernelExecutor extends TestCase
+{
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      PropertyManager.setProperty(ConcurrentContainerMT.EXECUTOR_STRATEGY_PARAM_NAME, "");
+   }
+
+   public void testExecutorStrategy()
+   {
+      PropertyManager.setProperty(ConcurrentContainerMT.EXECUTOR_STRATEGY_PARAM_NAME, "");
+      assertTrue(ConcurrentContainerMT.getExecutorStrategy() instanceof PlatformThreadExecutorStrategy);
+      PropertyManager.setProperty(ConcurrentContainerMT.EXECUTOR_STRATEGY_PARAM_NAME, "unknown");
+      assertTrue(ConcurrentContainerMT.getExecutorStrategy() instanceof PlatformThreadExecutorStrategy);
+      PropertyManager.setProperty(ConcurrentContainerMT.EXECUTOR_STRATEGY_PARAM_NAME, VirtualThreadExecutorStrategy.NAME);
+      KernelExecutorStrategy strategy = ConcurrentContainerMT.getExecutorStrategy();
+      if (new VirtualThreadExecutorStrategy().isSupported())
+      {
+         assertTrue(strategy instanceof VirtualThreadExecutorStrategy);
+      }
+      else
+      {
+         assertTrue(strategy instanceof PlatformThreadExecutorStrategy);
+      }
+   }
+
+   public void testPlatformThreadExecutor() throws Exception
+   {
+      KernelExecutor executor = new PlatformThreadExecutorStrategy().createExecutor(2);
+      assertEquals(2, executor.getParallelism());
+      checkExecutor(executor);
+   }
+
+   public void testThreadPerTaskExecutor() throws Exception
+   {
+      KernelExecutor executor = new ThreadPerTaskKernelExecutor(Executors.defaultThreadFactory(), 2);
+      assertEquals(2, executor.getParallelism());
+      checkExecutor(executor);
+      assertTrue(executor.isShutdown());
+      assertTrue(executor.isTerminated());
+      // Once shut down the tasks are executed by the calling thread
+      final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+      Future<?> future = executor.submit(new Runnable()
+      {
+         public void run()
+         {
+            thread.set(Thread.currentThread());
+         }
+      });
+      assertTrue(future.isDone());
+      assertSame(Thread.currentThread(), thread.get());
+   }
+
+   public void testVirtualThreadExecutor() throws Exception
+   {
+      VirtualThreadExecutorStrategy strategy = new VirtualThreadExecutorStrategy();
+      if (!strategy.isSupported())
+      {
+         return;
+      }
+      KernelExecutor executor = strategy.createExecutor(strategy.getDefaultParallelism());
+      final AtomicReference<String> name = new AtomicReference<String>();
+      executor.submit(new Runnable()
+      {
+         public void run()
+         {
+            name.set(Thread.currentThread().getName());
+         }
+      }).get();
+      assertTrue(name.get().startsWith("kernel-vthread-"));
+      executor.shutdown();
+      executor = strategy.createExecutor(2);
+      checkExecutor(executor);
+   }
+
+   /**
+    * Checks that the tasks beyond the parallelism are executed by the calling thread, that the deadlocks
+    * are detected and that the executor can be shut down
+    */
+   private void checkExecutor(KernelExecutor executor) throws Exception
+   {
+      waitForTasks();
+      final CountDownLatch release = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < executor.getParallelism(); i++)
+      {
+         futures.add(executor.submit(new Runnable()
+         {
+            public void run()
+            {
+               try
+               {
+                  release.await();
+               }
+               catch (InterruptedException e)
+               {
+                  Thread.currentThread().interrupt();
+               }
+            }
+         }));
+      }
+      // All the tasks are blocked so the next one is executed by the calling thread
+      final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+      Future<?> future = executor.submit(new Runnable()
+      {
+         public void run()
+         {
+            thread.set(Thread.currentThread());
+         }
+      });
+      assertTrue(future.isDone());
+      assertSame(Thread.currentThread(), thread.get());
+      release.countDown();
+      for (Future<?> f : futures)
+      {
+         f.get();
+      }
+      waitForTasks();
+
+      final LockManager manager = LockManager.getInstance();
+      final CyclicBarrier startSignal = new CyclicBarrier(2);
+      final AtomicReference<Exception> ex = new AtomicReference<Exception>();
+      final Lock l1 = manager.createLock();
+      final Lock l2 = manager.createLock();
+      Future<?> f1 = executor.submit(new LockTask(l1, l2, startSignal, ex));
+      Future<?> f2 = executor.submit(new LockTask(l2, l1, startSignal, ex));
+      f1.get();
+      f2.get();
+      if (ex.get() != null)
+         throw ex.get();
+      assertTrue(manager.isEmpty());
+
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+   }
+
+   /**
+    * The uncompleted tasks are only decremented once the future is done, so we wait
+    * for them to make sure that the next tasks are not executed by the calling thread
+    */
+   private static void waitForTasks() throws InterruptedException
+   {
+      while (LockManager.getInstance().getTotalUncompletedTasks() > 0)
+      {
+         Thread.sleep(10);
+      }
+   }
+
+   private static class LockTask implements Runnable
+   {
+      private final Lock first;
+
+      private final Lock second;
+
+      private final CyclicBarrier startSignal;
+
+      private final AtomicReference<Exception> ex;
+
+      LockTask(Lock first, Lock second, CyclicBarrier startSignal, AtomicReference<Exception> ex)
+      {
+         this.first = first;
+         this.second = second;
+         this.startSignal = startSignal;
+         this.ex = ex;
+      }
+
+      public void run()
+      {
+         first.lock();
+         try
+         {
+            startSignal.await();
+            second.lockInterruptibly();
+            throw new Exception("Should not occur");
+         }
+         catch (InterruptedException e)
+         {
+            // expected
+         }
+         catch (Exception e)
+         {
+            ex.set(e);
+         }
+         finally
+         {
+            first.unlock();
+         }
+      }
+   }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates at build time a {@link org.exoplatform.container.spi.ComponentFactory} for each concrete
+ * class of the compiled sources that uses {@link javax.inject.Inject}, directly or through one of its
+ * super classes, so that the container can create and inject its instances without reflection.
+ * The factory is generated in the package of the component and named like the binary name of the
+ * component followed by {@link org.exoplatform.container.spi.ComponentFactory#SUFFIX}.
+ * <p>
+ * Only the members that can be accessed from the package of the component are supported by the
+ * generated factory, the container uses the reflection for the others such as the private fields.
+ * To enable it, the module <i>exo.kernel.container.processor</i> simply needs to be added to the
+ * compile class path of the project with the scope <i>provided</i>.
+ *
+ * @version $Id$
+ */
+@SupportedAnnotationTypes(ComponentFactoryProcessor.INJECT)
+public class ComponentFactoryProcessor extends AbstractProcessor
+{
+   /**
+    * The name of the annotation that triggers the generation of the factories
+    */
+   static final String INJECT = "javax.inject.Inject";
+
+   /**
+    * The name of the interface implemented by the generated factories
+    */
+   private static final String COMPONENT_FACTORY = "org.exoplatform.container.spi.ComponentFactory";
+
+   /**
+    * The suffix of the name of the generated factories, must be the same as
+    * <code>ComponentFactory.SUFFIX</code>
+    */
+   private static final String SUFFIX = "$ComponentFactory";
+
+   /**
+    * The names of the classes for which a factory has already been generated
+    */
+   private final Set<String> generated = new LinkedHashSet<String>();
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public SourceVersion getSupportedSourceVersion()
+   {
+      return SourceVersion.latestSupported();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+   {
+      if (annotations.isEmpty())
+      {
+         return false;
+      }
+      List<TypeElement> types = new ArrayList<TypeElement>();
+      for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+      {
+         addTypes(type, types);
+      }
+      for (TypeElement type : types)
+      {
+         String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+         if (!generated.contains(name) && isSupported(type) && hasInjectionPoints(type))
+         {
+            generated.add(name);
+            generate(type, name);
+         }
+      }
+      // Let the other processors handle Inject too
+      return false;
+   }
+
+   /**
+    * Adds the given type and its member types recursively to the given list.
+    */
+   private static void addTypes(TypeElement type, List<TypeElement> types)
+   {
+      types.add(type);
+      for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements()))
+      {
+         addTypes(member, types);
+      }
+   }
+
+   /**
+    * Indicates whether a factory can be generated for the given type, which means that the type is
+    * a concrete class that can be instantiated from its package.
+    */
+   private static boolean isSupported(TypeElement type)
+   {
+      if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT))
+      {
+         return false;
+      }
+      if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))
+      {
+         // The constructors of the inner classes need an instance of the enclosing class
+         return false;
+      }
+      return type.getNestingKind() == NestingKind.TOP_LEVEL || type.getNestingKind() == NestingKind.MEMBER
+         && isAccessible(type);
+   }
+
+   /**
+    * Indicates whether the given type or one of its super classes has a member annotated with
+    * {@link javax.inject.Inject}.
+    */
+   private boolean hasInjectionPoints(TypeElement type)
+   {
+      for (TypeElement c : getHierarchy(type))
+      {
+         for (Element member : c.getEnclosedElements())
+         {
+            if (isAnnotatedWithInject(member))
+            {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Gives the given type and its super classes excluding {@link Object}, from the given type to the
+    * top of the hierarchy
+    */
+   private List<TypeElement> getHierarchy(TypeElement type)
+   {
+      List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+      TypeElement c = type;
+      while (c != null && !c.getQualifiedName().contentEquals("java.lang.Object"))
+      {
+         hierarchy.add(c);
+         TypeMirror superclass = c.getSuperclass();
+         c = superclass.getKind() == TypeKind.DECLARED ? (TypeElement)((DeclaredType)superclass).asElement() : null;
+      }
+      return hierarchy;
+   }
+
+   private static boolean isAnnotatedWithInject(Element element)
+   {
+      for (AnnotationMirror annotation : element.getAnnotationMirrors())
+      {
+         if (((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(INJECT))
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Indicates whether the given type can be accessed from its package
+    */
+   private static boolean isAccessible(TypeElement type)
+   {
+      Element element = type;
+      while (element instanceof TypeElement)
+      {
+         if (element.getModifiers().contains(Modifier.PRIVATE))
+         {
+            return false;
+         }
+         element = element.getEnclosingElement();
+      }
+      return true;
+   }
+
+   /**
+    * Indicates whether the given member of the given declaring class can be accessed from the given
+    * package
+    */
+   private boolean isAccessible(Element member, TypeElement declaringClass, PackageElement pkg)
+   {
+      if (member.getModifiers().contains(Modifier.PRIVATE))
+      {
+         return false;
+      }
+      boolean samePackage = processingEnv.getElementUtils().getPackageOf(declaringClass).equals(pkg);
+      if (samePackage)
+      {
+         return isAccessible(declaringClass);
+      }
+      if (!member.getModifiers().contains(Modifier.PUBLIC))
+      {
+         return false;
+      }
+      Element element = declaringClass;
+      while (element instanceof TypeElement)
+      {
+         if (!element.getModifiers().contains(Modifier.PUBLIC))
+         {
+            return false;
+         }
+         element = element.getEnclosingElement();
+      }
+      return true;
+   }
+
+   /**
+    * Gives the constructors of the given type that the container may use, the same way as
+    * <code>ContainerUtil.getSortedConstructors</code>
+    */
+   private static List<ExecutableElement> getConstructors(TypeElement type)
+   {
+      List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+      for (ExecutableElement constructor : constructors)
+      {
+         if (isAnnotatedWithInject(constructor))
+         {
+            List<ExecutableElement> result = new ArrayList<ExecutableElement>();
+            result.add(constructor);
+            return result;
+         }
+      }
+      List<ExecutableElement> result = new ArrayList<ExecutableElement>();
+      for (ExecutableElement constructor : constructors)
+      {
+         if (constructor.getModifiers().contains(Modifier.PUBLIC))
+         {
+            result.add(constructor);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Generates the factory of the given type
+    */
+   private void generate(TypeElement type, String binaryName)
+   {
+      PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+      String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+      String simpleName = binaryName.substring(packageName.length() == 0 ? 0 : packageName.length() + 1) + SUFFIX;
+      String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+      Map<String, String> constructors = new LinkedHashMap<String, String>();
+      for (ExecutableElement constructor : getConstructors(type))
+      {
+         if (constructor.getModifiers().contains(Modifier.PRIVATE))
+         {
+            continue;
+         }
+         constructors.put(getParameterTypes(constructor),
+            "return new " + typeName + "(" + getArguments(constructor) + ");");
+      }
+      Map<String, String> injectionPoints = new LinkedHashMap<String, String>();
+      for (TypeElement c : getHierarchy(type))
+      {
+         String declaringClass = processingEnv.getElementUtils().getBinaryName(c).toString();
+         String declaringType = processingEnv.getTypeUtils().erasure(c.asType()).toString();
+         for (Element member : c.getEnclosedElements())
+         {
+            if (!isAnnotatedWithInject(member) || member.getModifiers().contains(Modifier.STATIC)
+               || !isAccessible(member, c, pkg))
+            {
+               continue;
+            }
+            if (member.getKind() == ElementKind.FIELD)
+            {
+               VariableElement field = (VariableElement)member;
+               if (field.getModifiers().contains(Modifier.FINAL))
+               {
+                  continue;
+               }
+               injectionPoints.put(declaringClass + '#' + field.getSimpleName(), "((" + declaringType + ")instance)."
+                  + field.getSimpleName() + " = " + getArgument(field.asType(), 0) + ";");
+            }
+            else if (member.getKind() == ElementKind.METHOD)
+            {
+               ExecutableElement method = (ExecutableElement)member;
+               if (method.getModifiers().contains(Modifier.ABSTRACT))
+               {
+                  continue;
+               }
+               injectionPoints.put(declaringClass + '#' + method.getSimpleName() + '(' + getParameterTypes(method) + ')',
+                  "((" + declaringType + ")instance)." + method.getSimpleName() + "(" + getArguments(method) + ");");
+            }
+         }
+      }
+      try
+      {
+         JavaFileObject file =
+            processingEnv.getFiler().createSourceFile(
+               packageName.length() == 0 ? simpleName : packageName + "." + simpleName, type);
+         Writer writer = file.openWriter();
+         try
+         {
+            write(writer, packageName, simpleName, typeName, constructors, injectionPoints);
+         }
+         finally
+         {
+            writer.close();
+         }
+      }
+      catch (IOException e)
+      {
+         processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+            "Could not generate the component factory of " + binaryName + ": " + e.getMessage(), type);
+      }
+   }
+
+   private static void write(Writer writer, String packageName, String simpleName, String typeName,
+      Map<String, String> constructors, Map<String, String> injectionPoints) throws IOException
+   {
+      StringBuilder sb = new StringBuilder();
+      if (packageName.length() > 0)
+      {
+         sb.append("package ").append(packageName).append(";\n\n");
+      }
+      sb.append("/**\n");
+      sb.append(" * The component factory of {@link ").append(typeName).append("}, generated by\n");
+      sb.append(" * ").append(ComponentFactoryProcessor.class.getName()).append(", do not edit.\n");
+      sb.append(" */\n");
+      sb.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+      sb.append("public final class ").append(simpleName).append(" implements ").append(COMPONENT_FACTORY)
+         .append('<').append(typeName).append(">\n{\n");
+      appendDescriptions(sb, "CONSTRUCTORS", constructors);
+      appendDescriptions(sb, "INJECTION_POINTS", injectionPoints);
+      sb.append("   public String[] getConstructors()\n   {\n      return CONSTRUCTORS.clone();\n   }\n\n");
+      sb.append("   public ").append(typeName).append(" newInstance(int constructor, Object[] args) throws Exception\n");
+      sb.append("   {\n      switch (constructor)\n      {\n");
+      int i = 0;
+      for (String statement : constructors.values())
+      {
+         sb.append("         case ").append(i++).append(" :\n");
+         sb.append("            ").append(statement).append('\n');
+      }
+      sb.append("         default :\n");
+      sb.append("            throw new IllegalArgumentException(\"Unknown constructor \" + constructor);\n");
+      sb.append("      }\n   }\n\n");
+      sb.append("   public String[] getInjectionPoints()\n   {\n      return INJECTION_POINTS.clone();\n   }\n\n");
+      sb.append("   public void inject(").append(typeName)
+         .append(" instance, int injectionPoint, Object[] args) throws Exception\n");
+      sb.append("   {\n      switch (injectionPoint)\n      {\n");
+      i = 0;
+      for (String statement : injectionPoints.values())
+      {
+         sb.append("         case ").append(i++).append(" :\n");
+         sb.append("            ").append(statement).append('\n');
+         sb.append("            break;\n");
+      }
+      sb.append("         default :\n");
+      sb.append("            throw new IllegalArgumentException(\"Unknown injection point \" + injectionPoint);\n");
+      sb.append("      }\n   }\n}\n");
+      writer.write(sb.toString());
+   }
+
+   private static void appendDescriptions(StringBuilder sb, String name, Map<String, String> descriptions)
+   {
+      sb.append("   private static final String[] ").append(name).append(" = {");
+      boolean first = true;
+      for (String description : descriptions.keySet())
+      {
+         if (!first)
+         {
+            sb.append(", ");
+         }
+         sb.append('"').append(description).append('"');
+         first = false;
+      }
+      sb.append("};\n\n");
+   }
+
+   /**
+    * Gives the comma separated list of the names of the parameter types of the given constructor or
+    * method as returned by {@link Class#getName()}
+    */
+   private String getParameterTypes(ExecutableElement executable)
+   {
+      StringBuilder sb = new StringBuilder();
+      for (VariableElement parameter : executable.getParameters())
+      {
+         if (sb.length() > 0)
+         {
+            sb.append(',');
+         }
+         sb.append(getClassName(parameter.asType()));
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Gives the arguments of the given constructor or method taken from the array <code>args</code>
+    */
+   private String getArguments(ExecutableElement executable)
+   {
+      StringBuilder sb = new StringBuilder();
+      List<? extends VariableElement> parameters = executable.getParameters();
+      for (int i = 0; i < parameters.size(); i++)
+      {
+         if (i > 0)
+         {
+            sb.append(", ");
+         }
+         sb.append(getArgument(parameters.get(i).asType(), i));
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Gives the element of the array <code>args</code> at the given index cast to the given type
+    */
+   private String getArgument(TypeMirror type, int index)
+   {
+      String castType;
+      if (type.getKind().isPrimitive())
+      {
+         // The value will be unboxed
+         castType = processingEnv.getTypeUtils().boxedClass((PrimitiveType)type).getQualifiedName().toString();
+      }
+      else
+      {
+         castType = processingEnv.getTypeUtils().erasure(type).toString();
+      }
+      return "(" + castType + ")args[" + index + "]";
+   }
+
+   /**
+    * Gives the name of the given type as returned by {@link Class#getName()}
+    */
+   private String getClassName(TypeMirror type)
+   {
+      TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+      if (erasure.getKind() == TypeKind.ARRAY)
+      {
+         return getDescriptor(erasure);
+      }
+      else if (erasure.getKind() == TypeKind.DECLARED)
+      {
+         return processingEnv.getElementUtils().getBinaryName((TypeElement)((DeclaredType)erasure).asElement())
+            .toString();
+      }
+      return erasure.toString();
+   }
+
+   /**
+    * Gives the descriptor of the given type as used by {@link Class#getName()} for the arrays
+    */
+   private String getDescriptor(TypeMirror type)
+   {
+      switch (type.getKind())
+      {
+         case ARRAY :
+            return "[" + getDescriptor(((ArrayType)type).getComponentType());
+         case BOOLEAN :
+            return "Z";
+         case BYTE :
+            return "B";
+         case CHAR :
+            return "C";
+         case SHORT :
+            return "S";
+         case INT :
+            return "I";
+         case LONG :
+            return "J";
+         case FLOAT :
+            return "F";
+         case DOUBLE :
+            return "D";
+         default :
+            return "L" + getClassName(type) + ";";
+      }
+   }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.processor;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.container.spi.ComponentFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * @version $Id$
+ */
+public class TestComponentFactoryProcessor extends TestCase
+{
+
+   private File dir;
+
+   private ClassLoader cl;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      dir = File.createTempFile("processor", "");
+      dir.delete();
+      File src = new File(dir, "src/sample");
+      src.mkdirs();
+      File classes = new File(dir, "classes");
+      classes.mkdirs();
+      List<File> files = new ArrayList<File>();
+      for (String name : new String[]{"AbstractComponent.java", "Component.java"})
+      {
+         File file = new File(src, name);
+         copy(getClass().getResourceAsStream("/sample/" + name), file);
+         files.add(file);
+      }
+      JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+      StandardJavaFileManager manager = compiler.getStandardFileManager(null, null, null);
+      try
+      {
+         Iterable<? extends JavaFileObject> units = manager.getJavaFileObjectsFromFiles(files);
+         String classpath = getLocation(Inject.class) + File.pathSeparator + getLocation(ComponentFactory.class);
+         JavaCompiler.CompilationTask task =
+            compiler.getTask(null, manager, null,
+               Arrays.asList("-classpath", classpath, "-d", classes.getAbsolutePath(), "-s", classes.getAbsolutePath()),
+               null, units);
+         task.setProcessors(Collections.singletonList(new ComponentFactoryProcessor()));
+         assertTrue(task.call());
+      }
+      finally
+      {
+         manager.close();
+      }
+      cl = new URLClassLoader(new URL[]{classes.toURI().toURL()}, getClass().getClassLoader());
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      delete(dir);
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testGeneratedFactory() throws Exception
+   {
+      Class<?> componentClass = cl.loadClass("sample.Component");
+      ComponentFactory<Object> factory =
+         (ComponentFactory<Object>)cl.loadClass("sample.Component" + ComponentFactory.SUFFIX).newInstance();
+      assertEquals(Arrays.asList("java.lang.String,int"), Arrays.asList(factory.getConstructors()));
+      List<String> injectionPoints = Arrays.asList(factory.getInjectionPoints());
+      assertEquals(3, injectionPoints.size());
+      assertTrue(injectionPoints.contains("sample.Component#value"));
+      assertTrue(injectionPoints.contains("sample.Component#setValues([J,java.util.List)"));
+      assertTrue(injectionPoints.contains("sample.AbstractComponent#setParentValue(java.lang.String)"));
+
+      Object component = factory.newInstance(0, new Object[]{"name", 5});
+      assertSame(componentClass, component.getClass());
+      assertEquals("name", getField(component, componentClass, "name"));
+      assertEquals(5, getField(component, componentClass, "size"));
+
+      factory.inject(component, injectionPoints.indexOf("sample.Component#value"), new Object[]{"value"});
+      assertEquals("value", getField(component, componentClass, "value"));
+      long[] values = {1L};
+      List<String> list = new ArrayList<String>();
+      factory.inject(component, injectionPoints.indexOf("sample.Component#setValues([J,java.util.List)"),
+         new Object[]{values, list});
+      assertSame(values, getField(component, componentClass, "values"));
+      assertSame(list, getField(component, componentClass, "list"));
+      factory.inject(component, injectionPoints.indexOf("sample.AbstractComponent#setParentValue(java.lang.String)"),
+         new Object[]{"parent"});
+      assertEquals("parent", getField(component, componentClass.getSuperclass(), "parentValue"));
+      try
+      {
+         factory.inject(component, 3, new Object[0]);
+         fail("An IllegalArgumentException was expected");
+      }
+      catch (IllegalArgumentException e)
+      {
+         // expected
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testNestedClasses() throws Exception
+   {
+      ComponentFactory<Object> factory =
+         (ComponentFactory<Object>)cl.loadClass("sample.Component$Nested" + ComponentFactory.SUFFIX).newInstance();
+      assertEquals(Arrays.asList(""), Arrays.asList(factory.getConstructors()));
+      assertEquals(Arrays.asList("sample.Component$Nested#component"), Arrays.asList(factory.getInjectionPoints()));
+      Object nested = factory.newInstance(0, new Object[0]);
+      Object component = cl.loadClass("sample.Component" + ComponentFactory.SUFFIX).getMethod("newInstance", int.class,
+         Object[].class).invoke(cl.loadClass("sample.Component" + ComponentFactory.SUFFIX).newInstance(), 0,
+         new Object[]{"name", 1});
+      factory.inject(nested, 0, new Object[]{component});
+      assertSame(component, nested.getClass().getField("component").get(nested));
+      try
+      {
+         cl.loadClass("sample.Component$PrivateNested" + ComponentFactory.SUFFIX);
+         fail("No factory can be generated for a private class");
+      }
+      catch (ClassNotFoundException e)
+      {
+         // expected
+      }
+      try
+      {
+         cl.loadClass("sample.AbstractComponent" + ComponentFactory.SUFFIX);
+         fail("No factory can be generated for an abstract class");
+      }
+      catch (ClassNotFoundException e)
+      {
+         // expected
+      }
+   }
+
+   private static Object getField(Object instance, Class<?> c, String name) throws Exception
+   {
+      Field field = c.getDeclaredField(name);
+      field.setAccessible(true);
+      return field.get(instance);
+   }
+
+   private static String getLocation(Class<?> c) throws Exception
+   {
+      return new File(c.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+   }
+
+   private static void copy(InputStream in, File file) throws Exception
+   {
+      OutputStream out = new FileOutputStream(file);
+      try
+      {
+         byte[] buffer = new byte[1024];
+         int length;
+         while ((length = in.read(buffer)) != -1)
+         {
+            out.write(buffer, 0, length);
+         }
+      }
+      finally
+      {
+         in.close();
+         out.close();
+      }
+   }
+
+   private static void delete(File file)
+   {
+      File[] files = file.listFiles();
+      if (files != null)
+      {
+         for (File f : files)
+         {
+            delete(f);
+         }
+      }
+      file.delete();
+   }
+}
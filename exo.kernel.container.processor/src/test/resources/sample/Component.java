@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package sample;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+public class Component extends AbstractComponent
+{
+   final String name;
+
+   final int size;
+
+   @Inject
+   @Named("value")
+   String value;
+
+   @Inject
+   private String privateValue;
+
+   long[] values;
+
+   List<String> list;
+
+   @Inject
+   public Component(String name, int size)
+   {
+      this.name = name;
+      this.size = size;
+   }
+
+   @Inject
+   void setValues(long[] values, List<String> list)
+   {
+      this.values = values;
+      this.list = list;
+   }
+
+   public static class Nested
+   {
+      @Inject
+      public Component component;
+   }
+
+   private static class PrivateNested
+   {
+      @Inject
+      Component component;
+   }
+}
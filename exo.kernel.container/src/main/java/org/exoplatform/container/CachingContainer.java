@@ -26,8 +26,18 @@ import org.exoplatform.container.spi.ContainerVisitor;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Caches the results of the lookups by type and by key including the lookups by type or by class key
+ * that could not find anything, so that the lookups of optional components do not go through the whole
+ * container hierarchy each time.
+ * <p>
+ * The caches are cleared each time a component is registered or unregistered in this container or
+ * one of its ancestors. The cached results are also stamped with the registration epoch of the
+ * container which is incremented at the same time, so that a result of a lookup that was running
+ * during the registration is ignored and removed instead of being cached.
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
@@ -39,127 +49,147 @@ public class CachingContainer extends AbstractInterceptor
     */
    private static final long serialVersionUID = 316388590860241305L;
 
-   private final ConcurrentMap<Class<?>, ComponentAdapter<?>> adapterByType =
-      new ConcurrentHashMap<Class<?>, ComponentAdapter<?>>();
+   /**
+    * The value used to cache the lookups that could not find anything
+    */
+   private static final Object NULL = new Object();
 
-   private final ConcurrentMap<Class<?>, Object> instanceByType = new ConcurrentHashMap<Class<?>, Object>();
+   private final ConcurrentMap<Class<?>, CachedResult> adapterByType =
+      new ConcurrentHashMap<Class<?>, CachedResult>();
 
-   private final ConcurrentMap<Object, Object> instanceByKey = new ConcurrentHashMap<Object, Object>();
+   private final ConcurrentMap<Class<?>, CachedResult> instanceByType =
+      new ConcurrentHashMap<Class<?>, CachedResult>();
 
-   private final ConcurrentMap<Class<?>, Object> adaptersByType =
-      new ConcurrentHashMap<Class<?>, Object>();
+   private final ConcurrentMap<Object, CachedResult> instanceByKey = new ConcurrentHashMap<Object, CachedResult>();
 
-   private final ConcurrentMap<Class<?>, List<?>> instancesByType = new ConcurrentHashMap<Class<?>, List<?>>();
+   private final ConcurrentMap<Class<?>, CachedResult> instancesByType =
+      new ConcurrentHashMap<Class<?>, CachedResult>();
+
+   /**
+    * The registration epoch of the container
+    */
+   private final AtomicInteger epoch = new AtomicInteger();
 
    private final ThreadLocal<Boolean> enabled = new ThreadLocal<Boolean>();
 
    @SuppressWarnings("unchecked")
    public <T> ComponentAdapter<T> getComponentAdapterOfType(Class<T> componentType, boolean autoRegistration)
    {
-      ComponentAdapter<T> adapter = (ComponentAdapter<T>)adapterByType.get(componentType);
-      if (adapter == null)
+      CachedResult result = getCachedResult(adapterByType, componentType);
+      if (result != null)
       {
-         adapter = super.getComponentAdapterOfType(componentType, autoRegistration);
-         if (adapter != null)
-         {
-            adapterByType.put(componentType, adapter);
-         }
+         return (ComponentAdapter<T>)result.getValue();
       }
+      int currentEpoch = epoch.get();
+      ComponentAdapter<T> adapter = super.getComponentAdapterOfType(componentType, autoRegistration);
+      putCachedResult(adapterByType, componentType, adapter, currentEpoch);
       return adapter;
    }
 
-   public <T> List<ComponentAdapter<T>> getComponentAdaptersOfType(Class<T> componentType)
+   @SuppressWarnings("unchecked")
+   public <T> List<T> getComponentInstancesOfType(Class<T> componentType) throws ContainerException
    {
-      @SuppressWarnings("unchecked")
-      List<ComponentAdapter<T>> adapters = (List<ComponentAdapter<T>>)adaptersByType.get(componentType);
-      if (adapters == null)
+      CachedResult result = getCachedResult(instancesByType, componentType);
+      if (result != null)
       {
-         adapters = super.getComponentAdaptersOfType(componentType);
-         if (adapters != null)
-         {
-            adaptersByType.put(componentType, adapters);
-         }
+         return (List<T>)result.getValue();
       }
-      return adapters;
+      int currentEpoch = epoch.get();
+      List<T> instances = super.getComponentInstancesOfType(componentType);
+      if (instances != null && isCacheEnabled())
+      {
+         putCachedResult(instancesByType, componentType, instances, currentEpoch);
+      }
+      return instances;
    }
 
-   @SuppressWarnings("unchecked")
-   public <T> List<T> getComponentInstancesOfType(Class<T> componentType) throws ContainerException
+   public <T> T getComponentInstance(Object componentKey, Class<T> bindType, boolean autoRegistration) throws ContainerException
    {
-      List<?> instances = instancesByType.get(componentType);
-      if (instances == null)
+      CachedResult result = getCachedResult(instanceByKey, componentKey);
+      if (result != null)
       {
-         instances = super.getComponentInstancesOfType(componentType);
-         if (instances != null)
-         {
-            Boolean cacheEnabled = enabled.get();
-            try
-            {
-               if (cacheEnabled == null || cacheEnabled.booleanValue())
-               {
-                  instancesByType.put(componentType, instances);
-               }
-            }
-            finally
-            {
-               if (cacheEnabled != null)
-                  enabled.remove();
-            }
-         }
+         return bindType.cast(result.getValue());
+      }
+      int currentEpoch = epoch.get();
+      T instance = super.getComponentInstance(componentKey, bindType, autoRegistration);
+      // The lookups that could not find anything are only cached for the class keys, since any key can be
+      // looked up the negative results of the other keys could grow the cache without bound
+      if (isCacheEnabled() && (instance != null || componentKey instanceof Class))
+      {
+         putCachedResult(instanceByKey, componentKey, instance, currentEpoch);
       }
-      return (List<T>)instances;
+      return instance;
    }
 
-   public <T> T getComponentInstance(Object componentKey, Class<T> bindType, boolean autoRegistration) throws ContainerException
+   public <T> T getComponentInstanceOfType(Class<T> componentType, boolean autoRegistration)
    {
-      Object instance = instanceByKey.get(componentKey);
-      if (instance == null)
+      CachedResult result = getCachedResult(instanceByType, componentType);
+      if (result != null)
       {
-         instance = super.getComponentInstance(componentKey, bindType, autoRegistration);
-         if (instance != null)
-         {
-            Boolean cacheEnabled = enabled.get();
-            try
-            {
-               if (cacheEnabled == null || cacheEnabled.booleanValue())
-               {
-                  instanceByKey.put(componentKey, instance);
-               }
-            }
-            finally
-            {
-               if (cacheEnabled != null)
-                  enabled.remove();
-            }
-         }
+         return componentType.cast(result.getValue());
+      }
+      int currentEpoch = epoch.get();
+      T instance = super.getComponentInstanceOfType(componentType, autoRegistration);
+      if (isCacheEnabled())
+      {
+         putCachedResult(instanceByType, componentType, instance, currentEpoch);
       }
-      return bindType.cast(instance);
+      return instance;
    }
 
-   public <T> T getComponentInstanceOfType(Class<T> componentType, boolean autoRegistration)
+   /**
+    * Gives the result cached for the given key if it has been cached during the current epoch.
+    */
+   private CachedResult getCachedResult(ConcurrentMap<?, CachedResult> cache, Object key)
+   {
+      CachedResult result = cache.get(key);
+      return result != null && result.epoch == epoch.get() ? result : null;
+   }
+
+   /**
+    * Caches the result of a lookup that has been done during the given epoch unless the container
+    * has been invalidated meanwhile.
+    */
+   private <K> void putCachedResult(ConcurrentMap<K, CachedResult> cache, K key, Object value, int currentEpoch)
    {
-      Object instance = instanceByType.get(componentType);
-      if (instance == null)
+      if (epoch.get() != currentEpoch)
       {
-         instance = super.getComponentInstanceOfType(componentType, autoRegistration);
-         if (instance != null)
-         {
-            Boolean cacheEnabled = enabled.get();
-            try
-            {
-               if (cacheEnabled == null || cacheEnabled.booleanValue())
-               {
-                  instanceByType.put(componentType, instance);
-               }
-            }
-            finally
-            {
-               if (cacheEnabled != null)
-                  enabled.remove();
-            }
-         }
+         return;
       }
-      return componentType.cast(instance);
+      CachedResult result = new CachedResult(value, currentEpoch);
+      cache.put(key, result);
+      if (epoch.get() != currentEpoch)
+      {
+         // The container has been invalidated while caching the result
+         cache.remove(key, result);
+      }
+   }
+
+   /**
+    * Moves this container to a new epoch and clears its caches.
+    */
+   private void clearCaches()
+   {
+      epoch.incrementAndGet();
+      adapterByType.clear();
+      instanceByType.clear();
+      instanceByKey.clear();
+      instancesByType.clear();
+   }
+
+   /**
+    * Indicates whether the result of the lookup that has just been done can be cached, it cannot be
+    * cached if a component that is not a singleton or that is not fully created has been returned.
+    */
+   private boolean isCacheEnabled()
+   {
+      Boolean cacheEnabled = enabled.get();
+      if (cacheEnabled == null)
+      {
+         return true;
+      }
+      enabled.remove();
+      return cacheEnabled.booleanValue();
    }
 
    private static final ContainerVisitor invalidator = new ContainerVisitor()
@@ -170,12 +200,7 @@ public class CachingContainer extends AbstractInterceptor
          {
             if (container instanceof CachingContainer)
             {
-               CachingContainer caching = (CachingContainer)container;
-               caching.adapterByType.clear();
-               caching.adaptersByType.clear();
-               caching.instanceByKey.clear();
-               caching.instanceByType.clear();
-               caching.instancesByType.clear();
+               ((CachingContainer)container).clearCaches();
                break;
             }
          }
@@ -183,6 +208,9 @@ public class CachingContainer extends AbstractInterceptor
       }
    };
 
+   /**
+    * Clears the caches of this container and all its descendants.
+    */
    private void invalidate()
    {
       accept(invalidator);
@@ -223,4 +251,26 @@ public class CachingContainer extends AbstractInterceptor
    {
       enabled.set(Boolean.FALSE);
    }
+
+   /**
+    * The result of a lookup with the epoch during which it has been done
+    */
+   private static class CachedResult
+   {
+
+      private final Object value;
+
+      private final int epoch;
+
+      CachedResult(Object value, int epoch)
+      {
+         this.value = value == null ? NULL : value;
+         this.epoch = epoch;
+      }
+
+      Object getValue()
+      {
+         return value == NULL ? null : value;
+      }
+   }
 }
@@ -0,0 +1,759 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.container.spi.ComponentFactory;
+import org.exoplatform.container.util.ContainerUtil;
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Qualifier;
+
+/**
+ * Describes how to create and inject the instances of a component class: the constructors to try
+ * in order, the fields and methods to inject and the way to resolve each of their parameters. A plan
+ * is built once per class and kept as long as the class is loaded, so that the reflection is only
+ * used the first time a component class is instantiated.
+ * <p>
+ * The constructors and the injection points are invoked through the {@link ComponentFactory}
+ * generated for the component class if any, otherwise through a {@link MethodHandleComponentFactory}
+ * or through a {@link ReflectionComponentFactory} if the members cannot be converted into method handles.
+ *
+ * @version $Id$
+ */
+final class ComponentPlan<T>
+{
+
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.ConcurrentContainer");
+
+   private static final ClassValue<ComponentPlan<?>> PLANS = new ClassValue<ComponentPlan<?>>()
+   {
+      @SuppressWarnings({"rawtypes", "unchecked"})
+      @Override
+      protected ComponentPlan<?> computeValue(Class<?> type)
+      {
+         return new ComponentPlan(type);
+      }
+   };
+
+   private final Class<T> type;
+
+   /**
+    * The factory generated for the component class, <code>null</code> if there is none
+    */
+   private final ComponentFactory<T> generatedFactory;
+
+   private final ConstructorPlan[] constructors;
+
+   /**
+    * The injection points, they are resolved lazily as they are only needed by the components
+    * with a constructor compliant with JSR 330
+    */
+   private volatile InjectionPoint[] injectionPoints;
+
+   private volatile boolean injectPresent;
+
+   private ComponentPlan(Class<T> type)
+   {
+      this.type = type;
+      this.generatedFactory = loadGeneratedFactory(type);
+      Constructor<?>[] sortedConstructors = ContainerUtil.getSortedConstructors(type);
+      this.constructors = new ConstructorPlan[sortedConstructors.length];
+      Map<String, Integer> supported = getIndexes(generatedFactory == null ? null : generatedFactory.getConstructors());
+      List<Constructor<?>> unsupported = new ArrayList<Constructor<?>>();
+      for (int i = 0; i < sortedConstructors.length; i++)
+      {
+         Constructor<?> constructor = sortedConstructors[i];
+         Integer index = supported.get(getDescription(constructor));
+         constructors[i] =
+            new ConstructorPlan(constructor, sortedConstructors.length == 1, index == null ? unsupported.size()
+               : index);
+         if (index == null)
+         {
+            unsupported.add(constructor);
+         }
+         else
+         {
+            constructors[i].factory = generatedFactory;
+         }
+      }
+      ComponentFactory<T> fallback = createFallback(type, unsupported, new ArrayList<Member>());
+      for (ConstructorPlan constructor : constructors)
+      {
+         if (constructor.factory == null)
+         {
+            constructor.factory = fallback;
+         }
+      }
+   }
+
+   /**
+    * Gives the plan of the given component class.
+    *
+    * @throws NoClassDefFoundError if a constructor of the class cannot be resolved
+    */
+   @SuppressWarnings("unchecked")
+   static <T> ComponentPlan<T> getPlan(Class<T> type) throws NoClassDefFoundError
+   {
+      return (ComponentPlan<T>)PLANS.get(type);
+   }
+
+   /**
+    * Gives the constructors of the component class in the order in which they must be tried
+    */
+   ConstructorPlan[] getConstructors()
+   {
+      return constructors;
+   }
+
+   /**
+    * Creates a new instance of the component with the given constructor.
+    *
+    * @throws InvocationTargetException if the constructor failed
+    */
+   @SuppressWarnings("unchecked")
+   T newInstance(ConstructorPlan constructor, Object[] args) throws Exception
+   {
+      ComponentFactory<T> factory = (ComponentFactory<T>)constructor.factory;
+      if (factory != generatedFactory)
+      {
+         // The fallbacks already throw the same exceptions as Constructor.newInstance
+         return type.cast(factory.newInstance(constructor.index, args));
+      }
+      Object instance;
+      try
+      {
+         instance = factory.newInstance(constructor.index, args);
+      }
+      catch (Throwable e)
+      {
+         // Throw the same exception as Constructor.newInstance for backward compatibility
+         throw new InvocationTargetException(e);
+      }
+      return type.cast(instance);
+   }
+
+   /**
+    * Gives the fields and methods to inject in the order in which they must be injected
+    */
+   InjectionPoint[] getInjectionPoints()
+   {
+      InjectionPoint[] points = injectionPoints;
+      if (points == null)
+      {
+         synchronized (this)
+         {
+            points = injectionPoints;
+            if (points == null)
+            {
+               injectionPoints = points = resolveInjectionPoints();
+            }
+         }
+      }
+      return points;
+   }
+
+   /**
+    * Indicates whether at least one field or method of the component class has been annotated with
+    * {@link Inject}
+    */
+   boolean isInjectPresent()
+   {
+      getInjectionPoints();
+      return injectPresent;
+   }
+
+   /**
+    * Injects the given values into the given injection point of the given instance.
+    *
+    * @throws Exception if the value could not be injected or the method failed
+    */
+   @SuppressWarnings("unchecked")
+   void inject(Object instance, InjectionPoint injectionPoint, Object[] args) throws Exception
+   {
+      ((ComponentFactory<Object>)injectionPoint.factory).inject(instance, injectionPoint.index, args);
+   }
+
+   private InjectionPoint[] resolveInjectionPoints()
+   {
+      LinkedList<Class<?>> hierarchy = new LinkedList<Class<?>>();
+      Class<?> clazz = type;
+      do
+      {
+         hierarchy.addFirst(clazz);
+      }
+      while ((clazz = clazz.getSuperclass()) != null && !clazz.equals(Object.class));
+      // Fields and methods in superclasses are injected before those in subclasses.
+      Map<String, Method> methodAlreadyRegistered = new HashMap<String, Method>();
+      Map<Class<?>, Collection<Method>> methodsPerClass = new HashMap<Class<?>, Collection<Method>>();
+      for (Class<?> c : hierarchy)
+      {
+         addMethods(c, methodAlreadyRegistered, methodsPerClass);
+      }
+      boolean isInjectPresent = !methodAlreadyRegistered.isEmpty();
+      List<InjectionPoint> points = new ArrayList<InjectionPoint>();
+      for (Class<?> c : hierarchy)
+      {
+         Field[] fields = c.getDeclaredFields();
+         for (int i = 0, length = fields.length; i < length; i++)
+         {
+            Field f = fields[i];
+            if (!f.isAnnotationPresent(Inject.class))
+            {
+               continue;
+            }
+            isInjectPresent = true;
+            if (Modifier.isFinal(f.getModifiers()))
+            {
+               LOG.warn("Could not set a value to the field " + f.getName() + " of the class " + type.getName()
+                  + ": The field cannot be final");
+               continue;
+            }
+            else if (Modifier.isStatic(f.getModifiers()))
+            {
+               LOG.warn("Could not set a value to the field " + f.getName() + " of the class " + type.getName()
+                  + ": The field cannot be static");
+               continue;
+            }
+            points.add(new InjectionPoint(f, new Parameter[]{new Parameter(f.getType(), f.getGenericType(),
+               f.getAnnotations())}));
+         }
+         Collection<Method> methods = methodsPerClass.get(c);
+         if (methods == null)
+         {
+            continue;
+         }
+         for (Method m : methods)
+         {
+            if (!m.isAnnotationPresent(Inject.class))
+            {
+               continue;
+            }
+            if (Modifier.isAbstract(m.getModifiers()))
+            {
+               LOG.warn("Could not call the method " + m.getName() + " of the class " + type.getName()
+                  + ": The method cannot be abstract");
+               continue;
+            }
+            else if (Modifier.isStatic(m.getModifiers()))
+            {
+               LOG.warn("Could not call the method " + m.getName() + " of the class " + type.getName()
+                  + ": The method cannot be static");
+               continue;
+            }
+            points.add(new InjectionPoint(m, resolveParameters(m.getParameterTypes(), m.getGenericParameterTypes(),
+               m.getParameterAnnotations())));
+         }
+      }
+      Map<String, Integer> supported =
+         getIndexes(generatedFactory == null ? null : generatedFactory.getInjectionPoints());
+      List<Member> unsupported = new ArrayList<Member>();
+      for (InjectionPoint point : points)
+      {
+         Integer index = supported.get(point.description);
+         if (index == null)
+         {
+            point.index = unsupported.size();
+            unsupported.add(point.member);
+         }
+         else
+         {
+            point.index = index;
+            point.factory = generatedFactory;
+         }
+      }
+      ComponentFactory<T> fallback = createFallback(type, new ArrayList<Constructor<?>>(), unsupported);
+      for (InjectionPoint point : points)
+      {
+         if (point.factory == null)
+         {
+            point.factory = fallback;
+         }
+      }
+      this.injectPresent = isInjectPresent;
+      return points.toArray(new InjectionPoint[points.size()]);
+   }
+
+   /**
+    * Loads the factory generated for the given component class if any.
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> ComponentFactory<T> loadGeneratedFactory(Class<T> type)
+   {
+      try
+      {
+         Class<?> factoryClass = Class.forName(type.getName() + ComponentFactory.SUFFIX, true, type.getClassLoader());
+         if (ComponentFactory.class.isAssignableFrom(factoryClass))
+         {
+            return (ComponentFactory<T>)factoryClass.newInstance();
+         }
+         LOG.warn("The class " + factoryClass.getName() + " is not a " + ComponentFactory.class.getName()
+            + ", it will be ignored");
+      }
+      catch (ClassNotFoundException e)
+      {
+         // No factory has been generated for this class
+      }
+      catch (LinkageError e)
+      {
+         LOG.warn("Could not load the factory of the class " + type.getName() + ", it will be ignored", e);
+      }
+      catch (Exception e)
+      {
+         LOG.warn("Could not create the factory of the class " + type.getName() + ", it will be ignored", e);
+      }
+      return null;
+   }
+
+   private static <T> ComponentFactory<T> createFallback(Class<T> type, List<Constructor<?>> constructors,
+      List<Member> members)
+   {
+      if (constructors.isEmpty() && members.isEmpty())
+      {
+         return null;
+      }
+      // The abstract classes are kept on the reflection so that they fail as before
+      if (!Modifier.isAbstract(type.getModifiers()))
+      {
+         try
+         {
+            return new MethodHandleComponentFactory<T>(constructors, members);
+         }
+         catch (IllegalAccessException e)
+         {
+            if (LOG.isDebugEnabled())
+            {
+               LOG.debug("Could not create the method handles of the class " + type.getName()
+                  + ", the reflection will be used instead", e);
+            }
+         }
+         catch (RuntimeException e)
+         {
+            if (LOG.isDebugEnabled())
+            {
+               LOG.debug("Could not make the members of the class " + type.getName()
+                  + " accessible, the reflection will be used instead", e);
+            }
+         }
+      }
+      return new ReflectionComponentFactory<T>(constructors, members);
+   }
+
+   private static Map<String, Integer> getIndexes(String[] descriptions)
+   {
+      Map<String, Integer> indexes = new HashMap<String, Integer>();
+      if (descriptions != null)
+      {
+         for (int i = 0; i < descriptions.length; i++)
+         {
+            indexes.put(descriptions[i], i);
+         }
+      }
+      return indexes;
+   }
+
+   private static Parameter[] resolveParameters(Class<?>[] types, Type[] genericTypes, Annotation[][] annotations)
+   {
+      Parameter[] parameters = new Parameter[types.length];
+      for (int i = 0; i < types.length; i++)
+      {
+         parameters[i] = new Parameter(types[i], genericTypes[i], annotations[i]);
+      }
+      return parameters;
+   }
+
+   /**
+    * Adds the methods of the given class annotated with {@link Inject} and the methods that override
+    * them to the given maps.
+    */
+   static void addMethods(Class<?> c, Map<String, Method> methodAlreadyRegistered,
+      Map<Class<?>, Collection<Method>> methodsPerClass)
+   {
+      Method[] methods = c.getDeclaredMethods();
+      for (int i = 0, length = methods.length; i < length; i++)
+      {
+         Method m = methods[i];
+         boolean addMethod = false;
+         Method methodToRemove = null;
+         if (m.isAnnotationPresent(Inject.class))
+         {
+            addMethod = true;
+            methodToRemove = methodAlreadyRegistered.put(getMethodId(m), m);
+         }
+         else if (!methodAlreadyRegistered.isEmpty())
+         {
+            String id = getMethodId(m);
+            if (methodAlreadyRegistered.containsKey(id))
+            {
+               addMethod = true;
+               methodToRemove = methodAlreadyRegistered.put(id, m);
+            }
+         }
+         if (addMethod)
+         {
+            Collection<Method> cMethods = methodsPerClass.get(c);
+            if (cMethods == null)
+            {
+               cMethods = new HashSet<Method>();
+               methodsPerClass.put(c, cMethods);
+            }
+            cMethods.add(m);
+         }
+         if (methodToRemove != null)
+         {
+            Collection<Method> cMethods = methodsPerClass.get(methodToRemove.getDeclaringClass());
+            if (cMethods != null)
+            {
+               cMethods.remove(methodToRemove);
+            }
+         }
+      }
+   }
+
+   /**
+    * Gives an id to a method to be able to identify if a given method has already been called from the parent class
+    */
+   private static String getMethodId(Method m)
+   {
+      StringBuilder sb = new StringBuilder();
+      int modifier = m.getModifiers();
+      if (Modifier.isPrivate(modifier))
+      {
+         sb.append(m.getDeclaringClass().getName());
+      }
+      else if (!Modifier.isPublic(modifier) && !Modifier.isProtected(modifier))
+      {
+         sb.append(m.getDeclaringClass().getPackage().getName());
+      }
+      sb.append(m.getName());
+      sb.append('(');
+      Class<?>[] paramTypes = m.getParameterTypes();
+      for (int i = 0, l = paramTypes.length; i < l; i++)
+      {
+         sb.append(paramTypes[i].getName());
+         if (i < i - 1)
+            sb.append(',');
+      }
+      sb.append(')');
+      return sb.toString();
+   }
+
+   /**
+    * Gives the description of the given constructor as defined in {@link ComponentFactory}
+    */
+   static String getDescription(Constructor<?> constructor)
+   {
+      return appendParameterTypes(new StringBuilder(), constructor.getParameterTypes()).toString();
+   }
+
+   /**
+    * Gives the description of the given field as defined in {@link ComponentFactory}
+    */
+   static String getDescription(Field field)
+   {
+      return field.getDeclaringClass().getName() + '#' + field.getName();
+   }
+
+   /**
+    * Gives the description of the given method as defined in {@link ComponentFactory}
+    */
+   static String getDescription(Method method)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append(method.getDeclaringClass().getName()).append('#').append(method.getName()).append('(');
+      return appendParameterTypes(sb, method.getParameterTypes()).append(')').toString();
+   }
+
+   private static StringBuilder appendParameterTypes(StringBuilder sb, Class<?>[] types)
+   {
+      for (int i = 0; i < types.length; i++)
+      {
+         if (i > 0)
+         {
+            sb.append(',');
+         }
+         sb.append(types[i].getName());
+      }
+      return sb;
+   }
+
+   /**
+    * Describes a constructor of a component
+    */
+   static final class ConstructorPlan
+   {
+
+      private final Parameter[] parameters;
+
+      private final boolean withInject;
+
+      private final int index;
+
+      private ComponentFactory<?> factory;
+
+      private ConstructorPlan(Constructor<?> constructor, boolean single, int index)
+      {
+         this.withInject = single && constructor.isAnnotationPresent(Inject.class);
+         this.index = index;
+         Class<?>[] types = constructor.getParameterTypes();
+         if (withInject)
+         {
+            this.parameters =
+               resolveParameters(types, constructor.getGenericParameterTypes(), constructor.getParameterAnnotations());
+         }
+         else
+         {
+            this.parameters = new Parameter[types.length];
+            for (int i = 0; i < types.length; i++)
+            {
+               parameters[i] = new Parameter(types[i]);
+            }
+         }
+      }
+
+      /**
+       * Gives the parameters of the constructor
+       */
+      Parameter[] getParameters()
+      {
+         return parameters;
+      }
+
+      /**
+       * Indicates whether the constructor is the only constructor of the class and is annotated
+       * with {@link Inject}, in which case its parameters are resolved as defined in JSR 330
+       */
+      boolean isWithInject()
+      {
+         return withInject;
+      }
+   }
+
+   /**
+    * Describes a field or a method to inject
+    */
+   static final class InjectionPoint
+   {
+
+      private final Member member;
+
+      private final String description;
+
+      private final Parameter[] parameters;
+
+      private int index;
+
+      private ComponentFactory<?> factory;
+
+      private InjectionPoint(Member member, Parameter[] parameters)
+      {
+         this.member = member;
+         this.description = member instanceof Field ? getDescription((Field)member) : getDescription((Method)member);
+         this.parameters = parameters;
+      }
+
+      /**
+       * Indicates whether the injection point is a field or a method
+       */
+      boolean isField()
+      {
+         return member instanceof Field;
+      }
+
+      /**
+       * Gives the name of the field or method
+       */
+      String getName()
+      {
+         return member.getName();
+      }
+
+      /**
+       * Gives the value to inject, one for a field and one per parameter for a method
+       */
+      Parameter[] getParameters()
+      {
+         return parameters;
+      }
+   }
+
+   /**
+    * Describes how to resolve a value to inject
+    */
+   static final class Parameter
+   {
+
+      /**
+       * The value is a component
+       */
+      static final int COMPONENT = 0;
+
+      /**
+       * The value cannot be injected as primitive types are not supported
+       */
+      static final int PRIMITIVE = 1;
+
+      /**
+       * The value cannot be injected as it is a {@link Provider} whose type is unknown
+       */
+      static final int UNKNOWN_PROVIDER = 2;
+
+      /**
+       * The value is a {@link Provider} of a component
+       */
+      static final int PROVIDER = 3;
+
+      private final Class<?> type;
+
+      private final int kind;
+
+      private final Class<?> componentType;
+
+      private final String name;
+
+      private final Class<?> qualifier;
+
+      /**
+       * Creates a parameter resolved by type only.
+       */
+      private Parameter(Class<?> type)
+      {
+         this.type = type;
+         this.kind = COMPONENT;
+         this.componentType = type;
+         this.name = null;
+         this.qualifier = null;
+      }
+
+      /**
+       * Creates a parameter resolved as defined in JSR 330.
+       */
+      private Parameter(Class<?> type, Type genericType, Annotation[] annotations)
+      {
+         this.type = type;
+         String name = null;
+         Class<?> qualifier = null;
+         for (int i = 0, length = annotations.length; i < length; i++)
+         {
+            Annotation a = annotations[i];
+            if (a instanceof Named)
+            {
+               name = ((Named)a).value();
+               break;
+            }
+            else if (a.annotationType().isAnnotationPresent(Qualifier.class))
+            {
+               qualifier = a.annotationType();
+               break;
+            }
+         }
+         this.name = name;
+         this.qualifier = qualifier;
+         Class<?> componentType = type;
+         int kind = COMPONENT;
+         if (type.isPrimitive())
+         {
+            kind = PRIMITIVE;
+         }
+         else if (type.isInterface() && type.equals(Provider.class))
+         {
+            Type expectedType =
+               genericType instanceof ParameterizedType ? ((ParameterizedType)genericType).getActualTypeArguments()[0]
+                  : null;
+            if (expectedType instanceof ParameterizedType)
+            {
+               expectedType = ((ParameterizedType)expectedType).getRawType();
+            }
+            if (expectedType instanceof Class<?>)
+            {
+               kind = PROVIDER;
+               componentType = (Class<?>)expectedType;
+            }
+            else
+            {
+               kind = UNKNOWN_PROVIDER;
+            }
+         }
+         this.kind = kind;
+         this.componentType = componentType;
+      }
+
+      /**
+       * Gives the declared type of the value
+       */
+      Class<?> getType()
+      {
+         return type;
+      }
+
+      /**
+       * Gives the way to resolve the value, one of {@link #COMPONENT}, {@link #PRIMITIVE},
+       * {@link #UNKNOWN_PROVIDER} or {@link #PROVIDER}
+       */
+      int getKind()
+      {
+         return kind;
+      }
+
+      /**
+       * Gives the type of the component to inject, which is the type of the value except for
+       * the providers
+       */
+      Class<?> getComponentType()
+      {
+         return componentType;
+      }
+
+      /**
+       * Gives the value of the annotation {@link Named} if any
+       */
+      String getName()
+      {
+         return name;
+      }
+
+      /**
+       * Gives the qualifier of the component if any
+       */
+      Class<?> getQualifier()
+      {
+         return qualifier;
+      }
+   }
+}
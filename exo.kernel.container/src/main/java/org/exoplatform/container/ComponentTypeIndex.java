@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.container.spi.ComponentAdapter;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An index of the component adapters of a container by type. Each adapter is indexed under its
+ * implementation class and all its super classes and interfaces, so that the adapters whose
+ * implementation is assignable to a given type can be found without iterating over all the
+ * adapters of the container. The adapters of a given type are kept in registration order.
+ * <p>
+ * The index is updated incrementally: a registration only updates the entries of the types of the
+ * new adapter. The adapters of each type are kept in an append-only array shared by immutable
+ * snapshots, a registration appends the adapter in place and publishes a new snapshot that sees one
+ * more element, so that the lookups never need to lock and a registration costs an amortized constant
+ * time per type even for the types shared by all the components such as <code>Object</code>.
+ *
+ * @version $Id$
+ */
+final class ComponentTypeIndex
+{
+
+   private final ConcurrentMap<Class<?>, Snapshot> adaptersByType = new ConcurrentHashMap<Class<?>, Snapshot>();
+
+   /**
+    * Adds the given adapter after the adapters already indexed.
+    */
+   synchronized void add(ComponentAdapter<?> adapter)
+   {
+      Class<?> implementation = adapter.getComponentImplementation();
+      if (implementation == null)
+      {
+         return;
+      }
+      for (Class<?> type : getTypes(implementation))
+      {
+         Snapshot current = adaptersByType.get(type);
+         adaptersByType.put(type, current == null ? new Snapshot(adapter) : current.append(adapter));
+      }
+   }
+
+   /**
+    * Removes the given adapter from the index.
+    */
+   synchronized void remove(ComponentAdapter<?> adapter)
+   {
+      Class<?> implementation = adapter.getComponentImplementation();
+      if (implementation == null)
+      {
+         return;
+      }
+      for (Class<?> type : getTypes(implementation))
+      {
+         Snapshot current = adaptersByType.get(type);
+         if (current == null || !current.contains(adapter))
+         {
+            continue;
+         }
+         if (current.size() == 1)
+         {
+            adaptersByType.remove(type);
+            continue;
+         }
+         adaptersByType.put(type, current.without(adapter));
+      }
+   }
+
+   /**
+    * Gives the given type, its super classes and all its interfaces.
+    */
+   private static Set<Class<?>> getTypes(Class<?> implementation)
+   {
+      Set<Class<?>> types = new HashSet<Class<?>>();
+      addTypes(implementation, types);
+      // Object is assignable from any type including the interfaces
+      types.add(Object.class);
+      return types;
+   }
+
+   /**
+    * Adds the given type, its super classes and all its interfaces to the given set.
+    */
+   private static void addTypes(Class<?> type, Set<Class<?>> types)
+   {
+      for (Class<?> c = type; c != null; c = c.getSuperclass())
+      {
+         if (!types.add(c))
+         {
+            continue;
+         }
+         for (Class<?> i : c.getInterfaces())
+         {
+            addTypes(i, types);
+         }
+      }
+   }
+
+   /**
+    * Gives the adapters whose implementation is assignable to the given type.
+    *
+    * @param componentType the type of the expected components
+    * @return an unmodifiable list of the adapters found in registration order, an empty list if none
+    * could be found
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   <T> List<ComponentAdapter<T>> getComponentAdaptersOfType(Class<T> componentType)
+   {
+      List adapters = adaptersByType.get(componentType);
+      return adapters == null ? Collections.<ComponentAdapter<T>> emptyList() : adapters;
+   }
+
+   /**
+    * An immutable view of the first elements of an append-only array. The elements of the array are
+    * never modified once visible from a snapshot, a new adapter is written after the last visible
+    * element and a removal copies the array, so a snapshot remains valid whatever the next changes.
+    */
+   private static final class Snapshot extends AbstractList<ComponentAdapter<?>> implements RandomAccess
+   {
+      private final ComponentAdapter<?>[] adapters;
+
+      private final int size;
+
+      Snapshot(ComponentAdapter<?> adapter)
+      {
+         this(new ComponentAdapter<?>[]{adapter}, 1);
+      }
+
+      private Snapshot(ComponentAdapter<?>[] adapters, int size)
+      {
+         this.adapters = adapters;
+         this.size = size;
+      }
+
+      /**
+       * Gives a snapshot with the given adapter after the elements of this snapshot, it must only
+       * be called on the last snapshot of a given type.
+       */
+      Snapshot append(ComponentAdapter<?> adapter)
+      {
+         ComponentAdapter<?>[] array = adapters;
+         if (size == array.length)
+         {
+            array = Arrays.copyOf(array, size * 2);
+         }
+         array[size] = adapter;
+         return new Snapshot(array, size + 1);
+      }
+
+      /**
+       * Gives a snapshot of the elements of this snapshot but the given adapter
+       */
+      Snapshot without(ComponentAdapter<?> adapter)
+      {
+         ComponentAdapter<?>[] array = new ComponentAdapter<?>[size];
+         int length = 0;
+         for (int i = 0; i < size; i++)
+         {
+            if (!adapters[i].equals(adapter))
+            {
+               array[length++] = adapters[i];
+            }
+         }
+         return new Snapshot(array, length);
+      }
+
+      @Override
+      public ComponentAdapter<?> get(int index)
+      {
+         if (index >= size)
+         {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+         }
+         return adapters[index];
+      }
+
+      @Override
+      public int size()
+      {
+         return size;
+      }
+   }
+}
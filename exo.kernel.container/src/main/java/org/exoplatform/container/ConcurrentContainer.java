@@ -23,26 +23,17 @@ import org.exoplatform.container.spi.ComponentAdapterFactory;
 import org.exoplatform.container.spi.Container;
 import org.exoplatform.container.spi.ContainerException;
 import org.exoplatform.container.spi.ContainerVisitor;
-import org.exoplatform.container.util.ContainerUtil;
 import org.exoplatform.container.xml.InitParams;
 import org.exoplatform.management.ManagementContext;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,9 +44,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 import javax.enterprise.context.spi.CreationalContext;
 import javax.inject.Inject;
-import javax.inject.Named;
 import javax.inject.Provider;
-import javax.inject.Qualifier;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
@@ -92,6 +81,11 @@ public class ConcurrentContainer extends AbstractInterceptor
 
    protected final Set<ExoContainer> children = new CopyOnWriteArraySet<ExoContainer>();
 
+   /**
+    * The index by type of the component adapters
+    */
+   private final transient ComponentTypeIndex typeIndex = new ComponentTypeIndex();
+
    private volatile CachingContainer cache;
 
    /**
@@ -192,24 +186,27 @@ public class ConcurrentContainer extends AbstractInterceptor
       }
    }
 
-   @SuppressWarnings("unchecked")
+   /**
+    * {@inheritDoc}
+    * The adapters are retrieved from the index by type of the container, the returned list is
+    * unmodifiable.
+    */
    public <T> List<ComponentAdapter<T>> getComponentAdaptersOfType(Class<T> componentType)
    {
       if (componentType == null)
       {
          return Collections.emptyList();
       }
-      List<ComponentAdapter<T>> found = new ArrayList<ComponentAdapter<T>>();
-      for (Iterator<ComponentAdapter<?>> iterator = componentAdapters.iterator(); iterator.hasNext();)
-      {
-         ComponentAdapter<?> componentAdapter = iterator.next();
+      return typeIndex.getComponentAdaptersOfType(componentType);
+   }
 
-         if (componentType.isAssignableFrom(componentAdapter.getComponentImplementation()))
-         {
-            found.add((ComponentAdapter<T>)componentAdapter);
-         }
-      }
-      return found;
+   /**
+    * Indicates whether the given adapter has been registered in this container.
+    */
+   protected boolean isLocal(ComponentAdapter<?> componentAdapter)
+   {
+      return componentAdapter != null
+         && componentKeyToAdapterCache.get(componentAdapter.getComponentKey()) == componentAdapter;
    }
 
    /**
@@ -232,6 +229,7 @@ public class ConcurrentContainer extends AbstractInterceptor
          throw new ContainerException("Key " + componentKey + " duplicated");
       }
       componentAdapters.add(componentAdapter);
+      typeIndex.add(componentAdapter);
       return componentAdapter;
    }
 
@@ -250,8 +248,12 @@ public class ConcurrentContainer extends AbstractInterceptor
             children.remove((Container)value);
          }
       }
-      componentAdapters.remove(adapter);
-      orderedComponentAdapters.remove(adapter);
+      if (adapter != null)
+      {
+         componentAdapters.remove(adapter);
+         orderedComponentAdapters.remove(adapter);
+         typeIndex.remove(adapter);
+      }
       return adapter;
    }
 
@@ -311,7 +313,6 @@ public class ConcurrentContainer extends AbstractInterceptor
       return getComponentInstancesOfType(Object.class);
    }
 
-   @SuppressWarnings("unchecked")
    public <T> List<T> getComponentInstancesOfType(Class<T> componentType) throws ContainerException
    {
       if (componentType == null)
@@ -320,18 +321,16 @@ public class ConcurrentContainer extends AbstractInterceptor
       }
 
       Map<ComponentAdapter<T>, Object> adapterToInstanceMap = new HashMap<ComponentAdapter<T>, Object>();
-      for (Iterator<ComponentAdapter<?>> iterator = componentAdapters.iterator(); iterator.hasNext();)
+      List<ComponentAdapter<T>> adapters = typeIndex.getComponentAdaptersOfType(componentType);
+      for (int i = 0, length = adapters.size(); i < length; i++)
       {
-         ComponentAdapter<?> componentAdapter = iterator.next();
-         if (componentType.isAssignableFrom(componentAdapter.getComponentImplementation()))
-         {
-            T componentInstance = getInstance((ComponentAdapter<T>)componentAdapter, componentType, false);
-            adapterToInstanceMap.put((ComponentAdapter<T>)componentAdapter, componentInstance);
+         ComponentAdapter<T> componentAdapter = adapters.get(i);
+         T componentInstance = getInstance(componentAdapter, componentType, false);
+         adapterToInstanceMap.put(componentAdapter, componentInstance);
 
-            // This is to ensure all are added. (Indirect dependencies will be added
-            // from InstantiatingComponentAdapter).
-            addOrderedComponentAdapter(componentAdapter);
-         }
+         // This is to ensure all are added. (Indirect dependencies will be added
+         // from InstantiatingComponentAdapter).
+         addOrderedComponentAdapter(componentAdapter);
       }
       List<T> result = new ArrayList<T>();
       for (Iterator<ComponentAdapter<?>> iterator = orderedComponentAdapters.iterator(); iterator.hasNext();)
@@ -439,7 +438,7 @@ public class ConcurrentContainer extends AbstractInterceptor
    {
       // check whether this is our adapter
       // we need to check this to ensure up-down dependencies cannot be followed
-      final boolean isLocal = componentAdapters.contains(componentAdapter);
+      final boolean isLocal = isLocal(componentAdapter);
 
       if (isLocal)
       {
@@ -539,44 +538,41 @@ public class ConcurrentContainer extends AbstractInterceptor
 
    /**
     * {@inheritDoc}
+    * The constructors of the class and the way to resolve their parameters are only computed the
+    * first time, see {@link ComponentPlan}.
     */
    public <T> T createComponent(Class<T> clazz, InitParams params) throws Exception
    {
       if (LOG.isDebugEnabled())
          LOG.debug(clazz.getName() + " " + ((params != null) ? params : "") + " added to "
             + getHolder().getContext().getName());
-      Constructor<?>[] constructors = new Constructor<?>[0];
+      ComponentPlan<T> plan;
       try
       {
-         constructors = ContainerUtil.getSortedConstructors(clazz);
+         plan = ComponentPlan.getPlan(clazz);
       }
       catch (NoClassDefFoundError err)
       {
          throw new Exception("Cannot resolve constructor for class " + clazz.getName(), err);
       }
+      ComponentPlan.ConstructorPlan[] constructors = plan.getConstructors();
       Class<?> unknownParameter = null;
       for (int k = 0; k < constructors.length; k++)
       {
-         Constructor<?> constructor = constructors[k];
-         Class<?>[] parameters = constructor.getParameterTypes();
+         ComponentPlan.ConstructorPlan constructor = constructors[k];
+         ComponentPlan.Parameter[] parameters = constructor.getParameters();
          Object[] args = new Object[parameters.length];
-         boolean constructorWithInject = constructors.length == 1 && constructor.isAnnotationPresent(Inject.class);
+         boolean constructorWithInject = constructor.isWithInject();
          boolean satisfied = true;
          String logMessagePrefix = null;
-         Type[] genericTypes = null;
-         Annotation[][] parameterAnnotations = null;
-         if (constructorWithInject)
-         {
-            genericTypes = constructor.getGenericParameterTypes();
-            parameterAnnotations = constructor.getParameterAnnotations();
-         }
          if (LOG.isDebugEnabled() && constructorWithInject)
          {
             logMessagePrefix = "Could not call the constructor of the class " + clazz.getName();
          }
          for (int i = 0; i < args.length; i++)
          {
-            if (parameters[i].equals(InitParams.class))
+            Class<?> parameterType = parameters[i].getType();
+            if (parameterType.equals(InitParams.class))
             {
                args[i] = params;
             }
@@ -584,8 +580,7 @@ public class ConcurrentContainer extends AbstractInterceptor
             {
                if (constructorWithInject)
                {
-                  Object result =
-                     resolveType(parameters[i], genericTypes[i], parameterAnnotations[i], logMessagePrefix);
+                  Object result = resolveType(parameters[i], logMessagePrefix);
                   if (!(result instanceof Integer))
                   {
                      args[i] = result;
@@ -593,22 +588,19 @@ public class ConcurrentContainer extends AbstractInterceptor
                }
                else
                {
-                  args[i] = holder.getComponentInstanceOfType(parameters[i]);
+                  args[i] = holder.getComponentInstanceOfType(parameterType);
                }
                if (args[i] == null)
                {
                   satisfied = false;
-                  unknownParameter = parameters[i];
+                  unknownParameter = parameterType;
                   break;
                }
             }
          }
          if (satisfied)
          {
-            if ((!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(constructor.getDeclaringClass()
-               .getModifiers())) && !constructor.isAccessible())
-               constructor.setAccessible(true);
-            return clazz.cast(constructor.newInstance(args));
+            return plan.newInstance(constructor, args);
          }
       }
       throw new Exception("Cannot find a satisfying constructor for " + clazz.getName() + " with parameter "
@@ -622,317 +614,149 @@ public class ConcurrentContainer extends AbstractInterceptor
     */
    public <T> boolean initializeComponent(T instance)
    {
-      LinkedList<Class<?>> hierarchy = new LinkedList<Class<?>>();
-      Class<?> clazz = instance.getClass();
-      do
-      {
-         hierarchy.addFirst(clazz);
-      }
-      while (!(clazz = clazz.getSuperclass()).equals(Object.class));
-      // Fields and methods in superclasses are injected before those in subclasses. 
-      Map<String, Method> methodAlreadyRegistered = new HashMap<String, Method>();
-      Map<Class<?>, Collection<Method>> methodsPerClass = new HashMap<Class<?>, Collection<Method>>();
-      for (Class<?> c : hierarchy)
-      {
-         addMethods(c, methodAlreadyRegistered, methodsPerClass);
-      }
-      boolean isInjectPresent = !methodAlreadyRegistered.isEmpty();
-      for (Class<?> c : hierarchy)
+      ComponentPlan<?> plan = ComponentPlan.getPlan(instance.getClass());
+      ComponentPlan.InjectionPoint[] injectionPoints = plan.getInjectionPoints();
+      main : for (int i = 0, length = injectionPoints.length; i < length; i++)
       {
-         if (initializeFields(instance, c))
+         ComponentPlan.InjectionPoint injectionPoint = injectionPoints[i];
+         String logMessagePrefix = null;
+         if (injectionPoint.isField())
          {
-            isInjectPresent = true;
+            // Fields and methods in superclasses are injected before those in subclasses.
+            try
+            {
+               if (LOG.isDebugEnabled())
+               {
+                  logMessagePrefix =
+                     "Could not set a value to the field " + injectionPoint.getName() + " of the class "
+                        + instance.getClass().getName();
+               }
+               Object result = resolveType(injectionPoint.getParameters()[0], logMessagePrefix);
+               if (result instanceof Integer)
+               {
+                  continue;
+               }
+               plan.inject(instance, injectionPoint, new Object[]{result});
+            }
+            catch (Exception e)
+            {
+               throw new RuntimeException("Could not set a value to the field " + injectionPoint.getName()
+                  + " of the class " + instance.getClass().getName() + ": " + e.getMessage(), e);
+            }
+            continue;
          }
-         initializeMethods(instance, methodsPerClass.get(c));
-      }
-      return isInjectPresent;
-   }
-
-   protected void addMethods(Class<?> c, Map<String, Method> methodAlreadyRegistered,
-      Map<Class<?>, Collection<Method>> methodsPerClass)
-   {
-      Method[] methods = c.getDeclaredMethods();
-      for (int i = 0, length = methods.length; i < length; i++)
-      {
-         Method m = methods[i];
-         boolean addMethod = false;
-         Method methodToRemove = null;
-         if (m.isAnnotationPresent(Inject.class))
+         ComponentPlan.Parameter[] parameters = injectionPoint.getParameters();
+         Object[] params = new Object[parameters.length];
+         if (LOG.isDebugEnabled())
          {
-            addMethod = true;
-            methodToRemove = methodAlreadyRegistered.put(getMethodId(m), m);
+            logMessagePrefix =
+               "Could not call the method " + injectionPoint.getName() + " of the class "
+                  + instance.getClass().getName();
          }
-         else if (!methodAlreadyRegistered.isEmpty())
+         for (int j = 0, l = parameters.length; j < l; j++)
          {
-            String id = getMethodId(m);
-            if (methodAlreadyRegistered.containsKey(id))
+            Object result = resolveType(parameters[j], logMessagePrefix);
+            if (result instanceof Integer)
+            {
+               int r = (Integer)result;
+               if (r == 1 || r == 2)
+               {
+                  continue main;
+               }
+               params[j] = null;
+               continue;
+            }
+            else
             {
-               addMethod = true;
-               methodToRemove = methodAlreadyRegistered.put(id, m);
+               params[j] = result;
             }
          }
-         if (addMethod)
+         try
          {
-            Collection<Method> cMethods = methodsPerClass.get(c);
-            if (cMethods == null)
-            {
-               cMethods = new HashSet<Method>();
-               methodsPerClass.put(c, cMethods);
-            }
-            cMethods.add(m);
+            plan.inject(instance, injectionPoint, params);
          }
-         if (methodToRemove != null)
+         catch (Exception e)
          {
-            Collection<Method> cMethods = methodsPerClass.get(methodToRemove.getDeclaringClass());
-            if (cMethods != null)
-            {
-               cMethods.remove(methodToRemove);
-            }
+            throw new RuntimeException("Could not call the method " + injectionPoint.getName() + " of the class "
+               + instance.getClass().getName() + ": " + e.getMessage(), e);
          }
       }
+      return plan.isInjectPresent();
+   }
+
+   protected void addMethods(Class<?> c, Map<String, Method> methodAlreadyRegistered,
+      Map<Class<?>, Collection<Method>> methodsPerClass)
+   {
+      ComponentPlan.addMethods(c, methodAlreadyRegistered, methodsPerClass);
    }
 
    /**
-    * Initializes the instance by calling all the methods with the
-    * annotation {@link Inject}
+    * Resolves the given parameter
+    * @return the value to inject or an {@link Integer} if the value cannot be resolved: 1 for a
+    * primitive type, 2 for a {@link Provider} with an unknown type and 3 for a {@link Provider}
+    * of a component that could not be found
     */
-   private <T> void initializeMethods(T instance, Collection<Method> methods)
+   private Object resolveType(ComponentPlan.Parameter parameter, String logMessagePrefix)
    {
-      if (methods == null)
+      switch (parameter.getKind())
       {
-         return;
-      }
-      main : for (Method m : methods)
-      {
-         if (m.isAnnotationPresent(Inject.class))
-         {
-            if (Modifier.isAbstract(m.getModifiers()))
-            {
-               LOG.warn("Could not call the method " + m.getName() + " of the class " + instance.getClass().getName()
-                  + ": The method cannot be abstract");
-               continue;
-            }
-            else if (Modifier.isStatic(m.getModifiers()))
+         case ComponentPlan.Parameter.PRIMITIVE :
+            if (LOG.isDebugEnabled())
             {
-               LOG.warn("Could not call the method " + m.getName() + " of the class " + instance.getClass().getName()
-                  + ": The method cannot be static");
-               continue;
+               LOG.debug(logMessagePrefix + ": Primitive types are not supported");
             }
-            // The method is annotated with Inject and is not abstract and has not been called yet
-            Class<?>[] paramTypes = m.getParameterTypes();
-            Object[] params = new Object[paramTypes.length];
-            Type[] genericTypes = m.getGenericParameterTypes();
-            Annotation[][] parameterAnnotations = m.getParameterAnnotations();
-            String logMessagePrefix = null;
+            return 1;
+         case ComponentPlan.Parameter.UNKNOWN_PROVIDER :
             if (LOG.isDebugEnabled())
             {
-               logMessagePrefix =
-                  "Could not call the method " + m.getName() + " of the class " + instance.getClass().getName();
+               LOG.debug(logMessagePrefix + ": The generic type is not of type ParameterizedType");
             }
-            for (int j = 0, l = paramTypes.length; j < l; j++)
+            return 2;
+         case ComponentPlan.Parameter.PROVIDER :
+            Class<?> expectedType = parameter.getComponentType();
+            final ComponentAdapter<?> adapter;
+            if (parameter.getName() != null)
             {
-               Object result = resolveType(paramTypes[j], genericTypes[j], parameterAnnotations[j], logMessagePrefix);
-               if (result instanceof Integer)
-               {
-                  int r = (Integer)result;
-                  if (r == 1 || r == 2)
-                  {
-                     continue main;
-                  }
-                  params[j] = null;
-                  continue;
-               }
-               else
-               {
-                  params[j] = result;
-               }
+               adapter = holder.getComponentAdapter(parameter.getName(), expectedType);
             }
-            try
+            else if (parameter.getQualifier() != null)
             {
-               if ((!Modifier.isPublic(m.getModifiers()) || !Modifier.isPublic(m.getDeclaringClass().getModifiers()))
-                  && !m.isAccessible())
-                  m.setAccessible(true);
-               m.invoke(instance, params);
+               adapter = holder.getComponentAdapter(parameter.getQualifier(), expectedType);
             }
-            catch (Exception e)
+            else
             {
-               throw new RuntimeException("Could not call the method " + m.getName() + " of the class "
-                  + instance.getClass().getName() + ": " + e.getMessage(), e);
+               adapter = holder.getComponentAdapterOfType(expectedType);
             }
-         }
-      }
-   }
-
-   /**
-    * Gives an id to a method to be able to identify if a given method has already been called from the parent class@return
-    */
-   private static String getMethodId(Method m)
-   {
-      StringBuilder sb = new StringBuilder();
-      int modifier = m.getModifiers();
-      if (Modifier.isPrivate(modifier))
-      {
-         sb.append(m.getDeclaringClass().getName());
-      }
-      else if (!Modifier.isPublic(modifier) && !Modifier.isProtected(modifier))
-      {
-         sb.append(m.getDeclaringClass().getPackage().getName());
-      }
-      sb.append(m.getName());
-      sb.append('(');
-      Class<?>[] paramTypes = m.getParameterTypes();
-      for (int i = 0, l = paramTypes.length; i < l; i++)
-      {
-         sb.append(paramTypes[i].getName());
-         if (i < i - 1)
-            sb.append(',');
-      }
-      sb.append(')');
-      return sb.toString();
-   }
 
-   /**
-    * Initializes the fields of the instance by injecting objects into fields with the
-    * annotation {@link Inject} for a given class
-    */
-   private <T> boolean initializeFields(T instance, Class<?> clazz)
-   {
-      boolean isInjectPresent = false;
-      Field[] fields = clazz.getDeclaredFields();
-      for (int i = 0, length = fields.length; i < length; i++)
-      {
-         Field f = fields[i];
-         if (f.isAnnotationPresent(Inject.class))
-         {
-            isInjectPresent = true;
-            if (Modifier.isFinal(f.getModifiers()))
-            {
-               LOG.warn("Could not set a value to the field " + f.getName() + " of the class "
-                  + instance.getClass().getName() + ": The field cannot be final");
-               continue;
-            }
-            else if (Modifier.isStatic(f.getModifiers()))
+            if (adapter == null)
             {
-               LOG.warn("Could not set a value to the field " + f.getName() + " of the class "
-                  + instance.getClass().getName() + ": The field cannot be static");
-               continue;
-            }
-            // The field is annotated with Inject and is not final and/or static
-            try
-            {
-               if ((!Modifier.isPublic(f.getModifiers()) || !Modifier.isPublic(f.getDeclaringClass().getModifiers()))
-                  && !f.isAccessible())
-                  f.setAccessible(true);
-               String logMessagePrefix = null;
                if (LOG.isDebugEnabled())
                {
-                  logMessagePrefix =
-                     "Could not set a value to the field " + f.getName() + " of the class "
-                        + instance.getClass().getName();
-               }
-               Object result = resolveType(f.getType(), f.getGenericType(), f.getAnnotations(), logMessagePrefix);
-               if (result instanceof Integer)
-               {
-                  continue;
+                  LOG.debug(logMessagePrefix + ": We have no value to set so we skip it");
                }
-               f.set(instance, result);
+               return 3;
             }
-            catch (Exception e)
+            return new Provider<Object>()
             {
-               throw new RuntimeException("Could not set a value to the field " + f.getName() + " of the class "
-                  + instance.getClass().getName() + ": " + e.getMessage(), e);
-            }
-         }
-      }
-      return isInjectPresent;
-   }
-
-   /**
-    * Resolves the given type and generic type
-    */
-   private Object resolveType(Class<?> type, Type genericType, Annotation[] annotations, String logMessagePrefix)
-   {
-      if (type.isPrimitive())
-      {
-         if (LOG.isDebugEnabled())
-         {
-            LOG.debug(logMessagePrefix + ": Primitive types are not supported");
-         }
-         return 1;
-      }
-      Named named = null;
-      Class<?> qualifier = null;
-      for (int i = 0, length = annotations.length; i < length; i++)
-      {
-         Annotation a = annotations[i];
-         if (a instanceof Named)
-         {
-            named = (Named)a;
-            break;
-         }
-         else if (a.annotationType().isAnnotationPresent(Qualifier.class))
-         {
-            qualifier = a.annotationType();
-            break;
-         }
-      }
-      if (type.isInterface() && type.equals(Provider.class))
-      {
-         if (!(genericType instanceof ParameterizedType))
-         {
-            if (LOG.isDebugEnabled())
+               public Object get()
+               {
+                  return adapter.getComponentInstance();
+               }
+            };
+         default :
+            Class<?> type = parameter.getType();
+            if (parameter.getName() != null)
             {
-               LOG.debug(logMessagePrefix + ": The generic type is not of type ParameterizedType");
+               return holder.getComponentInstance(parameter.getName(), type);
             }
-            return 2;
-         }
-         ParameterizedType aType = (ParameterizedType)genericType;
-         Type[] typeVars = aType.getActualTypeArguments();
-         Class<?> expectedType = (Class<?>)typeVars[0];
-         final ComponentAdapter<?> adapter;
-         if (named != null)
-         {
-            adapter = holder.getComponentAdapter(named.value(), expectedType);
-         }
-         else if (qualifier != null)
-         {
-            adapter = holder.getComponentAdapter(qualifier, expectedType);
-         }
-         else
-         {
-            adapter = holder.getComponentAdapterOfType(expectedType);
-         }
-
-         if (adapter == null)
-         {
-            if (LOG.isDebugEnabled())
+            else if (parameter.getQualifier() != null)
             {
-               LOG.debug(logMessagePrefix + ": We have no value to set so we skip it");
+               return holder.getComponentInstance(parameter.getQualifier(), type);
             }
-            return 3;
-         }
-         return new Provider<Object>()
-         {
-            public Object get()
+            else
             {
-               return adapter.getComponentInstance();
+               return holder.getComponentInstanceOfType(type);
             }
-         };
-      }
-      else
-      {
-         if (named != null)
-         {
-            return holder.getComponentInstance(named.value(), type);
-         }
-         else if (qualifier != null)
-         {
-            return holder.getComponentInstance(qualifier, type);
-         }
-         else
-         {
-            return holder.getComponentInstanceOfType(type);
-         }
       }
    }
 
@@ -71,6 +71,13 @@ public class LifecycleVisitor implements ContainerVisitor
 
    private final boolean ignoreError;
 
+   /**
+    * The containers of the component instances, only filled when the start up is profiled
+    */
+   private final List<ExoContainer> containers;
+
+   private boolean profile;
+
    public LifecycleVisitor(Method method, Class<?> ofType, boolean visitInInstantiationOrder, boolean ignoreError)
    {
       this.method = method;
@@ -78,11 +85,13 @@ public class LifecycleVisitor implements ContainerVisitor
       this.visitInInstantiationOrder = visitInInstantiationOrder;
       this.componentInstances = new ArrayList<Object>();
       this.ignoreError = ignoreError;
+      this.containers = new ArrayList<ExoContainer>();
    }
 
    private Object traverse(Container container)
    {
       componentInstances.clear();
+      profile = method.equals(START) && StartupProfiler.isRecording();
       try
       {
          visitContainer(container);
@@ -90,12 +99,18 @@ public class LifecycleVisitor implements ContainerVisitor
          {
             Collections.reverse(componentInstances);
          }
-         for (Iterator<?> iterator = componentInstances.iterator(); iterator.hasNext();)
+         int index = 0;
+         for (Iterator<?> iterator = componentInstances.iterator(); iterator.hasNext(); index++)
          {
             Object o = iterator.next();
             try
             {
+               long begin = profile ? StartupProfiler.begin() : 0L;
                method.invoke(o, (Object[])null);
+               if (profile)
+               {
+                  StartupProfiler.end(containers.get(index), o.getClass(), StartupProfiler.Phase.START, null, begin);
+               }
             }
             catch (IllegalArgumentException e)
             {
@@ -139,13 +154,40 @@ public class LifecycleVisitor implements ContainerVisitor
       finally
       {
          componentInstances.clear();
+         containers.clear();
       }
       return Void.TYPE;
    }
 
    public void visitContainer(Container container)
    {
-      componentInstances.addAll(container.getComponentInstancesOfType(type));
+      List<?> instances = container.getComponentInstancesOfType(type);
+      componentInstances.addAll(instances);
+      if (profile)
+      {
+         ExoContainer owner = getOwner(container);
+         for (int i = 0, length = instances.size(); i < length; i++)
+         {
+            containers.add(owner);
+         }
+      }
+   }
+
+   /**
+    * Gives the {@link ExoContainer} to which the given container belongs, the interceptors
+    * are resolved thanks to their holder
+    */
+   private static ExoContainer getOwner(Container container)
+   {
+      if (container instanceof ExoContainer)
+      {
+         return (ExoContainer)container;
+      }
+      else if (container instanceof AbstractInterceptor)
+      {
+         return ((AbstractInterceptor)container).holder;
+      }
+      return null;
    }
 
    /**
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.container.spi.ComponentFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * The {@link ComponentFactory} used when no factory has been generated for a component class or when
+ * the generated factory does not support some constructors or injection points, typically the
+ * private ones. The constructors, fields and methods are converted once into method handles that
+ * take their arguments as an array.
+ *
+ * @version $Id$
+ */
+final class MethodHandleComponentFactory<T> implements ComponentFactory<T>
+{
+
+   private final String[] constructors;
+
+   private final MethodHandle[] constructorHandles;
+
+   private final String[] injectionPoints;
+
+   private final MethodHandle[] injectionPointHandles;
+
+   /**
+    * @param constructors the constructors to support
+    * @param members the fields and methods to support
+    * @throws IllegalAccessException if a method handle cannot be created
+    */
+   MethodHandleComponentFactory(List<Constructor<?>> constructors, List<Member> members)
+      throws IllegalAccessException
+   {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      this.constructors = new String[constructors.size()];
+      this.constructorHandles = new MethodHandle[constructors.size()];
+      for (int i = 0; i < this.constructors.length; i++)
+      {
+         Constructor<?> constructor = constructors.get(i);
+         makeAccessible(constructor, constructor);
+         int parameters = constructor.getParameterTypes().length;
+         this.constructors[i] = ComponentPlan.getDescription(constructor);
+         this.constructorHandles[i] =
+            lookup.unreflectConstructor(constructor).asType(MethodType.genericMethodType(parameters))
+               .asSpreader(Object[].class, parameters);
+      }
+      this.injectionPoints = new String[members.size()];
+      this.injectionPointHandles = new MethodHandle[members.size()];
+      for (int i = 0; i < injectionPoints.length; i++)
+      {
+         Member member = members.get(i);
+         MethodHandle handle;
+         if (member instanceof Field)
+         {
+            Field field = (Field)member;
+            makeAccessible(field, field);
+            handle = lookup.unreflectSetter(field).asType(MethodType.genericMethodType(2).changeReturnType(void.class));
+            injectionPoints[i] = ComponentPlan.getDescription(field);
+         }
+         else
+         {
+            Method method = (Method)member;
+            makeAccessible(method, method);
+            handle =
+               lookup.unreflect(method).asType(
+                  MethodType.genericMethodType(method.getParameterTypes().length + 1).changeReturnType(void.class));
+            injectionPoints[i] = ComponentPlan.getDescription(method);
+         }
+         // The handles take the instance and an array of arguments and ignore the result
+         injectionPointHandles[i] =
+            handle.asSpreader(Object[].class, handle.type().parameterCount() - 1);
+      }
+   }
+
+   private static void makeAccessible(AccessibleObject object, Member member)
+   {
+      if ((!Modifier.isPublic(member.getModifiers()) || !Modifier.isPublic(member.getDeclaringClass().getModifiers()))
+         && !object.isAccessible())
+         object.setAccessible(true);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public String[] getConstructors()
+   {
+      return constructors.clone();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public T newInstance(int constructor, Object[] args) throws Exception
+   {
+      try
+      {
+         return (T)(Object)constructorHandles[constructor].invokeExact(args);
+      }
+      catch (Throwable e)
+      {
+         // Throw the same exception as Constructor.newInstance
+         throw new InvocationTargetException(e);
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public String[] getInjectionPoints()
+   {
+      return injectionPoints.clone();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void inject(T instance, int injectionPoint, Object[] args) throws Exception
+   {
+      try
+      {
+         injectionPointHandles[injectionPoint].invokeExact((Object)instance, args);
+      }
+      catch (Throwable e)
+      {
+         // Throw the same exception as Method.invoke
+         throw new InvocationTargetException(e);
+      }
+   }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.container.spi.ComponentFactory;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * The {@link ComponentFactory} used when no {@link MethodHandleComponentFactory} can be created
+ * for a component class, typically because the class is abstract or because its members cannot
+ * be made accessible. The constructors, fields and methods are invoked with the reflection so
+ * that such classes fail exactly as they did before the component factories.
+ *
+ * @version $Id$
+ */
+final class ReflectionComponentFactory<T> implements ComponentFactory<T>
+{
+
+   private final Constructor<?>[] constructors;
+
+   private final String[] constructorDescriptions;
+
+   private final Member[] members;
+
+   private final String[] memberDescriptions;
+
+   /**
+    * @param constructors the constructors to support
+    * @param members the fields and methods to support
+    */
+   ReflectionComponentFactory(List<Constructor<?>> constructors, List<Member> members)
+   {
+      this.constructors = constructors.toArray(new Constructor<?>[constructors.size()]);
+      this.constructorDescriptions = new String[this.constructors.length];
+      for (int i = 0; i < this.constructors.length; i++)
+      {
+         constructorDescriptions[i] = ComponentPlan.getDescription(this.constructors[i]);
+      }
+      this.members = members.toArray(new Member[members.size()]);
+      this.memberDescriptions = new String[this.members.length];
+      for (int i = 0; i < this.members.length; i++)
+      {
+         Member member = this.members[i];
+         memberDescriptions[i] =
+            member instanceof Field ? ComponentPlan.getDescription((Field)member) : ComponentPlan
+               .getDescription((Method)member);
+      }
+   }
+
+   private static void makeAccessible(AccessibleObject object, Member member)
+   {
+      if ((!Modifier.isPublic(member.getModifiers()) || !Modifier.isPublic(member.getDeclaringClass().getModifiers()))
+         && !object.isAccessible())
+         object.setAccessible(true);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public String[] getConstructors()
+   {
+      return constructorDescriptions.clone();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @SuppressWarnings("unchecked")
+   public T newInstance(int constructor, Object[] args) throws Exception
+   {
+      Constructor<?> c = constructors[constructor];
+      makeAccessible(c, c);
+      return (T)c.newInstance(args);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public String[] getInjectionPoints()
+   {
+      return memberDescriptions.clone();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   public void inject(T instance, int injectionPoint, Object[] args) throws Exception
+   {
+      Member member = members[injectionPoint];
+      if (member instanceof Field)
+      {
+         Field field = (Field)member;
+         makeAccessible(field, field);
+         field.set(instance, args[0]);
+      }
+      else
+      {
+         Method method = (Method)member;
+         makeAccessible(method, method);
+         method.invoke(instance, args);
+      }
+   }
+}
@@ -547,7 +547,8 @@ public class RootContainer extends ExoContainer implements WebAppListener, Authe
          Thread.currentThread().setContextClassLoader(loadingCL);
          hasChanged = true;
          System.setProperties(loadingSystemProperties);
-         ConfigurationManager cm = loadConfigurationManager(this, false);
+         // The snapshot is not used to get a configuration comparable to the current one
+         ConfigurationManager cm = loadConfigurationManager(this, false, false);
          if (cm != null)
          {
             newConfig = cm.getConfiguration();
@@ -702,6 +703,7 @@ public class RootContainer extends ExoContainer implements WebAppListener, Authe
          Thread.currentThread().setContextClassLoader(pcontainer.getPortalClassLoader());
          hasChanged = true;
          ConfigurationManagerImpl cService = new ConfigurationManagerImpl(pcontainer.getPortalContext(), profiles);
+         cService.enableSnapshot("portal-" + portalContainerName);
 
          if (ConfigurationManager.LOG_DEBUG)
          {
@@ -869,7 +871,7 @@ public class RootContainer extends ExoContainer implements WebAppListener, Authe
             public RootContainer run() throws Exception
             {
                RootContainer rootContainer = new RootContainer();
-               ConfigurationManager service = loadConfigurationManager(rootContainer, true);
+               ConfigurationManager service = loadConfigurationManager(rootContainer, true, true);
                rootContainer.registerComponentInstance(ConfigurationManager.class, service);
                rootContainer.start(true);
                return rootContainer;
@@ -887,12 +889,19 @@ public class RootContainer extends ExoContainer implements WebAppListener, Authe
 
    /**
     * @param rootContainer
+    * @param logEnabled indicates whether the configuration files loaded must be logged
+    * @param useSnapshot indicates whether the snapshot of the configuration can be used
     * @return
     * @throws Exception
     */
-   private static ConfigurationManager loadConfigurationManager(RootContainer rootContainer, boolean logEnabled) throws Exception
+   private static ConfigurationManager loadConfigurationManager(RootContainer rootContainer, boolean logEnabled,
+      boolean useSnapshot) throws Exception
    {
       final ConfigurationManagerImpl service = new ConfigurationManagerImpl(rootContainer.profiles, logEnabled);
+      if (useSnapshot)
+      {
+         service.enableSnapshot("root");
+      }
       service.addConfiguration(ContainerUtil.getConfigurationURL("conf/configuration.xml"));
       if (System.getProperty("maven.exoplatform.dir") != null)
       {
@@ -1352,6 +1361,7 @@ public class RootContainer extends ExoContainer implements WebAppListener, Authe
     */
    private void onStartupComplete()
    {
+      StartupProfiler.onStartupComplete(this);
       if (!listeners.isEmpty())
       {
          for (TopExoContainerListener listener : listeners)
@@ -92,6 +92,7 @@ public class StandaloneContainer extends ExoContainer implements TopExoContainer
    {
       //
       configurationManager = new ConfigurationManagerImpl(configClassLoader, ExoContainer.getProfiles());
+      configurationManager.enableSnapshot("standalone");
       SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
       {
          public Void run()
@@ -215,6 +216,7 @@ public class StandaloneContainer extends ExoContainer implements TopExoContainer
     */
    private void onStartupComplete()
    {
+      StartupProfiler.onStartupComplete(this);
       if (!listeners.isEmpty())
       {
          for (TopExoContainerListener listener : listeners)
@@ -0,0 +1,850 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.commons.utils.PropertyManager;
+import org.exoplatform.commons.utils.SecurityHelper;
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the time spent by the containers on each phase of the life cycle of their components
+ * during the startup, that is to say the constructor, the registration of the component plugins,
+ * the initialization, the <code>start()</code> method and the time spent waiting for dependencies.
+ * Each phase is recorded as a time span on the thread that executed it, it can then be aggregated
+ * by component, see {@link #getProfiles()}, or exported as a timeline in the Chrome trace event
+ * format, see {@link #export(Writer)}. The spans of a thread can be nested, for example when a
+ * dependency is created while creating a component, so the time of a phase of a component excludes
+ * the time of the spans nested in it and the time spent on the spans of other components is
+ * considered as time spent waiting for dependencies.
+ * <p>
+ * The profiler is disabled by default, it can be enabled thanks to the system property
+ * {@link #ENABLED_PARAM_NAME}. A phase costs two calls to {@link System#nanoTime()} and one
+ * addition to a lock-free queue, the recording stops once the top container is fully started
+ * or once {@link #MAX_EVENTS_PARAM_NAME} spans have been recorded. Once the top container is fully
+ * started, the spans are released, only the aggregated profiles and the timeline serialized once
+ * are kept, the timeline is only kept if it doesn't exceed {@link #MAX_TIMELINE_SIZE} characters.
+ *
+ * @version $Id$
+ */
+public class StartupProfiler
+{
+
+   /**
+    * The logger
+    */
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.StartupProfiler");
+
+   /**
+    * The name of the system property that indicates whether the profiler is enabled
+    */
+   public static final String ENABLED_PARAM_NAME = "org.exoplatform.container.profiler.enabled";
+
+   /**
+    * The name of the system property that defines the file or the directory in which the timeline
+    * is exported once the top container is fully started. Nothing is exported if it is not set.
+    */
+   public static final String OUTPUT_PARAM_NAME = "org.exoplatform.container.profiler.output";
+
+   /**
+    * The name of the system property that defines the maximum amount of spans to record
+    */
+   public static final String MAX_EVENTS_PARAM_NAME = "org.exoplatform.container.profiler.max";
+
+   /**
+    * The default maximum amount of spans to record
+    */
+   private static final int DEFAULT_MAX_EVENTS = 100000;
+
+   /**
+    * The name of the file created when the output is a directory
+    */
+   private static final String DEFAULT_FILE_NAME = "exo-startup-trace.json";
+
+   /**
+    * The maximum amount of characters of the timeline kept once the top container is fully started
+    */
+   public static final int MAX_TIMELINE_SIZE = 8 * 1024 * 1024;
+
+   /**
+    * The amount of components logged once the top container is fully started
+    */
+   private static final int SLOWEST_COMPONENTS_TO_LOG = 10;
+
+   /**
+    * The reference time of the timeline
+    */
+   private static final long ORIGIN = System.nanoTime();
+
+   /**
+    * The recorded spans
+    */
+   private static final Queue<Event> EVENTS = new ConcurrentLinkedQueue<Event>();
+
+   /**
+    * The amount of recorded spans
+    */
+   private static final AtomicInteger SIZE = new AtomicInteger();
+
+   /**
+    * The profiles computed once the top container has fully started, <code>null</code> otherwise
+    */
+   private static volatile List<ComponentProfile> completedProfiles;
+
+   /**
+    * The timeline serialized once the top container has fully started, <code>null</code> otherwise
+    * or if it was too large to be kept
+    */
+   private static volatile String completedTimeline;
+
+   /**
+    * Indicates whether the spans are recorded
+    */
+   private static volatile boolean recording;
+
+   /**
+    * The maximum amount of spans to record
+    */
+   private static volatile int maxEvents;
+
+   static
+   {
+      init();
+   }
+
+   /**
+    * The phases of the life cycle of a component
+    */
+   public static enum Phase {
+      /**
+       * The call of the constructor
+       */
+      CREATE("create"),
+      /**
+       * The creation and the registration of a component plugin
+       */
+      PLUGIN("plugin"),
+      /**
+       * The injection of the fields and methods and the call of the initialization callbacks
+       */
+      INIT("init"),
+      /**
+       * The call of the method <code>start()</code>
+       */
+      START("start"),
+      /**
+       * The time spent waiting for dependencies
+       */
+      WAIT("wait");
+
+      private final String category;
+
+      private Phase(String category)
+      {
+         this.category = category;
+      }
+
+      /**
+       * @return the category of the phase in the timeline
+       */
+      public String getCategory()
+      {
+         return category;
+      }
+   }
+
+   private StartupProfiler()
+   {
+   }
+
+   /**
+    * Reads the configuration of the profiler
+    */
+   private static void init()
+   {
+      SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
+      {
+         public Void run()
+         {
+            recording = Boolean.valueOf(PropertyManager.getProperty(ENABLED_PARAM_NAME));
+            int max = DEFAULT_MAX_EVENTS;
+            String sValue = PropertyManager.getProperty(MAX_EVENTS_PARAM_NAME);
+            if (sValue != null)
+            {
+               try
+               {
+                  max = Integer.parseInt(sValue.trim());
+               }
+               catch (NumberFormatException e)
+               {
+                  LOG.warn("The value of the property '" + MAX_EVENTS_PARAM_NAME + "' is not a valid integer: "
+                     + sValue);
+               }
+            }
+            maxEvents = max;
+            return null;
+         }
+      });
+   }
+
+   /**
+    * Indicates whether the profiler is currently recording
+    */
+   public static boolean isRecording()
+   {
+      return recording;
+   }
+
+   /**
+    * Starts a span
+    * @return the start time of the span to give to
+    * {@link #end(ExoContainer, Class, Phase, String, long)} or <code>0</code> if the profiler
+    * is not recording
+    */
+   public static long begin()
+   {
+      return recording ? System.nanoTime() : 0L;
+   }
+
+   /**
+    * Ends a span and records it if the profiler is still recording
+    * @param container the container of the component
+    * @param component the implementation class of the component
+    * @param phase the phase of the life cycle of the component
+    * @param detail additional information about the span, it can be <code>null</code>
+    * @param begin the value returned by {@link #begin()}
+    */
+   public static void end(ExoContainer container, Class<?> component, Phase phase, String detail, long begin)
+   {
+      if (begin == 0L || !recording)
+      {
+         return;
+      }
+      long end = System.nanoTime();
+      if (SIZE.incrementAndGet() > maxEvents)
+      {
+         if (recording)
+         {
+            recording = false;
+            LOG.warn("The startup profiler has reached the maximum amount of events (" + maxEvents
+               + "), it stops recording");
+         }
+         return;
+      }
+      Thread thread = Thread.currentThread();
+      EVENTS.add(new Event(getContainerName(container), component.getName(), phase, detail, thread.getName(),
+         thread.getId(), begin - ORIGIN, end - begin));
+   }
+
+   private static String getContainerName(ExoContainer container)
+   {
+      if (container == null)
+      {
+         return "unknown";
+      }
+      ExoContainerContext ctx = container.getContext();
+      String name = ctx == null ? null : ctx.getName();
+      return name == null ? container.getClass().getSimpleName() : name;
+   }
+
+   /**
+    * Clears the recorded spans and reads again the configuration
+    */
+   public static void reset()
+   {
+      recording = false;
+      EVENTS.clear();
+      SIZE.set(0);
+      completedProfiles = null;
+      completedTimeline = null;
+      init();
+   }
+
+   /**
+    * Stops the recording, logs the slowest components and exports the timeline if an
+    * output has been configured. This is called once the given top container has fully started.
+    */
+   public static void onStartupComplete(final ExoContainer container)
+   {
+      if (!recording)
+      {
+         return;
+      }
+      recording = false;
+      List<ComponentProfile> profiles = getProfiles();
+      if (LOG.isInfoEnabled() && !profiles.isEmpty())
+      {
+         StringBuilder sb = new StringBuilder();
+         sb.append("The slowest components to start up in ").append(getContainerName(container)).append(':');
+         for (int i = 0, length = Math.min(SLOWEST_COMPONENTS_TO_LOG, profiles.size()); i < length; i++)
+         {
+            sb.append("\n   ").append(profiles.get(i));
+         }
+         LOG.info(sb.toString());
+      }
+      String output = SecurityHelper.doPrivilegedAction(new PrivilegedAction<String>()
+      {
+         public String run()
+         {
+            return PropertyManager.getProperty(OUTPUT_PARAM_NAME);
+         }
+      });
+      if (output != null && !output.trim().isEmpty())
+      {
+         try
+         {
+            File file = export(new File(output.trim()));
+            LOG.info("The startup timeline has been exported to " + file.getAbsolutePath());
+         }
+         catch (IOException e)
+         {
+            LOG.warn("Could not export the startup timeline to " + output, e);
+         }
+      }
+      // Release the spans, only the aggregated profiles and the serialized timeline are kept
+      BoundedWriter timeline = new BoundedWriter(MAX_TIMELINE_SIZE);
+      try
+      {
+         writeTimeline(timeline, new ArrayList<Event>(EVENTS));
+      }
+      catch (IOException e)
+      {
+         // Cannot occur with an in-memory writer
+         throw new IllegalStateException(e);
+      }
+      if (timeline.overflow)
+      {
+         LOG.warn("The startup timeline exceeds " + MAX_TIMELINE_SIZE
+            + " characters, it will only be available in the file exported at the end of the startup");
+      }
+      else
+      {
+         completedTimeline = timeline.toString();
+      }
+      completedProfiles = Collections.unmodifiableList(profiles);
+      EVENTS.clear();
+      SIZE.set(0);
+   }
+
+   /**
+    * Gives the recorded time spent on each phase of each component, the slowest first
+    */
+   public static List<ComponentProfile> getProfiles()
+   {
+      List<ComponentProfile> completed = completedProfiles;
+      if (completed != null)
+      {
+         return completed;
+      }
+      Map<String, ComponentProfile> profiles = new LinkedHashMap<String, ComponentProfile>();
+      for (Map.Entry<Event, Long> entry : getExclusiveDurations().entrySet())
+      {
+         Event event = entry.getKey();
+         String key = event.container + '/' + event.component;
+         ComponentProfile profile = profiles.get(key);
+         if (profile == null)
+         {
+            profile = new ComponentProfile(event.container, event.component);
+            profiles.put(key, profile);
+         }
+         profile.add(event, entry.getValue());
+      }
+      List<ComponentProfile> result = new ArrayList<ComponentProfile>(profiles.values());
+      Collections.sort(result, new Comparator<ComponentProfile>()
+      {
+         public int compare(ComponentProfile p1, ComponentProfile p2)
+         {
+            long t1 = p1.getTotalTime();
+            long t2 = p2.getTotalTime();
+            return t1 == t2 ? 0 : (t1 > t2 ? -1 : 1);
+         }
+      });
+      return result;
+   }
+
+   /**
+    * Computes for each span the time spent on it excluding the time of the spans of other components
+    * nested in it, the nested spans of the same component are excluded too but are not considered
+    * as time spent waiting for dependencies.
+    * @return the spans sorted by thread and start time with their exclusive duration
+    */
+   private static Map<Event, Long> getExclusiveDurations()
+   {
+      List<Event> events = new ArrayList<Event>(EVENTS);
+      Collections.sort(events, new Comparator<Event>()
+      {
+         public int compare(Event e1, Event e2)
+         {
+            if (e1.threadId != e2.threadId)
+            {
+               return e1.threadId < e2.threadId ? -1 : 1;
+            }
+            if (e1.start != e2.start)
+            {
+               return e1.start < e2.start ? -1 : 1;
+            }
+            // The enclosing span first
+            return e1.duration == e2.duration ? 0 : (e1.duration > e2.duration ? -1 : 1);
+         }
+      });
+      Map<Event, Long> result = new LinkedHashMap<Event, Long>();
+      Map<Event, long[]> nested = new HashMap<Event, long[]>();
+      LinkedList<Event> stack = new LinkedList<Event>();
+      for (Event event : events)
+      {
+         while (!stack.isEmpty()
+            && (stack.peek().threadId != event.threadId || stack.peek().start + stack.peek().duration <= event.start))
+         {
+            stack.pop();
+         }
+         if (!stack.isEmpty())
+         {
+            Event parent = stack.peek();
+            long[] times = nested.get(parent);
+            if (times == null)
+            {
+               times = new long[2];
+               nested.put(parent, times);
+            }
+            times[0] += event.duration;
+            if (!parent.component.equals(event.component) || !parent.container.equals(event.container))
+            {
+               // Time spent on another component
+               times[1] += event.duration;
+            }
+         }
+         stack.push(event);
+         result.put(event, event.duration);
+      }
+      for (Map.Entry<Event, long[]> entry : nested.entrySet())
+      {
+         Event event = entry.getKey();
+         long[] times = entry.getValue();
+         if (event.phase == Phase.WAIT)
+         {
+            // Waiting for a dependency includes the time spent to create it
+            continue;
+         }
+         result.put(event, event.duration - times[0]);
+         if (times[1] > 0)
+         {
+            result.put(new Event(event.container, event.component, Phase.WAIT, null, event.threadName,
+               event.threadId, event.start, 0L), times[1]);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Exports the recorded spans in the Chrome trace event format, that can be loaded into
+    * <code>chrome://tracing</code> or any compatible viewer. Each container is a process and each
+    * thread a thread of the timeline. Once the top container has fully started, the timeline serialized
+    * at that time is written, it is empty if it was too large to be kept.
+    */
+   public static void export(Writer writer) throws IOException
+   {
+      String completed = completedTimeline;
+      if (completed != null)
+      {
+         writer.write(completed);
+         writer.flush();
+         return;
+      }
+      writeTimeline(writer, new ArrayList<Event>(EVENTS));
+   }
+
+   private static void writeTimeline(Writer writer, List<Event> events) throws IOException
+   {
+      Map<String, Integer> pids = new LinkedHashMap<String, Integer>();
+      Map<Long, String> threads = new LinkedHashMap<Long, String>();
+      for (Event event : events)
+      {
+         if (!pids.containsKey(event.container))
+         {
+            pids.put(event.container, pids.size() + 1);
+         }
+         threads.put(event.threadId, event.threadName);
+      }
+      writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+      boolean first = true;
+      for (Map.Entry<String, Integer> entry : pids.entrySet())
+      {
+         first = writeMetadata(writer, first, "process_name", entry.getValue(), 0L, entry.getKey());
+         for (Map.Entry<Long, String> thread : threads.entrySet())
+         {
+            first = writeMetadata(writer, first, "thread_name", entry.getValue(), thread.getKey(), thread.getValue());
+         }
+      }
+      for (Event event : events)
+      {
+         if (!first)
+         {
+            writer.write(',');
+         }
+         first = false;
+         writer.write("\n{\"name\":");
+         writeString(writer, event.component);
+         writer.write(",\"cat\":\"");
+         writer.write(event.phase.getCategory());
+         writer.write("\",\"ph\":\"X\",\"ts\":");
+         writeMicros(writer, event.start);
+         writer.write(",\"dur\":");
+         writeMicros(writer, event.duration);
+         writer.write(",\"pid\":");
+         writer.write(String.valueOf(pids.get(event.container)));
+         writer.write(",\"tid\":");
+         writer.write(String.valueOf(event.threadId));
+         if (event.detail != null)
+         {
+            writer.write(",\"args\":{\"detail\":");
+            writeString(writer, event.detail);
+            writer.write('}');
+         }
+         writer.write('}');
+      }
+      writer.write("\n]}\n");
+      writer.flush();
+   }
+
+   /**
+    * Exports the recorded spans in the Chrome trace event format into the given file or into
+    * a file of the given directory
+    * @return the file that has been written
+    */
+   public static File export(File output) throws IOException
+   {
+      final File file = output.isDirectory() ? new File(output, DEFAULT_FILE_NAME) : output;
+      SecurityHelper.doPrivilegedIOExceptionAction(new PrivilegedExceptionAction<Void>()
+      {
+         public Void run() throws IOException
+         {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs())
+            {
+               throw new IOException("Could not create the directory " + parent.getAbsolutePath());
+            }
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            try
+            {
+               export(writer);
+            }
+            finally
+            {
+               writer.close();
+            }
+            return null;
+         }
+      });
+      return file;
+   }
+
+   private static boolean writeMetadata(Writer writer, boolean first, String name, int pid, long tid, String value)
+      throws IOException
+   {
+      if (!first)
+      {
+         writer.write(',');
+      }
+      writer.write("\n{\"name\":\"");
+      writer.write(name);
+      writer.write("\",\"ph\":\"M\",\"pid\":");
+      writer.write(String.valueOf(pid));
+      writer.write(",\"tid\":");
+      writer.write(String.valueOf(tid));
+      writer.write(",\"args\":{\"name\":");
+      writeString(writer, value);
+      writer.write("}}");
+      return false;
+   }
+
+   private static void writeMicros(Writer writer, long nanos) throws IOException
+   {
+      writer.write(String.valueOf(nanos / 1000));
+      writer.write('.');
+      String fraction = String.valueOf(Math.abs(nanos % 1000));
+      for (int i = fraction.length(); i < 3; i++)
+      {
+         writer.write('0');
+      }
+      writer.write(fraction);
+   }
+
+   private static void writeString(Writer writer, String value) throws IOException
+   {
+      writer.write('"');
+      for (int i = 0, length = value.length(); i < length; i++)
+      {
+         char c = value.charAt(i);
+         switch (c)
+         {
+            case '"' :
+               writer.write("\\\"");
+               break;
+            case '\\' :
+               writer.write("\\\\");
+               break;
+            case '\n' :
+               writer.write("\\n");
+               break;
+            case '\r' :
+               writer.write("\\r");
+               break;
+            case '\t' :
+               writer.write("\\t");
+               break;
+            default :
+               if (c < 0x20)
+               {
+                  String hex = Integer.toHexString(c);
+                  writer.write("\\u");
+                  for (int j = hex.length(); j < 4; j++)
+                  {
+                     writer.write('0');
+                  }
+                  writer.write(hex);
+               }
+               else
+               {
+                  writer.write(c);
+               }
+         }
+      }
+      writer.write('"');
+   }
+
+   /**
+    * A recorded span
+    */
+   private static class Event
+   {
+      private final String container;
+
+      private final String component;
+
+      private final Phase phase;
+
+      private final String detail;
+
+      private final String threadName;
+
+      private final long threadId;
+
+      /**
+       * The start time in nanoseconds relative to the origin of the timeline
+       */
+      private final long start;
+
+      /**
+       * The duration in nanoseconds
+       */
+      private final long duration;
+
+      private Event(String container, String component, Phase phase, String detail, String threadName,
+         long threadId, long start, long duration)
+      {
+         this.container = container;
+         this.component = component;
+         this.phase = phase;
+         this.detail = detail;
+         this.threadName = threadName;
+         this.threadId = threadId;
+         this.start = start;
+         this.duration = duration;
+      }
+   }
+
+   /**
+    * The time spent on each phase of the life cycle of a component
+    */
+   public static class ComponentProfile
+   {
+      private final String container;
+
+      private final String component;
+
+      private final long[] times = new long[Phase.values().length];
+
+      private String thread;
+
+      private ComponentProfile(String container, String component)
+      {
+         this.container = container;
+         this.component = component;
+      }
+
+      private void add(Event event, long time)
+      {
+         times[event.phase.ordinal()] += time;
+         if (thread == null || event.phase == Phase.CREATE)
+         {
+            thread = event.threadName;
+         }
+      }
+
+      /**
+       * @return the name of the container of the component
+       */
+      public String getContainer()
+      {
+         return container;
+      }
+
+      /**
+       * @return the name of the implementation class of the component
+       */
+      public String getComponent()
+      {
+         return component;
+      }
+
+      /**
+       * @return the name of the thread that created the component
+       */
+      public String getThread()
+      {
+         return thread;
+      }
+
+      /**
+       * @return the time spent on the given phase in nanoseconds
+       */
+      public long getTime(Phase phase)
+      {
+         return times[phase.ordinal()];
+      }
+
+      /**
+       * @return the time spent on the component itself in nanoseconds, the time spent waiting
+       * for dependencies excluded
+       */
+      public long getTotalTime()
+      {
+         long total = 0;
+         for (Phase phase : Phase.values())
+         {
+            if (phase != Phase.WAIT)
+            {
+               total += times[phase.ordinal()];
+            }
+         }
+         return total;
+      }
+
+      @Override
+      public String toString()
+      {
+         StringBuilder sb = new StringBuilder();
+         sb.append(container).append('/').append(component).append(" [thread=").append(thread);
+         sb.append(", total=").append(getTotalTime() / 1000000).append("ms");
+         for (Phase phase : Phase.values())
+         {
+            sb.append(", ").append(phase.getCategory()).append('=').append(times[phase.ordinal()] / 1000000)
+               .append("ms");
+         }
+         return sb.append(']').toString();
+      }
+   }
+
+   /**
+    * An in-memory writer that stops recording once a maximum amount of characters has been written
+    */
+   private static class BoundedWriter extends Writer
+   {
+      private final StringBuilder sb = new StringBuilder();
+
+      private final int max;
+
+      private boolean overflow;
+
+      BoundedWriter(int max)
+      {
+         this.max = max;
+      }
+
+      @Override
+      public void write(char[] cbuf, int off, int len)
+      {
+         if (overflow)
+         {
+            return;
+         }
+         else if (sb.length() + len > max)
+         {
+            overflow = true;
+            sb.setLength(0);
+            sb.trimToSize();
+            return;
+         }
+         sb.append(cbuf, off, len);
+      }
+
+      @Override
+      public void write(String str, int off, int len)
+      {
+         if (overflow)
+         {
+            return;
+         }
+         else if (sb.length() + len > max)
+         {
+            overflow = true;
+            sb.setLength(0);
+            sb.trimToSize();
+            return;
+         }
+         sb.append(str, off, off + len);
+      }
+
+      @Override
+      public void flush()
+      {
+      }
+
+      @Override
+      public void close()
+      {
+      }
+
+      @Override
+      public String toString()
+      {
+         return sb.toString();
+      }
+   }
+}
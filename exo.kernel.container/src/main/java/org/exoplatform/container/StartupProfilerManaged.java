@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import org.exoplatform.container.StartupProfiler.ComponentProfile;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+import org.picocontainer.Startable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * A management facade for the {@link StartupProfiler} static methods. Like {@link PropertyManagerManaged}
+ * the object implements the startable interface in order to be registered eagerly into the mbean server.
+ *
+ * @version $Id$
+ */
+@Managed
+@ManagedDescription("The startup profiler")
+@NameTemplate(@Property(key = "service", value = "startupprofiler"))
+public class StartupProfilerManaged implements Startable
+{
+
+   @Managed
+   @ManagedDescription("Returns true if the startup profiler is currently recording")
+   public boolean isRecording()
+   {
+      return StartupProfiler.isRecording();
+   }
+
+   @Managed
+   @ManagedDescription("Returns the time spent on each phase of the slowest components to start up")
+   public String listSlowestComponents(@ManagedDescription("The maximum amount of components to return") int max)
+   {
+      List<ComponentProfile> profiles = StartupProfiler.getProfiles();
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0, length = Math.min(max, profiles.size()); i < length; i++)
+      {
+         sb.append(profiles.get(i)).append('\n');
+      }
+      return sb.toString();
+   }
+
+   @Managed
+   @ManagedDescription("Returns the startup timeline in the Chrome trace event format")
+   public String getTimeline() throws IOException
+   {
+      StringWriter writer = new StringWriter();
+      StartupProfiler.export(writer);
+      return writer.toString();
+   }
+
+   @Managed
+   @ManagedDescription("Exports the startup timeline in the Chrome trace event format and returns the path of the file")
+   public String exportTimeline(
+      @ManagedDescription("The file or the directory in which the timeline is exported") String path)
+      throws IOException
+   {
+      return StartupProfiler.export(new File(path)).getAbsolutePath();
+   }
+
+   @Managed
+   @ManagedDescription("Clears the recorded data and restarts the recording if the profiler is enabled")
+   public void reset()
+   {
+      StartupProfiler.reset();
+   }
+
+   public void start()
+   {
+      // Nothing to do
+   }
+
+   public void stop()
+   {
+      // Nothing to do
+   }
+}
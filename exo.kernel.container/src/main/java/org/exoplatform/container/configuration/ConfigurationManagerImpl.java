@@ -18,7 +18,10 @@
  */
 package org.exoplatform.container.configuration;
 
+import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.commons.utils.SecurityHelper;
+import org.exoplatform.container.ExoContainer;
+import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.ar.Archive;
 import org.exoplatform.container.xml.Component;
 import org.exoplatform.container.xml.Configuration;
@@ -29,14 +32,28 @@ import org.exoplatform.services.log.Log;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletContext;
 
@@ -53,6 +70,13 @@ public class ConfigurationManagerImpl implements ConfigurationManager
 
    private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.ConfigurationManagerImpl");
 
+   /**
+    * The name of the system parameter to indicate the total amount of threads to use to fetch and
+    * unmarshall the configuration files in parallel. The configuration files are loaded one after
+    * another if it is not set or lower than 2.
+    */
+   public static final String THREAD_POOL_SIZE_PARAM_NAME = "org.exoplatform.container.configuration.tps";
+
    protected Configuration configurations_;
 
    private ServletContext scontext_;
@@ -68,6 +92,38 @@ public class ConfigurationManagerImpl implements ConfigurationManager
    /** . */
    private final Set<String> profiles;
 
+   /**
+    * The snapshot of the configuration, <code>null</code> if the snapshots are disabled
+    */
+   private ConfigurationSnapshot snapshot;
+
+   /**
+    * The configuration files to load once all of them are known, <code>null</code> if the
+    * configuration files are loaded as soon as they are added
+    */
+   private List<PendingConfiguration> pendingConfigurations;
+
+   /**
+    * The URLs of all the configuration files that have been parsed, only set while creating a snapshot
+    */
+   private Collection<URL> parsedURLs;
+
+   /**
+    * The thread pool used to fetch and unmarshall the configuration files in parallel, lazily created and
+    * shut down once the configuration has been fully loaded
+    */
+   private ThreadPoolExecutor executor;
+
+   /**
+    * The total amount of configuration files that could not be processed
+    */
+   private int errors;
+
+   /**
+    * The map into which the resolved variables are recorded, only set while creating a snapshot
+    */
+   private Map<String, String> recordedVariables;
+
    /** The URL of the current document being unmarshalled. */
    private static final ThreadLocal<URL> currentURL = new ThreadLocal<URL>();
 
@@ -108,8 +164,30 @@ public class ConfigurationManagerImpl implements ConfigurationManager
       this.profiles = profiles;
    }
 
+   /**
+    * Enables the snapshot of the configuration if the snapshots have been enabled thanks to the
+    * system property {@link ConfigurationSnapshot#SNAPSHOT_DIR}. Once enabled, the configuration
+    * files are only loaded once all of them have been added, so that they don't need to be parsed if
+    * the snapshot is still valid. This method must be called before adding any configuration.
+    * @param name the name of the snapshot, it must be unique per container
+    */
+   public void enableSnapshot(String name)
+   {
+      if (configurations_ != null || pendingConfigurations != null)
+      {
+         LOG.warn("The snapshot " + name + " cannot be enabled once the configuration has been loaded");
+         return;
+      }
+      snapshot = ConfigurationSnapshot.getSnapshot(name, profiles);
+      if (snapshot != null)
+      {
+         pendingConfigurations = new ArrayList<PendingConfiguration>();
+      }
+   }
+
    public Configuration getConfiguration()
    {
+      loadPendingConfigurations();
       return configurations_;
    }
 
@@ -129,12 +207,29 @@ public class ConfigurationManagerImpl implements ConfigurationManager
 
    public void addConfiguration(Collection<URL> urls)
    {
+      if (pendingConfigurations != null || getThreadPoolSize() < 2)
+      {
+         Iterator<URL> i = urls.iterator();
+         while (i.hasNext())
+         {
+            URL url = i.next();
+            addConfiguration(url);
+         }
+         return;
+      }
+      // The configuration files are loaded all together so that they can be fetched in parallel
+      List<PendingConfiguration> configurations = new ArrayList<PendingConfiguration>(urls.size());
       Iterator<URL> i = urls.iterator();
       while (i.hasNext())
       {
          URL url = i.next();
-         addConfiguration(url);
+         if (url == null)
+            continue;
+         if (logEnabled && LOG_DEBUG)
+            LOG.info("Add configuration " + url);
+         configurations.add(new PendingConfiguration(scontext_, url));
       }
+      loadConfigurations(configurations);
    }
 
    public void addConfiguration(URL url)
@@ -148,15 +243,28 @@ public class ConfigurationManagerImpl implements ConfigurationManager
          return;
       if (logEnabled && LOG_DEBUG)
          LOG.info("Add configuration " + url);
-      try
+      contextPath = getContextPath(url);
+
+      if (pendingConfigurations != null)
       {
-         contextPath = (new File(url.toString())).getParent() + "/";
-         contextPath = contextPath.replaceAll("\\\\", "/");
+         // The configuration will be loaded once all the configuration files are known
+         pendingConfigurations.add(new PendingConfiguration(context, url));
+         return;
       }
-      catch (Exception e)
+      else if (getThreadPoolSize() > 1)
       {
-         contextPath = null;
+         // The imported configuration files will be loaded in parallel
+         loadConfigurations(Collections.singletonList(new PendingConfiguration(context, url)));
+         return;
       }
+      loadConfiguration(url);
+   }
+
+   /**
+    * Loads the given configuration file and the files that it imports one after another
+    */
+   private void loadConfiguration(URL url)
+   {
 
       // Just to prevent some nasty bug to happen
       if (currentURL.get() != null)
@@ -173,6 +281,10 @@ public class ConfigurationManagerImpl implements ConfigurationManager
       {
          ConfigurationUnmarshaller unmarshaller = new ConfigurationUnmarshaller(profiles);
          Configuration conf = unmarshaller.unmarshall(url);
+         if (parsedURLs != null)
+         {
+            parsedURLs.add(url);
+         }
 
          if (configurations_ == null)
             configurations_ = conf;
@@ -182,6 +294,7 @@ public class ConfigurationManagerImpl implements ConfigurationManager
       }
       catch (Exception ex)
       {
+         errors++;
          LOG.error("Cannot process the configuration " + currentURL.get(), ex);
       }
       finally
@@ -231,19 +344,204 @@ public class ConfigurationManagerImpl implements ConfigurationManager
                // Set the URL of imported file
                currentURL.set(urlObject);
                conf = unmarshaller.unmarshall(urlObject);
+               if (parsedURLs != null)
+               {
+                  parsedURLs.add(urlObject);
+               }
                configurations_.mergeConfiguration(conf);
                importConf(unmarshaller, conf, depth + 1);
             }
             else
             {
+               errors++;
                LOG.warn("Couldn't process the URL for " + uri + " configuration file ignored ");
             }
          }
       }
    }
 
+   /**
+    * Loads the configuration files that have been added since the snapshot has been enabled, from the
+    * snapshot if it is still valid otherwise from the files themselves in which case the snapshot is
+    * updated.
+    */
+   private void loadPendingConfigurations()
+   {
+      List<PendingConfiguration> configurations = pendingConfigurations;
+      if (configurations == null || configurations.isEmpty())
+      {
+         return;
+      }
+      // The next configuration files will be loaded as soon as they are added
+      pendingConfigurations = null;
+      List<URL> locations = new ArrayList<URL>(configurations.size());
+      for (PendingConfiguration configuration : configurations)
+      {
+         locations.add(configuration.url);
+      }
+      try
+      {
+         currentURL.set(snapshot.getURL());
+         configurations_ = snapshot.load(locations);
+      }
+      catch (MalformedURLException e)
+      {
+         LOG.warn("Could not get the URL of the configuration snapshot", e);
+      }
+      finally
+      {
+         currentURL.set(null);
+      }
+      if (configurations_ != null)
+      {
+         return;
+      }
+      Map<String, String> variables = new LinkedHashMap<String, String>();
+      int errorsBefore = errors;
+      parsedURLs = new LinkedHashSet<URL>();
+      recordedVariables = variables;
+      Deserializer.recordVariables(variables);
+      try
+      {
+         loadConfigurations(configurations);
+      }
+      finally
+      {
+         Deserializer.recordVariables(null);
+         recordedVariables = null;
+      }
+      Collection<URL> sources = parsedURLs;
+      parsedURLs = null;
+      if (errors == errorsBefore && configurations_ != null)
+      {
+         snapshot.store(locations, sources, variables, configurations_);
+      }
+   }
+
+   /**
+    * Loads the given configuration files, in parallel if a thread pool size has been defined thanks
+    * to the system parameter {@link #THREAD_POOL_SIZE_PARAM_NAME}. In any case, the configuration
+    * files are merged in the same order as if they were loaded one after another.
+    */
+   private void loadConfigurations(List<PendingConfiguration> configurations)
+   {
+      int threadPoolSize = getThreadPoolSize();
+      if (threadPoolSize < 2)
+      {
+         for (PendingConfiguration configuration : configurations)
+         {
+            contextPath = getContextPath(configuration.url);
+            loadConfiguration(configuration.url);
+         }
+         return;
+      }
+      ExecutorService executor = getExecutor(threadPoolSize);
+      ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      ExoContainer container = ExoContainerContext.getCurrentContainerIfPresent();
+      List<ConfigurationDocument> documents = new ArrayList<ConfigurationDocument>(configurations.size());
+      for (PendingConfiguration configuration : configurations)
+      {
+         // The relative imports are resolved against the location of the configuration file that
+         // has been added
+         contextPath = getContextPath(configuration.url);
+         ConfigurationDocument document =
+            new ConfigurationDocument(null, configuration.url, contextPath, executor, cl, container);
+         document.submit();
+         documents.add(document);
+      }
+      for (ConfigurationDocument document : documents)
+      {
+         try
+         {
+            mergeDocument(document, 0);
+         }
+         catch (Exception ex)
+         {
+            errors++;
+            LOG.error("Cannot process the configuration " + currentURL.get(), ex);
+         }
+         finally
+         {
+            currentURL.set(null);
+         }
+      }
+   }
+
+   /**
+    * Gives the thread pool used to load the configuration files in parallel, it is created on the first
+    * call and shared by all the configuration files added until the end of the initialization. The idle
+    * threads are released after a while in case the end of the initialization is never notified.
+    */
+   private ExecutorService getExecutor(int threadPoolSize)
+   {
+      if (executor == null)
+      {
+         executor =
+            new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 30L, TimeUnit.SECONDS,
+               new LinkedBlockingQueue<Runnable>(), new LoaderThreadFactory());
+         executor.allowCoreThreadTimeOut(true);
+      }
+      return executor;
+   }
+
+   /**
+    * Merges the given configuration document once unmarshalled, then the documents that it imports
+    * recursively, exactly as {@link #importConf(ConfigurationUnmarshaller, Configuration, int)} does
+    * 
+    * @param document the document to merge
+    * @param depth used to log properly the URL of the file to import
+    * @throws Exception if the document or one of its imports could not be loaded
+    */
+   private void mergeDocument(ConfigurationDocument document, int depth) throws Exception
+   {
+      if (document.error != null)
+      {
+         throw document.error;
+      }
+      else if (document.url == null)
+      {
+         errors++;
+         LOG.warn("Couldn't process the URL for " + document.uri + " configuration file ignored ");
+         return;
+      }
+      if (depth > 0 && logEnabled && LOG_DEBUG)
+      {
+         StringBuilder prefix = new StringBuilder(depth);
+         for (int i = 0; i < depth; i++)
+         {
+            prefix.append('\t');
+         }
+         LOG.info(prefix + "import " + document.url);
+      }
+      currentURL.set(document.url);
+      Configuration conf = document.get();
+      if (parsedURLs != null)
+      {
+         parsedURLs.add(document.url);
+      }
+      if (recordedVariables != null)
+      {
+         recordedVariables.putAll(document.variables);
+      }
+      if (configurations_ == null)
+         configurations_ = conf;
+      else
+         configurations_.mergeConfiguration(conf);
+      for (ConfigurationDocument imported : document.imports)
+      {
+         mergeDocument(imported, depth + 1);
+      }
+   }
+
    public void processRemoveConfiguration()
    {
+      loadPendingConfigurations();
+      if (executor != null)
+      {
+         // The configuration has been fully loaded
+         executor.shutdown();
+         executor = null;
+      }
       if (configurations_ == null)
          return;
       List<String> list = configurations_.getRemoveConfiguration();
@@ -259,16 +557,19 @@ public class ConfigurationManagerImpl implements ConfigurationManager
 
    public Component getComponent(String service)
    {
+      loadPendingConfigurations();
       return configurations_.getComponent(service);
    }
 
    public Component getComponent(Class<?> clazz)
    {
+      loadPendingConfigurations();
       return configurations_.getComponent(clazz.getName());
    }
 
    public Collection<Component> getComponents()
    {
+      loadPendingConfigurations();
       if (configurations_ == null)
          return null;
       return configurations_.getComponents();
@@ -327,6 +628,11 @@ public class ConfigurationManagerImpl implements ConfigurationManager
    }
 
    private URL getURL(final ServletContext context, String url) throws Exception
+   {
+      return getURL(context, url, contextPath);
+   }
+
+   private URL getURL(final ServletContext context, String url, String contextPath) throws Exception
    {
       if (url == null)
       {
@@ -462,4 +768,242 @@ public class ConfigurationManagerImpl implements ConfigurationManager
    {
       return url.substring(prefix.length(), url.length());
    }
+
+   /**
+    * Gives the path against which the relative imports of the given configuration file are resolved
+    */
+   private static String getContextPath(URL url)
+   {
+      try
+      {
+         String path = (new File(url.toString())).getParent() + "/";
+         return path.replaceAll("\\\\", "/");
+      }
+      catch (Exception e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * Gives the total amount of threads to use to load the configuration files
+    */
+   private static int getThreadPoolSize()
+   {
+      String sValue = PropertyManager.getProperty(THREAD_POOL_SIZE_PARAM_NAME);
+      if (sValue == null)
+      {
+         return 0;
+      }
+      try
+      {
+         return Integer.parseInt(sValue.trim());
+      }
+      catch (NumberFormatException e)
+      {
+         LOG.warn("The value of the parameter " + THREAD_POOL_SIZE_PARAM_NAME + " is not a valid integer: " + sValue);
+         return 0;
+      }
+   }
+
+   /**
+    * A configuration file that has been added but not loaded yet
+    */
+   private static class PendingConfiguration
+   {
+      private final ServletContext context;
+
+      private final URL url;
+
+      private PendingConfiguration(ServletContext context, URL url)
+      {
+         this.context = context;
+         this.url = url;
+      }
+   }
+
+   /**
+    * A configuration file that is fetched and unmarshalled asynchronously, the files that it imports
+    * are submitted as soon as it has been unmarshalled
+    */
+   private class ConfigurationDocument implements Callable<Configuration>
+   {
+      /**
+       * The location of the file as defined in the import, <code>null</code> for a configuration file
+       * that has been added
+       */
+      private final String uri;
+
+      /**
+       * The resolved location of the file, <code>null</code> if it could not be resolved
+       */
+      private final URL url;
+
+      /** . */
+      private final String contextPath;
+
+      /** . */
+      private final ExecutorService executor;
+
+      /** . */
+      private final ClassLoader cl;
+
+      /** . */
+      private final ExoContainer container;
+
+      /**
+       * The error that occurred while resolving the location of the file if any
+       */
+      private Exception error;
+
+      /** . */
+      private Future<Configuration> result;
+
+      /**
+       * The variables resolved while loading the file
+       */
+      private final Map<String, String> variables = new LinkedHashMap<String, String>();
+
+      /**
+       * The files imported by this file in the order of their declaration
+       */
+      private final List<ConfigurationDocument> imports = new ArrayList<ConfigurationDocument>();
+
+      private ConfigurationDocument(String uri, URL url, String contextPath, ExecutorService executor,
+         ClassLoader cl, ExoContainer container)
+      {
+         this.uri = uri;
+         this.url = url;
+         this.contextPath = contextPath;
+         this.executor = executor;
+         this.cl = cl;
+         this.container = container;
+      }
+
+      private void submit()
+      {
+         if (url != null)
+         {
+            result = executor.submit(this);
+         }
+      }
+
+      /**
+       * Waits until the file has been unmarshalled
+       */
+      private Configuration get() throws Exception
+      {
+         try
+         {
+            return result.get();
+         }
+         catch (ExecutionException e)
+         {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+            {
+               throw (Exception)cause;
+            }
+            else if (cause instanceof Error)
+            {
+               throw (Error)cause;
+            }
+            throw e;
+         }
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      public Configuration call() throws Exception
+      {
+         final Thread thread = Thread.currentThread();
+         final ClassLoader oldCl = thread.getContextClassLoader();
+         setContext(thread, cl, container);
+         currentURL.set(url);
+         Deserializer.recordVariables(recordedVariables == null ? null : variables);
+         try
+         {
+            Configuration conf = new ConfigurationUnmarshaller(profiles).unmarshall(url);
+            List<String> urls = conf.getImports();
+            if (urls != null)
+            {
+               for (int i = 0; i < urls.size(); i++)
+               {
+                  String uri = urls.get(i);
+                  ConfigurationDocument document;
+                  try
+                  {
+                     document =
+                        new ConfigurationDocument(uri, getURL(scontext_, uri, contextPath), contextPath, executor, cl,
+                           container);
+                  }
+                  catch (Exception e)
+                  {
+                     document = new ConfigurationDocument(uri, null, contextPath, executor, cl, container);
+                     document.error = e;
+                  }
+                  imports.add(document);
+               }
+               // The imports are submitted once all of them are known
+               for (ConfigurationDocument document : imports)
+               {
+                  if (document.error == null)
+                  {
+                     document.submit();
+                  }
+               }
+            }
+            return conf;
+         }
+         finally
+         {
+            Deserializer.recordVariables(null);
+            currentURL.set(null);
+            setContext(thread, oldCl, null);
+         }
+      }
+   }
+
+   private static void setContext(final Thread thread, final ClassLoader cl, final ExoContainer container)
+   {
+      SecurityHelper.doPrivilegedAction(new PrivilegedAction<Void>()
+      {
+         public Void run()
+         {
+            thread.setContextClassLoader(cl);
+            ExoContainerContext.setCurrentContainer(container);
+            return null;
+         }
+      });
+   }
+
+   private static class LoaderThreadFactory implements ThreadFactory
+   {
+      final ThreadGroup group;
+
+      final AtomicInteger threadNumber = new AtomicInteger(1);
+
+      final String namePrefix;
+
+      LoaderThreadFactory()
+      {
+         SecurityManager s = System.getSecurityManager();
+         group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
+         namePrefix = "configuration-loader-thread-";
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      public Thread newThread(Runnable r)
+      {
+         Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
+         if (!t.isDaemon())
+            t.setDaemon(true);
+         if (t.getPriority() != Thread.NORM_PRIORITY)
+            t.setPriority(Thread.NORM_PRIORITY);
+         return t;
+      }
+   }
 }
@@ -0,0 +1,426 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.configuration;
+
+import org.exoplatform.commons.utils.PrivilegedFileHelper;
+import org.exoplatform.commons.utils.PrivilegedSystemHelper;
+import org.exoplatform.commons.utils.SecurityHelper;
+import org.exoplatform.container.xml.Configuration;
+import org.exoplatform.container.xml.Deserializer;
+import org.exoplatform.services.log.ExoLogger;
+import org.exoplatform.services.log.Log;
+import org.jibx.runtime.BindingDirectory;
+import org.jibx.runtime.IBindingFactory;
+import org.jibx.runtime.IUnmarshallingContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot of the merged configuration of a container stored on the file system, it allows to
+ * restart a container without parsing again all its configuration files as long as they have not
+ * been modified. The snapshots are disabled by default, they are enabled by setting the system
+ * property {@link #SNAPSHOT_DIR} to the directory where they must be stored.
+ * <p>
+ * A snapshot contains the merged configuration before the removal of the components defined in the
+ * <i>remove-configuration</i> elements, the active profiles, the URLs of the configuration files
+ * provided by the container, the fingerprints of all the configuration files that have been parsed
+ * including the imported ones and the values of all the variables resolved while parsing them. A
+ * snapshot is only used if all of them are still the same. The fingerprint of a local file or of an
+ * entry of a local archive is based on the last modification date and the size of the file or of the
+ * archive, the fingerprint of the other resources is a checksum of their content. The content of the
+ * snapshot is itself protected by a checksum.
+ *
+ * @version $Id$
+ */
+public final class ConfigurationSnapshot
+{
+   /**
+    * The name of the system property that defines the directory where the snapshots are stored
+    */
+   public static final String SNAPSHOT_DIR = "exo.container.snapshot.dir";
+
+   /**
+    * The version of the format of the snapshots, it must be incremented each time the format or the
+    * binding of the configuration changes
+    */
+   private static final int VERSION = 1;
+
+   private static final Log LOG = ExoLogger.getLogger("exo.kernel.container.ConfigurationSnapshot");
+
+   /**
+    * The file in which the snapshot is stored
+    */
+   private final File file;
+
+   /**
+    * The active profiles sorted by name
+    */
+   private final Set<String> profiles;
+
+   private ConfigurationSnapshot(File file, Set<String> profiles)
+   {
+      this.file = file;
+      this.profiles = new TreeSet<String>();
+      if (profiles != null)
+      {
+         this.profiles.addAll(profiles);
+      }
+   }
+
+   /**
+    * Gives the snapshot of the container with the given name
+    * @param name the name of the snapshot, it must be unique per container
+    * @param profiles the active profiles
+    * @return the snapshot or <code>null</code> if the snapshots are disabled
+    */
+   static ConfigurationSnapshot getSnapshot(String name, Set<String> profiles)
+   {
+      String dir = PrivilegedSystemHelper.getProperty(SNAPSHOT_DIR);
+      if (dir == null || dir.trim().length() == 0)
+      {
+         return null;
+      }
+      return new ConfigurationSnapshot(new File(Deserializer.resolveVariables(dir.trim()), name.replaceAll(
+         "[^\\w\\.\\-]", "_") + ".snapshot"), profiles);
+   }
+
+   /**
+    * Gives the URL of the file of the snapshot
+    */
+   URL getURL() throws MalformedURLException
+   {
+      return file.toURI().toURL();
+   }
+
+   /**
+    * Loads the configuration from the snapshot if it is still valid.
+    * @param locations the URLs of the configuration files provided by the container
+    * @return the configuration or <code>null</code> if the snapshot doesn't exist or is outdated
+    */
+   Configuration load(List<URL> locations)
+   {
+      if (!PrivilegedFileHelper.exists(file))
+      {
+         return null;
+      }
+      try
+      {
+         byte[] content = readFully(PrivilegedFileHelper.fileInputStream(file));
+         if (content.length < 8)
+         {
+            LOG.warn("The configuration snapshot " + file + " is corrupted, it will be ignored");
+            return null;
+         }
+         DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+         CRC32 crc = new CRC32();
+         crc.update(content, 0, content.length - 8);
+         in.skipBytes(content.length - 8);
+         if (in.readLong() != crc.getValue())
+         {
+            LOG.warn("The checksum of the configuration snapshot " + file + " is invalid, it will be ignored");
+            return null;
+         }
+         in = new DataInputStream(new ByteArrayInputStream(content, 0, content.length - 8));
+         String reason = validate(in, locations);
+         if (reason != null)
+         {
+            LOG.info("The configuration snapshot " + file + " is outdated: " + reason);
+            return null;
+         }
+         byte[] document = new byte[in.readInt()];
+         in.readFully(document);
+         IBindingFactory bfact = BindingDirectory.getFactory(Configuration.class);
+         IUnmarshallingContext uctx = bfact.createUnmarshallingContext();
+         Configuration conf =
+            (Configuration)uctx.unmarshalDocument(new StringReader(new String(document, "UTF-8")), null);
+         LOG.info("The configuration has been loaded from the snapshot " + file);
+         return conf;
+      }
+      catch (Exception e)
+      {
+         LOG.warn("Could not load the configuration snapshot " + file + ", it will be ignored", e);
+         return null;
+      }
+   }
+
+   /**
+    * Checks the header of the snapshot
+    * @return the reason why the snapshot is outdated or <code>null</code> if it is still valid
+    */
+   private String validate(DataInputStream in, List<URL> locations) throws IOException
+   {
+      if (in.readInt() != VERSION)
+      {
+         return "the format has changed";
+      }
+      if (!readStrings(in).equals(new ArrayList<String>(profiles)))
+      {
+         return "the profiles have changed";
+      }
+      List<String> expectedLocations = new ArrayList<String>();
+      for (URL location : locations)
+      {
+         expectedLocations.add(location.toString());
+      }
+      if (!readStrings(in).equals(expectedLocations))
+      {
+         return "the configuration files have changed";
+      }
+      for (int i = 0, length = in.readInt(); i < length; i++)
+      {
+         String source = in.readUTF();
+         String fingerprint = in.readUTF();
+         if (!fingerprint.equals(getFingerprint(new URL(source))))
+         {
+            return "the configuration file " + source + " has been modified";
+         }
+      }
+      for (int i = 0, length = in.readInt(); i < length; i++)
+      {
+         String variable = in.readUTF();
+         String value = in.readUTF();
+         if (!value.equals(Deserializer.resolveVariables(variable)))
+         {
+            return "the value of the variable " + variable + " has changed";
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Stores the given configuration into the snapshot
+    * @param locations the URLs of the configuration files provided by the container
+    * @param sources the URLs of all the configuration files that have been parsed
+    * @param variables the variables resolved while parsing the configuration files
+    * @param conf the merged configuration
+    */
+   void store(List<URL> locations, Collection<URL> sources, Map<String, String> variables, Configuration conf)
+   {
+      File tmp = null;
+      try
+      {
+         Map<String, String> fingerprints = new LinkedHashMap<String, String>();
+         for (URL source : sources)
+         {
+            fingerprints.put(source.toString(), getFingerprint(source));
+         }
+         ByteArrayOutputStream document = new ByteArrayOutputStream();
+         Writer writer = new OutputStreamWriter(document, "UTF-8");
+         conf.marshall(writer);
+         writer.flush();
+
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream(document.size() + 4096);
+         DataOutputStream out = new DataOutputStream(bytes);
+         out.writeInt(VERSION);
+         writeStrings(out, profiles);
+         List<String> urls = new ArrayList<String>();
+         for (URL location : locations)
+         {
+            urls.add(location.toString());
+         }
+         writeStrings(out, urls);
+         out.writeInt(fingerprints.size());
+         for (Map.Entry<String, String> entry : fingerprints.entrySet())
+         {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+         }
+         out.writeInt(variables.size());
+         for (Map.Entry<String, String> entry : variables.entrySet())
+         {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+         }
+         out.writeInt(document.size());
+         document.writeTo(out);
+         out.flush();
+         CRC32 crc = new CRC32();
+         crc.update(bytes.toByteArray());
+         out.writeLong(crc.getValue());
+         out.close();
+
+         File dir = file.getParentFile();
+         if (dir != null && !PrivilegedFileHelper.exists(dir))
+         {
+            PrivilegedFileHelper.mkdirs(dir);
+         }
+         // Write a temporary file first to never leave a partially written snapshot
+         tmp = PrivilegedFileHelper.createTempFile(file.getName(), ".tmp", dir);
+         OutputStream fos = PrivilegedFileHelper.fileOutputStream(tmp);
+         try
+         {
+            bytes.writeTo(fos);
+         }
+         finally
+         {
+            fos.close();
+         }
+         if (!PrivilegedFileHelper.renameTo(tmp, file))
+         {
+            PrivilegedFileHelper.delete(file);
+            if (!PrivilegedFileHelper.renameTo(tmp, file))
+            {
+               throw new IOException("Could not rename " + tmp + " to " + file);
+            }
+         }
+         tmp = null;
+         if (LOG.isDebugEnabled())
+         {
+            LOG.debug("The configuration snapshot " + file + " has been stored");
+         }
+      }
+      catch (Exception e)
+      {
+         LOG.warn("Could not store the configuration snapshot " + file, e);
+      }
+      finally
+      {
+         if (tmp != null)
+         {
+            PrivilegedFileHelper.delete(tmp);
+         }
+      }
+   }
+
+   private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException
+   {
+      out.writeInt(values.size());
+      for (String value : values)
+      {
+         out.writeUTF(value);
+      }
+   }
+
+   private static List<String> readStrings(DataInputStream in) throws IOException
+   {
+      int length = in.readInt();
+      List<String> values = new ArrayList<String>(length);
+      for (int i = 0; i < length; i++)
+      {
+         values.add(in.readUTF());
+      }
+      return values;
+   }
+
+   /**
+    * Gives the fingerprint of the given configuration file
+    */
+   static String getFingerprint(final URL url) throws IOException
+   {
+      URL fileURL = url;
+      if ("jar".equals(url.getProtocol()))
+      {
+         // An entry of an archive, we rely on the archive itself
+         String path = url.getPath();
+         int index = path.indexOf("!/");
+         if (index > 0)
+         {
+            fileURL = new URL(path.substring(0, index));
+         }
+      }
+      if ("file".equals(fileURL.getProtocol()))
+      {
+         final File f = toFile(fileURL);
+         return SecurityHelper.doPrivilegedAction(new PrivilegedAction<String>()
+         {
+            public String run()
+            {
+               return f.exists() ? f.lastModified() + "/" + f.length() : "missing";
+            }
+         });
+      }
+      InputStream in;
+      try
+      {
+         in = SecurityHelper.doPrivilegedIOExceptionAction(new PrivilegedExceptionAction<InputStream>()
+         {
+            public InputStream run() throws Exception
+            {
+               return url.openStream();
+            }
+         });
+      }
+      catch (IOException e)
+      {
+         return "missing";
+      }
+      byte[] content = readFully(in);
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      return "crc/" + crc.getValue() + "/" + content.length;
+   }
+
+   private static File toFile(URL url)
+   {
+      try
+      {
+         return new File(url.toURI());
+      }
+      catch (URISyntaxException e)
+      {
+         return new File(url.getPath());
+      }
+      catch (IllegalArgumentException e)
+      {
+         return new File(url.getPath());
+      }
+   }
+
+   private static byte[] readFully(InputStream in) throws IOException
+   {
+      try
+      {
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         byte[] buffer = new byte[8192];
+         int length;
+         while ((length = in.read(buffer)) != -1)
+         {
+            out.write(buffer, 0, length);
+         }
+         return out.toByteArray();
+      }
+      finally
+      {
+         in.close();
+      }
+   }
+}
@@ -29,6 +29,8 @@ import org.jibx.runtime.BindingDirectory;
 import org.jibx.runtime.IBindingFactory;
 import org.jibx.runtime.IUnmarshallingContext;
 import org.jibx.runtime.JiBXException;
+import org.jibx.runtime.impl.StAXReaderWrapper;
+import org.jibx.runtime.impl.UnmarshallingContext;
 import org.w3c.dom.Document;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
@@ -36,6 +38,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
@@ -50,6 +53,9 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
@@ -77,6 +83,22 @@ public class ConfigurationUnmarshaller
     */
    private static final String[] KERNEL_NAMESPACES = Namespaces.getKernelNamespaces();
 
+   /**
+    * The name of the system property that allows to disable the streaming unmarshalling of the
+    * configuration files, in which case each file is first loaded into a DOM
+    */
+   public static final String STREAMING = "exo.container.configuration.streaming";
+
+   /**
+    * Indicates whether the configuration files must be unmarshalled in streaming
+    */
+   private static volatile boolean streaming = !"false".equalsIgnoreCase(PropertyManager.getProperty(STREAMING));
+
+   /**
+    * The factory used to create the stream readers, it is thread safe once configured
+    */
+   private static volatile XMLInputFactory inputFactory;
+
    private class Reporter implements ErrorHandler
    {
 
@@ -195,6 +217,30 @@ public class ConfigurationUnmarshaller
          }
       }
 
+      if (streaming)
+      {
+         try
+         {
+            return SecurityHelper.doPrivilegedExceptionAction(new PrivilegedExceptionAction<Configuration>()
+            {
+               public Configuration run() throws Exception
+               {
+                  return unmarshallStream(url);
+               }
+            });
+         }
+         catch (PrivilegedActionException pae)
+         {
+            throw getCause(pae);
+         }
+         catch (LinkageError e)
+         {
+            // The JiBX runtime doesn't support StAX
+            streaming = false;
+            LOG.warn("The configuration files cannot be unmarshalled in streaming, they will be loaded into a DOM", e);
+         }
+      }
+
       //
       DocumentBuilderFactory factory = null;
       try
@@ -286,47 +332,100 @@ public class ConfigurationUnmarshaller
       }
       catch (PrivilegedActionException pae)
       {
-         Throwable cause = pae.getCause();
-         if (cause instanceof JiBXException)
-         {
-            throw (JiBXException)cause;
-         }
-         else if (cause instanceof ParserConfigurationException)
-         {
-            throw (ParserConfigurationException)cause;
-         }
-         else if (cause instanceof IOException)
-         {
-            throw (IOException)cause;
-         }
-         else if (cause instanceof SAXException)
-         {
-            throw (SAXException)cause;
-         }
-         else if (cause instanceof IllegalArgumentException)
-         {
-            throw (IllegalArgumentException)cause;
-         }
-         else if (cause instanceof TransformerException)
-         {
-            throw (TransformerException)cause;
-         }
-         else if (cause instanceof TransformerConfigurationException)
-         {
-            throw (TransformerConfigurationException)cause;
-         }
-         else if (cause instanceof TransformerFactoryConfigurationError)
-         {
-            throw (TransformerFactoryConfigurationError)cause;
-         }
-         else if (cause instanceof RuntimeException)
+         throw getCause(pae);
+      }
+   }
+
+   /**
+    * Unmarshalls the given configuration file in one pass without loading it into memory, the
+    * profiles and the kernel namespaces are filtered on the fly by a {@link ProfileStreamFilter}
+    */
+   private Configuration unmarshallStream(URL url) throws Exception
+   {
+      InputStream is = url.openStream();
+      try
+      {
+         XMLStreamReader reader = getInputFactory().createXMLStreamReader(url.toString(), is);
+         try
          {
-            throw (RuntimeException)cause;
+            IBindingFactory bfact = BindingDirectory.getFactory(Configuration.class);
+            UnmarshallingContext uctx = (UnmarshallingContext)bfact.createUnmarshallingContext();
+            uctx.setDocument(new StAXReaderWrapper(new ProfileStreamFilter(reader, profiles), url.toString(), true));
+            return (Configuration)uctx.unmarshalElement();
          }
-         else
+         finally
          {
-            throw new RuntimeException(cause);
+            reader.close();
          }
       }
+      finally
+      {
+         is.close();
+      }
+   }
+
+   private static XMLInputFactory getInputFactory()
+   {
+      XMLInputFactory factory = inputFactory;
+      if (factory == null)
+      {
+         factory = XMLInputFactory.newInstance();
+         factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+         factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+         inputFactory = factory;
+      }
+      return factory;
+   }
+
+   /**
+    * Gives the exception to throw for the given {@link PrivilegedActionException}
+    */
+   private static Exception getCause(PrivilegedActionException pae)
+   {
+      Throwable cause = pae.getCause();
+      if (cause instanceof JiBXException)
+      {
+         return (JiBXException)cause;
+      }
+      else if (cause instanceof ParserConfigurationException)
+      {
+         return (ParserConfigurationException)cause;
+      }
+      else if (cause instanceof IOException)
+      {
+         return (IOException)cause;
+      }
+      else if (cause instanceof SAXException)
+      {
+         return (SAXException)cause;
+      }
+      else if (cause instanceof XMLStreamException)
+      {
+         return (XMLStreamException)cause;
+      }
+      else if (cause instanceof IllegalArgumentException)
+      {
+         return (IllegalArgumentException)cause;
+      }
+      else if (cause instanceof TransformerException)
+      {
+         return (TransformerException)cause;
+      }
+      else if (cause instanceof TransformerConfigurationException)
+      {
+         return (TransformerConfigurationException)cause;
+      }
+      else if (cause instanceof TransformerFactoryConfigurationError)
+      {
+         throw (TransformerFactoryConfigurationError)cause;
+      }
+      else if (cause instanceof RuntimeException)
+      {
+         return (RuntimeException)cause;
+      }
+      else
+      {
+         return new RuntimeException(cause);
+      }
    }
 }
@@ -47,7 +47,7 @@ class ProfileDOMFilter
    private static final Set<String> kernelURIs = Namespaces.KERNEL_NAMESPACES_SET;
 
    /** . */
-   private static final Set<String> kernelWithProfileURIs;
+   static final Set<String> kernelWithProfileURIs;
    static
    {
       // All the kernel namespaces but KERNEL_1_0_URI
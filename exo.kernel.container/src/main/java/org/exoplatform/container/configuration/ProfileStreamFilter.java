@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.configuration;
+
+import org.exoplatform.commons.utils.Tools;
+
+import java.util.Collections;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Filters a kernel XML stream on the fly the same way as {@link ProfileDOMFilter} and
+ * {@link NoKernelNamespaceSAXFilter} do together: the elements of the kernel namespaces that are not
+ * part of the active profiles are skipped, the profile and XSI attributes are hidden and the kernel
+ * namespaces are removed from the element and attribute names and from the namespace declarations so
+ * that the stream can be unmarshalled directly by JiBX.
+ *
+ * @version $Id$
+ */
+class ProfileStreamFilter extends StreamReaderDelegate
+{
+
+   /** . */
+   private static final String PROFILE_ATTRIBUTE = "profiles";
+
+   /** . */
+   private static final String XSI_URI = "http://www.w3.org/2001/XMLSchema-instance";
+
+   /** . */
+   private final Set<String> activeProfiles;
+
+   /**
+    * The indexes in the underlying stream of the visible attributes of the current element
+    */
+   private int[] attributes = new int[8];
+
+   /** . */
+   private int attributeCount;
+
+   /**
+    * The indexes in the underlying stream of the visible namespace declarations of the current event
+    */
+   private int[] namespaces = new int[4];
+
+   /** . */
+   private int namespaceCount;
+
+   ProfileStreamFilter(XMLStreamReader reader, Set<String> activeProfiles)
+   {
+      super(reader);
+      this.activeProfiles = activeProfiles;
+   }
+
+   @Override
+   public int next() throws XMLStreamException
+   {
+      int event = super.next();
+      while (event == XMLStreamConstants.START_ELEMENT && !isActive())
+      {
+         skipElement();
+         event = super.next();
+      }
+      if (event == XMLStreamConstants.START_ELEMENT)
+      {
+         filterAttributes();
+         filterNamespaces();
+      }
+      else if (event == XMLStreamConstants.END_ELEMENT)
+      {
+         filterNamespaces();
+      }
+      return event;
+   }
+
+   @Override
+   public int nextTag() throws XMLStreamException
+   {
+      int event = next();
+      while ((event == XMLStreamConstants.CHARACTERS && isWhiteSpace()) || event == XMLStreamConstants.SPACE
+         || event == XMLStreamConstants.COMMENT || event == XMLStreamConstants.PROCESSING_INSTRUCTION)
+      {
+         event = next();
+      }
+      if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT)
+      {
+         throw new XMLStreamException("Expected a start or an end tag", getLocation());
+      }
+      return event;
+   }
+
+   /**
+    * Indicates whether the current element is part of the active profiles
+    */
+   private boolean isActive()
+   {
+      if (!Namespaces.isKernelNamespace(super.getNamespaceURI()))
+      {
+         return true;
+      }
+      Set<String> profiles = null;
+      for (int i = 0, length = super.getAttributeCount(); i < length; i++)
+      {
+         if (isProfileAttribute(i))
+         {
+            if (profiles == null)
+            {
+               profiles = Tools.parseCommaList(super.getAttributeValue(i));
+            }
+            else
+            {
+               profiles.addAll(Tools.parseCommaList(super.getAttributeValue(i)));
+            }
+         }
+      }
+      return profiles == null || !Collections.disjoint(activeProfiles, profiles);
+   }
+
+   private boolean isProfileAttribute(int index)
+   {
+      String uri = super.getAttributeNamespace(index);
+      return (uri == null || uri.length() == 0 || ProfileDOMFilter.kernelWithProfileURIs.contains(uri))
+         && PROFILE_ATTRIBUTE.equals(super.getAttributeLocalName(index));
+   }
+
+   /**
+    * Skips the current element and all its content
+    */
+   private void skipElement() throws XMLStreamException
+   {
+      int depth = 1;
+      while (depth > 0)
+      {
+         int event = super.next();
+         if (event == XMLStreamConstants.START_ELEMENT)
+         {
+            depth++;
+         }
+         else if (event == XMLStreamConstants.END_ELEMENT)
+         {
+            depth--;
+         }
+      }
+   }
+
+   private void filterAttributes()
+   {
+      boolean kernelElement = Namespaces.isKernelNamespace(super.getNamespaceURI());
+      int length = super.getAttributeCount();
+      if (attributes.length < length)
+      {
+         attributes = new int[length];
+      }
+      attributeCount = 0;
+      for (int i = 0; i < length; i++)
+      {
+         if (XSI_URI.equals(super.getAttributeNamespace(i)) || (kernelElement && isProfileAttribute(i)))
+         {
+            continue;
+         }
+         attributes[attributeCount++] = i;
+      }
+   }
+
+   private void filterNamespaces()
+   {
+      int length = super.getNamespaceCount();
+      if (namespaces.length < length)
+      {
+         namespaces = new int[length];
+      }
+      namespaceCount = 0;
+      for (int i = 0; i < length; i++)
+      {
+         String uri = super.getNamespaceURI(i);
+         if (Namespaces.isKernelNamespace(uri) || XSI_URI.equals(uri))
+         {
+            continue;
+         }
+         namespaces[namespaceCount++] = i;
+      }
+   }
+
+   private static String filterURI(String uri)
+   {
+      return Namespaces.isKernelNamespace(uri) ? null : uri;
+   }
+
+   @Override
+   public QName getName()
+   {
+      QName name = super.getName();
+      return Namespaces.isKernelNamespace(name.getNamespaceURI()) ? new QName(name.getLocalPart()) : name;
+   }
+
+   @Override
+   public String getNamespaceURI()
+   {
+      return filterURI(super.getNamespaceURI());
+   }
+
+   @Override
+   public String getPrefix()
+   {
+      return Namespaces.isKernelNamespace(super.getNamespaceURI()) ? "" : super.getPrefix();
+   }
+
+   @Override
+   public String getNamespaceURI(String prefix)
+   {
+      return filterURI(super.getNamespaceURI(prefix));
+   }
+
+   @Override
+   public int getAttributeCount()
+   {
+      return attributeCount;
+   }
+
+   @Override
+   public QName getAttributeName(int index)
+   {
+      QName name = super.getAttributeName(attributes[index]);
+      return Namespaces.isKernelNamespace(name.getNamespaceURI()) ? new QName(name.getLocalPart()) : name;
+   }
+
+   @Override
+   public String getAttributeNamespace(int index)
+   {
+      return filterURI(super.getAttributeNamespace(attributes[index]));
+   }
+
+   @Override
+   public String getAttributeLocalName(int index)
+   {
+      return super.getAttributeLocalName(attributes[index]);
+   }
+
+   @Override
+   public String getAttributePrefix(int index)
+   {
+      return Namespaces.isKernelNamespace(super.getAttributeNamespace(attributes[index])) ? "" : super
+         .getAttributePrefix(attributes[index]);
+   }
+
+   @Override
+   public String getAttributeType(int index)
+   {
+      return super.getAttributeType(attributes[index]);
+   }
+
+   @Override
+   public String getAttributeValue(int index)
+   {
+      return super.getAttributeValue(attributes[index]);
+   }
+
+   @Override
+   public boolean isAttributeSpecified(int index)
+   {
+      return super.isAttributeSpecified(attributes[index]);
+   }
+
+   @Override
+   public String getAttributeValue(String namespaceURI, String localName)
+   {
+      for (int i = 0; i < attributeCount; i++)
+      {
+         if (!localName.equals(getAttributeLocalName(i)))
+         {
+            continue;
+         }
+         if (namespaceURI == null)
+         {
+            return getAttributeValue(i);
+         }
+         String uri = getAttributeNamespace(i);
+         if (namespaceURI.equals(uri == null ? "" : uri))
+         {
+            return getAttributeValue(i);
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public int getNamespaceCount()
+   {
+      return namespaceCount;
+   }
+
+   @Override
+   public String getNamespacePrefix(int index)
+   {
+      return super.getNamespacePrefix(namespaces[index]);
+   }
+
+   @Override
+   public String getNamespaceURI(int index)
+   {
+      return super.getNamespaceURI(namespaces[index]);
+   }
+}
@@ -26,6 +26,8 @@ import org.exoplatform.container.AbstractComponentAdapter;
 import org.exoplatform.container.ConcurrentContainer;
 import org.exoplatform.container.ConcurrentContainer.CreationalContextComponentAdapter;
 import org.exoplatform.container.ExoContainer;
+import org.exoplatform.container.StartupProfiler;
+import org.exoplatform.container.StartupProfiler.Phase;
 import org.exoplatform.container.component.ComponentLifecycle;
 import org.exoplatform.container.component.ComponentPlugin;
 import org.exoplatform.container.configuration.ConfigurationManager;
@@ -274,7 +276,9 @@ public class MX4JComponentAdapter<T> extends AbstractComponentAdapter<T> impleme
                final Class<T> implementationClass = getComponentImplementation();
                // Please note that we cannot fully initialize the Object "instance_" before releasing other
                // threads because it could cause StackOverflowError due to recursive calls
+               long begin = StartupProfiler.begin();
                instance = exocontainer.createComponent(implementationClass, params);
+               StartupProfiler.end(exocontainer, implementationClass, Phase.CREATE, null, begin);
                if (instance_ != null)
                {
                   // Avoid instantiating twice the same component in case of a cyclic reference due
@@ -285,6 +289,7 @@ public class MX4JComponentAdapter<T> extends AbstractComponentAdapter<T> impleme
                   return ctx.get();
 
                ctx.push(instance);
+               begin = StartupProfiler.begin();
                boolean isSingleton = MX4JComponentAdapter.this.isSingleton;
                boolean isInitialized = MX4JComponentAdapter.this.isInitialized;
                if (debug)
@@ -323,6 +328,7 @@ public class MX4JComponentAdapter<T> extends AbstractComponentAdapter<T> impleme
                   ComponentLifecycle lc = (ComponentLifecycle)instance;
                   lc.initComponent(exocontainer);
                }
+               StartupProfiler.end(exocontainer, implementationClass, Phase.INIT, null, begin);
                if (!isInitialized)
                {
                   if (isSingleton)
@@ -362,6 +368,7 @@ public class MX4JComponentAdapter<T> extends AbstractComponentAdapter<T> impleme
       for (org.exoplatform.container.xml.ComponentPlugin plugin : plugins)
       {
 
+         long begin = StartupProfiler.begin();
          try
          {
             Class<?> pluginClass = ClassLoading.forName(plugin.getType(), this);
@@ -393,6 +400,7 @@ public class MX4JComponentAdapter<T> extends AbstractComponentAdapter<T> impleme
 
             cplugin.setName(plugin.getName());
             cplugin.setDescription(plugin.getDescription());
+            StartupProfiler.end(container, getComponentImplementation(), Phase.PLUGIN, plugin.getName(), begin);
          }
          catch (Exception ex)
          {
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.spi;
+
+/**
+ * A component factory creates the instances of a given component class and injects the fields and
+ * the methods annotated with {@link javax.inject.Inject} without using the reflection. The container
+ * looks for a factory named like the component class followed by {@link #SUFFIX} in the class loader
+ * of the component class, such factories are generated at build time by the annotation processor
+ * of the module <i>exo.kernel.container.processor</i>. When no factory can be found, or when a
+ * constructor or an injection point is not supported by the factory, the container falls back to a
+ * factory based on method handles, or on the reflection if the members cannot be converted into method
+ * handles.
+ * <p>
+ * The constructors and the injection points are identified by their index in the arrays returned by
+ * {@link #getConstructors()} and {@link #getInjectionPoints()}. A constructor is described by the
+ * comma separated list of the names of its parameter types as returned by {@link Class#getName()},
+ * a field is described by the name of its declaring class followed by <code>#</code> and its name
+ * and a method is described by the name of its declaring class followed by <code>#</code>, its name
+ * and the comma separated list of the names of its parameter types between parentheses, for example
+ * <code>org.acme.Foo#setBar(org.acme.Bar)</code>.
+ *
+ * @param <T> the type of the component
+ * @version $Id$
+ */
+public interface ComponentFactory<T>
+{
+   /**
+    * The suffix of the name of the generated factories
+    */
+   String SUFFIX = "$ComponentFactory";
+
+   /**
+    * Gives the descriptions of the constructors supported by this factory
+    */
+   String[] getConstructors();
+
+   /**
+    * Creates a new instance of the component.
+    *
+    * @param constructor the index of the constructor to call in {@link #getConstructors()}
+    * @param args the arguments of the constructor
+    * @return the new instance
+    * @throws Exception if the constructor failed
+    */
+   T newInstance(int constructor, Object[] args) throws Exception;
+
+   /**
+    * Gives the descriptions of the fields and methods that this factory can inject
+    */
+   String[] getInjectionPoints();
+
+   /**
+    * Injects the given values into a field or a method of the given instance.
+    *
+    * @param instance the instance to inject
+    * @param injectionPoint the index of the field or method in {@link #getInjectionPoints()}
+    * @param args the value of the field or the arguments of the method
+    * @throws Exception if the method failed
+    */
+   void inject(T instance, int injectionPoint, Object[] args) throws Exception;
+}
@@ -23,6 +23,7 @@ import org.exoplatform.services.log.Log;
 import org.jibx.runtime.BindingDirectory;
 import org.jibx.runtime.IBindingFactory;
 import org.jibx.runtime.IMarshallingContext;
+import org.jibx.runtime.JiBXException;
 
 import java.io.IOException;
 import java.io.StringWriter;
@@ -323,6 +324,23 @@ public class Configuration implements Cloneable
     * Dumps the configuration in XML format into the given {@link Writer}
     */
    public void toXML(Writer w)
+   {
+      try
+      {
+         marshall(w);
+      }
+      catch (Exception e)
+      {
+         LOG.warn("Couldn't dump the runtime configuration in XML Format", e);
+      }
+   }
+
+   /**
+    * Marshalls the configuration in XML format into the given {@link Writer}, the resulting
+    * document can be unmarshalled with the binding of the configuration
+    * @throws JiBXException if the configuration could not be marshalled
+    */
+   public void marshall(Writer w) throws JiBXException
    {
       try
       {
@@ -332,10 +350,6 @@ public class Configuration implements Cloneable
          mctx.setIndent(2);
          mctx.marshalDocument(this, "UTF-8", null, w);
       }
-      catch (Exception e)
-      {
-         LOG.warn("Couldn't dump the runtime configuration in XML Format", e);
-      }
       finally
       {
          CURRENT_CONFIG_TO_SERIALIZE.remove();
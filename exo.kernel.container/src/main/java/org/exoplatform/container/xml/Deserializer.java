@@ -45,6 +45,30 @@ public class Deserializer
     * The prefix of the name of all the variables tied to the current portal container
     */
    public static final String PORTAL_CONTAINER_VARIABLE_PREFIX = "portal.container.";
+
+   /**
+    * The map into which the variables resolved by the current thread are recorded if any
+    */
+   private static final ThreadLocal<Map<String, String>> RESOLVED_VARIABLES = new ThreadLocal<Map<String, String>>();
+
+   /**
+    * Records into the given map all the variables that will be resolved by the current thread until
+    * this method is called again with <code>null</code>. The keys are the variables as defined in the
+    * input such as <code>${my.var:default}</code> and the values are the results of their resolution.
+    * @param variables the map into which the variables must be recorded, <code>null</code> to stop
+    * recording
+    */
+   public static void recordVariables(Map<String, String> variables)
+   {
+      if (variables == null)
+      {
+         RESOLVED_VARIABLES.remove();
+      }
+      else
+      {
+         RESOLVED_VARIABLES.set(variables);
+      }
+   }
    
    /**
     * Resolve a string value.
@@ -280,6 +304,12 @@ public class Deserializer
                {
                   value = defaultValue;
                }
+               Map<String, String> variables = RESOLVED_VARIABLES.get();
+               if (variables != null)
+               {
+                  String variable = input.substring(start, i + 1);
+                  variables.put(variable, value == null ? variable : value);
+               }
                if (value != null)
                {
                   properties = true;
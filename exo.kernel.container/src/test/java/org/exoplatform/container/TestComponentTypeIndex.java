@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.container.spi.ComponentAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @version $Id$
+ */
+public class TestComponentTypeIndex extends TestCase
+{
+
+   public void testSnapshots()
+   {
+      ComponentTypeIndex index = new ComponentTypeIndex();
+      List<ComponentAdapter<?>> adapters = new ArrayList<ComponentAdapter<?>>();
+      List<List<ComponentAdapter<Object>>> snapshots = new ArrayList<List<ComponentAdapter<Object>>>();
+      for (int i = 0; i < 100; i++)
+      {
+         ComponentAdapter<?> adapter = new InstanceComponentAdapter<StringBuilder>("k" + i, new StringBuilder());
+         adapters.add(adapter);
+         index.add(adapter);
+         snapshots.add(index.getComponentAdaptersOfType(Object.class));
+      }
+      assertEquals(adapters, index.getComponentAdaptersOfType(CharSequence.class));
+      // The previous lookups are not affected by the next registrations
+      for (int i = 0; i < snapshots.size(); i++)
+      {
+         assertEquals(adapters.subList(0, i + 1), snapshots.get(i));
+      }
+      List<ComponentAdapter<Object>> before = index.getComponentAdaptersOfType(Object.class);
+      index.remove(adapters.get(50));
+      assertEquals(100, before.size());
+      assertEquals(99, index.getComponentAdaptersOfType(Object.class).size());
+      assertFalse(index.getComponentAdaptersOfType(Object.class).contains(adapters.get(50)));
+      ComponentAdapter<?> last = new InstanceComponentAdapter<String>("last", "last");
+      index.add(last);
+      assertEquals(100, before.size());
+      assertSame(last, index.getComponentAdaptersOfType(Object.class).get(99));
+      assertTrue(index.getComponentAdaptersOfType(Integer.class).isEmpty());
+   }
+}
@@ -66,8 +66,10 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -180,6 +182,91 @@ public class TestExoContainer
       container.unregisterComponent("testKey");
    }
 
+   @Test
+   public void testComponentAdaptersOfType() throws Exception
+   {
+      ConcurrentContainer container = new ConcurrentContainer(RootContainer.getInstance(), null);
+      assertTrue(container.getComponentAdaptersOfType(List.class).isEmpty());
+      ComponentAdapter<?> arrayList = container.registerComponentInstance("arrayList", new ArrayList<String>());
+      ComponentAdapter<?> linkedList = container.registerComponentInstance("linkedList", new LinkedList<String>());
+      ComponentAdapter<?> string = container.registerComponentInstance("string", "value");
+
+      List<ComponentAdapter<List>> lists = container.getComponentAdaptersOfType(List.class);
+      assertEquals(2, lists.size());
+      assertSame(arrayList, lists.get(0));
+      assertSame(linkedList, lists.get(1));
+      assertEquals(2, container.getComponentAdaptersOfType(Iterable.class).size());
+      assertEquals(1, container.getComponentAdaptersOfType(RandomAccess.class).size());
+      assertSame(string, container.getComponentAdaptersOfType(CharSequence.class).get(0));
+      assertEquals(3, container.getComponentAdaptersOfType(Object.class).size());
+      assertTrue(container.getComponentAdaptersOfType(Map.class).isEmpty());
+      assertTrue(container.getComponentAdaptersOfType(null).isEmpty());
+      try
+      {
+         lists.clear();
+         fail("An UnsupportedOperationException is expected");
+      }
+      catch (UnsupportedOperationException e)
+      {
+         // ok
+      }
+      assertEquals(2, container.getComponentInstancesOfType(List.class).size());
+
+      container.unregisterComponent("linkedList");
+      lists = container.getComponentAdaptersOfType(List.class);
+      assertEquals(1, lists.size());
+      assertSame(arrayList, lists.get(0));
+      assertSame(arrayList, container.getComponentAdapterOfType(List.class, false));
+      assertEquals(2, container.getComponentAdaptersOfType(Object.class).size());
+   }
+
+   @Test
+   public void testNegativeLookupCache() throws Exception
+   {
+      ExoContainer parent = new ExoContainer();
+      ExoContainer container = new ExoContainer(parent);
+      parent.registerComponentInstance("child", container);
+
+      assertNull(container.getComponentInstanceOfType(CachedComponent.class, false));
+      assertNull(container.getComponentAdapterOfType(CachedComponent.class, false));
+      assertNull(container.getComponentInstance("cached", CachedComponent.class, false));
+      // The negative results must be invalidated by a registration in the parent container
+      CachedComponent component = new CachedComponent();
+      parent.registerComponentInstance(CachedComponent.class, component);
+      assertSame(component, container.getComponentInstanceOfType(CachedComponent.class, false));
+      assertNotNull(container.getComponentAdapterOfType(CachedComponent.class, false));
+      assertNull(container.getComponentInstance("cached", CachedComponent.class, false));
+      // and by a registration in the container itself
+      CachedComponent component2 = new CachedComponent();
+      container.registerComponentInstance("cached", component2);
+      assertSame(component2, container.getComponentInstance("cached", CachedComponent.class, false));
+
+      container.unregisterComponent("cached");
+      assertNull(container.getComponentInstance("cached", CachedComponent.class, false));
+      parent.unregisterComponent(CachedComponent.class);
+      assertNull(container.getComponentInstanceOfType(CachedComponent.class, false));
+      assertNull(container.getComponentAdapterOfType(CachedComponent.class, false));
+   }
+
+   @Test
+   public void testComponentFactory() throws Exception
+   {
+      ExoContainer container = new ExoContainer();
+      DummyClass dummy = new DummyClass();
+      container.registerComponentInstance(DummyClass.class, dummy);
+      container.registerComponentImplementation(ComponentWithFactory.class);
+      ComponentWithFactory component = container.getComponentInstanceOfType(ComponentWithFactory.class);
+      assertNotNull(component);
+      // The constructor and the field are supported by the factory
+      assertTrue(component.createdByFactory);
+      assertSame(dummy, component.dummy);
+      assertTrue(component.injectedByFactory);
+      assertSame(dummy, component.field);
+      // The private field and the method are injected by the fallback
+      assertSame(dummy, component.privateField);
+      assertSame(dummy, component.methodArg);
+   }
+
    @Test
    public void testContainerLifecyclePlugin()
    {
@@ -1300,6 +1387,65 @@ public class TestExoContainer
    {
    }
 
+   public static class ComponentWithFactory
+   {
+      final DummyClass dummy;
+
+      boolean createdByFactory;
+
+      boolean injectedByFactory;
+
+      @Inject
+      DummyClass field;
+
+      @Inject
+      private DummyClass privateField;
+
+      DummyClass methodArg;
+
+      @Inject
+      public ComponentWithFactory(DummyClass dummy)
+      {
+         this.dummy = dummy;
+      }
+
+      @Inject
+      void setMethodArg(DummyClass methodArg)
+      {
+         this.methodArg = methodArg;
+      }
+
+      /**
+       * A factory written the way the annotation processor would generate it, but that only
+       * supports the constructor and one field
+       */
+      public static class ComponentFactory implements org.exoplatform.container.spi.ComponentFactory<ComponentWithFactory>
+      {
+         public String[] getConstructors()
+         {
+            return new String[]{DummyClass.class.getName()};
+         }
+
+         public ComponentWithFactory newInstance(int constructor, Object[] args) throws Exception
+         {
+            ComponentWithFactory component = new ComponentWithFactory((DummyClass)args[0]);
+            component.createdByFactory = true;
+            return component;
+         }
+
+         public String[] getInjectionPoints()
+         {
+            return new String[]{ComponentWithFactory.class.getName() + "#field"};
+         }
+
+         public void inject(ComponentWithFactory instance, int injectionPoint, Object[] args) throws Exception
+         {
+            instance.field = (DummyClass)args[0];
+            instance.injectedByFactory = true;
+         }
+      }
+   }
+
    public static AtomicInteger COUNTER;
 
    public static class C0 implements Startable
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.commons.utils.PropertyManager;
+import org.exoplatform.container.StartupProfiler.ComponentProfile;
+import org.exoplatform.container.StartupProfiler.Phase;
+import org.picocontainer.Startable;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * @version $Id$
+ */
+public class TestStartupProfiler extends TestCase
+{
+
+   private ExoContainer container;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      PropertyManager.setProperty(StartupProfiler.ENABLED_PARAM_NAME, "true");
+      StartupProfiler.reset();
+      container = new ExoContainer();
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      PropertyManager.setProperty(StartupProfiler.ENABLED_PARAM_NAME, "false");
+      PropertyManager.setProperty(StartupProfiler.MAX_EVENTS_PARAM_NAME, "100000");
+      PropertyManager.setProperty(StartupProfiler.OUTPUT_PARAM_NAME, "");
+      StartupProfiler.reset();
+   }
+
+   public void testDisabled()
+   {
+      PropertyManager.setProperty(StartupProfiler.ENABLED_PARAM_NAME, "false");
+      StartupProfiler.reset();
+      assertFalse(StartupProfiler.isRecording());
+      long begin = StartupProfiler.begin();
+      assertEquals(0L, begin);
+      StartupProfiler.end(container, A.class, Phase.CREATE, null, begin);
+      assertTrue(StartupProfiler.getProfiles().isEmpty());
+   }
+
+   public void testProfiles()
+   {
+      assertTrue(StartupProfiler.isRecording());
+      long beginA = StartupProfiler.begin();
+      spin();
+      long beginB = StartupProfiler.begin();
+      spin();
+      StartupProfiler.end(container, B.class, Phase.CREATE, null, beginB);
+      spin();
+      StartupProfiler.end(container, A.class, Phase.CREATE, null, beginA);
+      beginA = StartupProfiler.begin();
+      spin();
+      long beginPlugin = StartupProfiler.begin();
+      spin();
+      StartupProfiler.end(container, A.class, Phase.PLUGIN, "plugin", beginPlugin);
+      StartupProfiler.end(container, A.class, Phase.INIT, null, beginA);
+      beginA = StartupProfiler.begin();
+      spin();
+      StartupProfiler.end(container, A.class, Phase.START, null, beginA);
+
+      List<ComponentProfile> profiles = StartupProfiler.getProfiles();
+      assertEquals(2, profiles.size());
+      ComponentProfile a = profiles.get(0);
+      ComponentProfile b = profiles.get(1);
+      assertEquals(A.class.getName(), a.getComponent());
+      assertEquals(B.class.getName(), b.getComponent());
+      assertEquals(Thread.currentThread().getName(), a.getThread());
+      assertTrue(a.getTime(Phase.CREATE) > 0);
+      assertTrue(a.getTime(Phase.PLUGIN) > 0);
+      assertTrue(a.getTime(Phase.INIT) > 0);
+      assertTrue(a.getTime(Phase.START) > 0);
+      // The creation of B is the time spent by A waiting for its dependency
+      assertEquals(b.getTime(Phase.CREATE), a.getTime(Phase.WAIT));
+      assertEquals(0L, b.getTime(Phase.WAIT));
+      assertEquals(b.getTime(Phase.CREATE), b.getTotalTime());
+      assertEquals(a.getTime(Phase.CREATE) + a.getTime(Phase.PLUGIN) + a.getTime(Phase.INIT) + a.getTime(Phase.START),
+         a.getTotalTime());
+   }
+
+   public void testExport() throws Exception
+   {
+      long begin = StartupProfiler.begin();
+      StartupProfiler.end(container, A.class, Phase.CREATE, null, begin);
+      begin = StartupProfiler.begin();
+      StartupProfiler.end(container, A.class, Phase.PLUGIN, "my \"plugin\"\n", begin);
+      StringWriter writer = new StringWriter();
+      StartupProfiler.export(writer);
+      String timeline = writer.toString();
+      assertTrue(timeline.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+      assertTrue(timeline.contains("\"ph\":\"M\""));
+      assertTrue(timeline.contains("\"name\":\"" + A.class.getName() + "\",\"cat\":\"create\",\"ph\":\"X\""));
+      assertTrue(timeline.contains("\"cat\":\"plugin\""));
+      assertTrue(timeline.contains("\"args\":{\"detail\":\"my \\\"plugin\\\"\\n\"}"));
+      assertTrue(timeline.trim().endsWith("]}"));
+   }
+
+   public void testMaxEvents()
+   {
+      PropertyManager.setProperty(StartupProfiler.MAX_EVENTS_PARAM_NAME, "2");
+      StartupProfiler.reset();
+      for (int i = 0; i < 3; i++)
+      {
+         long begin = StartupProfiler.begin();
+         StartupProfiler.end(container, i == 0 ? A.class : B.class, Phase.CREATE, null, begin);
+      }
+      assertFalse(StartupProfiler.isRecording());
+      List<ComponentProfile> profiles = StartupProfiler.getProfiles();
+      assertEquals(2, profiles.size());
+   }
+
+   public void testOnStartupComplete() throws Exception
+   {
+      File file = File.createTempFile("startup", ".json");
+      file.deleteOnExit();
+      PropertyManager.setProperty(StartupProfiler.OUTPUT_PARAM_NAME, file.getAbsolutePath());
+      long begin = StartupProfiler.begin();
+      StartupProfiler.end(container, A.class, Phase.CREATE, null, begin);
+      StartupProfiler.onStartupComplete(container);
+      assertFalse(StartupProfiler.isRecording());
+      assertTrue(file.length() > 0);
+      begin = StartupProfiler.begin();
+      assertEquals(0L, begin);
+      assertEquals(1, StartupProfiler.getProfiles().size());
+      // The spans have been released but the timeline is still available
+      StringWriter writer = new StringWriter();
+      StartupProfiler.export(writer);
+      assertTrue(writer.toString().contains(A.class.getName()));
+      StartupProfiler.reset();
+      writer = new StringWriter();
+      StartupProfiler.export(writer);
+      assertFalse(writer.toString().contains(A.class.getName()));
+   }
+
+   public void testContainer()
+   {
+      container.registerComponentImplementation(C.class);
+      container.start();
+      try
+      {
+         ComponentProfile c = null;
+         for (ComponentProfile profile : StartupProfiler.getProfiles())
+         {
+            if (profile.getComponent().equals(C.class.getName()))
+            {
+               assertNull(c);
+               c = profile;
+            }
+         }
+         assertNotNull(c);
+         assertFalse("unknown".equals(c.getContainer()));
+         assertTrue(c.getTime(Phase.CREATE) > 0);
+         assertTrue(c.getTime(Phase.START) > 0);
+      }
+      finally
+      {
+         container.stop();
+      }
+   }
+
+   private static void spin()
+   {
+      long start = System.nanoTime();
+      while (System.nanoTime() - start < 1000000L)
+      {
+         Thread.yield();
+      }
+   }
+
+   public static class A
+   {
+   }
+
+   public static class B
+   {
+   }
+
+   public static class C implements Startable
+   {
+      public C()
+      {
+         spin();
+      }
+
+      public void start()
+      {
+         spin();
+      }
+
+      public void stop()
+      {
+      }
+   }
+}
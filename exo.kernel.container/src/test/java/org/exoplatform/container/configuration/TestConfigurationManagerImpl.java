@@ -18,6 +18,7 @@ package org.exoplatform.container.configuration;
 
 import junit.framework.TestCase;
 
+import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.container.ar.Archive;
 import org.exoplatform.container.xml.Configuration;
 
@@ -26,8 +27,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.EventListener;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -301,6 +304,41 @@ public class TestConfigurationManagerImpl extends TestCase
       assertTrue(conf.getComponent("C").getDocumentURL().getFile().endsWith("config-manager-configuration-c.xml"));
    }
 
+   public void testParallelImport() throws Exception
+   {
+      PropertyManager.setProperty(ConfigurationManagerImpl.THREAD_POOL_SIZE_PARAM_NAME, "4");
+      try
+      {
+         // c import b and b import a
+         ConfigurationManager cm = new ConfigurationManagerImpl();
+         cm.addConfiguration("classpath:/org/exoplatform/container/configuration/config-manager-configuration-c.xml");
+         Configuration conf = cm.getConfiguration();
+         assertNotNull(conf.getComponent("A"));
+         assertTrue(conf.getComponent("A").getDocumentURL().getFile().endsWith("config-manager-configuration-a.xml"));
+         assertNotNull(conf.getComponent("B"));
+         assertTrue(conf.getComponent("B").getDocumentURL().getFile().endsWith("config-manager-configuration-b.xml"));
+         assertNotNull(conf.getComponent("C"));
+         assertTrue(conf.getComponent("C").getDocumentURL().getFile().endsWith("config-manager-configuration-c.xml"));
+
+         // several configuration files at once, one of them cannot be loaded
+         cm = new ConfigurationManagerImpl();
+         List<URL> urls = new ArrayList<URL>();
+         urls.add(cm.getURL("classpath:/org/exoplatform/container/configuration/config-manager-configuration-a.xml"));
+         urls.add(new URL("file:///fake-path/configuration.xml"));
+         urls.add(cm.getURL("classpath:/org/exoplatform/container/configuration/config-manager-configuration-c.xml"));
+         cm.addConfiguration(urls);
+         conf = cm.getConfiguration();
+         assertNotNull(conf.getComponent("A"));
+         assertNotNull(conf.getComponent("B"));
+         assertNotNull(conf.getComponent("C"));
+         assertEquals(3, conf.getComponents().size());
+      }
+      finally
+      {
+         PropertyManager.setProperty(ConfigurationManagerImpl.THREAD_POOL_SIZE_PARAM_NAME, "0");
+      }
+   }
+
    private void checkURL(URL url) throws Exception
    {
       checkURL(url, false);
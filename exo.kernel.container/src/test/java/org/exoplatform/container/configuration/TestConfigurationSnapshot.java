@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.configuration;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.container.xml.Configuration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * @version $Id$
+ */
+public class TestConfigurationSnapshot extends TestCase
+{
+   private File dir;
+
+   private String oldDir;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      super.setUp();
+      dir = File.createTempFile("snapshot", "");
+      dir.delete();
+      dir.mkdirs();
+      oldDir = System.getProperty(ConfigurationSnapshot.SNAPSHOT_DIR);
+      System.setProperty(ConfigurationSnapshot.SNAPSHOT_DIR, dir.getAbsolutePath());
+      System.setProperty("test.snapshot.value", "a");
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      if (oldDir == null)
+      {
+         System.clearProperty(ConfigurationSnapshot.SNAPSHOT_DIR);
+      }
+      else
+      {
+         System.setProperty(ConfigurationSnapshot.SNAPSHOT_DIR, oldDir);
+      }
+      System.clearProperty("test.snapshot.value");
+      File[] files = dir.listFiles();
+      if (files != null)
+      {
+         for (File file : files)
+         {
+            file.delete();
+         }
+      }
+      dir.delete();
+      super.tearDown();
+   }
+
+   public void testSnapshot() throws Exception
+   {
+      File file = new File(dir, "configuration.xml");
+      File snapshot = new File(dir, "test.snapshot");
+      write(file, "A");
+      Configuration conf = load(file);
+      assertFalse(isLoadedFromSnapshot(conf, "A"));
+      assertEquals("a", getValue(conf, "A"));
+      assertTrue(snapshot.exists());
+
+      // Nothing has changed
+      conf = load(file);
+      assertTrue(isLoadedFromSnapshot(conf, "A"));
+      assertEquals("a", getValue(conf, "A"));
+
+      // A variable has changed
+      System.setProperty("test.snapshot.value", "b");
+      conf = load(file);
+      assertFalse(isLoadedFromSnapshot(conf, "A"));
+      assertEquals("b", getValue(conf, "A"));
+      conf = load(file);
+      assertTrue(isLoadedFromSnapshot(conf, "A"));
+      assertEquals("b", getValue(conf, "A"));
+
+      // The configuration file has changed
+      write(file, "AB");
+      conf = load(file);
+      assertNull(conf.getComponent("A"));
+      assertFalse(isLoadedFromSnapshot(conf, "AB"));
+      conf = load(file);
+      assertTrue(isLoadedFromSnapshot(conf, "AB"));
+
+      // The snapshot is corrupted
+      RandomAccessFile raf = new RandomAccessFile(snapshot, "rw");
+      try
+      {
+         raf.seek(raf.length() / 2);
+         int b = raf.read();
+         raf.seek(raf.length() / 2);
+         raf.write(b + 1);
+      }
+      finally
+      {
+         raf.close();
+      }
+      conf = load(file);
+      assertFalse(isLoadedFromSnapshot(conf, "AB"));
+      assertEquals("b", getValue(conf, "AB"));
+
+      // The snapshots are disabled
+      System.clearProperty(ConfigurationSnapshot.SNAPSHOT_DIR);
+      snapshot.delete();
+      conf = load(file);
+      assertFalse(isLoadedFromSnapshot(conf, "AB"));
+      assertFalse(snapshot.exists());
+   }
+
+   private static Configuration load(File file) throws Exception
+   {
+      ConfigurationManagerImpl cm = new ConfigurationManagerImpl();
+      cm.enableSnapshot("test");
+      cm.addConfiguration(file.toURI().toURL());
+      cm.processRemoveConfiguration();
+      return cm.getConfiguration();
+   }
+
+   private static boolean isLoadedFromSnapshot(Configuration conf, String type)
+   {
+      return conf.getComponent(type).getDocumentURL().getFile().endsWith("test.snapshot");
+   }
+
+   private static String getValue(Configuration conf, String type)
+   {
+      return conf.getComponent(type).getInitParams().getValueParam("value").getValue();
+   }
+
+   private static void write(File file, String type) throws Exception
+   {
+      OutputStream out = new FileOutputStream(file);
+      try
+      {
+         out.write(("<configuration><component><type>" + type + "</type><init-params><value-param>"
+            + "<name>value</name><value>${test.snapshot.value}</value></value-param></init-params></component>"
+            + "</configuration>").getBytes("UTF-8"));
+      }
+      finally
+      {
+         out.close();
+      }
+   }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.container.configuration;
+
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * @version $Id$
+ */
+public class TestProfileStreamFilter extends TestCase
+{
+   private static final String CONFIGURATION =
+      "<configuration xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+         + " xsi:schemaLocation=\"" + Namespaces.KERNEL_1_2_URI + " " + Namespaces.KERNEL_1_2_URI + "\""
+         + " xmlns=\"" + Namespaces.KERNEL_1_2_URI + "\" xmlns:foo=\"urn:foo\">"
+         + "<component><key profiles=\"a\">a</key><key profiles=\"b, c\">bc</key><type>t</type></component>"
+         + "<component profiles=\"b\"><key>b</key><nested><key>b2</key></nested></component>"
+         + "<foo:bar profiles=\"a\" foo:attr=\"v\"/>"
+         + "<import profiles=\"c\" foo:attr=\"v\">i</import>"
+         + "</configuration>";
+
+   public void testNoProfile() throws Exception
+   {
+      assertEquals(
+         "<configuration>,<component>,<type>,t,</type>,</component>,<{urn:foo}bar profiles=a {urn:foo}attr=v>,"
+            + "</{urn:foo}bar>,</configuration>", read(Collections.<String> emptySet()));
+   }
+
+   public void testProfiles() throws Exception
+   {
+      Set<String> profiles = new HashSet<String>();
+      profiles.add("a");
+      profiles.add("c");
+      assertEquals("<configuration>,<component>,<key>,a,</key>,<key>,bc,</key>,<type>,t,</type>,</component>,"
+         + "<{urn:foo}bar profiles=a {urn:foo}attr=v>,</{urn:foo}bar>,<import {urn:foo}attr=v>,i,</import>,</configuration>",
+         read(profiles));
+      profiles.clear();
+      profiles.add("b");
+      assertEquals("<configuration>,<component>,<key>,bc,</key>,<type>,t,</type>,</component>,"
+         + "<component>,<key>,b,</key>,<nested>,<key>,b2,</key>,</nested>,</component>,"
+         + "<{urn:foo}bar profiles=a {urn:foo}attr=v>,</{urn:foo}bar>,</configuration>", read(profiles));
+   }
+
+   public void testNamespaces() throws Exception
+   {
+      XMLStreamReader reader =
+         new ProfileStreamFilter(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(CONFIGURATION)),
+            Collections.<String> emptySet());
+      assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+      assertNull(reader.getNamespaceURI());
+      assertEquals("", reader.getPrefix());
+      assertEquals(0, reader.getAttributeCount());
+      assertEquals(1, reader.getNamespaceCount());
+      assertEquals("foo", reader.getNamespacePrefix(0));
+      assertEquals("urn:foo", reader.getNamespaceURI(0));
+      assertNull(reader.getNamespaceURI(""));
+      assertEquals("urn:foo", reader.getNamespaceURI("foo"));
+      reader.close();
+   }
+
+   private static String read(Set<String> profiles) throws Exception
+   {
+      XMLStreamReader reader =
+         new ProfileStreamFilter(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(CONFIGURATION)),
+            profiles);
+      List<String> events = new ArrayList<String>();
+      while (reader.hasNext())
+      {
+         int event = reader.next();
+         if (event == XMLStreamConstants.START_ELEMENT)
+         {
+            StringBuilder sb = new StringBuilder("<").append(reader.getName());
+            for (int i = 0; i < reader.getAttributeCount(); i++)
+            {
+               sb.append(' ').append(reader.getAttributeName(i)).append('=').append(reader.getAttributeValue(i));
+            }
+            events.add(sb.append('>').toString());
+         }
+         else if (event == XMLStreamConstants.END_ELEMENT)
+         {
+            events.add("</" + reader.getName() + ">");
+         }
+         else if (event == XMLStreamConstants.CHARACTERS)
+         {
+            events.add(reader.getText());
+         }
+      }
+      reader.close();
+      StringBuilder sb = new StringBuilder();
+      for (String event : events)
+      {
+         if (sb.length() > 0)
+         {
+            sb.append(',');
+         }
+         sb.append(event);
+      }
+      return sb.toString();
+   }
+}